@@ -3,6 +3,7 @@ import {LogsDto} from "./logs.dto";
 export interface GetLogsResponse {
   result: LogsDto[]
   returnMessage: string
+  nextCursor?: string
 }
 
 export interface GetLogsErrorResponse {
@@ -10,6 +10,8 @@ import java.util.Locale;
 public class AddLogRequestDto {
     public String message;
     public String severity;
+    // acting user, only read by the batch ingestion (the single log carries it in LogRequestDto)
+    public String user;
 
     public String getSeverity() {
         return this.severity.toUpperCase(Locale.ROOT);
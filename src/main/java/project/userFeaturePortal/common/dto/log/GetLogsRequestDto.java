@@ -2,17 +2,25 @@ package project.userFeaturePortal.common.dto.log;
 
 import lombok.Builder;
 import lombok.Data;
+import project.userFeaturePortal.common.enums.LogSearchMode;
+import project.userFeaturePortal.common.enums.LogTemplate;
+import project.userFeaturePortal.common.enums.SeverityEnum;
 
 import java.time.LocalDateTime;
 
 @Data
 @Builder
 public class GetLogsRequestDto {
-    Integer id;
+    Long id;
     String severity;
+    SeverityEnum minSeverity;
     String message;
     LocalDateTime startDateTime;
     LocalDateTime endDateTime;
     String user;
+    Integer limit;
+    String cursor;
+    LogSearchMode searchMode;
+    LogTemplate template;
 
 }
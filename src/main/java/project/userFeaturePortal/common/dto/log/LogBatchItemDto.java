@@ -0,0 +1,16 @@
+package project.userFeaturePortal.common.dto.log;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class LogBatchItemDto {
+  // position of the log in the request
+  int index;
+  // id of the saved log, null if the log was rejected
+  Long id;
+  // HTTP status the log would have got as single request
+  int status;
+  String message;
+}
@@ -0,0 +1,14 @@
+package project.userFeaturePortal.common.dto.log;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class LogBatchResponseDto {
+  int created;
+  int rejected;
+  List<LogBatchItemDto> items;
+}
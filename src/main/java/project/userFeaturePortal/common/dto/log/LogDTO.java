@@ -1,6 +1,9 @@
 package project.userFeaturePortal.common.dto.log;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
@@ -8,10 +11,21 @@ import java.time.LocalDateTime;
  * @author - EugenFriesen 12.02.2021
  */
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class LogDTO {
-  Integer id;
+  Long id;
   String severity;
   String message;
   LocalDateTime timestamp;
   String user;
+  // only set for a log coalesced from a burst of identical logs
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  Integer repeatCount;
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  LocalDateTime lastTimestamp;
+
+  public LogDTO(Long id, String severity, String message, LocalDateTime timestamp, String user) {
+    this(id, severity, message, timestamp, user, null, null);
+  }
 }
@@ -0,0 +1,26 @@
+package project.userFeaturePortal.common.dto.log;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import project.userFeaturePortal.common.enums.LogExportFormat;
+import project.userFeaturePortal.common.enums.LogExportStatus;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class LogExportDto {
+  String id;
+  LogExportStatus status;
+  LogExportFormat format;
+  // logs written so far and the size of the compressed file
+  long exportedLogs;
+  long fileSize;
+  LocalDateTime createdAt;
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  LocalDateTime finishedAt;
+  // only set for a failed export
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  String error;
+}
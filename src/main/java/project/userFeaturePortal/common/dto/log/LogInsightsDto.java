@@ -0,0 +1,25 @@
+package project.userFeaturePortal.common.dto.log;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class LogInsightsDto {
+  // start of the first and end of the last bucket of the insights
+  LocalDateTime start;
+  LocalDateTime end;
+  long logs;
+  List<LogMessageCountDto> topMessages;
+  // estimated number of distinct users per severity
+  Map<String, Long> distinctUsers;
+  // message counts are never too low and too high by at most messageCountError with the probability messageCountConfidence
+  long messageCountError;
+  double messageCountConfidence;
+  // relative standard error of the distinct users
+  double distinctUsersError;
+}
@@ -0,0 +1,11 @@
+package project.userFeaturePortal.common.dto.log;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class LogMessageCountDto {
+  String message;
+  long count;
+}
@@ -0,0 +1,13 @@
+package project.userFeaturePortal.common.dto.log;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+public class LogPartitionDto {
+  LocalDate day;
+  long logs;
+}
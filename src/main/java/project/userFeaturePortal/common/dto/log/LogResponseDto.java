@@ -1,5 +1,6 @@
 package project.userFeaturePortal.common.dto.log;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -15,4 +16,12 @@ public class LogResponseDto {
 
   List<LogDTO> result;
   String returnMessage;
+
+  // only present if more logs are available than fit on the page
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  String nextCursor;
+
+  public LogResponseDto(List<LogDTO> result, String returnMessage) {
+    this(result, returnMessage, null);
+  }
 }
@@ -0,0 +1,14 @@
+package project.userFeaturePortal.common.dto.log;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class LogStatsDto {
+  LocalDateTime start;
+  String severity;
+  long count;
+}
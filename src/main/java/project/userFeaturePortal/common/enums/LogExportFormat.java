@@ -0,0 +1,18 @@
+package project.userFeaturePortal.common.enums;
+
+public enum LogExportFormat {
+  // one JSON document per line, like the NDJSON stream of GET /logs
+  NDJSON("ndjson"),
+  // header line and one line per log, fields quoted if needed
+  CSV("csv");
+
+  private final String extension;
+
+  LogExportFormat(String extension) {
+    this.extension = extension;
+  }
+
+  public String getExtension() {
+    return extension;
+  }
+}
@@ -0,0 +1,8 @@
+package project.userFeaturePortal.common.enums;
+
+public enum LogExportStatus {
+  QUEUED,
+  RUNNING,
+  DONE,
+  FAILED
+}
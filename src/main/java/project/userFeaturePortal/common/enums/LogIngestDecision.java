@@ -0,0 +1,11 @@
+package project.userFeaturePortal.common.enums;
+
+/** What happens to an incoming log, decided by the ingest filter before it is saved. */
+public enum LogIngestDecision {
+  // saved as its own log
+  STORE,
+  // identical to a log saved shortly before, only the repeat count of that log is raised
+  COALESCED,
+  // dropped by the sampling of low severities under high load
+  SAMPLED_OUT
+}
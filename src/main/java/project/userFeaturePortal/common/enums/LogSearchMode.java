@@ -0,0 +1,8 @@
+package project.userFeaturePortal.common.enums;
+
+public enum LogSearchMode {
+  // message filter is a substring of the log message
+  SUBSTRING,
+  // every whitespace separated term of the message filter occurs in the log message, best matches first
+  ALL_TERMS
+}
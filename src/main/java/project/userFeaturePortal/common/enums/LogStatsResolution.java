@@ -0,0 +1,7 @@
+package project.userFeaturePortal.common.enums;
+
+public enum LogStatsResolution {
+  MINUTE,
+  HOUR,
+  DAY
+}
@@ -0,0 +1,8 @@
+package project.userFeaturePortal.common.enums;
+
+public enum LogStoreBackend {
+  // the log table of the database
+  TABLE,
+  // append-only memory-mapped segment files, see LogSegmentStore
+  SEGMENTS
+}
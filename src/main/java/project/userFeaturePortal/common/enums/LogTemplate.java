@@ -0,0 +1,99 @@
+package project.userFeaturePortal.common.enums;
+
+import project.userFeaturePortal.common.message.InfoMessages;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Dictionary of the message templates a log message can be interned as. An interned log stores the
+ * ordinal of its template and the arguments of the template instead of the full message.
+ */
+public enum LogTemplate {
+  // stored by ordinal, so new templates have to be appended
+  USER_DELETED_ID(InfoMessages.USER_DELETED_ID),
+  USER_DELETED_NAME(InfoMessages.USER_DELETED_NAME),
+  ALL_USERS_DELETED(InfoMessages.ALL_USERS_DELETED),
+  USER_CREATED(InfoMessages.USER_CREATED),
+  USER_UPDATED(InfoMessages.USER_UPDATED),
+  MESSAGE_SAVED(InfoMessages.MESSAGE_SAVED),
+  BATCH_SAVED(InfoMessages.BATCH_SAVED),
+  ENTRY_DELETED_ID(InfoMessages.ENTRY_DELETED_ID),
+  ENTRIES_DELETED_IDS(InfoMessages.ENTRIES_DELETED_IDS),
+  ENTRIES_DELETED_COUNT(InfoMessages.ENTRIES_DELETED_COUNT),
+  ALL_LOGS_DELETED(InfoMessages.ALL_LOGS_DELETED),
+  PARTITIONS_DROPPED(InfoMessages.PARTITIONS_DROPPED),
+  KATZE_TO_HUND(InfoMessages.KATZE_TO_HUND),
+  BOOK_CREATED(InfoMessages.BOOK_CREATED),
+  BOOK_UPDATED(InfoMessages.BOOK_UPDATED),
+  BOOK_DELETED_ID(InfoMessages.BOOK_DELETED_ID),
+  BOOK_DELETED_TITLE(InfoMessages.BOOK_DELETED_TITLE),
+  NO_BOOKS_FOUND(InfoMessages.NO_BOOKS_FOUND),
+  ALL_BOOKS_DELETED(InfoMessages.ALL_BOOKS_DELETED),
+  USER_WITH_BOOK(InfoMessages.USER_WITH_BOOK),
+  BOOK_BY_USER(InfoMessages.BOOK_BY_USER),
+  FAV_BOOK_DELETED(InfoMessages.FAV_BOOK_DELETED);
+
+  // the arguments are stored in columns of their own
+  public static final int MAX_ARGUMENTS = 2;
+
+  private static final String PLACEHOLDER = "%s";
+
+  private final String template;
+  private final List<String> parts;
+  private final Pattern pattern;
+
+  LogTemplate(String template) {
+    this.template = template;
+    // the text before, between and after the placeholders
+    this.parts = Arrays.asList(template.split(Pattern.quote(PLACEHOLDER), -1));
+    if (parts.size() - 1 > MAX_ARGUMENTS) {
+      throw new IllegalArgumentException("Template has more than " + MAX_ARGUMENTS + " arguments: " + template);
+    }
+    this.pattern = Pattern.compile(
+        parts.stream().map(Pattern::quote).collect(Collectors.joining("(.*)")), Pattern.DOTALL);
+  }
+
+  public String getTemplate() {
+    return template;
+  }
+
+  public List<String> getParts() {
+    return parts;
+  }
+
+  public int getArguments() {
+    return parts.size() - 1;
+  }
+
+  /** The arguments of the message if it is an expansion of this template, otherwise null. */
+  public String[] match(String message) {
+    Matcher matcher = pattern.matcher(message);
+    if (!matcher.matches()) {
+      return null;
+    }
+    String[] arguments = new String[getArguments()];
+    for (int i = 0; i < arguments.length; i++) {
+      arguments[i] = matcher.group(i + 1);
+    }
+    return arguments;
+  }
+
+  /** The message of a log row, expanded from template ordinal and arguments if it is interned. */
+  public static String messageOf(String message, Integer template, String argument1, String argument2) {
+    return template == null ? message : values()[template].expand(argument1, argument2);
+  }
+
+  /** The message of the template with the arguments, missing arguments are left empty. */
+  public String expand(String... arguments) {
+    StringBuilder message = new StringBuilder(parts.get(0));
+    for (int i = 1; i < parts.size(); i++) {
+      String argument = i <= arguments.length ? arguments[i - 1] : null;
+      message.append(argument == null ? "" : argument).append(parts.get(i));
+    }
+    return message.toString();
+  }
+}
@@ -0,0 +1,12 @@
+package project.userFeaturePortal.common.enums;
+
+public enum MessageRewriteMatch {
+  // the pattern is replaced wherever it occurs in the message
+  ANYWHERE,
+  // the pattern is only replaced where it is not part of a longer word
+  WORD,
+  // the pattern is only replaced if it is the whole message
+  MESSAGE,
+  // the pattern is a regular expression, the replacement may refer to its groups
+  REGEX
+}
@@ -1,13 +1,27 @@
 package project.userFeaturePortal.common.enums;
 
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 /**
  * @author - EugenFriesen 13.02.2021
  */
 public enum SeverityEnum {
+  // stored by ordinal, so new severities have to be appended in ascending order
   TRACE,
   DEBUG,
   INFO,
   WARNING,
   ERROR,
-  FATAL
+  FATAL;
+
+  private static final Map<String, SeverityEnum> BY_NAME =
+      Arrays.stream(values()).collect(Collectors.toMap(Enum::name, Function.identity()));
+
+  /** The severity with the name or null if there is none. */
+  public static SeverityEnum fromName(String name) {
+    return name == null ? null : BY_NAME.get(name);
+  }
 }
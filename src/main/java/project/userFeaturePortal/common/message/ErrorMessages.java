@@ -29,4 +29,9 @@ public class ErrorMessages {
     public static final String CANNOT_DELETE_USER = "User cannot be deleted.";
     public static final String USER_NOT_ALLOWED = "User is not allowed to execute this operation.";
     public static final String BOOK_EXISTS = "Book with the title %s already exists.";
+    public static final String INVALID_CURSOR = "Cursor %s is invalid. Use the nextCursor of a previous page.";
+    public static final String TOO_MANY_SUBSCRIBERS = "The live log tail already has %s subscribers. Please try again later.";
+    public static final String LOG_EXPORT_NOT_FOUND = "Log export %s not found.";
+    public static final String LOG_EXPORT_NOT_READY = "Log export %s is %s, it can be downloaded once it is DONE.";
+    public static final String LOGS_NOT_DELETABLE = "The logs of the %s backend are append-only, only the partitions of whole days can be dropped.";
 }
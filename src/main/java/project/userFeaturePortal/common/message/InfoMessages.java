@@ -11,8 +11,14 @@ public class InfoMessages {
   public static final String ALL_USERS_DELETED = "All users were deleted from database!";
   public static final String USER_CREATED = "User %s was created.";
   public static final String MESSAGE_SAVED = "Message \"%s\" saved as %s!";
+  public static final String MESSAGE_COALESCED = "Message \"%s\" counted as repetition of an identical %s log!";
+  public static final String MESSAGE_SAMPLED_OUT = "Message \"%s\" not saved, %s logs are sampled at the moment!";
+  public static final String BATCH_SAVED = "%s of %s logs of the batch were saved.";
   public static final String ENTRY_DELETED_ID = "Entry with the ID %s was deleted from database.";
+  public static final String ENTRIES_DELETED_IDS = "Entries with the ID(s) %s were deleted from database.";
+  public static final String ENTRIES_DELETED_COUNT = "%s entries were deleted from database, among them the ID(s) %s.";
   public static final String ALL_LOGS_DELETED = "All logs were deleted from database!";
+  public static final String PARTITIONS_DROPPED = "%s logs of the partitions before %s were deleted from database.";
   public static final String KATZE_TO_HUND = "Katze was translated to Hund!";
   public static final String BOOK_CREATED = "Book %s was created.";
   public static final String BOOK_DELETED_ID = "Book with the ID %s was deleted.";
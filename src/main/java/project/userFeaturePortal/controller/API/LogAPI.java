@@ -5,19 +5,43 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import project.userFeaturePortal.common.dto.log.AddLogRequestDto;
+import project.userFeaturePortal.common.dto.log.LogBatchResponseDto;
 import project.userFeaturePortal.common.dto.log.LogDTO;
+import project.userFeaturePortal.common.dto.log.LogExportDto;
+import project.userFeaturePortal.common.dto.log.LogInsightsDto;
+import project.userFeaturePortal.common.dto.log.LogPartitionDto;
 import project.userFeaturePortal.common.dto.log.LogRequestDto;
 import project.userFeaturePortal.common.dto.log.LogResponseDto;
+import project.userFeaturePortal.common.dto.log.LogStatsDto;
+import project.userFeaturePortal.common.enums.LogExportFormat;
+import project.userFeaturePortal.common.enums.LogSearchMode;
+import project.userFeaturePortal.common.enums.LogStatsResolution;
+import project.userFeaturePortal.common.enums.SeverityEnum;
+import project.userFeaturePortal.common.enums.LogTemplate;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
 public interface LogAPI {
     @GetMapping("/logs")
     @Operation(
-            summary = "Get Logs filtered by severity and/or message and/or date or nothing",
+            summary = "Get Logs filtered by severity and/or message and/or date or nothing. "
+                    + "Logs are sorted by timestamp and returned in pages of at most limit entries, "
+                    + "pass the nextCursor of a response as cursor to get the next page. "
+                    + "With searchMode ALL_TERMS the logs containing every term of message are returned, "
+                    + "best matches first and without nextCursor. "
+                    + "With template, e.g. USER_DELETED_ID, only the logs stored as that message template are returned. "
+                    + "With minSeverity, e.g. WARNING, only the logs of that severity or a higher one are returned",
             responses = {
                     @ApiResponse(
                             description = "Get logs succeeded",
@@ -28,15 +52,171 @@ public interface LogAPI {
                                     schema = @Schema(
                                             example = "{\"result\": [{\"id\":1,\"severity\":\"INFO\",\"message\":\"Test\",\"timestamp\":\"2000-12-12T12:12:12\",\"user\":\"Hans\"}]," +
                                                     "\"returnMessage\":null}",
-                                            allOf = LogResponseDto.class)))
+                                            allOf = LogResponseDto.class))),
+                    @ApiResponse(
+                            description = "Cursor is invalid",
+                            responseCode = "400",
+                            content =
+                            @Content(
+                                    mediaType = "text/plain",
+                                    schema = @Schema(example = "Cursor abc is invalid. Use the nextCursor of a previous page.")))
             })
     ResponseEntity<LogResponseDto> getLogs(
             @RequestParam(required = false) final String severity,
+            @RequestParam(required = false) final SeverityEnum minSeverity,
+            @RequestParam(required = false) final String message,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd-HH-mm-ss") final LocalDateTime startDateTime,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd-HH-mm-ss") final LocalDateTime endDateTime,
+            @RequestParam(required = false) final String user,
+            @RequestParam(required = false) final Integer limit,
+            @RequestParam(required = false) final String cursor,
+            @RequestParam(required = false) final LogSearchMode searchMode,
+            @RequestParam(required = false) final LogTemplate template);
+
+    @GetMapping(value = "/logs", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+            summary = "Stream all logs matching the filter as newline delimited JSON (Accept: application/x-ndjson). "
+                    + "Logs are written while they are read from the database, without a page limit",
+            responses = {
+                    @ApiResponse(
+                            description = "Streaming logs succeeded",
+                            responseCode = "200",
+                            content =
+                            @Content(
+                                    mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                                    schema = @Schema(
+                                            example = "{\"id\":1,\"severity\":\"INFO\",\"message\":\"Test\",\"timestamp\":\"2000-12-12T12:12:12\",\"user\":\"Hans\"}\n" +
+                                                    "{\"id\":2,\"severity\":\"WARNING\",\"message\":\"Test\",\"timestamp\":\"2000-12-12T12:12:13\",\"user\":\"Hans\"}",
+                                            allOf = LogDTO.class)))
+            })
+    ResponseEntity<StreamingResponseBody> streamLogs(
+            @RequestParam(required = false) final String severity,
+            @RequestParam(required = false) final SeverityEnum minSeverity,
+            @RequestParam(required = false) final String message,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd-HH-mm-ss") final LocalDateTime startDateTime,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd-HH-mm-ss") final LocalDateTime endDateTime,
+            @RequestParam(required = false) final String user,
+            @RequestParam(required = false) final Integer limit,
+            @RequestParam(required = false) final String cursor);
+
+    @GetMapping(value = "/logs/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "Live tail of the logs as Server-Sent Events. Every log added from now on which matches the "
+                    + "filter is pushed as \"log\" event. If the subscriber cannot keep up, its oldest logs are dropped "
+                    + "and a \"dropped\" event tells how many",
+            responses = {
+                    @ApiResponse(
+                            description = "Subscribing succeeded",
+                            responseCode = "200",
+                            content =
+                            @Content(
+                                    mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+                                    schema = @Schema(
+                                            example = "id:33\nevent:log\ndata:{\"id\":33,\"severity\":\"INFO\",\"message\":\"Test\",\"timestamp\":\"2000-12-12T12:12:12\",\"user\":\"Hans\"}\n\n"))),
+                    @ApiResponse(
+                            description = "Too many subscribers",
+                            responseCode = "503",
+                            content =
+                            @Content(
+                                    mediaType = "text/plain",
+                                    schema = @Schema(example = "The live log tail already has 10000 subscribers. Please try again later.")))
+            })
+    SseEmitter tailLogs(
+            @RequestParam(required = false) final String severity,
+            @RequestParam(required = false) final SeverityEnum minSeverity,
             @RequestParam(required = false) final String message,
             @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd-HH-mm-ss") final LocalDateTime startDateTime,
             @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd-HH-mm-ss") final LocalDateTime endDateTime,
             @RequestParam(required = false) final String user);
 
+    @GetMapping("/logs/count")
+    @Operation(summary = "Get the number of logs matching the filter, without fetching them",
+            responses = {
+                    @ApiResponse(
+                            description = "Counting the logs succeeded",
+                            responseCode = "200",
+                            content =
+                            @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(example = "42", allOf = Long.class)))
+            })
+    long countLogs(
+            @RequestParam(required = false) final String severity,
+            @RequestParam(required = false) final SeverityEnum minSeverity,
+            @RequestParam(required = false) final String message,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd-HH-mm-ss") final LocalDateTime startDateTime,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd-HH-mm-ss") final LocalDateTime endDateTime,
+            @RequestParam(required = false) final String user,
+            @RequestParam(required = false) final LogTemplate template);
+
+    @PostMapping("/logs/exports")
+    @Operation(summary = "Export all logs matching the filter into a gzip compressed NDJSON (default) or CSV file. "
+                    + "The export runs in the background, poll its status with the returned id and download "
+                    + "the file once the status is DONE. An export interrupted by a restart continues where it stopped",
+            responses = {
+                    @ApiResponse(
+                            description = "Export was queued",
+                            responseCode = "202",
+                            content =
+                            @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(
+                                            example = "{\"id\":\"0b6f8a4e-3c1d-4f5e-9a7b-2d8c6e1f4a3b\",\"status\":\"QUEUED\",\"format\":\"CSV\","
+                                                    + "\"exportedLogs\":0,\"fileSize\":0,\"createdAt\":\"2000-12-12T12:12:12\"}",
+                                            allOf = LogExportDto.class)))
+            })
+    ResponseEntity<LogExportDto> exportLogs(
+            @RequestParam(required = false) final String severity,
+            @RequestParam(required = false) final SeverityEnum minSeverity,
+            @RequestParam(required = false) final String message,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd-HH-mm-ss") final LocalDateTime startDateTime,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd-HH-mm-ss") final LocalDateTime endDateTime,
+            @RequestParam(required = false) final String user,
+            @RequestParam(required = false) final LogTemplate template,
+            @RequestParam(required = false) final LogExportFormat format);
+
+    @GetMapping("/logs/exports/{id}")
+    @Operation(summary = "Get the status and progress of a log export",
+            responses = {
+                    @ApiResponse(
+                            description = "Getting the export succeeded",
+                            responseCode = "200",
+                            content =
+                            @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(
+                                            example = "{\"id\":\"0b6f8a4e-3c1d-4f5e-9a7b-2d8c6e1f4a3b\",\"status\":\"DONE\",\"format\":\"CSV\","
+                                                    + "\"exportedLogs\":12,\"fileSize\":421,\"createdAt\":\"2000-12-12T12:12:12\","
+                                                    + "\"finishedAt\":\"2000-12-12T12:12:13\"}",
+                                            allOf = LogExportDto.class))),
+                    @ApiResponse(
+                            description = "Export does not exist",
+                            responseCode = "404",
+                            content =
+                            @Content(
+                                    mediaType = "text/plain",
+                                    schema = @Schema(example = "Log export abc not found.")))
+            })
+    LogExportDto getLogExport(@PathVariable final String id);
+
+    @GetMapping("/logs/exports/{id}/file")
+    @Operation(summary = "Download the gzip compressed file of a finished log export",
+            responses = {
+                    @ApiResponse(
+                            description = "Downloading the export succeeded",
+                            responseCode = "200",
+                            content = @Content(mediaType = "application/gzip")),
+                    @ApiResponse(
+                            description = "Export is not finished yet",
+                            responseCode = "409",
+                            content =
+                            @Content(
+                                    mediaType = "text/plain",
+                                    schema = @Schema(example = "Log export abc is RUNNING, it can be downloaded once it is DONE.")))
+            })
+    void downloadLogExport(
+            @PathVariable final String id, HttpServletRequest request, HttpServletResponse response) throws IOException;
+
     @PostMapping("/log")
     @Operation(summary = "Add manually a new Log-Entry",
             responses = {
@@ -74,6 +254,34 @@ public interface LogAPI {
             })
     ResponseEntity<LogResponseDto> addLog(@RequestBody LogRequestDto allParameters);
 
+    @PostMapping("/logs/batch")
+    @Operation(summary = "Add many Log-Entries at once. Every log names its acting user, the logs are validated "
+                    + "one by one and the valid ones are saved even if others are rejected. "
+                    + "The response holds the status of each log instead of the log list",
+            responses = {
+                    @ApiResponse(
+                            description = "All logs were saved",
+                            responseCode = "201",
+                            content =
+                            @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(
+                                            example = "{\"created\":1,\"rejected\":0,\"items\":[{\"index\":0,\"id\":33,\"status\":201,"
+                                                    + "\"message\":\"Message \\\"Test\\\" saved as INFO!\"}]}",
+                                            allOf = LogBatchResponseDto.class))),
+                    @ApiResponse(
+                            description = "Some logs were rejected, see the status of each log",
+                            responseCode = "207",
+                            content =
+                            @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(
+                                            example = "{\"created\":0,\"rejected\":1,\"items\":[{\"index\":0,\"id\":null,\"status\":403,"
+                                                    + "\"message\":\"User is not allowed to execute this operation.\"}]}",
+                                            allOf = LogBatchResponseDto.class)))
+            })
+    ResponseEntity<LogBatchResponseDto> addLogs(@RequestBody List<AddLogRequestDto> logs);
+
     @GetMapping("/logs/{id}")
     @Operation(summary = "Found logs by id of the log",
             responses = {
@@ -87,7 +295,7 @@ public interface LogAPI {
                                             example = "[{\"id\":1,\"severity\":\"INFO\",\"message\":\"Test\",\"timestamp\":\"2000-12-12T12:12:12\",\"user\":\"Florian\"}]",
                                             allOf = LogResponseDto.class)))
             })
-    List<LogDTO> getLogsByID(@PathVariable final Integer id);
+    List<LogDTO> getLogsByID(@PathVariable final Long id);
 
     @DeleteMapping("/log/id/{id}")
     @Operation(summary = "Delete logs by id of the log",
@@ -111,12 +319,15 @@ public interface LogAPI {
                                     schema = @Schema(example = "No class project.userFeaturePortal.model.entity.Log entity with id 1 exists!"))),
             })
     ResponseEntity<LogResponseDto> deleteLogsByID(
-            @PathVariable final Integer id,
+            @PathVariable final Long id,
             @RequestParam(required = false) final String severity,
+            @RequestParam(required = false) final SeverityEnum minSeverity,
             @RequestParam(required = false) final String message,
             @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd-HH-mm-ss") final LocalDateTime startDateTime,
             @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd-HH-mm-ss") final LocalDateTime endDateTime,
-            @RequestParam(required = false) final String user);
+            @RequestParam(required = false) final String user,
+            @RequestParam(required = false) final Integer limit,
+            @RequestParam(required = false) final String cursor);
 
     @DeleteMapping("/log/severity")
     @Operation(summary = "Delete logs by severity of the log",
@@ -133,6 +344,84 @@ public interface LogAPI {
             })
     String deleteLogsBySeverity(@RequestParam final String severity);
 
+    @GetMapping("/logs/stats")
+    @Operation(summary = "Get the number of logs per time bucket and severity, optionally for one user only. "
+                    + "Buckets are a MINUTE, HOUR (default) or DAY long, counts per minute are kept for two days "
+                    + "and per hour for 90 days",
+            responses = {
+                    @ApiResponse(
+                            description = "Getting the statistics succeeded",
+                            responseCode = "200",
+                            content =
+                            @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(
+                                            example = "[{\"start\":\"2000-12-12T12:00:00\",\"severity\":\"ERROR\",\"count\":3}]",
+                                            allOf = LogStatsDto.class)))
+            })
+    List<LogStatsDto> getLogStats(
+            @RequestParam(required = false) final String severity,
+            @RequestParam(required = false) final String user,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd-HH-mm-ss") final LocalDateTime startDateTime,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd-HH-mm-ss") final LocalDateTime endDateTime,
+            @RequestParam(required = false) final LogStatsResolution resolution);
+
+    @GetMapping("/logs/insights")
+    @Operation(summary = "Get the most frequent messages and the number of distinct users per severity, "
+                    + "by default of the last hour. The values are estimated from sketches of the logs per "
+                    + "15 minutes kept for one day, covering the whole buckets overlapping the time range. "
+                    + "Message counts are never too low and too high by at most messageCountError "
+                    + "with the probability messageCountConfidence, distinct users have the relative standard "
+                    + "error distinctUsersError. Deleted logs are still counted",
+            responses = {
+                    @ApiResponse(
+                            description = "Getting the insights succeeded",
+                            responseCode = "200",
+                            content =
+                            @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(
+                                            example = "{\"start\":\"2000-12-12T12:00:00\",\"end\":\"2000-12-12T13:15:00\","
+                                                    + "\"logs\":12,\"topMessages\":[{\"message\":\"User Hans was created.\",\"count\":3}],"
+                                                    + "\"distinctUsers\":{\"ERROR\":2},\"messageCountError\":1,"
+                                                    + "\"messageCountConfidence\":0.98,\"distinctUsersError\":0.023}",
+                                            allOf = LogInsightsDto.class)))
+            })
+    LogInsightsDto getLogInsights(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd-HH-mm-ss") final LocalDateTime startDateTime,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd-HH-mm-ss") final LocalDateTime endDateTime,
+            @RequestParam(required = false) final Integer limit);
+
+    @GetMapping("/logs/partitions")
+    @Operation(summary = "Get the daily partitions of the logs with the number of logs in each of them",
+            responses = {
+                    @ApiResponse(
+                            description = "Getting the partitions succeeded",
+                            responseCode = "200",
+                            content =
+                            @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(
+                                            example = "[{\"day\":\"2000-12-12\",\"logs\":12}]",
+                                            allOf = LogPartitionDto.class)))
+            })
+    List<LogPartitionDto> getLogPartitions();
+
+    @DeleteMapping("/logs/partitions")
+    @Operation(summary = "Delete all logs before the given day by dropping their partitions",
+            responses = {
+                    @ApiResponse(
+                            description = "Dropping the partitions succeeded",
+                            responseCode = "200",
+                            content =
+                            @Content(
+                                    mediaType = "text/plain",
+                                    schema = @Schema(
+                                            example = "12 logs of the partitions before 2000-12-13 were deleted from database.",
+                                            allOf = String.class)))
+            })
+    String dropLogPartitions(@RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") final LocalDate before);
+
     @DeleteMapping("/logs")
     @Operation(summary = "Delete all Logs",
             responses = {
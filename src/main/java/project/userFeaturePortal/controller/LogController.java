@@ -1,19 +1,49 @@
 package project.userFeaturePortal.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import project.userFeaturePortal.common.dto.log.AddLogRequestDto;
+import project.userFeaturePortal.common.dto.log.GetLogsRequestDto;
+import project.userFeaturePortal.common.dto.log.LogBatchResponseDto;
 import project.userFeaturePortal.common.dto.log.LogDTO;
+import project.userFeaturePortal.common.dto.log.LogExportDto;
+import project.userFeaturePortal.common.dto.log.LogInsightsDto;
+import project.userFeaturePortal.common.dto.log.LogPartitionDto;
 import project.userFeaturePortal.common.dto.log.LogRequestDto;
 import project.userFeaturePortal.common.dto.log.LogResponseDto;
+import project.userFeaturePortal.common.dto.log.LogStatsDto;
+import project.userFeaturePortal.common.enums.LogExportFormat;
+import project.userFeaturePortal.common.enums.LogSearchMode;
+import project.userFeaturePortal.common.enums.LogTemplate;
+import project.userFeaturePortal.common.enums.LogStatsResolution;
+import project.userFeaturePortal.common.enums.SeverityEnum;
 import project.userFeaturePortal.controller.API.LogAPI;
 import project.userFeaturePortal.model.entity.Log;
 import project.userFeaturePortal.model.mapper.LogDTOMapper;
+import project.userFeaturePortal.service.model.LogExportService;
 import project.userFeaturePortal.service.model.LogService;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -25,34 +55,157 @@ import java.util.List;
 @Tag(name = "Log")
 public class LogController implements LogAPI {
 
+  // request attributes of the sendfile support of Tomcat
+  private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+  private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+  private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+  private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
   private final LogService logService;
+  private final LogExportService logExportService;
   private final LogDTOMapper logDTOMapper;
+  private final ObjectMapper objectMapper;
 
   @Override
   public ResponseEntity<LogResponseDto> getLogs(
       String severity,
+      SeverityEnum minSeverity,
       String message,
       LocalDateTime startDateTime,
       LocalDateTime endDateTime,
-      String user) {
+      String user,
+      Integer limit,
+      String cursor,
+      LogSearchMode searchMode,
+      LogTemplate template) {
+    GetLogsRequestDto filter =
+        buildFilter(severity, minSeverity, message, startDateTime, endDateTime, user, limit, cursor);
+    filter.setSearchMode(searchMode);
+    filter.setTemplate(template);
 
+    return ResponseEntity.status(HttpStatus.OK).body(logService.getLogs(filter));
+  }
+
+  @Override
+  public ResponseEntity<StreamingResponseBody> streamLogs(
+      String severity,
+      SeverityEnum minSeverity,
+      String message,
+      LocalDateTime startDateTime,
+      LocalDateTime endDateTime,
+      String user,
+      Integer limit,
+      String cursor) {
+    GetLogsRequestDto filter =
+        buildFilter(severity, minSeverity, message, startDateTime, endDateTime, user, limit, cursor);
+
+    // one JSON document per line, written as soon as the log is read
+    StreamingResponseBody body = outputStream -> logService.streamLogs(filter, log -> {
+      try {
+        outputStream.write(objectMapper.writeValueAsBytes(log));
+        outputStream.write('\n');
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
     return ResponseEntity.status(HttpStatus.OK)
-        .body(
-            new LogResponseDto(
-                logService.getLogs(severity, message, startDateTime, endDateTime, user), null));
+        .contentType(MediaType.APPLICATION_NDJSON)
+        .body(body);
+  }
+
+  @Override
+  public SseEmitter tailLogs(
+      String severity,
+      SeverityEnum minSeverity,
+      String message,
+      LocalDateTime startDateTime,
+      LocalDateTime endDateTime,
+      String user) {
+    return logService.tailLogs(
+        buildFilter(severity, minSeverity, message, startDateTime, endDateTime, user, null, null));
+  }
+
+  @Override
+  public long countLogs(
+      String severity,
+      SeverityEnum minSeverity,
+      String message,
+      LocalDateTime startDateTime,
+      LocalDateTime endDateTime,
+      String user,
+      LogTemplate template) {
+    GetLogsRequestDto filter =
+        buildFilter(severity, minSeverity, message, startDateTime, endDateTime, user, null, null);
+    filter.setTemplate(template);
+    return logService.countLogs(filter);
+  }
+
+  @Override
+  public ResponseEntity<LogExportDto> exportLogs(
+      String severity,
+      SeverityEnum minSeverity,
+      String message,
+      LocalDateTime startDateTime,
+      LocalDateTime endDateTime,
+      String user,
+      LogTemplate template,
+      LogExportFormat format) {
+    GetLogsRequestDto filter =
+        buildFilter(severity, minSeverity, message, startDateTime, endDateTime, user, null, null);
+    filter.setTemplate(template);
+    LogExportDto export = logExportService.submit(filter, format);
+    return ResponseEntity.status(HttpStatus.ACCEPTED)
+        .location(URI.create("/logs/exports/" + export.getId()))
+        .body(export);
+  }
+
+  @Override
+  public LogExportDto getLogExport(String id) {
+    return logExportService.getExport(id);
+  }
+
+  @Override
+  public void downloadLogExport(String id, HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    Path file = logExportService.getExportFile(id);
+    long size = Files.size(file);
+    response.setContentType("application/gzip");
+    response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+        ContentDisposition.attachment().filename(file.getFileName().toString()).build().toString());
+    response.setContentLengthLong(size);
+
+    // the container sends the file from the page cache to the socket without copying it into the heap
+    if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+      request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+      request.setAttribute(SENDFILE_START, 0L);
+      request.setAttribute(SENDFILE_END, size);
+      return;
+    }
+    try (FileChannel channel = FileChannel.open(file)) {
+      WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+      for (long position = 0; position < size; ) {
+        position += channel.transferTo(position, size - position, target);
+      }
+    }
   }
 
   @Override
   public ResponseEntity<LogResponseDto> addLog(LogRequestDto allParameters) {
     String returnMessage = logService.addLog(allParameters);
-    return ResponseEntity.status(HttpStatus.CREATED)
-        .body(new LogResponseDto(logService.getLogs(allParameters.getLogsRequest.getSeverity(),
-                allParameters.getLogsRequest.getMessage(), allParameters.getLogsRequest.getStartDateTime(),
-                allParameters.getLogsRequest.getEndDateTime(), allParameters.getLogsRequest.getUser()), returnMessage));
+    LogResponseDto response = logService.getLogs(allParameters.getLogsRequest);
+    response.setReturnMessage(returnMessage);
+    return ResponseEntity.status(HttpStatus.CREATED).body(response);
+  }
+
+  @Override
+  public ResponseEntity<LogBatchResponseDto> addLogs(List<AddLogRequestDto> logs) {
+    LogBatchResponseDto response = logService.addLogs(logs);
+    HttpStatus status = response.getRejected() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS;
+    return ResponseEntity.status(status).body(response);
   }
 
   @Override
-  public List<LogDTO> getLogsByID(Integer id) {
+  public List<LogDTO> getLogsByID(Long id) {
     Log logs = logService.searchLogsByID(id);
     List<Log> returnList = new ArrayList<>();
     returnList.add(logs);
@@ -61,18 +214,20 @@ public class LogController implements LogAPI {
 
   @Override
   public ResponseEntity<LogResponseDto> deleteLogsByID(
-      Integer id,
+      Long id,
       String severity,
+      SeverityEnum minSeverity,
       String message,
       LocalDateTime startDateTime,
       LocalDateTime endDateTime,
-      String user) {
+      String user,
+      Integer limit,
+      String cursor) {
     String returnMessage = logService.deleteById(id);
-    return ResponseEntity.status(HttpStatus.OK)
-        .body(
-            new LogResponseDto(
-                logService.getLogs(severity, message, startDateTime, endDateTime, user),
-                returnMessage));
+    LogResponseDto response = logService.getLogs(
+        buildFilter(severity, minSeverity, message, startDateTime, endDateTime, user, limit, cursor));
+    response.setReturnMessage(returnMessage);
+    return ResponseEntity.status(HttpStatus.OK).body(response);
   }
 
   @Override
@@ -80,10 +235,57 @@ public class LogController implements LogAPI {
     return logService.deleteBySeverity(severity);
   }
 
+  @Override
+  public List<LogStatsDto> getLogStats(
+      String severity,
+      String user,
+      LocalDateTime startDateTime,
+      LocalDateTime endDateTime,
+      LogStatsResolution resolution) {
+    return logService.getStats(severity, user, startDateTime, endDateTime, resolution);
+  }
+
+  @Override
+  public LogInsightsDto getLogInsights(LocalDateTime startDateTime, LocalDateTime endDateTime, Integer limit) {
+    return logService.getInsights(startDateTime, endDateTime, limit);
+  }
+
+  @Override
+  public List<LogPartitionDto> getLogPartitions() {
+    return logService.getPartitions();
+  }
+
+  @Override
+  public String dropLogPartitions(LocalDate before) {
+    return logService.dropPartitionsBefore(before);
+  }
+
   @Override
   public ResponseEntity<LogResponseDto> deleteAll() {
     String returnMessage = logService.deleteAll();
-    return ResponseEntity.status(HttpStatus.OK)
-        .body(new LogResponseDto(logService.getLogs(null, null, null, null, null), returnMessage));
+    LogResponseDto response = logService.getLogs(GetLogsRequestDto.builder().build());
+    response.setReturnMessage(returnMessage);
+    return ResponseEntity.status(HttpStatus.OK).body(response);
+  }
+
+  private GetLogsRequestDto buildFilter(
+      String severity,
+      SeverityEnum minSeverity,
+      String message,
+      LocalDateTime startDateTime,
+      LocalDateTime endDateTime,
+      String user,
+      Integer limit,
+      String cursor) {
+    return GetLogsRequestDto.builder()
+        .severity(severity)
+        .minSeverity(minSeverity)
+        .message(message)
+        .startDateTime(startDateTime)
+        .endDateTime(endDateTime)
+        .user(user)
+        .limit(limit)
+        .cursor(cursor)
+        .build();
   }
 }
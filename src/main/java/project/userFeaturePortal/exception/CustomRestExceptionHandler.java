@@ -30,6 +30,14 @@ public class CustomRestExceptionHandler {
     return ex.getMessage();
   }
 
+  @ResponseBody
+  @ExceptionHandler(InvalidCursorException.class)
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  String invalidCursorExceptionHandler(InvalidCursorException ex) {
+    LOGGER.warn(ex.getMessage());
+    return ex.getMessage();
+  }
+
   @ResponseBody
   @ExceptionHandler(UserNotFoundException.class)
   @ResponseStatus(HttpStatus.NOT_FOUND)
@@ -44,4 +52,36 @@ public class CustomRestExceptionHandler {
   String userNotAllowedExceptionHandler(UserNotAllowedException ex) {
     return ex.getMessage();
   }
+
+  @ResponseBody
+  @ExceptionHandler(TooManySubscribersException.class)
+  @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+  String tooManySubscribersExceptionHandler(TooManySubscribersException ex) {
+    LOGGER.warn(ex.getMessage());
+    return ex.getMessage();
+  }
+
+  @ResponseBody
+  @ExceptionHandler(LogExportNotFoundException.class)
+  @ResponseStatus(HttpStatus.NOT_FOUND)
+  String logExportNotFoundExceptionHandler(LogExportNotFoundException ex) {
+    LOGGER.warn(ex.getMessage());
+    return ex.getMessage();
+  }
+
+  @ResponseBody
+  @ExceptionHandler(LogExportNotReadyException.class)
+  @ResponseStatus(HttpStatus.CONFLICT)
+  String logExportNotReadyExceptionHandler(LogExportNotReadyException ex) {
+    LOGGER.warn(ex.getMessage());
+    return ex.getMessage();
+  }
+
+  @ResponseBody
+  @ExceptionHandler(LogsNotDeletableException.class)
+  @ResponseStatus(HttpStatus.CONFLICT)
+  String logsNotDeletableExceptionHandler(LogsNotDeletableException ex) {
+    LOGGER.warn(ex.getMessage());
+    return ex.getMessage();
+  }
 }
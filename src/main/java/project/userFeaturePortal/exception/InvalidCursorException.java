@@ -0,0 +1,10 @@
+package project.userFeaturePortal.exception;
+
+import project.userFeaturePortal.common.message.ErrorMessages;
+
+public class InvalidCursorException extends RuntimeException {
+
+  public InvalidCursorException(String cursor) {
+    super(String.format(ErrorMessages.INVALID_CURSOR, cursor));
+  }
+}
@@ -0,0 +1,10 @@
+package project.userFeaturePortal.exception;
+
+import project.userFeaturePortal.common.message.ErrorMessages;
+
+public class LogExportNotFoundException extends RuntimeException {
+
+  public LogExportNotFoundException(String id) {
+    super(String.format(ErrorMessages.LOG_EXPORT_NOT_FOUND, id));
+  }
+}
@@ -0,0 +1,11 @@
+package project.userFeaturePortal.exception;
+
+import project.userFeaturePortal.common.enums.LogExportStatus;
+import project.userFeaturePortal.common.message.ErrorMessages;
+
+public class LogExportNotReadyException extends RuntimeException {
+
+  public LogExportNotReadyException(String id, LogExportStatus status) {
+    super(String.format(ErrorMessages.LOG_EXPORT_NOT_READY, id, status));
+  }
+}
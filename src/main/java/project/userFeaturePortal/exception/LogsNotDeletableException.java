@@ -0,0 +1,11 @@
+package project.userFeaturePortal.exception;
+
+import project.userFeaturePortal.common.enums.LogStoreBackend;
+import project.userFeaturePortal.common.message.ErrorMessages;
+
+public class LogsNotDeletableException extends RuntimeException {
+
+  public LogsNotDeletableException(LogStoreBackend backend) {
+    super(String.format(ErrorMessages.LOGS_NOT_DELETABLE, backend));
+  }
+}
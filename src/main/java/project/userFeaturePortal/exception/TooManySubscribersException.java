@@ -0,0 +1,10 @@
+package project.userFeaturePortal.exception;
+
+import project.userFeaturePortal.common.message.ErrorMessages;
+
+public class TooManySubscribersException extends RuntimeException {
+
+  public TooManySubscribersException(int maxSubscribers) {
+    super(String.format(ErrorMessages.TOO_MANY_SUBSCRIBERS, maxSubscribers));
+  }
+}
@@ -0,0 +1,36 @@
+package project.userFeaturePortal.model.converter;
+
+import project.userFeaturePortal.common.enums.SeverityEnum;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/**
+ * Stores the severity of a log as the one byte ordinal of its {@link SeverityEnum}.
+ */
+@Converter
+public class SeverityConverter implements AttributeConverter<String, Byte> {
+
+  // code of names which are no severity, so filters on them match no log
+  public static final byte UNKNOWN = -1;
+
+  @Override
+  public Byte convertToDatabaseColumn(String severity) {
+    return severity == null ? null : toCode(severity);
+  }
+
+  @Override
+  public String convertToEntityAttribute(Byte code) {
+    return code == null ? null : toSeverity(code);
+  }
+
+  public static byte toCode(String severity) {
+    SeverityEnum severityEnum = SeverityEnum.fromName(severity);
+    return severityEnum == null ? UNKNOWN : (byte) severityEnum.ordinal();
+  }
+
+  public static String toSeverity(byte code) {
+    SeverityEnum[] severities = SeverityEnum.values();
+    return code >= 0 && code < severities.length ? severities[code].name() : null;
+  }
+}
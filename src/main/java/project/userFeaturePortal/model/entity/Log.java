@@ -4,8 +4,12 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import project.userFeaturePortal.common.enums.LogTemplate;
+import project.userFeaturePortal.model.converter.SeverityConverter;
 
 import javax.persistence.*;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 /**
@@ -16,26 +20,100 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @Data
 @Entity
-@Table(name = "log")
+@Table(
+    name = "log",
+    indexes = {
+        @Index(name = "idx_log_timestamp_id", columnList = "timestamp, id"),
+        @Index(name = "idx_log_user_timestamp", columnList = "user, timestamp"),
+        @Index(name = "idx_log_severity_timestamp", columnList = "severity, timestamp"),
+        @Index(name = "idx_log_partition_day", columnList = "partition_day, timestamp"),
+        @Index(name = "idx_log_template_timestamp", columnList = "template, timestamp")
+    })
 public class Log {
 
   private static final long serialVersionUID = 1L;
 
+  // time-ordered, generated in process by the LogIdGenerator
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(generator = "log-id")
+  @GenericGenerator(name = "log-id", strategy = "project.userFeaturePortal.model.generator.LogIdGenerator")
   @Column(name = "id", unique = true, nullable = false)
-  Integer id;
+  Long id;
 
   @ManyToOne(fetch = FetchType.EAGER)
   @JoinColumn(name = "user")
   User user;
 
+  @Convert(converter = SeverityConverter.class)
   @Column(name = "severity", nullable = false)
   String severity;
 
-  @Column(name = "message", nullable = false)
+  // null if the message is interned as template and arguments
+  @Column(name = "message")
   String message;
 
+  @Enumerated(EnumType.ORDINAL)
+  @Column(name = "template")
+  LogTemplate template;
+
+  @Column(name = "message_arg1")
+  String messageArg1;
+
+  @Column(name = "message_arg2")
+  String messageArg2;
+
   @Column(name = "timestamp", nullable = false)
   LocalDateTime timestamp;
+
+  // number of identical logs coalesced into this one at ingest, null for a single log
+  @Column(name = "repeat_count")
+  Integer repeatCount;
+
+  // timestamp of the last of the coalesced logs, null for a single log
+  @Column(name = "last_timestamp")
+  LocalDateTime lastTimestamp;
+
+  // day of the timestamp as yyyyMMdd, all logs of one day form a partition
+  @Column(name = "partition_day")
+  Integer partitionDay;
+
+  /** The message, expanded from its template only when it is read. */
+  public String getMessage() {
+    return template == null ? message : template.expand(messageArg1, messageArg2);
+  }
+
+  public void setMessage(String message) {
+    this.message = message;
+    template = null;
+    messageArg1 = null;
+    messageArg2 = null;
+  }
+
+  /** Replaces the message by template and arguments if one of the templates matches it. */
+  public void intern() {
+    if (template != null || message == null) {
+      return;
+    }
+    for (LogTemplate candidate : LogTemplate.values()) {
+      String[] arguments = candidate.match(message);
+      if (arguments != null) {
+        template = candidate;
+        messageArg1 = arguments.length > 0 ? arguments[0] : null;
+        messageArg2 = arguments.length > 1 ? arguments[1] : null;
+        message = null;
+        return;
+      }
+    }
+  }
+
+  @PrePersist
+  void assignPartition() {
+    if (partitionDay == null && timestamp != null) {
+      partitionDay = partitionDayOf(timestamp.toLocalDate());
+    }
+  }
+
+  public static int partitionDayOf(LocalDate day) {
+    return day.getYear() * 10000 + day.getMonthValue() * 100 + day.getDayOfMonth();
+  }
 }
@@ -0,0 +1,32 @@
+package project.userFeaturePortal.model.generator;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import project.userFeaturePortal.model.entity.Log;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Hibernate generator of the log ids. The ids are generated in process from the timestamp of the
+ * log, so an insert needs no round trip for its key and inserts can be batched. The entity inserts
+ * and the JDBC batch inserts share one {@link TimeOrderedIdGenerator}, which is replaced at startup
+ * once node and highest saved id are known.
+ */
+public class LogIdGenerator implements IdentifierGenerator {
+
+  private static volatile TimeOrderedIdGenerator ids = new TimeOrderedIdGenerator(0);
+
+  public static long next(LocalDateTime timestamp) {
+    return ids.next(timestamp);
+  }
+
+  public static void use(TimeOrderedIdGenerator generator) {
+    ids = generator;
+  }
+
+  @Override
+  public Serializable generate(SharedSessionContractImplementor session, Object object) {
+    return next(((Log) object).getTimestamp());
+  }
+}
@@ -0,0 +1,85 @@
+package project.userFeaturePortal.model.generator;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Generates 64-bit ids ordered by time in the style of Snowflake ids: 41 bits of milliseconds since
+ * {@link #EPOCH}, 10 bits of node and 12 bits of sequence within the millisecond. The ids of one
+ * node ascend, even if the clock or the timestamps go back, and the millisecond of an id is never
+ * before the timestamp it was generated for. So all ids of logs from a point in time on are at
+ * least {@link #firstIdAt(LocalDateTime)}. Timestamps are read as UTC.
+ *
+ * <p>All ids are above {@link Integer#MAX_VALUE}, so they never collide with the ids of the old
+ * integer identity column.
+ */
+public class TimeOrderedIdGenerator {
+
+  public static final LocalDateTime EPOCH = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+  static final int NODE_BITS = 10;
+  static final int SEQUENCE_BITS = 12;
+  public static final int MAX_NODE = (1 << NODE_BITS) - 1;
+  private static final int MAX_SEQUENCE = (1 << SEQUENCE_BITS) - 1;
+  private static final long EPOCH_MILLIS = EPOCH.toInstant(ZoneOffset.UTC).toEpochMilli();
+  // the ids of the first second after the epoch are left to the integer ids
+  private static final long FIRST_MILLIS = 1000;
+
+  private final int node;
+  // millisecond and sequence of the last id
+  private long lastMillis = -1;
+  private int sequence;
+
+  public TimeOrderedIdGenerator(int node) {
+    if (node < 0 || node > MAX_NODE) {
+      throw new IllegalArgumentException("Node " + node + " is not between 0 and " + MAX_NODE + ".");
+    }
+    this.node = node;
+  }
+
+  public synchronized long next(LocalDateTime timestamp) {
+    long millis = Math.max(millisOf(timestamp == null ? LocalDateTime.now() : timestamp), lastMillis);
+    if (millis > lastMillis) {
+      sequence = 0;
+    } else if (sequence < MAX_SEQUENCE) {
+      sequence++;
+    } else {
+      // the sequence of the millisecond is used up, the ids continue in the next one
+      millis++;
+      sequence = 0;
+    }
+    lastMillis = millis;
+    return (millis << (NODE_BITS + SEQUENCE_BITS)) | ((long) node << SEQUENCE_BITS) | sequence;
+  }
+
+  /** Continues behind the id, e.g. the highest id saved before a restart with the clock set back. */
+  public synchronized void advanceTo(long id) {
+    long millis = id >>> (NODE_BITS + SEQUENCE_BITS);
+    if (millis >= lastMillis) {
+      // the rest of the millisecond is skipped
+      lastMillis = millis;
+      sequence = MAX_SEQUENCE;
+    }
+  }
+
+  public int getNode() {
+    return node;
+  }
+
+  /** The lowest id any node generates for the timestamp or a later one. */
+  public static long firstIdAt(LocalDateTime timestamp) {
+    return millisOf(timestamp) << (NODE_BITS + SEQUENCE_BITS);
+  }
+
+  /** The millisecond an id was generated for. */
+  public static LocalDateTime timestampOf(long id) {
+    long millis = EPOCH_MILLIS + (id >>> (NODE_BITS + SEQUENCE_BITS));
+    return LocalDateTime.ofEpochSecond(
+        Math.floorDiv(millis, 1000), (int) Math.floorMod(millis, 1000) * 1_000_000, ZoneOffset.UTC);
+  }
+
+  // earlier timestamps get the ids of the first millisecond
+  private static long millisOf(LocalDateTime timestamp) {
+    return Math.max(FIRST_MILLIS, timestamp.toInstant(ZoneOffset.UTC).toEpochMilli() - EPOCH_MILLIS);
+  }
+}
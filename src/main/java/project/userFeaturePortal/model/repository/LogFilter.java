@@ -0,0 +1,33 @@
+package project.userFeaturePortal.model.repository;
+
+import lombok.Builder;
+import lombok.Data;
+import project.userFeaturePortal.common.enums.LogTemplate;
+import project.userFeaturePortal.common.enums.SeverityEnum;
+import project.userFeaturePortal.model.entity.User;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Criteria of the log queries. Only the criteria which are set end up in the query.
+ */
+@Data
+@Builder
+public class LogFilter {
+  String severity;
+  // logs of this severity or a higher one
+  SeverityEnum minSeverity;
+  String message;
+  LogTemplate template;
+  LocalDateTime startDate;
+  LocalDateTime endDate;
+  Integer firstPartition;
+  Integer lastPartition;
+  User user;
+  // seek behind the log with this timestamp and id
+  LocalDateTime cursorTimestamp;
+  Long cursorId;
+  // restrict the result to these ids, e.g. the candidates of an in-memory index
+  Collection<Long> ids;
+}
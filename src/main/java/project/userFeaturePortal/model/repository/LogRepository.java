@@ -1,10 +1,13 @@
 package project.userFeaturePortal.model.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import project.userFeaturePortal.common.enums.LogTemplate;
 import project.userFeaturePortal.model.entity.Log;
-import project.userFeaturePortal.model.entity.User;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -13,19 +16,60 @@ import java.util.List;
  * @author - EugenFriesen 12.02.2021
  */
 @Repository
-public interface LogRepository extends JpaRepository<Log, Integer> {
+public interface LogRepository
+    extends JpaRepository<Log, Long>, JpaSpecificationExecutor<Log>, LogRepositoryCustom {
 
-  @Query(
-      "SELECT log FROM Log log"
-          + " WHERE (:severity is null or log.severity = :severity)"
-          + " AND (:message is null or log.message like concat('%',:message,'%'))"
-          + " AND (:startDate is null or log.timestamp > :startDate)"
-          + " AND (:endDate is null or log.timestamp < :endDate)"
-          + " AND (:user is null or log.user = :user)")
-  List<Log> findLogs(
-      String severity, String message, LocalDateTime startDate, LocalDateTime endDate, User user);
+  @Query("SELECT MAX(log.id) FROM Log log")
+  Long findMaxId();
 
-  List<Log> deleteBySeverity(String severity);
+  @Query("SELECT log.partitionDay AS day, COUNT(log) AS logs FROM Log log"
+      + " GROUP BY log.partitionDay ORDER BY log.partitionDay")
+  List<LogPartition> countLogsByPartition();
 
-  List<Log> findByUser(User user);
+  // one statement for the logs of all days before the day, the database still deletes row by row
+  @Modifying
+  @Query("DELETE FROM Log log WHERE log.partitionDay < :day")
+  int deleteLogsOfDaysBefore(Integer day);
+
+  // assigns the partition of logs written before partitions were introduced
+  @Modifying
+  @Query("UPDATE Log log SET log.partitionDay ="
+      + " year(log.timestamp) * 10000 + month(log.timestamp) * 100 + day(log.timestamp)"
+      + " WHERE log.partitionDay is null")
+  int assignMissingPartitions();
+
+  @Query("SELECT log.id AS id, log.message AS message, log.template AS template, log.messageArg1 AS messageArg1,"
+      + " log.messageArg2 AS messageArg2, log.timestamp AS timestamp, user.id AS userId,"
+      + " log.repeatCount AS repeatCount"
+      + " FROM Log log LEFT JOIN log.user user"
+      + " WHERE log.severity = :severity AND log.id > :afterId ORDER BY log.id")
+  List<LogSummary> findSummariesBySeverity(String severity, Long afterId, Pageable pageable);
+
+  @Modifying
+  @Query("DELETE FROM Log log WHERE log.severity = :severity AND log.id between :fromId and :toId")
+  int deleteBySeverityInIdRange(String severity, Long fromId, Long toId);
+
+  interface LogSummary {
+    Long getId();
+
+    String getMessage();
+
+    LogTemplate getTemplate();
+
+    String getMessageArg1();
+
+    String getMessageArg2();
+
+    LocalDateTime getTimestamp();
+
+    Integer getUserId();
+
+    Integer getRepeatCount();
+  }
+
+  interface LogPartition {
+    Integer getDay();
+
+    Long getLogs();
+  }
 }
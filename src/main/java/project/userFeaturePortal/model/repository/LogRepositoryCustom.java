@@ -0,0 +1,30 @@
+package project.userFeaturePortal.model.repository;
+
+import org.springframework.data.domain.Pageable;
+import project.userFeaturePortal.common.dto.log.LogDTO;
+import project.userFeaturePortal.model.entity.Log;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Log queries built from a {@link LogFilter}, ordered by timestamp and id. Counting and checking
+ * for matching logs takes the same filter without loading any log.
+ *
+ * <p>The LogDTO queries select only the columns needed for the DTO, so no entity, user or book is
+ * loaded for reading logs.
+ */
+public interface LogRepositoryCustom {
+
+  List<Log> findLogs(LogFilter filter, Pageable pageable);
+
+  Stream<Log> streamLogs(LogFilter filter);
+
+  List<LogDTO> findLogDTOs(LogFilter filter, Pageable pageable);
+
+  Stream<LogDTO> streamLogDTOs(LogFilter filter);
+
+  long countLogs(LogFilter filter);
+
+  boolean existsLogs(LogFilter filter);
+}
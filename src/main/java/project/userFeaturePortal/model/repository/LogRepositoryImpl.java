@@ -0,0 +1,139 @@
+package project.userFeaturePortal.model.repository;
+
+import org.springframework.data.domain.Pageable;
+import project.userFeaturePortal.common.dto.log.LogDTO;
+import project.userFeaturePortal.common.enums.LogTemplate;
+import project.userFeaturePortal.model.entity.Log;
+import project.userFeaturePortal.model.entity.User;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Root;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+public class LogRepositoryImpl implements LogRepositoryCustom {
+
+  static final int STREAM_FETCH_SIZE = 500;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  public List<Log> findLogs(LogFilter filter, Pageable pageable) {
+    TypedQuery<Log> query = createQuery(filter);
+    if (pageable.isPaged()) {
+      query.setFirstResult((int) pageable.getOffset());
+      query.setMaxResults(pageable.getPageSize());
+    }
+    return query.getResultList();
+  }
+
+  @Override
+  public Stream<Log> streamLogs(LogFilter filter) {
+    return createQuery(filter)
+        .setHint(HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+        .setHint(HINT_READONLY, true)
+        .getResultStream();
+  }
+
+  @Override
+  public List<LogDTO> findLogDTOs(LogFilter filter, Pageable pageable) {
+    TypedQuery<Tuple> query = createDTOQuery(filter);
+    if (pageable.isPaged()) {
+      query.setFirstResult((int) pageable.getOffset());
+      query.setMaxResults(pageable.getPageSize());
+    }
+    return query.getResultList().stream().map(LogRepositoryImpl::toLogDTO).collect(Collectors.toList());
+  }
+
+  @Override
+  public Stream<LogDTO> streamLogDTOs(LogFilter filter) {
+    return createDTOQuery(filter)
+        .setHint(HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+        .getResultStream()
+        .map(LogRepositoryImpl::toLogDTO);
+  }
+
+  @Override
+  public long countLogs(LogFilter filter) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Long> query = cb.createQuery(Long.class);
+    Root<Log> log = query.from(Log.class);
+    query.select(cb.count(log))
+        .where(LogSpecifications.matching(filter).toPredicate(log, query, cb));
+    return entityManager.createQuery(query).getSingleResult();
+  }
+
+  @Override
+  public boolean existsLogs(LogFilter filter) {
+    // the first matching id is enough, no log is loaded
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Long> query = cb.createQuery(Long.class);
+    Root<Log> log = query.from(Log.class);
+    query.select(log.get("id"))
+        .where(LogSpecifications.matching(filter).toPredicate(log, query, cb));
+    return !entityManager.createQuery(query).setMaxResults(1).getResultList().isEmpty();
+  }
+
+  private TypedQuery<Log> createQuery(LogFilter filter) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Log> query = cb.createQuery(Log.class);
+    Root<Log> log = query.from(Log.class);
+    // the user is loaded by the same statement instead of one select per log
+    log.fetch("user", JoinType.LEFT);
+    query.select(log)
+        .where(LogSpecifications.matching(filter).toPredicate(log, query, cb))
+        .orderBy(cb.asc(log.get("timestamp")), cb.asc(log.get("id")));
+    return entityManager.createQuery(query);
+  }
+
+  private TypedQuery<Tuple> createDTOQuery(LogFilter filter) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Tuple> query = cb.createTupleQuery();
+    Root<Log> log = query.from(Log.class);
+    // only the name of the user is selected, its entity is not loaded
+    Join<Log, User> user = log.join("user", JoinType.LEFT);
+    query.multiselect(
+            log.get("id"),
+            log.get("severity"),
+            log.get("message"),
+            log.get("template"),
+            log.get("messageArg1"),
+            log.get("messageArg2"),
+            log.get("timestamp"),
+            user.get("name"),
+            log.get("repeatCount"),
+            log.get("lastTimestamp"))
+        .where(LogSpecifications.matching(filter).toPredicate(log, query, cb))
+        .orderBy(cb.asc(log.get("timestamp")), cb.asc(log.get("id")));
+    return entityManager.createQuery(query);
+  }
+
+  // interned messages are expanded here, not in the query
+  private static LogDTO toLogDTO(Tuple row) {
+    LogTemplate template = row.get(3, LogTemplate.class);
+    String message = template == null
+        ? row.get(2, String.class)
+        : template.expand(row.get(4, String.class), row.get(5, String.class));
+    return new LogDTO(
+        row.get(0, Long.class),
+        row.get(1, String.class),
+        message,
+        row.get(6, LocalDateTime.class),
+        row.get(7, String.class),
+        row.get(8, Integer.class),
+        row.get(9, LocalDateTime.class));
+  }
+}
@@ -0,0 +1,128 @@
+package project.userFeaturePortal.model.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+import project.userFeaturePortal.common.enums.LogTemplate;
+import project.userFeaturePortal.model.entity.Log;
+import project.userFeaturePortal.model.generator.TimeOrderedIdGenerator;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the where clause of the log queries from a {@link LogFilter}. Only the criteria which are
+ * set become predicates, so the database can choose the index fitting the actual combination.
+ */
+public final class LogSpecifications {
+
+  private LogSpecifications() {}
+
+  public static Specification<Log> matching(LogFilter filter) {
+    return (log, query, cb) -> {
+      Path<LocalDateTime> timestamp = log.get("timestamp");
+      Path<Integer> partitionDay = log.get("partitionDay");
+      Path<Long> id = log.get("id");
+      List<Predicate> predicates = new ArrayList<>();
+
+      if (filter.getSeverity() != null) {
+        predicates.add(cb.equal(log.get("severity"), filter.getSeverity()));
+      }
+      if (filter.getMinSeverity() != null) {
+        // the severity is stored as ordinal, so this is a range on the severity index
+        predicates.add(cb.greaterThanOrEqualTo(log.get("severity"), filter.getMinSeverity().name()));
+      }
+      if (filter.getMessage() != null) {
+        predicates.add(messageContains(log, cb, filter.getMessage()));
+      }
+      if (filter.getTemplate() != null) {
+        predicates.add(cb.equal(log.get("template"), filter.getTemplate()));
+      }
+      if (filter.getStartDate() != null) {
+        predicates.add(cb.greaterThan(timestamp, filter.getStartDate()));
+        // the ids are ordered by time, so the primary key narrows the range as well
+        predicates.add(cb.greaterThanOrEqualTo(id, TimeOrderedIdGenerator.firstIdAt(filter.getStartDate())));
+      }
+      if (filter.getEndDate() != null) {
+        predicates.add(cb.lessThan(timestamp, filter.getEndDate()));
+      }
+      if (filter.getFirstPartition() != null) {
+        predicates.add(cb.greaterThanOrEqualTo(partitionDay, filter.getFirstPartition()));
+      }
+      if (filter.getLastPartition() != null) {
+        predicates.add(cb.lessThanOrEqualTo(partitionDay, filter.getLastPartition()));
+      }
+      if (filter.getUser() != null) {
+        predicates.add(cb.equal(log.get("user"), filter.getUser()));
+      }
+      if (filter.getCursorTimestamp() != null) {
+        predicates.add(cb.or(
+            cb.greaterThan(timestamp, filter.getCursorTimestamp()),
+            cb.and(cb.equal(timestamp, filter.getCursorTimestamp()), cb.greaterThan(id, filter.getCursorId()))));
+      }
+      if (filter.getIds() != null) {
+        predicates.add(id.in(filter.getIds()));
+      }
+      return cb.and(predicates.toArray(new Predicate[0]));
+    };
+  }
+
+  /**
+   * Matches the text against the full messages and against the interned ones. A text within an
+   * argument is matched on the argument columns and an interned log whose template text already
+   * contains the text needs no expansion. Only the templates whose text the text can overlap are
+   * expanded in the query.
+   */
+  private static Predicate messageContains(Root<Log> log, CriteriaBuilder cb, String text) {
+    Path<LogTemplate> template = log.get("template");
+    String pattern = "%" + text + "%";
+    List<Predicate> predicates = new ArrayList<>();
+    predicates.add(cb.like(log.get("message"), pattern));
+    predicates.add(cb.like(log.get("messageArg1"), pattern));
+    predicates.add(cb.like(log.get("messageArg2"), pattern));
+    for (LogTemplate candidate : LogTemplate.values()) {
+      if (candidate.getParts().stream().anyMatch(part -> part.contains(text))) {
+        predicates.add(cb.equal(template, candidate));
+      } else if (spansArgument(candidate, text)) {
+        predicates.add(cb.and(cb.equal(template, candidate), cb.like(expand(log, cb, candidate), pattern)));
+      }
+    }
+    return cb.or(predicates.toArray(new Predicate[0]));
+  }
+
+  /**
+   * True if the text can match an expansion of the template across the border of an argument: it
+   * starts in the text before an argument, ends in the text after one or contains a whole text
+   * between two arguments.
+   */
+  static boolean spansArgument(LogTemplate template, String text) {
+    List<String> parts = template.getParts();
+    for (int i = 0; i < parts.size(); i++) {
+      String part = parts.get(i);
+      if (i > 0 && i < parts.size() - 1 && text.contains(part)) {
+        return true;
+      }
+      for (int length = 1; length < text.length(); length++) {
+        if ((i < parts.size() - 1 && part.endsWith(text.substring(0, length)))
+            || (i > 0 && part.startsWith(text.substring(text.length() - length)))) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private static Expression<String> expand(Root<Log> log, CriteriaBuilder cb, LogTemplate template) {
+    List<String> parts = template.getParts();
+    List<Path<String>> arguments = List.of(log.get("messageArg1"), log.get("messageArg2"));
+    Expression<String> message = cb.literal(parts.get(0));
+    for (int i = 1; i < parts.size(); i++) {
+      message = cb.concat(cb.concat(message, arguments.get(i - 1)), parts.get(i));
+    }
+    return message;
+  }
+}
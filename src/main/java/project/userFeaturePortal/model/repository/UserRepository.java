@@ -11,5 +11,8 @@ public interface UserRepository extends JpaRepository<User, Integer> {
 
   User findUserByName(String name);
 
+  // stops at the first user, unlike count()
+  boolean existsByIdNotNull();
+
   List<User> findByFavouriteBookId(int bookId);
 }
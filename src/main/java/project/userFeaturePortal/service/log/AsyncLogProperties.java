@@ -0,0 +1,31 @@
+package project.userFeaturePortal.service.log;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Settings of the asynchronous audit log pipeline (prefix "log.async").
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "log.async")
+public class AsyncLogProperties {
+
+  // if false every log is written synchronously inside the request
+  private boolean enabled = false;
+
+  // maximum number of logs waiting in the buffer
+  private int capacity = 10_000;
+
+  // maximum number of logs written by one batch insert
+  private int flushSize = 500;
+
+  // maximum time a log waits in the buffer before it is written
+  private Duration flushInterval = Duration.ofMillis(200);
+
+  // how long a caller waits for free space before the log is written synchronously
+  private Duration offerTimeout = Duration.ofMillis(50);
+}
@@ -0,0 +1,201 @@
+package project.userFeaturePortal.service.log;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.userFeaturePortal.model.entity.Log;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffers logs in a bounded queue and writes them with multi-row batch inserts from a background
+ * thread. Only active if "log.async.enabled" is set, otherwise {@link #isEnabled()} is false and
+ * the caller has to save the log itself. Every batch is inserted in a transaction of its own, also
+ * when a full buffer makes the caller write its log from the after commit callback of its finished
+ * transaction.
+ */
+@Component
+public class AsyncLogWriter {
+
+  private static final Logger LOGGER = LogManager.getLogger(AsyncLogWriter.class);
+
+  private final AsyncLogProperties properties;
+  private final LogBatchInserter logBatchInserter;
+  private final TransactionTemplate transactionTemplate;
+  private final LogChangeNotifier logChangeNotifier;
+  private final BlockingQueue<Log> queue;
+  private final Timer batchLatency;
+  private final Counter writtenLogs;
+  private final Counter overflowLogs;
+  private final Counter failedLogs;
+
+  private volatile boolean running;
+  private Thread writerThread;
+
+  public AsyncLogWriter(
+      AsyncLogProperties properties,
+      LogBatchInserter logBatchInserter,
+      PlatformTransactionManager transactionManager,
+      LogChangeNotifier logChangeNotifier,
+      ObjectProvider<MeterRegistry> meterRegistryProvider) {
+    MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable(SimpleMeterRegistry::new);
+    this.properties = properties;
+    this.logBatchInserter = logBatchInserter;
+    // never join the transaction bound to the caller, it is already committed after commit
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.logChangeNotifier = logChangeNotifier;
+    this.queue = new ArrayBlockingQueue<>(properties.getCapacity());
+    meterRegistry.gauge("log.async.queue.depth", queue, BlockingQueue::size);
+    this.batchLatency = meterRegistry.timer("log.async.batch.latency");
+    this.writtenLogs = meterRegistry.counter("log.async.written");
+    this.overflowLogs = meterRegistry.counter("log.async.overflow");
+    this.failedLogs = meterRegistry.counter("log.async.failed");
+  }
+
+  @PostConstruct
+  void start() {
+    if (!properties.isEnabled()) {
+      return;
+    }
+    running = true;
+    writerThread = new Thread(this::drain, "async-log-writer");
+    writerThread.setDaemon(true);
+    writerThread.start();
+    LOGGER.info(
+        "Async log writer started (capacity {}, flush size {}, flush interval {}).",
+        properties.getCapacity(),
+        properties.getFlushSize(),
+        properties.getFlushInterval());
+  }
+
+  @PreDestroy
+  void stop() throws InterruptedException {
+    if (writerThread == null) {
+      return;
+    }
+    running = false;
+    writerThread.join(properties.getFlushInterval().toMillis() * 10);
+
+    // write everything the writer thread could not drain anymore
+    List<Log> rest = new ArrayList<>();
+    queue.drainTo(rest);
+    if (!rest.isEmpty()) {
+      write(rest);
+    }
+    LOGGER.info("Async log writer stopped.");
+  }
+
+  public boolean isEnabled() {
+    return properties.isEnabled();
+  }
+
+  /**
+   * Hands a log over to the writer. Inside a transaction the log is only queued after a successful
+   * commit, so rolled back operations leave no audit entry behind.
+   */
+  public void submit(Log log) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              enqueue(log);
+            }
+          });
+      return;
+    }
+    enqueue(log);
+  }
+
+  public int getQueueDepth() {
+    return queue.size();
+  }
+
+  void enqueue(Log log) {
+    boolean queued;
+    try {
+      queued = queue.offer(log, properties.getOfferTimeout().toMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      queued = false;
+    }
+
+    // backpressure: if the buffer stays full the caller writes its log by itself
+    if (!queued) {
+      overflowLogs.increment();
+      LOGGER.warn("Async log buffer is full, writing log synchronously.");
+      write(List.of(log));
+    }
+  }
+
+  private void drain() {
+    int flushSize = properties.getFlushSize();
+    long flushIntervalNanos = properties.getFlushInterval().toNanos();
+    List<Log> batch = new ArrayList<>(flushSize);
+
+    while (running || !queue.isEmpty()) {
+      try {
+        Log first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+
+        // collect until the batch is full or the first log waited for one flush interval
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (batch.size() < flushSize) {
+          queue.drainTo(batch, flushSize - batch.size());
+          long remaining = deadline - System.nanoTime();
+          if (batch.size() >= flushSize || remaining <= 0 || !running) {
+            break;
+          }
+          Log next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+          if (next == null) {
+            break;
+          }
+          batch.add(next);
+        }
+
+        write(batch);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } finally {
+        batch.clear();
+      }
+    }
+  }
+
+  void write(List<Log> logs) {
+    long start = System.nanoTime();
+    try {
+      transactionTemplate.executeWithoutResult(status -> logBatchInserter.insert(logs));
+      writtenLogs.increment(logs.size());
+      logChangeNotifier.logsWritten(new ArrayList<>(logs));
+    } catch (DataAccessException | TransactionException e) {
+      failedLogs.increment(logs.size());
+      LOGGER.error("Could not write {} logs: {}", logs.size(), e.getMessage());
+    } finally {
+      batchLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+}
@@ -0,0 +1,99 @@
+package project.userFeaturePortal.service.log;
+
+/**
+ * Count-Min sketch of string frequencies in width * depth counters. An estimate is never lower than
+ * the true count and higher by at most e / width of all added items with a probability of
+ * 1 - e^-depth. Sketches of the same size are merged by adding their counters. Not thread safe.
+ */
+public class CountMinSketch {
+
+  private final int width;
+  private final int depth;
+  private final int[] counters;
+  private long total;
+
+  public CountMinSketch(int width, int depth) {
+    if (width < 1 || depth < 1) {
+      throw new IllegalArgumentException("Width and depth of a Count-Min sketch must be positive.");
+    }
+    this.width = width;
+    this.depth = depth;
+    this.counters = new int[width * depth];
+  }
+
+  /** Counts the item once and returns its new estimate. */
+  public long add(String item) {
+    return add(item, 1);
+  }
+
+  /** Counts the item count times and returns its new estimate. */
+  public long add(String item, int count) {
+    long hash = hash(item);
+    long estimate = Long.MAX_VALUE;
+    for (int row = 0; row < depth; row++) {
+      estimate = Math.min(estimate, counters[index(hash, row)] += count);
+    }
+    total += count;
+    return estimate;
+  }
+
+  public long estimate(String item) {
+    long hash = hash(item);
+    long estimate = Long.MAX_VALUE;
+    for (int row = 0; row < depth; row++) {
+      estimate = Math.min(estimate, counters[index(hash, row)]);
+    }
+    return estimate;
+  }
+
+  public void merge(CountMinSketch other) {
+    if (other.width != width || other.depth != depth) {
+      throw new IllegalArgumentException("Only Count-Min sketches of the same size can be merged.");
+    }
+    for (int i = 0; i < counters.length; i++) {
+      counters[i] += other.counters[i];
+    }
+    total += other.total;
+  }
+
+  /** Number of all added items. */
+  public long getTotal() {
+    return total;
+  }
+
+  /** Upper bound of the overestimate relative to the number of added items. */
+  public static double relativeError(int width) {
+    return Math.E / width;
+  }
+
+  /** Probability that an estimate keeps to the bound of {@link #relativeError(int)}. */
+  public static double confidence(int depth) {
+    return 1 - Math.exp(-depth);
+  }
+
+  // the rows use the two halves of one 64 bit hash, combined differently per row
+  private int index(long hash, int row) {
+    int hash1 = (int) hash;
+    int hash2 = (int) (hash >>> 32);
+    return row * width + Math.floorMod(hash1 + row * hash2, width);
+  }
+
+  // FNV-1a over the chars, the mixing spreads similar messages over all counters
+  static long hash(String item) {
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < item.length(); i++) {
+      hash ^= item.charAt(i);
+      hash *= 0x100000001b3L;
+    }
+    return mix(hash);
+  }
+
+  static long mix(long value) {
+    value ^= value >>> 33;
+    value *= 0xff51afd7ed558ccdL;
+    value ^= value >>> 33;
+    value *= 0xc4ceb9fe1a85ec53L;
+    value ^= value >>> 33;
+    return value;
+  }
+}
@@ -0,0 +1,62 @@
+package project.userFeaturePortal.service.log;
+
+/**
+ * HyperLogLog estimate of the number of distinct values in 2^precision one byte registers. The
+ * relative standard error of the estimate is 1.04 / sqrt(2^precision), small counts are estimated
+ * by linear counting. Sketches of the same precision are merged by their register maximum. Not
+ * thread safe.
+ */
+public class HyperLogLog {
+
+  private final int precision;
+  private final byte[] registers;
+
+  public HyperLogLog(int precision) {
+    if (precision < 4 || precision > 16) {
+      throw new IllegalArgumentException("Precision of a HyperLogLog must be between 4 and 16.");
+    }
+    this.precision = precision;
+    this.registers = new byte[1 << precision];
+  }
+
+  public void add(long value) {
+    long hash = CountMinSketch.mix(value);
+    int index = (int) (hash >>> (64 - precision));
+    // the marker bit limits the rank to the bits left after the index
+    int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+    if (rank > registers[index]) {
+      registers[index] = (byte) rank;
+    }
+  }
+
+  public long estimate() {
+    int registerCount = registers.length;
+    double sum = 0;
+    int zeros = 0;
+    for (byte register : registers) {
+      sum += 1.0 / (1L << register);
+      if (register == 0) {
+        zeros++;
+      }
+    }
+    double alpha = 0.7213 / (1 + 1.079 / registerCount);
+    double estimate = alpha * registerCount * registerCount / sum;
+    if (estimate <= 2.5 * registerCount && zeros > 0) {
+      estimate = registerCount * Math.log((double) registerCount / zeros);
+    }
+    return Math.round(estimate);
+  }
+
+  public void merge(HyperLogLog other) {
+    if (other.precision != precision) {
+      throw new IllegalArgumentException("Only HyperLogLogs of the same precision can be merged.");
+    }
+    for (int i = 0; i < registers.length; i++) {
+      registers[i] = (byte) Math.max(registers[i], other.registers[i]);
+    }
+  }
+
+  public static double standardError(int precision) {
+    return 1.04 / Math.sqrt(1 << precision);
+  }
+}
@@ -0,0 +1,219 @@
+package project.userFeaturePortal.service.log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed set of non-negative ints in the style of a roaring bitmap, meant for the dense
+ * {@link IdOrdinals} of log ids. The ints are split by their upper 16 bits into chunks. A chunk is
+ * kept as a sorted array while it holds at most {@link #ARRAY_LIMIT} values and as a bitmap of
+ * 65536 bits above, so both rare and frequent values need little memory. The cardinality is kept
+ * up to date, so counting is O(1). Not thread safe.
+ */
+public class IdBitmap {
+
+  static final int ARRAY_LIMIT = 4096;
+
+  // indexed by the upper 16 bits, null for an empty chunk
+  private final List<Container> chunks = new ArrayList<>();
+  private int cardinality;
+
+  public void add(int value) {
+    int high = value >>> 16;
+    while (chunks.size() <= high) {
+      chunks.add(null);
+    }
+    Container chunk = chunks.get(high);
+    if (chunk == null) {
+      chunk = new ArrayContainer();
+    }
+    int size = chunk.size();
+    chunk = chunk.add((char) value);
+    cardinality += chunk.size() - size;
+    chunks.set(high, chunk);
+  }
+
+  public void remove(int value) {
+    int high = value >>> 16;
+    Container chunk = high < chunks.size() ? chunks.get(high) : null;
+    if (chunk == null) {
+      return;
+    }
+    int size = chunk.size();
+    chunk = chunk.remove((char) value);
+    cardinality -= size - chunk.size();
+    chunks.set(high, chunk.size() == 0 ? null : chunk);
+  }
+
+  public boolean contains(int value) {
+    int high = value >>> 16;
+    Container chunk = high < chunks.size() ? chunks.get(high) : null;
+    return chunk != null && chunk.contains((char) value);
+  }
+
+  public int cardinality() {
+    return cardinality;
+  }
+
+  /** Number of chunks holding values. */
+  int chunkCount() {
+    int count = 0;
+    for (Container chunk : chunks) {
+      if (chunk != null) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  public void clear() {
+    chunks.clear();
+    cardinality = 0;
+  }
+
+  /** Passes all values in ascending order. */
+  public void forEach(IntConsumer action) {
+    for (int high = 0; high < chunks.size(); high++) {
+      Container chunk = chunks.get(high);
+      if (chunk != null) {
+        chunk.forEach(action, high << 16);
+      }
+    }
+  }
+
+  private interface Container {
+
+    // both return the container holding the values afterwards, which may be of the other kind
+    Container add(char value);
+
+    Container remove(char value);
+
+    boolean contains(char value);
+
+    int size();
+
+    void forEach(IntConsumer action, int high);
+  }
+
+  private static final class ArrayContainer implements Container {
+
+    private char[] values = new char[4];
+    private int size;
+
+    @Override
+    public Container add(char value) {
+      int index = Arrays.binarySearch(values, 0, size, value);
+      if (index >= 0) {
+        return this;
+      }
+      if (size == ARRAY_LIMIT) {
+        return toBitmap().add(value);
+      }
+      int insertAt = -index - 1;
+      if (size == values.length) {
+        values = Arrays.copyOf(values, Math.min(values.length * 2, ARRAY_LIMIT));
+      }
+      System.arraycopy(values, insertAt, values, insertAt + 1, size - insertAt);
+      values[insertAt] = value;
+      size++;
+      return this;
+    }
+
+    @Override
+    public Container remove(char value) {
+      int index = Arrays.binarySearch(values, 0, size, value);
+      if (index >= 0) {
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+      }
+      return this;
+    }
+
+    @Override
+    public boolean contains(char value) {
+      return Arrays.binarySearch(values, 0, size, value) >= 0;
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public void forEach(IntConsumer action, int high) {
+      for (int i = 0; i < size; i++) {
+        action.accept(high | values[i]);
+      }
+    }
+
+    private BitmapContainer toBitmap() {
+      BitmapContainer bitmap = new BitmapContainer();
+      for (int i = 0; i < size; i++) {
+        bitmap.add(values[i]);
+      }
+      return bitmap;
+    }
+  }
+
+  private static final class BitmapContainer implements Container {
+
+    private final long[] words = new long[1024];
+    private int size;
+
+    @Override
+    public Container add(char value) {
+      long bit = 1L << value;
+      if ((words[value >>> 6] & bit) == 0) {
+        words[value >>> 6] |= bit;
+        size++;
+      }
+      return this;
+    }
+
+    @Override
+    public Container remove(char value) {
+      long bit = 1L << value;
+      if ((words[value >>> 6] & bit) != 0) {
+        words[value >>> 6] &= ~bit;
+        size--;
+      }
+      return size <= ARRAY_LIMIT ? toArray() : this;
+    }
+
+    @Override
+    public boolean contains(char value) {
+      return (words[value >>> 6] & (1L << value)) != 0;
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public void forEach(IntConsumer action, int high) {
+      for (int i = 0; i < words.length; i++) {
+        long word = words[i];
+        while (word != 0) {
+          action.accept(high | (i << 6) | Long.numberOfTrailingZeros(word));
+          word &= word - 1;
+        }
+      }
+    }
+
+    private ArrayContainer toArray() {
+      ArrayContainer array = new ArrayContainer();
+      array.values = new char[Math.max(size, 4)];
+      for (int i = 0; i < words.length; i++) {
+        long word = words[i];
+        while (word != 0) {
+          array.values[array.size++] = (char) ((i << 6) | Long.numberOfTrailingZeros(word));
+          word &= word - 1;
+        }
+      }
+      return array;
+    }
+  }
+}
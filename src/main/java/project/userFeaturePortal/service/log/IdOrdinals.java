@@ -0,0 +1,57 @@
+package project.userFeaturePortal.service.log;
+
+import java.util.Arrays;
+
+/**
+ * Dense ordinals of ascending log ids, kept as a sorted array. The time-ordered log ids are far
+ * apart, one millisecond each at low rates, while their ordinals are consecutive, so an
+ * {@link IdBitmap} over the ordinals compresses however sparse the ids are. Ids are only appended;
+ * an id below the last one has no ordinal until the ordinals are rebuilt. Not thread safe.
+ */
+public class IdOrdinals {
+
+  private long[] ids = new long[1024];
+  private int size;
+
+  /** True if the id is above all ids, so it can be appended. */
+  public boolean canAppend(long id) {
+    return size == 0 || id > ids[size - 1];
+  }
+
+  /** The ordinal of the appended id. */
+  public int append(long id) {
+    if (!canAppend(id)) {
+      throw new IllegalArgumentException("Id " + id + " is not above the last id " + ids[size - 1] + ".");
+    }
+    if (size == ids.length) {
+      ids = Arrays.copyOf(ids, ids.length * 2);
+    }
+    ids[size] = id;
+    return size++;
+  }
+
+  /** The ordinal of the id, -1 if it has none. */
+  public int ordinalOf(long id) {
+    int index = Arrays.binarySearch(ids, 0, size, id);
+    return index < 0 ? -1 : index;
+  }
+
+  /** The ordinal of the lowest id which is at least the id, size() if there is none. */
+  public int ceilingOrdinal(long id) {
+    int index = Arrays.binarySearch(ids, 0, size, id);
+    return index < 0 ? -index - 1 : index;
+  }
+
+  public long idOf(int ordinal) {
+    return ids[ordinal];
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public void clear() {
+    ids = new long[1024];
+    size = 0;
+  }
+}
@@ -0,0 +1,49 @@
+package project.userFeaturePortal.service.log;
+
+import project.userFeaturePortal.model.generator.TimeOrderedIdGenerator;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Ids of logs whose day lies before the day of their id, e.g. logs sent late with their original
+ * timestamp. All other logs of the days before a day have ids below
+ * {@link TimeOrderedIdGenerator#firstIdAt} the day, so the indexes find the logs of dropped days by
+ * their ids and only have to remember the late ones. Not thread safe.
+ */
+class LateLogIds {
+
+  private final TreeMap<LocalDate, SortedLongSet> idsByDay = new TreeMap<>();
+
+  /** Remembers the id if the log is late, a log without timestamp never is. */
+  void add(long id, LocalDateTime timestamp) {
+    if (timestamp == null) {
+      return;
+    }
+    LocalDate day = timestamp.toLocalDate();
+    if (day.isBefore(TimeOrderedIdGenerator.timestampOf(id).toLocalDate())) {
+      idsByDay.computeIfAbsent(day, key -> new SortedLongSet()).add(id);
+    }
+  }
+
+  void remove(long id) {
+    idsByDay.values().removeIf(ids -> ids.remove(id) && ids.isEmpty());
+  }
+
+  /** Forgets the late logs of the days before the day and returns their ids. */
+  SortedLongSet removeBefore(LocalDate day) {
+    SortedLongSet removed = new SortedLongSet();
+    Map<LocalDate, SortedLongSet> before = idsByDay.headMap(day);
+    for (SortedLongSet ids : before.values()) {
+      removed = removed.union(ids);
+    }
+    before.clear();
+    return removed;
+  }
+
+  void clear() {
+    idsByDay.clear();
+  }
+}
@@ -0,0 +1,431 @@
+package project.userFeaturePortal.service.log;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Archive file of one partition day in a columnar layout. The logs are sorted by timestamp and id
+ * and split into blocks. A block stores each column on its own: delta-encoded ids and timestamps,
+ * one byte severity codes, user codes of the dictionary, the repeat counts with the last timestamps
+ * of coalesced logs and the deflated messages. Files of version 1 have no repeat counts.
+ *
+ * <p>The footer holds the user dictionary and the statistics of every block: min and max timestamp,
+ * the severities and the users in it. It is kept in memory, so a scan only reads the blocks its
+ * filter can match. Files are written once and never changed.
+ */
+final class LogArchiveFile implements Closeable {
+
+  private static final int MAGIC = 0x4C4F4741;
+  private static final int VERSION = 2;
+  // first version with repeat counts and last timestamps
+  private static final int REPEAT_COUNT_VERSION = 2;
+  private static final int HEADER_BYTES = 8;
+  private static final int TRAILER_BYTES = 12;
+
+  // user code of logs without user, the codes of the dictionary start at 1
+  private static final int NO_USER = 0;
+
+  private final Path file;
+  private final FileChannel channel;
+  private final int version;
+  private final int[] userIds;
+  private final String[] userNames;
+  private final Map<Integer, Integer> userCodes = new HashMap<>();
+  private final List<Block> blocks;
+
+  private LogArchiveFile(
+      Path file, FileChannel channel, int version, int[] userIds, String[] userNames, List<Block> blocks) {
+    this.file = file;
+    this.channel = channel;
+    this.version = version;
+    this.userIds = userIds;
+    this.userNames = userNames;
+    this.blocks = blocks;
+    for (int i = 0; i < userIds.length; i++) {
+      userCodes.put(userIds[i], i + 1);
+    }
+  }
+
+  /** Writes the rows, which have to be sorted by timestamp and id, in blocks of blockSize rows. */
+  static void write(Path file, List<Row> rows, int blockSize) throws IOException {
+    try (Writer writer = new Writer(file, blockSize)) {
+      for (Row row : rows) {
+        writer.add(row);
+      }
+      writer.finish();
+    }
+  }
+
+  static LogArchiveFile open(Path file) throws IOException {
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      long size = channel.size();
+      if (size < HEADER_BYTES + TRAILER_BYTES) {
+        throw new IOException("Not a complete log archive file: " + file);
+      }
+      DataInputStream header = read(channel, 0, HEADER_BYTES);
+      int version = header.readInt() == MAGIC ? header.readInt() : -1;
+      if (version < 1 || version > VERSION) {
+        throw new IOException("Not a log archive file of a known version: " + file);
+      }
+      DataInputStream trailer = read(channel, size - TRAILER_BYTES, TRAILER_BYTES);
+      long footer = trailer.readLong();
+      if (trailer.readInt() != MAGIC) {
+        throw new IOException("Not a complete log archive file: " + file);
+      }
+
+      DataInputStream in = read(channel, footer, Math.toIntExact(size - TRAILER_BYTES - footer));
+      int[] userIds = new int[in.readInt()];
+      String[] userNames = new String[userIds.length];
+      for (int i = 0; i < userIds.length; i++) {
+        userIds[i] = in.readInt();
+        userNames[i] = in.readUTF();
+      }
+      int blockCount = in.readInt();
+      List<Block> blocks = new ArrayList<>(blockCount);
+      for (int i = 0; i < blockCount; i++) {
+        blocks.add(Block.read(in));
+      }
+      return new LogArchiveFile(file, channel, version, userIds, userNames, blocks);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  Path getFile() {
+    return file;
+  }
+
+  List<Block> getBlocks() {
+    return blocks;
+  }
+
+  /** Dictionary code of the user, null if the file has no log of the user. */
+  Integer userCode(int userId) {
+    return userCodes.get(userId);
+  }
+
+  /** The rows of the blocks accepted by the filter, in the order they were written. */
+  Stream<Row> rows(Predicate<Block> blockFilter) {
+    return blocks.stream().filter(blockFilter).flatMap(block -> decode(block).stream());
+  }
+
+  private static byte[] encode(List<Row> rows, Map<Integer, Integer> userCodes) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeInt(rows.size());
+    long previous = 0;
+    for (Row row : rows) {
+      writeVarLong(out, zigZag(row.getId() - previous));
+      previous = row.getId();
+    }
+    previous = 0;
+    for (Row row : rows) {
+      writeVarLong(out, zigZag(row.getTimestamp() - previous));
+      previous = row.getTimestamp();
+    }
+    for (Row row : rows) {
+      out.writeByte(row.getSeverity());
+    }
+    for (Row row : rows) {
+      writeVarLong(out, row.getUserId() == null ? NO_USER : userCodes.get(row.getUserId()));
+    }
+    // 0 for a log without repeat count, only those with one have a last timestamp
+    for (Row row : rows) {
+      writeVarLong(out, row.getRepeatCount() == null ? 0 : row.getRepeatCount());
+    }
+    for (Row row : rows) {
+      if (row.getRepeatCount() != null) {
+        writeVarLong(out, zigZag(row.getLastTimestamp() - row.getTimestamp()));
+      }
+    }
+
+    // the messages are the only column worth compressing
+    DataOutputStream messages = new DataOutputStream(new DeflaterOutputStream(out));
+    for (Row row : rows) {
+      byte[] message = row.getMessage().getBytes(StandardCharsets.UTF_8);
+      writeVarLong(messages, message.length);
+      messages.write(message);
+    }
+    messages.close();
+    return bytes.toByteArray();
+  }
+
+  private List<Row> decode(Block block) {
+    try {
+      DataInputStream in = read(channel, block.getOffset(), block.getLength());
+      int size = in.readInt();
+      long[] ids = new long[size];
+      long previous = 0;
+      for (int i = 0; i < size; i++) {
+        previous += unZigZag(readVarLong(in));
+        ids[i] = previous;
+      }
+      long[] timestamps = new long[size];
+      previous = 0;
+      for (int i = 0; i < size; i++) {
+        previous += unZigZag(readVarLong(in));
+        timestamps[i] = previous;
+      }
+      byte[] severities = new byte[size];
+      in.readFully(severities);
+      int[] users = new int[size];
+      for (int i = 0; i < size; i++) {
+        users[i] = (int) readVarLong(in);
+      }
+      int[] repeatCounts = new int[size];
+      long[] lastTimestamps = new long[size];
+      if (version >= REPEAT_COUNT_VERSION) {
+        for (int i = 0; i < size; i++) {
+          repeatCounts[i] = (int) readVarLong(in);
+        }
+        for (int i = 0; i < size; i++) {
+          if (repeatCounts[i] != 0) {
+            lastTimestamps[i] = timestamps[i] + unZigZag(readVarLong(in));
+          }
+        }
+      }
+
+      DataInputStream messages = new DataInputStream(new InflaterInputStream(in));
+      List<Row> rows = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        byte[] message = new byte[(int) readVarLong(messages)];
+        messages.readFully(message);
+        boolean hasUser = users[i] != NO_USER;
+        boolean repeated = repeatCounts[i] != 0;
+        rows.add(new Row(
+            ids[i],
+            timestamps[i],
+            severities[i],
+            new String(message, StandardCharsets.UTF_8),
+            hasUser ? userIds[users[i] - 1] : null,
+            hasUser ? userNames[users[i] - 1] : null,
+            repeated ? repeatCounts[i] : null,
+            repeated ? lastTimestamps[i] : null));
+      }
+      return rows;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static DataInputStream read(FileChannel channel, long position, int length) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new EOFException();
+      }
+    }
+    return new DataInputStream(new ByteArrayInputStream(buffer.array()));
+  }
+
+  private static long zigZag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  private static long unZigZag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  private static void writeVarLong(DataOutput out, long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      out.writeByte((int) (value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte((int) value);
+  }
+
+  private static long readVarLong(DataInput in) throws IOException {
+    long value = 0;
+    for (int shift = 0; ; shift += 7) {
+      byte next = in.readByte();
+      value |= (long) (next & 0x7F) << shift;
+      if (next >= 0) {
+        return value;
+      }
+    }
+  }
+
+  /**
+   * Writes a file from rows added in timestamp and id order. Only the rows of the current block are
+   * held, a full block is encoded and written right away. The user dictionary grows with the rows
+   * and is written to the footer by {@link #finish()}. A writer closed before is left incomplete.
+   */
+  static final class Writer implements Closeable {
+
+    private final DataOutputStream out;
+    private final int blockSize;
+    private final Map<Integer, Integer> codes = new HashMap<>();
+    private final List<Row> users = new ArrayList<>();
+    private final List<Row> blockRows = new ArrayList<>();
+    private final List<Block> blocks = new ArrayList<>();
+    private long offset = HEADER_BYTES;
+
+    Writer(Path file, int blockSize) throws IOException {
+      this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+      this.blockSize = blockSize;
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+    }
+
+    void add(Row row) throws IOException {
+      if (row.getUserId() != null && !codes.containsKey(row.getUserId())) {
+        codes.put(row.getUserId(), codes.size() + 1);
+        users.add(row);
+      }
+      blockRows.add(row);
+      if (blockRows.size() == blockSize) {
+        writeBlock();
+      }
+    }
+
+    /** Writes the last block and the footer. */
+    void finish() throws IOException {
+      if (!blockRows.isEmpty()) {
+        writeBlock();
+      }
+      out.writeInt(users.size());
+      for (Row user : users) {
+        out.writeInt(user.getUserId());
+        out.writeUTF(user.getUserName() == null ? "" : user.getUserName());
+      }
+      out.writeInt(blocks.size());
+      for (Block block : blocks) {
+        block.write(out);
+      }
+      out.writeLong(offset);
+      out.writeInt(MAGIC);
+      out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      out.close();
+    }
+
+    private void writeBlock() throws IOException {
+      byte[] data = encode(blockRows, codes);
+      out.write(data);
+      blocks.add(Block.of(offset, data.length, blockRows, codes));
+      offset += data.length;
+      blockRows.clear();
+    }
+  }
+
+  /** One archived log, the timestamps as nanoseconds since the epoch. */
+  @Getter
+  @AllArgsConstructor
+  static final class Row {
+    private final long id;
+    private final long timestamp;
+    private final byte severity;
+    private final String message;
+    private final Integer userId;
+    private final String userName;
+    // only set for a log coalesced from a burst
+    private final Integer repeatCount;
+    private final Long lastTimestamp;
+
+    Row(long id, long timestamp, byte severity, String message, Integer userId, String userName) {
+      this(id, timestamp, severity, message, userId, userName, null, null);
+    }
+  }
+
+  /** Position and statistics of a block. */
+  @Getter
+  @AllArgsConstructor
+  static final class Block {
+    private final long offset;
+    private final int length;
+    private final int rows;
+    private final long minTimestamp;
+    private final long maxTimestamp;
+    // bit n is set if the block has a log with severity code n
+    private final int severities;
+    // bit n is set if the block has a log of user code n
+    private final BitSet users;
+
+    boolean mayContainSeverity(byte severity) {
+      return severity >= 0 && severity < Integer.SIZE && (severities & 1 << severity) != 0;
+    }
+
+    boolean mayContainSeverityFrom(byte minSeverity) {
+      return minSeverity < Integer.SIZE && severities >>> Math.max(minSeverity, 0) != 0;
+    }
+
+    boolean mayContainUser(int userCode) {
+      return users.get(userCode);
+    }
+
+    private static Block of(long offset, int length, List<Row> rows, Map<Integer, Integer> userCodes) {
+      long minTimestamp = Long.MAX_VALUE;
+      long maxTimestamp = Long.MIN_VALUE;
+      int severities = 0;
+      BitSet users = new BitSet();
+      for (Row row : rows) {
+        minTimestamp = Math.min(minTimestamp, row.getTimestamp());
+        maxTimestamp = Math.max(maxTimestamp, row.getTimestamp());
+        severities |= 1 << row.getSeverity();
+        users.set(row.getUserId() == null ? NO_USER : userCodes.get(row.getUserId()));
+      }
+      return new Block(offset, length, rows.size(), minTimestamp, maxTimestamp, severities, users);
+    }
+
+    private void write(DataOutput out) throws IOException {
+      out.writeLong(offset);
+      out.writeInt(length);
+      out.writeInt(rows);
+      out.writeLong(minTimestamp);
+      out.writeLong(maxTimestamp);
+      out.writeInt(severities);
+      byte[] userBits = users.toByteArray();
+      out.writeInt(userBits.length);
+      out.write(userBits);
+    }
+
+    private static Block read(DataInput in) throws IOException {
+      long offset = in.readLong();
+      int length = in.readInt();
+      int rows = in.readInt();
+      long minTimestamp = in.readLong();
+      long maxTimestamp = in.readLong();
+      int severities = in.readInt();
+      byte[] userBits = new byte[in.readInt()];
+      in.readFully(userBits);
+      return new Block(offset, length, rows, minTimestamp, maxTimestamp, severities, BitSet.valueOf(userBits));
+    }
+  }
+}
@@ -0,0 +1,137 @@
+package project.userFeaturePortal.service.log;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import project.userFeaturePortal.common.enums.LogTemplate;
+import project.userFeaturePortal.model.entity.Log;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves the partitions of days older than "log.archive.older-than" from the log table to the
+ * {@link LogArchiveStore}. A partition is deleted from the table only after its archive file is
+ * complete, logs inserted into it in the meantime are moved by the next run.
+ */
+@Component
+public class LogArchiveJob {
+
+  private static final Logger LOGGER = LogManager.getLogger(LogArchiveJob.class);
+
+  private static final String SELECT_PARTITIONS =
+      "SELECT DISTINCT partition_day FROM log WHERE partition_day < ? ORDER BY partition_day";
+  private static final String SELECT_PARTITION =
+      "SELECT l.id, l.severity, l.message, l.timestamp, l.user, u.name, l.template, l.message_arg1, l.message_arg2,"
+          + " l.repeat_count, l.last_timestamp FROM log l LEFT JOIN user u ON u.id = l.user WHERE l.partition_day = ? ORDER BY l.timestamp, l.id";
+  private static final String DELETE_ARCHIVED = "DELETE FROM log WHERE id = ?";
+
+  private final LogArchiveProperties properties;
+  private final LogArchiveStore logArchiveStore;
+  private final JdbcTemplate jdbcTemplate;
+  private final LogChangeNotifier logChangeNotifier;
+  private final Counter archivedLogs;
+
+  public LogArchiveJob(
+      LogArchiveProperties properties,
+      LogArchiveStore logArchiveStore,
+      DataSource dataSource,
+      LogChangeNotifier logChangeNotifier,
+      ObjectProvider<MeterRegistry> meterRegistryProvider) {
+    MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable(SimpleMeterRegistry::new);
+    this.properties = properties;
+    this.logArchiveStore = logArchiveStore;
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    // drivers which read the whole result by default stream it in blocks
+    jdbcTemplate.setFetchSize(properties.getBlockSize());
+    this.logChangeNotifier = logChangeNotifier;
+    this.archivedLogs = meterRegistry.counter("log.archive.archived");
+  }
+
+  @Scheduled(cron = "${log.archive.cron:0 30 0 * * *}")
+  public void run() {
+    if (properties.isEnabled()) {
+      archive(LocalDateTime.now());
+    }
+  }
+
+  /** Moves every partition older than the threshold to the archive and returns the number of moved logs. */
+  public long archive(LocalDateTime now) {
+    LocalDate firstKeptDay = now.minus(properties.getOlderThan()).toLocalDate();
+    List<Integer> partitions =
+        jdbcTemplate.queryForList(SELECT_PARTITIONS, Integer.class, Log.partitionDayOf(firstKeptDay));
+
+    long archived = 0;
+    for (int partitionDay : partitions) {
+      archived += archivePartition(partitionDay);
+    }
+    if (archived > 0) {
+      logChangeNotifier.partitionsArchived(firstKeptDay);
+    }
+    archivedLogs.increment(archived);
+    LOGGER.info("Log archive moved {} logs of {} partitions.", archived, partitions.size());
+    return archived;
+  }
+
+  // the rows are written to the archive file block by block as they are read, only their ids are held
+  private int archivePartition(int partitionDay) {
+    SortedLongSet ids = new SortedLongSet();
+    try (LogArchiveStore.PartitionWriter writer = logArchiveStore.openPartition(partitionDay)) {
+      jdbcTemplate.query(SELECT_PARTITION, (RowCallbackHandler) rs -> {
+        LogArchiveFile.Row row = mapRow(rs);
+        writer.add(row);
+        ids.add(row.getId());
+      }, partitionDay);
+      if (ids.isEmpty()) {
+        return 0;
+      }
+      writer.commit();
+    }
+    return deleteArchived(ids);
+  }
+
+  /**
+   * Deletes exactly the archived logs, one block of ids per batch. A log committed to the partition
+   * after the select is kept for the next run, even if its id is lower than an archived one.
+   */
+  int deleteArchived(SortedLongSet ids) {
+    int deleted = 0;
+    for (int from = 0; from < ids.size(); from += properties.getBlockSize()) {
+      List<Object[]> batch = new ArrayList<>();
+      for (int i = from; i < Math.min(from + properties.getBlockSize(), ids.size()); i++) {
+        batch.add(new Object[] {ids.get(i)});
+      }
+      for (int count : jdbcTemplate.batchUpdate(DELETE_ARCHIVED, batch)) {
+        deleted += Math.max(count, 0);
+      }
+    }
+    return deleted;
+  }
+
+  private LogArchiveFile.Row mapRow(ResultSet rs) throws SQLException {
+    Timestamp lastTimestamp = rs.getTimestamp(11);
+    return new LogArchiveFile.Row(
+        rs.getLong(1),
+        LogSegmentStore.toKey(rs.getTimestamp(4).toLocalDateTime()),
+        rs.getByte(2),
+        // interned messages are archived expanded, the blocks compress them anyway
+        LogTemplate.messageOf(rs.getString(3), rs.getObject(7, Integer.class), rs.getString(8), rs.getString(9)),
+        rs.getObject(5, Integer.class),
+        rs.getString(6),
+        rs.getObject(10, Integer.class),
+        lastTimestamp == null ? null : LogSegmentStore.toKey(lastTimestamp.toLocalDateTime()));
+  }
+}
@@ -0,0 +1,29 @@
+package project.userFeaturePortal.service.log;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Settings of the archive old log partitions are moved to (prefix "log.archive"). The schedule of
+ * the move is set by "log.archive.cron".
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "log.archive")
+public class LogArchiveProperties {
+
+  // if false no partition is moved and queries do not read the archive
+  private boolean enabled = false;
+
+  // directory of the archive files, one per partition day
+  private String directory = "data/log-archive";
+
+  // partitions of days older than this are moved from the log table to the archive
+  private Duration olderThan = Duration.ofDays(30);
+
+  // number of logs per block, the smallest unit an archive scan reads or skips
+  private int blockSize = 1024;
+}
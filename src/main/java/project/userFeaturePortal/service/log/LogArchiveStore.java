@@ -0,0 +1,363 @@
+package project.userFeaturePortal.service.log;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import project.userFeaturePortal.common.dto.log.LogDTO;
+import project.userFeaturePortal.common.enums.LogTemplate;
+import project.userFeaturePortal.model.converter.SeverityConverter;
+import project.userFeaturePortal.model.repository.LogFilter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Cold tier of the logs: partitions moved out of the log table by the {@link LogArchiveJob}, one
+ * {@link LogArchiveFile} per partition day. Only active if "log.archive.enabled" is true.
+ *
+ * <p>The days do not overlap and every file is sorted, so reading the files in day order returns
+ * the logs sorted by timestamp and id. Blocks whose statistics do not match the filter are skipped.
+ * The in-memory indexes only know the log table, so the ids of a filter are ignored here.
+ */
+@Component
+public class LogArchiveStore {
+
+  private static final Logger LOGGER = LogManager.getLogger(LogArchiveStore.class);
+
+  static final String FILE_PREFIX = "archive-";
+  static final String FILE_SUFFIX = ".col";
+
+  private static final Comparator<LogArchiveFile.Row> TIMESTAMP_ORDER =
+      Comparator.comparingLong(LogArchiveFile.Row::getTimestamp).thenComparingLong(LogArchiveFile.Row::getId);
+
+  private final LogArchiveProperties properties;
+  private final NavigableMap<Integer, LogArchiveFile> files = new ConcurrentSkipListMap<>();
+  // replaced files may still be read by running queries, so they are closed with the store
+  private final List<LogArchiveFile> replacedFiles = new ArrayList<>();
+  private final Counter readBlocks;
+  private final Counter skippedBlocks;
+
+  public LogArchiveStore(LogArchiveProperties properties, ObjectProvider<MeterRegistry> meterRegistryProvider) {
+    MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable(SimpleMeterRegistry::new);
+    this.properties = properties;
+    this.readBlocks = meterRegistry.counter("log.archive.blocks.read");
+    this.skippedBlocks = meterRegistry.counter("log.archive.blocks.skipped");
+  }
+
+  @PostConstruct
+  public void open() {
+    if (!isEnabled()) {
+      return;
+    }
+    Path directory = Paths.get(properties.getDirectory());
+    try {
+      Files.createDirectories(directory);
+      List<Path> archiveFiles;
+      try (Stream<Path> list = Files.list(directory)) {
+        archiveFiles = list.filter(LogArchiveStore::isArchiveFile).collect(Collectors.toList());
+      }
+      for (Path file : archiveFiles) {
+        files.put(partitionDayOf(file), LogArchiveFile.open(file));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    LOGGER.info("Log archive opened {} partitions in {}.", files.size(), directory);
+  }
+
+  @PreDestroy
+  public synchronized void close() {
+    List<LogArchiveFile> openFiles = new ArrayList<>(files.values());
+    openFiles.addAll(replacedFiles);
+    for (LogArchiveFile file : openFiles) {
+      try {
+        file.close();
+      } catch (IOException e) {
+        LOGGER.error("Could not close log archive {}: {}", file.getFile(), e.getMessage());
+      }
+    }
+    files.clear();
+    replacedFiles.clear();
+  }
+
+  public boolean isEnabled() {
+    return properties.isEnabled();
+  }
+
+  public Set<Integer> getPartitions() {
+    return files.keySet();
+  }
+
+  /**
+   * Writes the logs of the partition day to its archive file. Logs already archived for the day,
+   * e.g. by a run which failed before deleting them from the table, are kept once.
+   */
+  public void archive(int partitionDay, List<LogArchiveFile.Row> rows) {
+    List<LogArchiveFile.Row> sortedRows = new ArrayList<>(rows);
+    sortedRows.sort(TIMESTAMP_ORDER);
+    try (PartitionWriter writer = openPartition(partitionDay)) {
+      sortedRows.forEach(writer::add);
+      writer.commit();
+    }
+  }
+
+  /**
+   * Starts a new archive file of the partition day, for rows too many to be held at once. The rows
+   * are added in timestamp and id order, the file replaces the one of the day with
+   * {@link PartitionWriter#commit()}. Closing the writer before discards the new file.
+   */
+  public PartitionWriter openPartition(int partitionDay) {
+    return new PartitionWriter(partitionDay);
+  }
+
+  /**
+   * Writes the rows block by block, merged with the rows of the day archived before: both are
+   * sorted, so the logs archived before are written between the added ones, and a log in both is
+   * written once.
+   */
+  public final class PartitionWriter implements AutoCloseable {
+
+    private final int partitionDay;
+    private final Path file;
+    private final Path temporaryFile;
+    private final LogArchiveFile previous;
+    private final Iterator<LogArchiveFile.Row> previousRows;
+    private final LogArchiveFile.Writer writer;
+    private LogArchiveFile.Row nextPrevious;
+    private boolean committed;
+
+    private PartitionWriter(int partitionDay) {
+      this.partitionDay = partitionDay;
+      this.file = Paths.get(properties.getDirectory(), String.format("%s%d%s", FILE_PREFIX, partitionDay, FILE_SUFFIX));
+      this.temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+      this.previous = files.get(partitionDay);
+      this.previousRows = previous == null
+          ? Collections.emptyIterator()
+          : previous.rows(block -> true).iterator();
+      try {
+        Files.createDirectories(file.getParent());
+        this.writer = new LogArchiveFile.Writer(temporaryFile, properties.getBlockSize());
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      nextPrevious();
+    }
+
+    public void add(LogArchiveFile.Row row) {
+      try {
+        while (nextPrevious != null && TIMESTAMP_ORDER.compare(nextPrevious, row) < 0) {
+          writer.add(nextPrevious);
+          nextPrevious();
+        }
+        if (nextPrevious != null && nextPrevious.getId() == row.getId()) {
+          nextPrevious();
+        }
+        writer.add(row);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    /** Completes the file and puts it in place of the one archived before. */
+    public void commit() {
+      try {
+        while (nextPrevious != null) {
+          writer.add(nextPrevious);
+          nextPrevious();
+        }
+        writer.finish();
+        writer.close();
+        synchronized (LogArchiveStore.this) {
+          // a crash never leaves a partly written archive file behind
+          Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+          files.put(partitionDay, LogArchiveFile.open(file));
+          if (previous != null) {
+            replacedFiles.add(previous);
+          }
+        }
+        committed = true;
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    public void close() {
+      if (committed) {
+        return;
+      }
+      try {
+        writer.close();
+        Files.deleteIfExists(temporaryFile);
+      } catch (IOException e) {
+        LOGGER.error("Could not discard log archive {}: {}", temporaryFile, e.getMessage());
+      }
+    }
+
+    private void nextPrevious() {
+      nextPrevious = previousRows.hasNext() ? previousRows.next() : null;
+    }
+  }
+
+  public List<LogDTO> findLogDTOs(LogFilter filter, Pageable pageable) {
+    try (Stream<LogDTO> logs = streamLogDTOs(filter)) {
+      Stream<LogDTO> page = pageable.isPaged()
+          ? logs.skip(pageable.getOffset()).limit(pageable.getPageSize())
+          : logs;
+      return page.collect(Collectors.toList());
+    }
+  }
+
+  /** The archived logs matching the filter, sorted by timestamp and id. */
+  public Stream<LogDTO> streamLogDTOs(LogFilter filter) {
+    return rows(filter).map(LogArchiveStore::toLogDTO);
+  }
+
+  // no archived row is turned into a log for the count
+  public long countLogs(LogFilter filter) {
+    try (Stream<LogArchiveFile.Row> rows = rows(filter)) {
+      return rows.count();
+    }
+  }
+
+  // no archived row is turned into a log for the check
+  public boolean existsLogs(LogFilter filter) {
+    try (Stream<LogArchiveFile.Row> rows = rows(filter)) {
+      return rows.findAny().isPresent();
+    }
+  }
+
+  /** The archived rows matching the filter, sorted by timestamp and id. */
+  Stream<LogArchiveFile.Row> rows(LogFilter filter) {
+    // ids of the logs behind a cursor with the same timestamp must still be read
+    long after = Long.MIN_VALUE;
+    if (filter.getStartDate() != null) {
+      after = LogSegmentStore.toKey(filter.getStartDate());
+    }
+    if (filter.getCursorTimestamp() != null) {
+      after = Math.max(after, LogSegmentStore.toKey(filter.getCursorTimestamp()) - 1);
+    }
+    long before = filter.getEndDate() == null ? Long.MAX_VALUE : LogSegmentStore.toKey(filter.getEndDate());
+    long from = after;
+
+    // only the files of the days in the time range are read
+    int firstPartition = filter.getFirstPartition() == null ? Integer.MIN_VALUE : filter.getFirstPartition();
+    if (filter.getStartDate() != null) {
+      firstPartition = Math.max(firstPartition, LogPartitionRouter.firstPartition(filter.getStartDate()));
+    }
+    if (filter.getCursorTimestamp() != null) {
+      firstPartition = Math.max(firstPartition, LogPartitionRouter.firstPartition(filter.getCursorTimestamp()));
+    }
+    int lastPartition = filter.getLastPartition() == null ? Integer.MAX_VALUE : filter.getLastPartition();
+    if (filter.getEndDate() != null) {
+      lastPartition = Math.min(lastPartition, LogPartitionRouter.lastPartition(filter.getEndDate()));
+    }
+    if (firstPartition > lastPartition) {
+      return Stream.empty();
+    }
+    List<LogArchiveFile> candidates = new ArrayList<>(files.subMap(firstPartition, true, lastPartition, true).values());
+    Predicate<LogArchiveFile.Row> matches = matching(filter);
+
+    return candidates.stream()
+        .flatMap(file -> file.rows(blockFilter(file, filter, from, before)))
+        .filter(row -> row.getTimestamp() > from && row.getTimestamp() < before && matches.test(row));
+  }
+
+  private Predicate<LogArchiveFile.Block> blockFilter(LogArchiveFile file, LogFilter filter, long from, long before) {
+    Predicate<LogArchiveFile.Block> predicate =
+        block -> block.getMaxTimestamp() > from && block.getMinTimestamp() < before;
+    if (filter.getSeverity() != null) {
+      byte severity = SeverityConverter.toCode(filter.getSeverity());
+      predicate = predicate.and(block -> block.mayContainSeverity(severity));
+    }
+    if (filter.getMinSeverity() != null) {
+      byte minSeverity = (byte) filter.getMinSeverity().ordinal();
+      predicate = predicate.and(block -> block.mayContainSeverityFrom(minSeverity));
+    }
+    if (filter.getUser() != null) {
+      Integer userCode = file.userCode(filter.getUser().getId());
+      predicate = predicate.and(block -> userCode != null && block.mayContainUser(userCode));
+    }
+    Predicate<LogArchiveFile.Block> matches = predicate;
+    return block -> {
+      boolean read = matches.test(block);
+      (read ? readBlocks : skippedBlocks).increment();
+      return read;
+    };
+  }
+
+  private static Predicate<LogArchiveFile.Row> matching(LogFilter filter) {
+    List<Predicate<LogArchiveFile.Row>> predicates = new ArrayList<>();
+    if (filter.getSeverity() != null) {
+      byte severity = SeverityConverter.toCode(filter.getSeverity());
+      predicates.add(row -> row.getSeverity() == severity);
+    }
+    if (filter.getMinSeverity() != null) {
+      byte minSeverity = (byte) filter.getMinSeverity().ordinal();
+      predicates.add(row -> row.getSeverity() >= minSeverity);
+    }
+    if (filter.getMessage() != null) {
+      String message = filter.getMessage();
+      predicates.add(row -> row.getMessage().contains(message));
+    }
+    if (filter.getTemplate() != null) {
+      // the archive keeps the full messages
+      LogTemplate template = filter.getTemplate();
+      predicates.add(row -> template.match(row.getMessage()) != null);
+    }
+    if (filter.getUser() != null) {
+      int userId = filter.getUser().getId();
+      predicates.add(row -> row.getUserId() != null && row.getUserId() == userId);
+    }
+    if (filter.getCursorTimestamp() != null) {
+      long cursorTimestamp = LogSegmentStore.toKey(filter.getCursorTimestamp());
+      long cursorId = filter.getCursorId();
+      predicates.add(row -> row.getTimestamp() > cursorTimestamp
+          || (row.getTimestamp() == cursorTimestamp && row.getId() > cursorId));
+    }
+    return predicates.stream().reduce(row -> true, Predicate::and);
+  }
+
+  private static LogDTO toLogDTO(LogArchiveFile.Row row) {
+    return new LogDTO(
+        row.getId(),
+        SeverityConverter.toSeverity(row.getSeverity()),
+        row.getMessage(),
+        LogSegmentStore.toTimestamp(row.getTimestamp()),
+        row.getUserName(),
+        row.getRepeatCount(),
+        row.getLastTimestamp() == null ? null : LogSegmentStore.toTimestamp(row.getLastTimestamp()));
+  }
+
+  private static boolean isArchiveFile(Path file) {
+    String name = file.getFileName().toString();
+    return name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX);
+  }
+
+  private static int partitionDayOf(Path file) {
+    String name = file.getFileName().toString();
+    return Integer.parseInt(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()));
+  }
+}
@@ -0,0 +1,85 @@
+package project.userFeaturePortal.service.log;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import project.userFeaturePortal.model.converter.SeverityConverter;
+import project.userFeaturePortal.model.entity.Log;
+import project.userFeaturePortal.model.generator.LogIdGenerator;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Inserts logs with JDBC batch statements. The ids are generated in process before the insert, so
+ * no generated keys have to be read back. Inside a transaction the connection of the transaction is
+ * used, so the insert is committed or rolled back with it.
+ */
+@Component
+public class LogBatchInserter {
+
+  static final String INSERT_LOG =
+      "INSERT INTO log (id, severity, message, template, message_arg1, message_arg2, timestamp, user, partition_day,"
+          + " repeat_count, last_timestamp) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+  // number of rows sent to the database with one executeBatch
+  static final int BATCH_SIZE = 500;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public LogBatchInserter(DataSource dataSource) {
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+  }
+
+  public void insert(List<Log> logs) {
+    for (int from = 0; from < logs.size(); from += BATCH_SIZE) {
+      insertBatch(logs.subList(from, Math.min(from + BATCH_SIZE, logs.size())));
+    }
+  }
+
+  private void insertBatch(List<Log> logs) {
+    jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+      try (PreparedStatement ps = connection.prepareStatement(INSERT_LOG)) {
+        for (Log log : logs) {
+          if (log.getId() == null) {
+            log.setId(LogIdGenerator.next(log.getTimestamp()));
+          }
+          ps.setLong(1, log.getId());
+          ps.setByte(2, SeverityConverter.toCode(log.getSeverity()));
+          // an interned log is written as template and arguments only
+          if (log.getTemplate() == null) {
+            ps.setString(3, log.getMessage());
+            ps.setNull(4, Types.INTEGER);
+          } else {
+            ps.setNull(3, Types.VARCHAR);
+            ps.setInt(4, log.getTemplate().ordinal());
+          }
+          ps.setString(5, log.getMessageArg1());
+          ps.setString(6, log.getMessageArg2());
+          ps.setTimestamp(7, Timestamp.valueOf(log.getTimestamp()));
+          if (log.getUser() == null) {
+            ps.setNull(8, Types.INTEGER);
+          } else {
+            ps.setInt(8, log.getUser().getId());
+          }
+          log.setPartitionDay(Log.partitionDayOf(log.getTimestamp().toLocalDate()));
+          ps.setInt(9, log.getPartitionDay());
+          // set if the burst of the log was over before the async writer got to it
+          if (log.getRepeatCount() == null) {
+            ps.setNull(10, Types.INTEGER);
+            ps.setNull(11, Types.TIMESTAMP);
+          } else {
+            ps.setInt(10, log.getRepeatCount());
+            ps.setTimestamp(11, Timestamp.valueOf(log.getLastTimestamp()));
+          }
+          ps.addBatch();
+        }
+        ps.executeBatch();
+      }
+      return null;
+    });
+  }
+}
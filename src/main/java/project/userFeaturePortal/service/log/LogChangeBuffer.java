@@ -0,0 +1,111 @@
+package project.userFeaturePortal.service.log;
+
+import project.userFeaturePortal.model.entity.Log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Holds back the changes reported to a {@link LogChangeListener} while it is built from the stored
+ * logs and replays them once the build is done. A change may be reported before or after the build
+ * read its log, so the build passes the ids it read: an added log which was read is not added again,
+ * a deleted log which was never read is not deleted and repetitions are only added if the build read
+ * a lower repeat count. The read ids are kept until the replay.
+ */
+class LogChangeBuffer {
+
+  // null while no build is running
+  private List<Consumer<LogChangeListener>> changes = new ArrayList<>();
+  // only touched by the building thread
+  private long[] readIds = new long[1024];
+  private int readCount;
+  private final Map<Long, Integer> readRepeatCounts = new HashMap<>();
+  private final Set<Long> replayedIds = new HashSet<>();
+
+  /** Holds back the changes from now on, until {@link #replay} is called. */
+  synchronized void start() {
+    if (changes == null) {
+      changes = new ArrayList<>();
+    }
+    readCount = 0;
+    readRepeatCounts.clear();
+  }
+
+  /** Called by the build for each log it reads, with the repeat count read if the log has one. */
+  void read(long id, Integer repeatCount) {
+    if (readCount == readIds.length) {
+      readIds = Arrays.copyOf(readIds, readIds.length * 2);
+    }
+    readIds[readCount++] = id;
+    if (repeatCount != null) {
+      readRepeatCounts.put(id, repeatCount);
+    }
+  }
+
+  /** Holds back the change if a build is running, returns false if it has to be applied now. */
+  synchronized boolean hold(Consumer<LogChangeListener> change) {
+    if (changes == null) {
+      return false;
+    }
+    changes.add(change);
+    return true;
+  }
+
+  /**
+   * Applies the held back changes to the listener. Changes reported meanwhile wait for the replay,
+   * so they are applied after it.
+   */
+  synchronized void replay(LogChangeListener listener) {
+    List<Consumer<LogChangeListener>> heldBack = changes;
+    changes = null;
+    Arrays.sort(readIds, 0, readCount);
+    try {
+      heldBack.forEach(change -> change.accept(listener));
+    } finally {
+      readIds = new long[1024];
+      readCount = 0;
+      readRepeatCounts.clear();
+      replayedIds.clear();
+    }
+  }
+
+  /** The added logs the build did not read, used while replaying. */
+  List<Log> unread(List<Log> logs) {
+    List<Log> unread = logs.stream().filter(log -> !wasRead(log)).collect(Collectors.toList());
+    unread.stream().map(Log::getId).forEach(replayedIds::add);
+    return unread;
+  }
+
+  /** The deleted logs which the build read or which were added by the replay. */
+  List<Log> counted(List<Log> logs) {
+    return logs.stream()
+        .filter(log -> wasRead(log) || replayedIds.contains(log.getId()))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * The repetitions of the log which are not part of the repeat count read by the build. The repeat
+   * count is the one the log had when it was repeated.
+   */
+  int unreadRepetitions(Log log, Integer repeatCount, int repetitions) {
+    if (!wasRead(log)) {
+      return replayedIds.contains(log.getId()) ? repetitions : 0;
+    }
+    if (repeatCount == null) {
+      return 0;
+    }
+    int readRepeatCount = readRepeatCounts.getOrDefault(log.getId(), 1);
+    return Math.max(0, Math.min(repetitions, repeatCount - readRepeatCount));
+  }
+
+  private boolean wasRead(Log log) {
+    return log.getId() != null && Arrays.binarySearch(readIds, 0, readCount, log.getId()) >= 0;
+  }
+}
@@ -0,0 +1,28 @@
+package project.userFeaturePortal.service.log;
+
+import project.userFeaturePortal.model.entity.Log;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Gets informed about committed changes of the log table, so derived data like indexes can be
+ * maintained incrementally. Listeners are called by {@link LogChangeNotifier}.
+ */
+public interface LogChangeListener {
+
+  default void logsAdded(List<Log> logs) {}
+
+  // the added log was repeated this many more times, its repeat count already includes them
+  default void logRepeated(Log log, int repetitions) {}
+
+  default void logsDeleted(List<Log> logs) {}
+
+  default void allLogsDeleted() {}
+
+  // all logs before the day were deleted by dropping their partitions
+  default void partitionsDropped(LocalDate day) {}
+
+  // all logs before the day were moved from the table to the archive, they can still be queried
+  default void partitionsArchived(LocalDate day) {}
+}
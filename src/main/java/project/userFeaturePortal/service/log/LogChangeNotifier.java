@@ -0,0 +1,80 @@
+package project.userFeaturePortal.service.log;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import project.userFeaturePortal.model.entity.Log;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Passes changes of the log table to all {@link LogChangeListener}s. Changes made inside a
+ * transaction are only passed on after the commit, rolled back changes never reach the listeners.
+ */
+@Component
+@RequiredArgsConstructor
+public class LogChangeNotifier {
+
+  private static final Logger LOGGER = LogManager.getLogger(LogChangeNotifier.class);
+
+  private final List<LogChangeListener> listeners;
+
+  public void logsAdded(List<Log> logs) {
+    afterCommit(listener -> listener.logsAdded(logs));
+  }
+
+  public void logRepeated(Log log, int repetitions) {
+    afterCommit(listener -> listener.logRepeated(log, repetitions));
+  }
+
+  public void logsDeleted(List<Log> logs) {
+    afterCommit(listener -> listener.logsDeleted(logs));
+  }
+
+  public void allLogsDeleted() {
+    afterCommit(LogChangeListener::allLogsDeleted);
+  }
+
+  public void partitionsDropped(LocalDate day) {
+    afterCommit(listener -> listener.partitionsDropped(day));
+  }
+
+  public void partitionsArchived(LocalDate day) {
+    afterCommit(listener -> listener.partitionsArchived(day));
+  }
+
+  /** For logs written outside of any transaction, e.g. by the {@link AsyncLogWriter}. */
+  public void logsWritten(List<Log> logs) {
+    notifyListeners(listener -> listener.logsAdded(logs));
+  }
+
+  private void afterCommit(Consumer<LogChangeListener> event) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      notifyListeners(event);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            notifyListeners(event);
+          }
+        });
+  }
+
+  private void notifyListeners(Consumer<LogChangeListener> event) {
+    for (LogChangeListener listener : listeners) {
+      try {
+        event.accept(listener);
+      } catch (RuntimeException e) {
+        // a broken listener must not fail the request whose changes are already committed
+        LOGGER.error("Log change listener {} failed: {}", listener.getClass().getSimpleName(), e.getMessage());
+      }
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package project.userFeaturePortal.service.log;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import project.userFeaturePortal.common.dto.log.LogDTO;
+import project.userFeaturePortal.exception.InvalidCursorException;
+import project.userFeaturePortal.model.entity.Log;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of the last log of a page, sorted by (timestamp, id). Handed to clients as an opaque
+ * token, the next page starts right behind it.
+ */
+@Getter
+@AllArgsConstructor
+public class LogCursor {
+
+  private static final String SEPARATOR = "|";
+
+  private final LocalDateTime timestamp;
+  private final Long id;
+
+  public static LogCursor of(Log log) {
+    return new LogCursor(log.getTimestamp(), log.getId());
+  }
+
+  public static LogCursor of(LogDTO log) {
+    return new LogCursor(log.getTimestamp(), log.getId());
+  }
+
+  public static LogCursor decode(String token) {
+    if (token == null || token.isEmpty()) {
+      return null;
+    }
+    try {
+      String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      int separator = value.indexOf(SEPARATOR);
+      return new LogCursor(
+          LocalDateTime.parse(value.substring(0, separator)),
+          Long.valueOf(value.substring(separator + 1)));
+    } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+      throw new InvalidCursorException(token);
+    }
+  }
+
+  public String encode() {
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString((timestamp + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+  }
+}
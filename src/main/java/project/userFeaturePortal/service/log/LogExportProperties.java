@@ -0,0 +1,23 @@
+package project.userFeaturePortal.service.log;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings of the log export jobs (prefix "log.export").
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "log.export")
+public class LogExportProperties {
+
+  // directory of the export files and of their checkpoints
+  private String directory = "data/log-exports";
+
+  // number of logs read, written and checkpointed at once
+  private int chunkSize = 1000;
+
+  // number of exports running at the same time, further ones are queued
+  private int threads = 2;
+}
@@ -0,0 +1,111 @@
+package project.userFeaturePortal.service.log;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.userFeaturePortal.model.generator.LogIdGenerator;
+import project.userFeaturePortal.model.generator.TimeOrderedIdGenerator;
+import project.userFeaturePortal.model.repository.LogRepository;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves the log table to the time-ordered 64-bit ids of the {@link LogIdGenerator} at startup,
+ * before the first log is written. An id column still of type INTEGER is widened to BIGINT, and
+ * the logs numbered by the old identity column get the id of their timestamp, in chunks of
+ * "log.id.migration-chunk-size" with one transaction each. An interrupted migration continues with
+ * the next start. Afterwards the generator of the node continues behind the highest id, so a clock
+ * set back across a restart produces no duplicates.
+ *
+ * <p>The old ids are not valid anymore afterwards, neither are cursors holding one.
+ */
+@Component
+public class LogIdMigration {
+
+  private static final Logger LOGGER = LogManager.getLogger(LogIdMigration.class);
+
+  private static final String SELECT_LEGACY_IDS =
+      "SELECT id, timestamp FROM log WHERE id < ? ORDER BY timestamp, id LIMIT ?";
+  private static final String UPDATE_ID = "UPDATE log SET id = ? WHERE id = ?";
+
+  private final LogIdProperties properties;
+  private final LogRepository logRepository;
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+
+  public LogIdMigration(
+      LogIdProperties properties,
+      LogRepository logRepository,
+      DataSource dataSource,
+      PlatformTransactionManager transactionManager) {
+    this.properties = properties;
+    this.logRepository = logRepository;
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  @PostConstruct
+  public void migrate() {
+    if (isIntegerColumn()) {
+      jdbcTemplate.execute("ALTER TABLE log ALTER COLUMN id BIGINT");
+      LOGGER.info("Widened the id column of the log table to BIGINT.");
+    }
+
+    TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(properties.getNode());
+    long firstId = TimeOrderedIdGenerator.firstIdAt(TimeOrderedIdGenerator.EPOCH);
+    // an interrupted migration continues behind the ids it already gave, which may share a millisecond
+    Long migratedMaxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM log WHERE id >= ?", Long.class, firstId);
+    if (migratedMaxId != null) {
+      generator.advanceTo(migratedMaxId);
+    }
+    long renumbered = 0;
+    Integer renumberedInChunk;
+    do {
+      renumberedInChunk = transactionTemplate.execute(status -> renumberChunk(generator, firstId));
+      renumbered += renumberedInChunk == null ? 0 : renumberedInChunk;
+    } while (renumberedInChunk != null && renumberedInChunk > 0);
+    if (renumbered > 0) {
+      LOGGER.info("Gave {} logs a time-ordered id.", renumbered);
+    }
+
+    Long maxId = logRepository.findMaxId();
+    if (maxId != null) {
+      generator.advanceTo(maxId);
+    }
+    LogIdGenerator.use(generator);
+  }
+
+  // the logs of a chunk leave the old id range, so the next chunk starts at the beginning again
+  private int renumberChunk(TimeOrderedIdGenerator generator, long firstId) {
+    List<Object[]> updates = new ArrayList<>();
+    jdbcTemplate.query(SELECT_LEGACY_IDS, rs -> {
+      updates.add(new Object[] {generator.next(rs.getTimestamp(2).toLocalDateTime()), rs.getLong(1)});
+    }, firstId, properties.getMigrationChunkSize());
+    if (!updates.isEmpty()) {
+      jdbcTemplate.batchUpdate(UPDATE_ID, updates);
+    }
+    return updates.size();
+  }
+
+  private boolean isIntegerColumn() {
+    Boolean integerColumn = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+      DatabaseMetaData metaData = connection.getMetaData();
+      String table = metaData.storesLowerCaseIdentifiers() ? "log" : "LOG";
+      String column = metaData.storesLowerCaseIdentifiers() ? "id" : "ID";
+      try (ResultSet columns = metaData.getColumns(null, null, table, column)) {
+        return columns.next() && columns.getInt("DATA_TYPE") == Types.INTEGER;
+      }
+    });
+    return Boolean.TRUE.equals(integerColumn);
+  }
+}
@@ -0,0 +1,20 @@
+package project.userFeaturePortal.service.log;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings of the time-ordered log ids (prefix "log.id").
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "log.id")
+public class LogIdProperties {
+
+  // node of this instance, instances writing to the same log table need different nodes
+  private int node = 0;
+
+  // number of old integer ids renumbered by one transaction
+  private int migrationChunkSize = 1000;
+}
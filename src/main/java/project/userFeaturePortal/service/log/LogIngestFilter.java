@@ -0,0 +1,269 @@
+package project.userFeaturePortal.service.log;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.Value;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import project.userFeaturePortal.common.enums.LogIngestDecision;
+import project.userFeaturePortal.common.enums.LogStoreBackend;
+import project.userFeaturePortal.common.enums.SeverityEnum;
+import project.userFeaturePortal.model.entity.Log;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides for every incoming log whether it is saved. A burst of identical low severity logs, same
+ * user, severity and message within the coalesce window after the first of them, is saved as the
+ * first log only; when the window is over, the first log gets the number of logs of the burst as
+ * repeat count and the timestamp of the last one. While more than "log.ingest.sampling-threshold"
+ * logs per second come in, low severity logs are kept with the sampling rate only. Every sampling
+ * decision is counted by "log.ingest.sampled", so the dropped logs stay visible.
+ *
+ * <p>The repeat counts are written to the log table, so there is no coalescing with the SEGMENTS
+ * backend. The listeners of the log table see the first log of a burst when it is added and the
+ * other logs of the burst as {@link LogChangeListener#logRepeated} once the first one is saved.
+ * A burst starts when its first log is committed, before that identical logs are stored as well.
+ */
+@Component
+public class LogIngestFilter {
+
+  // a first log still without id after this many windows was never saved
+  private static final int MAX_UNSAVED_WINDOWS = 10;
+
+  private final LogIngestProperties properties;
+  private final LogStoreProperties storeProperties;
+  private final JdbcTemplate jdbcTemplate;
+  private final LogChangeNotifier logChangeNotifier;
+  private final MeterRegistry meterRegistry;
+  private final Map<BurstKey, Burst> bursts = new ConcurrentHashMap<>();
+  // finished bursts whose first log is not saved yet, e.g. by the async writer
+  private final Queue<Burst> unsavedBursts = new ConcurrentLinkedQueue<>();
+  private final Counter coalescedLogs;
+
+  // logs of the current and of the previous second
+  private long rateSecond;
+  private int currentSecondLogs;
+  private int previousSecondLogs;
+
+  public LogIngestFilter(
+      LogIngestProperties properties,
+      LogStoreProperties storeProperties,
+      DataSource dataSource,
+      LogChangeNotifier logChangeNotifier,
+      ObjectProvider<MeterRegistry> meterRegistryProvider) {
+    this.properties = properties;
+    this.storeProperties = storeProperties;
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    this.logChangeNotifier = logChangeNotifier;
+    this.meterRegistry = meterRegistryProvider.getIfAvailable(SimpleMeterRegistry::new);
+    this.coalescedLogs = meterRegistry.counter("log.ingest.coalesced");
+    meterRegistry.gauge("log.ingest.rate", this, LogIngestFilter::getRate);
+    meterRegistry.gauge("log.ingest.bursts", bursts, Map::size);
+  }
+
+  public LogIngestDecision accept(Log log) {
+    int rate = countLog(log.getTimestamp() == null ? LocalDateTime.now() : log.getTimestamp());
+    SeverityEnum severity = SeverityEnum.fromName(log.getSeverity());
+    if (severity == null || log.getTimestamp() == null) {
+      return LogIngestDecision.STORE;
+    }
+    if (!isCoalescing() || severity.compareTo(properties.getCoalesceMaxSeverity()) > 0) {
+      return sample(severity, rate) ? LogIngestDecision.STORE : LogIngestDecision.SAMPLED_OUT;
+    }
+
+    // a repetition costs nothing, so it is counted even while sampling
+    BurstKey burstKey = BurstKey.of(log);
+    LogIngestDecision[] decision = new LogIngestDecision[1];
+    Burst[] finished = new Burst[1];
+    bursts.compute(burstKey, (key, burst) -> {
+      if (burst != null && burst.absorb(log.getTimestamp(), properties)) {
+        decision[0] = LogIngestDecision.COALESCED;
+        return burst;
+      }
+      if (!sample(severity, rate)) {
+        decision[0] = LogIngestDecision.SAMPLED_OUT;
+        return burst;
+      }
+      finished[0] = burst;
+      decision[0] = LogIngestDecision.STORE;
+      return null;
+    });
+
+    if (decision[0] == LogIngestDecision.COALESCED) {
+      coalescedLogs.increment();
+    }
+    if (finished[0] != null) {
+      write(List.of(finished[0]));
+    }
+    if (decision[0] == LogIngestDecision.STORE) {
+      startBurst(burstKey, log);
+    }
+    return decision[0];
+  }
+
+  // inside a transaction the burst only starts after a successful commit, so no log is coalesced
+  // into a first log that is rolled back
+  private void startBurst(BurstKey key, Log first) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              bursts.putIfAbsent(key, new Burst(first));
+            }
+          });
+      return;
+    }
+    bursts.putIfAbsent(key, new Burst(first));
+  }
+
+  /** Writes the repeat counts of the bursts whose window is over. */
+  @Scheduled(fixedDelayString = "#{@logIngestProperties.coalesceWindow.toMillis()}")
+  public void flush() {
+    flush(LocalDateTime.now());
+  }
+
+  @PreDestroy
+  void flushAll() {
+    flush(LocalDateTime.MAX);
+  }
+
+  void flush(LocalDateTime now) {
+    List<Burst> finished = new ArrayList<>();
+    for (Burst burst; (burst = unsavedBursts.poll()) != null; ) {
+      finished.add(burst);
+    }
+    for (Map.Entry<BurstKey, Burst> entry : bursts.entrySet()) {
+      Burst burst = entry.getValue();
+      if (burst.isOver(now, properties) && bursts.remove(entry.getKey(), burst)) {
+        finished.add(burst);
+      }
+    }
+    write(finished);
+  }
+
+  /** Logs per second, the higher number of the current and of the previous second. */
+  public synchronized int getRate() {
+    long second = LocalDateTime.now().toEpochSecond(ZoneOffset.UTC);
+    if (second > rateSecond + 1) {
+      return 0;
+    }
+    return second > rateSecond ? currentSecondLogs : Math.max(currentSecondLogs, previousSecondLogs);
+  }
+
+  private boolean isCoalescing() {
+    return properties.isCoalesceEnabled() && storeProperties.getBackend() == LogStoreBackend.TABLE;
+  }
+
+  private synchronized int countLog(LocalDateTime timestamp) {
+    long second = timestamp.toEpochSecond(ZoneOffset.UTC);
+    // timestamps of concurrent requests may be slightly out of order, they count for the current second
+    if (second > rateSecond) {
+      previousSecondLogs = second == rateSecond + 1 ? currentSecondLogs : 0;
+      currentSecondLogs = 0;
+      rateSecond = second;
+    }
+    currentSecondLogs++;
+    return Math.max(currentSecondLogs, previousSecondLogs);
+  }
+
+  // true if the log is kept
+  private boolean sample(SeverityEnum severity, int rate) {
+    if (!properties.isSamplingEnabled()
+        || severity.compareTo(properties.getSamplingMaxSeverity()) > 0
+        || rate <= properties.getSamplingThreshold()) {
+      return true;
+    }
+    boolean kept = ThreadLocalRandom.current().nextDouble() < properties.getSamplingRate();
+    meterRegistry.counter("log.ingest.sampled", "severity", severity.name(), "decision", kept ? "kept" : "dropped")
+        .increment();
+    return kept;
+  }
+
+  private void write(List<Burst> finished) {
+    List<Object[]> updates = new ArrayList<>();
+    List<Burst> repeated = new ArrayList<>();
+    for (Burst burst : finished) {
+      if (burst.repeatCount == 1) {
+        continue;
+      }
+      // a first log not inserted yet is inserted with the count, the others get it by an update
+      burst.first.setRepeatCount(burst.repeatCount);
+      burst.first.setLastTimestamp(burst.lastTimestamp);
+      if (burst.first.getId() != null) {
+        updates.add(new Object[] {burst.repeatCount, Timestamp.valueOf(burst.lastTimestamp), burst.first.getId()});
+        repeated.add(burst);
+      } else if (++burst.unsavedFlushes < MAX_UNSAVED_WINDOWS) {
+        unsavedBursts.add(burst);
+      }
+    }
+    if (updates.isEmpty()) {
+      return;
+    }
+    int[] updated = jdbcTemplate.batchUpdate(
+        "UPDATE log SET repeat_count = ?, last_timestamp = ? WHERE id = ?", updates);
+    // a first log deleted in the meantime has no repetitions to announce
+    for (int i = 0; i < repeated.size(); i++) {
+      if (updated[i] == 1) {
+        logChangeNotifier.logRepeated(repeated.get(i).first, repeated.get(i).repeatCount - 1);
+      }
+    }
+  }
+
+  @Value
+  private static class BurstKey {
+    Integer userId;
+    String severity;
+    String message;
+
+    static BurstKey of(Log log) {
+      return new BurstKey(log.getUser() == null ? null : log.getUser().getId(), log.getSeverity(), log.getMessage());
+    }
+  }
+
+  // changed inside compute of its key only, read after it is removed
+  private static class Burst {
+
+    private final Log first;
+    private int repeatCount = 1;
+    private LocalDateTime lastTimestamp;
+    private int unsavedFlushes;
+
+    Burst(Log first) {
+      this.first = first;
+      this.lastTimestamp = first.getTimestamp();
+    }
+
+    boolean absorb(LocalDateTime timestamp, LogIngestProperties properties) {
+      if (timestamp.isAfter(first.getTimestamp().plus(properties.getCoalesceWindow()))) {
+        return false;
+      }
+      repeatCount++;
+      if (timestamp.isAfter(lastTimestamp)) {
+        lastTimestamp = timestamp;
+      }
+      return true;
+    }
+
+    boolean isOver(LocalDateTime now, LogIngestProperties properties) {
+      return now.isAfter(first.getTimestamp().plus(properties.getCoalesceWindow()));
+    }
+  }
+}
@@ -0,0 +1,36 @@
+package project.userFeaturePortal.service.log;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import project.userFeaturePortal.common.enums.SeverityEnum;
+
+import java.time.Duration;
+
+/**
+ * Settings of the coalescing and sampling of incoming logs (prefix "log.ingest"). Both only apply
+ * to logs up to their maximum severity, so warnings and errors are always saved one by one.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "log.ingest")
+public class LogIngestProperties {
+
+  // if true identical logs of one user within the window are saved as one log with a repeat count
+  private boolean coalesceEnabled = false;
+
+  // time after the first log of a burst in which identical logs are coalesced into it
+  private Duration coalesceWindow = Duration.ofSeconds(1);
+
+  private SeverityEnum coalesceMaxSeverity = SeverityEnum.DEBUG;
+
+  // if true logs are sampled while more than sampling-threshold logs per second come in
+  private boolean samplingEnabled = false;
+
+  private int samplingThreshold = 1000;
+
+  // fraction of the logs kept while sampling
+  private double samplingRate = 0.1;
+
+  private SeverityEnum samplingMaxSeverity = SeverityEnum.DEBUG;
+}
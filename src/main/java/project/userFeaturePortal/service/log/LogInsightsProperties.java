@@ -0,0 +1,39 @@
+package project.userFeaturePortal.service.log;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Settings of the sketches behind /logs/insights (prefix "log.insights"). One bucket needs about
+ * 4 * sketch-width * sketch-depth bytes for the message counts, 2^precision bytes per severity for
+ * the distinct users and the messages of its top candidates.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "log.insights")
+public class LogInsightsProperties {
+
+  // if false no sketch is kept and the insights are empty
+  private boolean enabled = true;
+
+  // time span of one bucket, insights cover the whole buckets overlapping their time range
+  private Duration bucket = Duration.ofMinutes(15);
+
+  // how long buckets are kept
+  private Duration retention = Duration.ofDays(1);
+
+  // counters per row of the Count-Min sketch, message counts are too high by at most e / width of all logs
+  private int sketchWidth = 2048;
+
+  // rows of the Count-Min sketch, the error bound holds with a probability of 1 - e^-depth
+  private int sketchDepth = 4;
+
+  // most frequent messages tracked per bucket, the upper limit of the top messages of a request
+  private int topMessages = 100;
+
+  // HyperLogLog registers are 2^precision, distinct users have a relative standard error of 1.04 / sqrt(2^precision)
+  private int precision = 11;
+}
@@ -0,0 +1,292 @@
+package project.userFeaturePortal.service.log;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import project.userFeaturePortal.common.dto.log.LogInsightsDto;
+import project.userFeaturePortal.common.dto.log.LogMessageCountDto;
+import project.userFeaturePortal.common.enums.LogTemplate;
+import project.userFeaturePortal.common.enums.SeverityEnum;
+import project.userFeaturePortal.model.converter.SeverityConverter;
+import project.userFeaturePortal.model.entity.Log;
+import project.userFeaturePortal.model.repository.LogFilter;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Most frequent messages and distinct users per severity of the recent logs, kept in probabilistic
+ * sketches of fixed size instead of grouping the log table. Every time bucket has a Count-Min
+ * sketch of the messages with a heap of its most frequent ones and a HyperLogLog of the users per
+ * severity. A time range merges the sketches of its buckets. A log coalesced from a burst counts
+ * with its repeat count.
+ *
+ * <p>The buckets of the retention are read from the backend the logs are appended to at startup and
+ * then kept up to date by the {@link LogChangeNotifier}. Changes reported before the build is done
+ * are replayed after it. Deleted logs stay in the sketches, they cannot be subtracted.
+ */
+@Component
+public class LogInsightsStore implements LogChangeListener {
+
+  private static final Logger LOGGER = LogManager.getLogger(LogInsightsStore.class);
+
+  static final int DEFAULT_TOP_MESSAGES = 20;
+  static final Duration DEFAULT_RANGE = Duration.ofHours(1);
+
+  private final LogInsightsProperties properties;
+  private final LogSegmentStore logSegmentStore;
+  private final JdbcTemplate jdbcTemplate;
+  private final NavigableMap<LocalDateTime, Bucket> buckets = new TreeMap<>();
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final LogChangeBuffer pendingChanges = new LogChangeBuffer();
+
+  public LogInsightsStore(LogInsightsProperties properties, LogSegmentStore logSegmentStore, DataSource dataSource) {
+    this.properties = properties;
+    this.logSegmentStore = logSegmentStore;
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void build() {
+    if (!properties.isEnabled()) {
+      return;
+    }
+    pendingChanges.start();
+    lock.writeLock().lock();
+    try {
+      buckets.clear();
+      LocalDateTime now = LocalDateTime.now();
+      if (logSegmentStore.isEnabled()) {
+        buildFromSegments(now);
+      } else {
+        buildFromTable(now);
+      }
+      LOGGER.info("Log insights built with {} buckets.", buckets.size());
+    } finally {
+      lock.writeLock().unlock();
+    }
+    pendingChanges.replay(this);
+  }
+
+  private void buildFromSegments(LocalDateTime now) {
+    // older logs are skipped by add
+    LogFilter filter = LogFilter.builder().startDate(oldestBucket(now).minusSeconds(1)).build();
+    try (Stream<LogSegment.Record> records = logSegmentStore.records(filter, false)) {
+      records.forEach(record -> {
+        pendingChanges.read(record.id, null);
+        add(SeverityConverter.toSeverity(record.severity),
+            record.message,
+            record.userId == LogSegment.NO_USER ? null : record.userId,
+            LogSegmentStore.toTimestamp(record.timestamp),
+            1,
+            now);
+      });
+    }
+  }
+
+  private void buildFromTable(LocalDateTime now) {
+    jdbcTemplate.query(
+        "SELECT id, severity, message, template, message_arg1, message_arg2, user, timestamp, repeat_count"
+            + " FROM log WHERE timestamp >= ?",
+        rs -> {
+          Integer repeatCount = rs.getObject(9, Integer.class);
+          pendingChanges.read(rs.getLong(1), repeatCount);
+          add(SeverityConverter.toSeverity(rs.getByte(2)),
+              LogTemplate.messageOf(rs.getString(3), rs.getObject(4, Integer.class), rs.getString(5), rs.getString(6)),
+              rs.getObject(7, Integer.class),
+              rs.getTimestamp(8).toLocalDateTime(),
+              repeatCount == null ? 1 : repeatCount,
+              now);
+        },
+        Timestamp.valueOf(oldestBucket(now)));
+  }
+
+  /**
+   * Insights of all buckets overlapping the time range, by default the last hour. At most
+   * "log.insights.top-messages" messages are returned, by default 20.
+   */
+  public LogInsightsDto getInsights(LocalDateTime startDate, LocalDateTime endDate, Integer limit) {
+    LocalDateTime end = endDate == null ? LocalDateTime.now() : endDate;
+    LocalDateTime start = startDate == null ? end.minus(DEFAULT_RANGE) : startDate;
+    int topMessages = Math.max(1, Math.min(limit == null ? DEFAULT_TOP_MESSAGES : limit, properties.getTopMessages()));
+
+    CountMinSketch messages = new CountMinSketch(properties.getSketchWidth(), properties.getSketchDepth());
+    Set<String> candidates = new HashSet<>();
+    Map<SeverityEnum, HyperLogLog> users = new EnumMap<>(SeverityEnum.class);
+    LocalDateTime firstBucket = bucketOf(start);
+    LocalDateTime lastBucketEnd = firstBucket;
+
+    lock.readLock().lock();
+    try {
+      for (Map.Entry<LocalDateTime, Bucket> entry : buckets.subMap(firstBucket, true, end, false).entrySet()) {
+        Bucket bucket = entry.getValue();
+        messages.merge(bucket.messages);
+        bucket.topMessages.forEach(message -> candidates.add(message.getMessage()));
+        bucket.users.forEach((severity, bucketUsers) -> users
+            .computeIfAbsent(severity, key -> new HyperLogLog(properties.getPrecision()))
+            .merge(bucketUsers));
+        lastBucketEnd = entry.getKey().plus(properties.getBucket());
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+
+    // a candidate of one bucket is counted in all buckets by the merged sketch
+    List<LogMessageCountDto> messageCounts = new ArrayList<>();
+    for (String message : candidates) {
+      messageCounts.add(new LogMessageCountDto(message, messages.estimate(message)));
+    }
+    messageCounts.sort(Comparator.comparingLong(LogMessageCountDto::getCount).reversed()
+        .thenComparing(LogMessageCountDto::getMessage));
+    Map<String, Long> distinctUsers = new LinkedHashMap<>();
+    users.forEach((severity, severityUsers) -> distinctUsers.put(severity.name(), severityUsers.estimate()));
+
+    return new LogInsightsDto(
+        firstBucket,
+        lastBucketEnd,
+        messages.getTotal(),
+        messageCounts.subList(0, Math.min(topMessages, messageCounts.size())),
+        distinctUsers,
+        (long) Math.ceil(CountMinSketch.relativeError(properties.getSketchWidth()) * messages.getTotal()),
+        CountMinSketch.confidence(properties.getSketchDepth()),
+        HyperLogLog.standardError(properties.getPrecision()));
+  }
+
+  @Override
+  public void logsAdded(List<Log> logs) {
+    if (!properties.isEnabled() || pendingChanges.hold(store -> store.logsAdded(pendingChanges.unread(logs)))) {
+      return;
+    }
+    LocalDateTime now = LocalDateTime.now();
+    lock.writeLock().lock();
+    try {
+      for (Log log : logs) {
+        if (log.getTimestamp() != null) {
+          // the repetitions of the log follow with logRepeated
+          add(log.getSeverity(), log.getMessage(), log.getUser() == null ? null : log.getUser().getId(),
+              log.getTimestamp(), 1, now);
+        }
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void logRepeated(Log log, int repetitions) {
+    Integer repeatCount = log.getRepeatCount();
+    if (!properties.isEnabled() || log.getTimestamp() == null || pendingChanges.hold(
+        store -> store.logRepeated(log, pendingChanges.unreadRepetitions(log, repeatCount, repetitions)))) {
+      return;
+    }
+    LocalDateTime now = LocalDateTime.now();
+    lock.writeLock().lock();
+    try {
+      add(log.getSeverity(), log.getMessage(), log.getUser() == null ? null : log.getUser().getId(),
+          log.getTimestamp(), repetitions, now);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void allLogsDeleted() {
+    if (properties.isEnabled() && pendingChanges.hold(LogChangeListener::allLogsDeleted)) {
+      return;
+    }
+    lock.writeLock().lock();
+    try {
+      buckets.clear();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void add(
+      String severity, String message, Integer userId, LocalDateTime timestamp, int count, LocalDateTime now) {
+    LocalDateTime oldestBucket = oldestBucket(now);
+    // expired buckets are trimmed while the buckets are updated anyway
+    buckets.headMap(oldestBucket, false).clear();
+    LocalDateTime start = bucketOf(timestamp);
+    if (start.isBefore(oldestBucket)) {
+      return;
+    }
+    buckets.computeIfAbsent(start, bucket -> new Bucket(properties)).add(severity, message, userId, count);
+  }
+
+  private LocalDateTime oldestBucket(LocalDateTime now) {
+    return bucketOf(now.minus(properties.getRetention()));
+  }
+
+  // buckets are aligned to the epoch, so a bucket of an hour starts at every full hour
+  private LocalDateTime bucketOf(LocalDateTime timestamp) {
+    long bucketSeconds = properties.getBucket().getSeconds();
+    long seconds = timestamp.toEpochSecond(ZoneOffset.UTC);
+    return LocalDateTime.ofEpochSecond(seconds - Math.floorMod(seconds, bucketSeconds), 0, ZoneOffset.UTC);
+  }
+
+  private static class Bucket {
+
+    private final int maxTopMessages;
+    private final int precision;
+    private final CountMinSketch messages;
+    // the least frequent of the top messages on top
+    private final PriorityQueue<LogMessageCountDto> topMessages =
+        new PriorityQueue<>(Comparator.comparingLong(LogMessageCountDto::getCount));
+    private final Map<String, LogMessageCountDto> topMessagesByText = new HashMap<>();
+    private final Map<SeverityEnum, HyperLogLog> users = new EnumMap<>(SeverityEnum.class);
+
+    Bucket(LogInsightsProperties properties) {
+      this.maxTopMessages = properties.getTopMessages();
+      this.precision = properties.getPrecision();
+      this.messages = new CountMinSketch(properties.getSketchWidth(), properties.getSketchDepth());
+    }
+
+    void add(String severity, String message, Integer userId, int count) {
+      if (message != null) {
+        addMessage(message, messages.add(message, count));
+      }
+      SeverityEnum severityEnum = SeverityEnum.fromName(severity);
+      if (severityEnum != null && userId != null) {
+        users.computeIfAbsent(severityEnum, key -> new HyperLogLog(precision)).add(userId);
+      }
+    }
+
+    private void addMessage(String message, long count) {
+      LogMessageCountDto topMessage = topMessagesByText.get(message);
+      if (topMessage != null) {
+        topMessages.remove(topMessage);
+        topMessage.setCount(count);
+        topMessages.add(topMessage);
+      } else if (topMessages.size() < maxTopMessages || count > topMessages.peek().getCount()) {
+        if (topMessages.size() >= maxTopMessages) {
+          topMessagesByText.remove(topMessages.poll().getMessage());
+        }
+        topMessage = new LogMessageCountDto(message, count);
+        topMessages.add(topMessage);
+        topMessagesByText.put(message, topMessage);
+      }
+    }
+  }
+}
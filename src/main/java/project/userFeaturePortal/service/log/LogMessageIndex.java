@@ -0,0 +1,310 @@
+package project.userFeaturePortal.service.log;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import project.userFeaturePortal.common.enums.LogStoreBackend;
+import project.userFeaturePortal.common.enums.LogTemplate;
+import project.userFeaturePortal.model.entity.Log;
+import project.userFeaturePortal.model.generator.TimeOrderedIdGenerator;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index from the trigrams of every log message to the ids of the logs containing them.
+ *
+ * <p>Trigrams are built case-insensitively, so the candidates of a lookup are a superset of the
+ * logs really containing the text and still have to be verified by the database. Besides the
+ * incremental updates from {@link LogChangeNotifier}, the index tails the log table by id behind the
+ * highest id it knows, at most once per "log.message-index.catch-up-interval" before a lookup, so
+ * logs inserted past the services are found as well. Logs inserted past the services below the
+ * highest known id are not. With the SEGMENTS backend the index is not used, see
+ * {@link LogStoreProperties}.
+ *
+ * <p>When the logs of old days are dropped or archived, the ids below the first id of the day are
+ * removed from the postings, together with the {@link LateLogIds late logs} of the days before.
+ */
+@Component
+public class LogMessageIndex implements LogChangeListener {
+
+  private static final Logger LOGGER = LogManager.getLogger(LogMessageIndex.class);
+
+  static final int GRAM_LENGTH = 3;
+  // rows read from the table per statement while catching up
+  static final int CATCH_UP_CHUNK_SIZE = 10_000;
+
+  private final LogMessageIndexProperties properties;
+  private final LogStoreProperties storeProperties;
+  private final JdbcTemplate jdbcTemplate;
+  private final Map<Long, SortedLongSet> postings = new HashMap<>();
+  private final LateLogIds lateIds = new LateLogIds();
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  // highest log id indexed so far, read from the table or added by the services
+  private volatile long watermark;
+  private volatile long lastCatchUpMillis;
+
+  public LogMessageIndex(LogMessageIndexProperties properties, LogStoreProperties storeProperties, DataSource dataSource) {
+    this.properties = properties;
+    this.storeProperties = storeProperties;
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void build() {
+    if (isActive()) {
+      catchUp();
+      LOGGER.info("Log message index built up to id {} with {} trigrams.", watermark, postings.size());
+    }
+  }
+
+  public boolean canNarrow(String text) {
+    return isActive() && text != null && text.length() >= GRAM_LENGTH;
+  }
+
+  public int getMaxCandidates() {
+    return properties.getMaxCandidates();
+  }
+
+  /**
+   * Ids of all logs whose message may contain the text, or null if the text is too short to be
+   * looked up.
+   */
+  public SortedLongSet findCandidates(String text) {
+    if (!canNarrow(text)) {
+      return null;
+    }
+    catchUpIfDue();
+    lock.readLock().lock();
+    try {
+      return lookUp(text);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Ids of all logs whose message may contain every term. Terms shorter than a trigram do not
+   * narrow the result, if no term is long enough null is returned.
+   */
+  public SortedLongSet findCandidatesForAllTerms(Collection<String> terms) {
+    if (terms.stream().noneMatch(this::canNarrow)) {
+      return null;
+    }
+    catchUpIfDue();
+    lock.readLock().lock();
+    try {
+      SortedLongSet candidates = null;
+      for (String term : terms) {
+        if (term.length() < GRAM_LENGTH) {
+          continue;
+        }
+        SortedLongSet termCandidates = lookUp(term);
+        candidates = candidates == null ? termCandidates : candidates.intersect(termCandidates);
+        if (candidates.isEmpty()) {
+          break;
+        }
+      }
+      return candidates;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public void logsAdded(List<Log> logs) {
+    if (!isActive()) {
+      return;
+    }
+    lock.writeLock().lock();
+    try {
+      for (Log log : logs) {
+        index(log.getId(), log.getTimestamp(), log.getMessage());
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void logsDeleted(List<Log> logs) {
+    if (!isActive()) {
+      return;
+    }
+    lock.writeLock().lock();
+    try {
+      for (Log log : logs) {
+        unindex(log.getId(), log.getMessage());
+        if (log.getId() != null) {
+          lateIds.remove(log.getId());
+        }
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void allLogsDeleted() {
+    lock.writeLock().lock();
+    try {
+      postings.clear();
+      lateIds.clear();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void partitionsDropped(LocalDate day) {
+    long firstId = TimeOrderedIdGenerator.firstIdAt(day.atStartOfDay());
+    lock.writeLock().lock();
+    try {
+      SortedLongSet late = lateIds.removeBefore(day);
+      Iterator<SortedLongSet> iterator = postings.values().iterator();
+      while (iterator.hasNext()) {
+        SortedLongSet ids = iterator.next();
+        ids.removeBelow(firstId);
+        for (int i = 0; i < late.size() && !ids.isEmpty(); i++) {
+          ids.remove(late.get(i));
+        }
+        if (ids.isEmpty()) {
+          iterator.remove();
+        }
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  // the archived logs are gone from the table just like dropped ones
+  @Override
+  public void partitionsArchived(LocalDate day) {
+    partitionsDropped(day);
+  }
+
+  // the logs of the SEGMENTS backend are not in the log table, their queries scan the segments
+  private boolean isActive() {
+    return properties.isEnabled() && storeProperties.getBackend() == LogStoreBackend.TABLE;
+  }
+
+  private void catchUpIfDue() {
+    if (System.currentTimeMillis() - lastCatchUpMillis >= properties.getCatchUpInterval().toMillis()) {
+      catchUp();
+    }
+  }
+
+  /**
+   * Reads the logs added to the table behind the highest indexed id, in chunks. The rows are read
+   * without the lock, which is only taken to index them.
+   */
+  synchronized void catchUp() {
+    lastCatchUpMillis = System.currentTimeMillis();
+    List<Row> rows;
+    do {
+      rows = jdbcTemplate.query(
+          "SELECT id, timestamp, message, template, message_arg1, message_arg2 FROM log"
+              + " WHERE id > ? ORDER BY id LIMIT ?",
+          (rs, rowNum) -> new Row(
+              rs.getLong(1),
+              rs.getObject(2, LocalDateTime.class),
+              LogTemplate.messageOf(
+                  rs.getString(3), rs.getObject(4, Integer.class), rs.getString(5), rs.getString(6))),
+          watermark,
+          CATCH_UP_CHUNK_SIZE);
+      if (rows.isEmpty()) {
+        return;
+      }
+      lock.writeLock().lock();
+      try {
+        for (Row row : rows) {
+          index(row.id, row.timestamp, row.message);
+        }
+      } finally {
+        lock.writeLock().unlock();
+      }
+    } while (rows.size() == CATCH_UP_CHUNK_SIZE);
+  }
+
+  private SortedLongSet lookUp(String text) {
+    String normalized = normalize(text);
+    SortedLongSet candidates = null;
+    for (int i = 0; i + GRAM_LENGTH <= normalized.length(); i++) {
+      SortedLongSet ids = postings.get(trigram(normalized, i));
+      if (ids == null) {
+        return new SortedLongSet();
+      }
+      candidates = candidates == null ? ids.copy() : candidates.intersect(ids);
+      if (candidates.isEmpty()) {
+        break;
+      }
+    }
+    return candidates;
+  }
+
+  // advances the watermark, so a log added by the services is not read from the table again
+  private void index(Long id, LocalDateTime timestamp, String message) {
+    if (id == null) {
+      return;
+    }
+    watermark = Math.max(watermark, id);
+    lateIds.add(id, timestamp);
+    if (message == null) {
+      return;
+    }
+    String normalized = normalize(message);
+    for (int i = 0; i + GRAM_LENGTH <= normalized.length(); i++) {
+      postings.computeIfAbsent(trigram(normalized, i), key -> new SortedLongSet()).add(id);
+    }
+  }
+
+  private void unindex(Long id, String message) {
+    if (id == null || message == null) {
+      return;
+    }
+    String normalized = normalize(message);
+    for (int i = 0; i + GRAM_LENGTH <= normalized.length(); i++) {
+      long key = trigram(normalized, i);
+      SortedLongSet ids = postings.get(key);
+      if (ids != null && ids.remove(id) && ids.isEmpty()) {
+        postings.remove(key);
+      }
+    }
+  }
+
+  private static String normalize(String text) {
+    return text.toLowerCase(Locale.ROOT);
+  }
+
+  private static long trigram(String text, int start) {
+    return ((long) text.charAt(start) << 32)
+        | ((long) text.charAt(start + 1) << 16)
+        | text.charAt(start + 2);
+  }
+
+  private static final class Row {
+
+    private final long id;
+    private final LocalDateTime timestamp;
+    private final String message;
+
+    private Row(long id, LocalDateTime timestamp, String message) {
+      this.id = id;
+      this.timestamp = timestamp;
+      this.message = message;
+    }
+  }
+}
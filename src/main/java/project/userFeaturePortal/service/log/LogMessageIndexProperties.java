@@ -0,0 +1,25 @@
+package project.userFeaturePortal.service.log;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Settings of the trigram index over log messages (prefix "log.message-index").
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "log.message-index")
+public class LogMessageIndexProperties {
+
+  // if false message filters are always answered by a LIKE scan
+  private boolean enabled = true;
+
+  // above this number of candidates the index is not selective enough and the LIKE scan is used
+  private int maxCandidates = 10_000;
+
+  // lookups read the logs inserted past the services at most this often
+  private Duration catchUpInterval = Duration.ofSeconds(1);
+}
@@ -0,0 +1,91 @@
+package project.userFeaturePortal.service.log;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import project.userFeaturePortal.common.dto.log.LogPartitionDto;
+import project.userFeaturePortal.model.entity.Log;
+import project.userFeaturePortal.model.repository.LogRepository;
+
+import javax.transaction.Transactional;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Routes the partitions of one day each to the log backend. With the SEGMENTS backend a partition
+ * is a segment file: the logs of a day are appended to a segment of their own, queries skip the
+ * segments outside their time range and dropping a day deletes its files, see
+ * {@link LogSegmentStore}.
+ *
+ * <p>With the TABLE backend there is no per-day storage, H2 has no declarative partitioning. The
+ * day is only kept in the partition_day column of the single log table, time ranges are narrowed
+ * by the timestamp index and dropping the days before a day deletes their rows one by one, which
+ * {@link LogRetentionJob} does in short id ranges instead of calling this router. A database with
+ * declarative partitioning could use the column as partition key.
+ */
+@Component
+@Transactional
+@RequiredArgsConstructor
+public class LogPartitionRouter {
+
+  private static final Logger LOGGER = LogManager.getLogger(LogPartitionRouter.class);
+
+  private final LogRepository logRepository;
+  private final LogSegmentStore logSegmentStore;
+  private final LogChangeNotifier logChangeNotifier;
+
+  /** First partition a query starting at the timestamp has to read, null if it is unbounded. */
+  public static Integer firstPartition(LocalDateTime startDate) {
+    return startDate == null ? null : Log.partitionDayOf(startDate.toLocalDate());
+  }
+
+  /** Last partition a query ending at the timestamp has to read, null if it is unbounded. */
+  public static Integer lastPartition(LocalDateTime endDate) {
+    return endDate == null ? null : Log.partitionDayOf(endDate.toLocalDate());
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void assignMissingPartitions() {
+    int assignedLogs = logRepository.assignMissingPartitions();
+    if (assignedLogs > 0) {
+      LOGGER.info("Assigned {} logs to their partition.", assignedLogs);
+    }
+  }
+
+  /** Whether the days are stored in segments of their own, which are dropped as whole files. */
+  public boolean isSegmentBacked() {
+    return logSegmentStore.isEnabled();
+  }
+
+  public List<LogPartitionDto> getPartitions() {
+    if (logSegmentStore.isEnabled()) {
+      return logSegmentStore.countLogsByDay().entrySet().stream()
+          .map(day -> new LogPartitionDto(day.getKey(), day.getValue()))
+          .collect(Collectors.toList());
+    }
+    return logRepository.countLogsByPartition().stream()
+        .filter(partition -> partition.getDay() != null)
+        .map(partition -> new LogPartitionDto(toDate(partition.getDay()), partition.getLogs()))
+        .collect(Collectors.toList());
+  }
+
+  /** Deletes the logs of all partitions older than the day and returns their number. */
+  public int dropPartitionsBefore(LocalDate day) {
+    int deletedLogs = logSegmentStore.isEnabled()
+        ? logSegmentStore.dropDaysBefore(day)
+        : logRepository.deleteLogsOfDaysBefore(Log.partitionDayOf(day));
+    if (deletedLogs > 0) {
+      logChangeNotifier.partitionsDropped(day);
+    }
+    return deletedLogs;
+  }
+
+  private static LocalDate toDate(int partitionDay) {
+    return LocalDate.of(partitionDay / 10000, partitionDay / 100 % 100, partitionDay % 100);
+  }
+}
@@ -0,0 +1,14 @@
+package project.userFeaturePortal.service.log;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/** Outcome of one run of the {@link LogRetentionJob}. */
+@Getter
+@AllArgsConstructor
+public class LogPurgeReport {
+  private final long purgedLogs;
+  private final Duration duration;
+}
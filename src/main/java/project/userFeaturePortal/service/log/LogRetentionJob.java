@@ -0,0 +1,211 @@
+package project.userFeaturePortal.service.log;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.userFeaturePortal.common.enums.LogTemplate;
+import project.userFeaturePortal.common.enums.SeverityEnum;
+import project.userFeaturePortal.model.converter.SeverityConverter;
+import project.userFeaturePortal.model.entity.Log;
+import project.userFeaturePortal.model.entity.User;
+import project.userFeaturePortal.model.generator.TimeOrderedIdGenerator;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongBinaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Deletes logs older than the ttl of their severity. Days past every ttl are dropped as whole
+ * partitions, the rest is purged in id ranges of "log.retention.chunk-size" logs with one short
+ * transaction each, so concurrent inserts are never blocked for long. The ids are time ordered, so
+ * the ranges end at the first id of the cutoff instead of scanning the whole table.
+ */
+@Component
+public class LogRetentionJob {
+
+  private static final Logger LOGGER = LogManager.getLogger(LogRetentionJob.class);
+
+  private static final String SELECT_EXPIRED =
+      "SELECT id, severity, message, timestamp, user, template, message_arg1, message_arg2, repeat_count,"
+          + " last_timestamp FROM log WHERE id >= ? AND id < ? AND (%s)";
+  private static final String DELETE_EXPIRED = "DELETE FROM log WHERE id >= ? AND id < ? AND (%s)";
+  private static final String DELETE_DAYS = "DELETE FROM log WHERE id >= ? AND id < ? AND partition_day < ?";
+  // the ids are sparse, so a chunk ends at the id behind its chunk-size-th log
+  private static final String SELECT_CHUNK_END = "SELECT id FROM log WHERE id >= ? ORDER BY id LIMIT 1 OFFSET ?";
+
+  private final LogRetentionProperties properties;
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final LogPartitionRouter logPartitionRouter;
+  private final LogChangeNotifier logChangeNotifier;
+  private final Counter purgedLogs;
+  private final Timer purgeDuration;
+
+  public LogRetentionJob(
+      LogRetentionProperties properties,
+      DataSource dataSource,
+      PlatformTransactionManager transactionManager,
+      LogPartitionRouter logPartitionRouter,
+      LogChangeNotifier logChangeNotifier,
+      ObjectProvider<MeterRegistry> meterRegistryProvider) {
+    MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable(SimpleMeterRegistry::new);
+    this.properties = properties;
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.logPartitionRouter = logPartitionRouter;
+    this.logChangeNotifier = logChangeNotifier;
+    this.purgedLogs = meterRegistry.counter("log.retention.purged");
+    this.purgeDuration = meterRegistry.timer("log.retention.duration");
+  }
+
+  @Scheduled(cron = "${log.retention.cron:0 0 * * * *}")
+  public void run() {
+    if (properties.isEnabled()) {
+      purge(LocalDateTime.now());
+    }
+  }
+
+  public LogPurgeReport purge(LocalDateTime now) {
+    long start = System.nanoTime();
+    Map<SeverityEnum, LocalDateTime> cutoffs = getCutoffs(now);
+    long purged = 0;
+    if (!cutoffs.isEmpty()) {
+      purged += dropExpiredPartitions(cutoffs);
+      purged += purgeInChunks(cutoffs);
+    }
+
+    Duration duration = Duration.ofNanos(System.nanoTime() - start);
+    purgedLogs.increment(purged);
+    purgeDuration.record(duration);
+    LOGGER.info("Log retention purged {} logs in {} ms.", purged, duration.toMillis());
+    return new LogPurgeReport(purged, duration);
+  }
+
+  private Map<SeverityEnum, LocalDateTime> getCutoffs(LocalDateTime now) {
+    Map<SeverityEnum, LocalDateTime> cutoffs = new EnumMap<>(SeverityEnum.class);
+    properties.getTtl().forEach((severity, ttl) -> {
+      if (ttl != null && !ttl.isZero() && !ttl.isNegative()) {
+        cutoffs.put(severity, now.minus(ttl));
+      }
+    });
+    return cutoffs;
+  }
+
+  // whole days older than the cutoff of every severity are dropped without looking at single logs
+  private long dropExpiredPartitions(Map<SeverityEnum, LocalDateTime> cutoffs) {
+    if (cutoffs.size() < SeverityEnum.values().length) {
+      return 0;
+    }
+    LocalDate firstKeptDay = Collections.min(cutoffs.values()).toLocalDate();
+    if (logPartitionRouter.isSegmentBacked()) {
+      return logPartitionRouter.dropPartitionsBefore(firstKeptDay);
+    }
+
+    int partitionDay = Log.partitionDayOf(firstKeptDay);
+    long bound = TimeOrderedIdGenerator.firstIdAt(firstKeptDay.atStartOfDay());
+    long dropped = inChunks(bound, (from, to) -> jdbcTemplate.update(DELETE_DAYS, from, to, partitionDay));
+    // late logs of the days have ids behind the bound, the partition index finds them
+    Integer droppedLate = transactionTemplate.execute(
+        status -> jdbcTemplate.update(DELETE_DAYS, bound, Long.MAX_VALUE, partitionDay));
+    dropped += droppedLate == null ? 0 : droppedLate;
+    if (dropped > 0) {
+      logChangeNotifier.partitionsDropped(firstKeptDay);
+    }
+    return dropped;
+  }
+
+  private long purgeInChunks(Map<SeverityEnum, LocalDateTime> cutoffs) {
+    String condition = cutoffs.keySet().stream()
+        .map(severity -> "(severity = ? AND timestamp < ?)")
+        .collect(Collectors.joining(" OR "));
+    List<Object> conditionArgs = new ArrayList<>();
+    cutoffs.forEach((severity, cutoff) -> {
+      conditionArgs.add(SeverityConverter.toCode(severity.name()));
+      conditionArgs.add(Timestamp.valueOf(cutoff));
+    });
+
+    // no log behind the first id of the latest cutoff has expired, unless it was sent late
+    long bound = TimeOrderedIdGenerator.firstIdAt(Collections.max(cutoffs.values()));
+    long purged = inChunks(bound, (from, to) -> purgeChunk(condition, chunkArgs(from, to, conditionArgs)));
+    // the severity index finds the few late logs behind the bound
+    Integer purgedLate = transactionTemplate.execute(
+        status -> purgeChunk(condition, chunkArgs(bound, Long.MAX_VALUE, conditionArgs)));
+    return purged + (purgedLate == null ? 0 : purgedLate);
+  }
+
+  // runs the operation for the id ranges of chunk-size logs below the bound, one transaction each
+  private long inChunks(long bound, LongBinaryOperator operation) {
+    Long minId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM log", Long.class);
+    if (minId == null) {
+      return 0;
+    }
+
+    long done = 0;
+    long from = minId;
+    while (from < bound) {
+      List<Long> chunkEnd = jdbcTemplate.queryForList(SELECT_CHUNK_END, Long.class, from, properties.getChunkSize());
+      long chunkFrom = from;
+      long chunkTo = chunkEnd.isEmpty() ? bound : Math.min(chunkEnd.get(0), bound);
+      Long doneInChunk = transactionTemplate.execute(status -> operation.applyAsLong(chunkFrom, chunkTo));
+      done += doneInChunk == null ? 0 : doneInChunk;
+      from = chunkTo;
+    }
+    return done;
+  }
+
+  private int purgeChunk(String condition, Object[] args) {
+    // the listeners need the purged logs, so they are read before the delete
+    List<Log> expiredLogs = jdbcTemplate.query(String.format(SELECT_EXPIRED, condition), this::mapLog, args);
+    if (expiredLogs.isEmpty()) {
+      return 0;
+    }
+    int purged = jdbcTemplate.update(String.format(DELETE_EXPIRED, condition), args);
+    logChangeNotifier.logsDeleted(expiredLogs);
+    return purged;
+  }
+
+  private Log mapLog(ResultSet rs, int rowNum) throws SQLException {
+    int userId = rs.getInt(5);
+    User user = rs.wasNull() ? null : User.builder().id(userId).build();
+    // the listeners take a coalesced log for all logs of its burst
+    Timestamp lastTimestamp = rs.getTimestamp(10);
+    return Log.builder()
+        .id(rs.getLong(1))
+        .severity(SeverityConverter.toSeverity(rs.getByte(2)))
+        .message(LogTemplate.messageOf(
+            rs.getString(3), rs.getObject(6, Integer.class), rs.getString(7), rs.getString(8)))
+        .timestamp(rs.getTimestamp(4).toLocalDateTime())
+        .user(user)
+        .repeatCount(rs.getObject(9, Integer.class))
+        .lastTimestamp(lastTimestamp == null ? null : lastTimestamp.toLocalDateTime())
+        .build();
+  }
+
+  private static Object[] chunkArgs(long from, long to, List<Object> conditionArgs) {
+    List<Object> args = new ArrayList<>();
+    args.add(from);
+    args.add(to);
+    args.addAll(conditionArgs);
+    return args.toArray();
+  }
+}
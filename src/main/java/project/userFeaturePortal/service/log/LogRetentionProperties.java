@@ -0,0 +1,40 @@
+package project.userFeaturePortal.service.log;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import project.userFeaturePortal.common.enums.SeverityEnum;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Settings of the scheduled log retention (prefix "log.retention"). The schedule itself is set by
+ * "log.retention.cron".
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "log.retention")
+public class LogRetentionProperties {
+
+  // if false the scheduled purge does nothing
+  private boolean enabled = false;
+
+  // how long logs of each severity are kept, a severity without ttl or a ttl of 0 is kept forever
+  private Map<SeverityEnum, Duration> ttl = defaultTtl();
+
+  // number of logs purged by one transaction
+  private int chunkSize = 1000;
+
+  private static Map<SeverityEnum, Duration> defaultTtl() {
+    Map<SeverityEnum, Duration> ttl = new EnumMap<>(SeverityEnum.class);
+    ttl.put(SeverityEnum.TRACE, Duration.ofDays(1));
+    ttl.put(SeverityEnum.DEBUG, Duration.ofDays(1));
+    ttl.put(SeverityEnum.INFO, Duration.ofDays(30));
+    ttl.put(SeverityEnum.WARNING, Duration.ofDays(90));
+    ttl.put(SeverityEnum.ERROR, Duration.ofDays(365));
+    ttl.put(SeverityEnum.FATAL, Duration.ofDays(365));
+    return ttl;
+  }
+}
@@ -0,0 +1,276 @@
+package project.userFeaturePortal.service.log;
+
+import lombok.Value;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import project.userFeaturePortal.common.dto.log.LogStatsDto;
+import project.userFeaturePortal.common.enums.LogStatsResolution;
+import project.userFeaturePortal.model.converter.SeverityConverter;
+import project.userFeaturePortal.model.entity.Log;
+import project.userFeaturePortal.model.repository.LogFilter;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+
+/**
+ * Number of logs per severity, user and minute, rolled up to hours and days. A log coalesced from a
+ * burst counts with its repeat count, at the timestamp of its first log. The store is read from the
+ * backend the logs are appended to and from the archive once at startup and then kept up to date by
+ * the {@link LogChangeNotifier}, so statistics are answered from the buckets of the requested range
+ * without touching the logs. Changes reported before the build is done are replayed after it.
+ */
+@Component
+public class LogRollupStore implements LogChangeListener {
+
+  private static final Logger LOGGER = LogManager.getLogger(LogRollupStore.class);
+
+  private final LogStatsProperties properties;
+  private final LogSegmentStore logSegmentStore;
+  private final LogArchiveStore logArchiveStore;
+  private final JdbcTemplate jdbcTemplate;
+  private final Map<LogStatsResolution, NavigableMap<LocalDateTime, Map<RollupKey, Long>>> buckets =
+      new EnumMap<>(LogStatsResolution.class);
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final LogChangeBuffer pendingChanges = new LogChangeBuffer();
+
+  public LogRollupStore(
+      LogStatsProperties properties,
+      LogSegmentStore logSegmentStore,
+      LogArchiveStore logArchiveStore,
+      DataSource dataSource) {
+    this.properties = properties;
+    this.logSegmentStore = logSegmentStore;
+    this.logArchiveStore = logArchiveStore;
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    for (LogStatsResolution resolution : LogStatsResolution.values()) {
+      buckets.put(resolution, new TreeMap<>());
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void build() {
+    pendingChanges.start();
+    lock.writeLock().lock();
+    try {
+      buckets.values().forEach(Map::clear);
+      LocalDateTime now = LocalDateTime.now();
+      // a day being archived may still be in the table, its logs are read from the archive only
+      Set<Integer> archivedDays = new HashSet<>();
+      if (logArchiveStore.isEnabled()) {
+        archivedDays.addAll(logArchiveStore.getPartitions());
+        try (Stream<LogArchiveFile.Row> rows = logArchiveStore.rows(LogFilter.builder().build())) {
+          rows.forEach(row -> add(
+              new RollupKey(SeverityConverter.toSeverity(row.getSeverity()), row.getUserId()),
+              LogSegmentStore.toTimestamp(row.getTimestamp()),
+              row.getRepeatCount() == null ? 1 : row.getRepeatCount(),
+              now));
+        }
+      }
+      if (logSegmentStore.isEnabled()) {
+        try (Stream<LogSegment.Record> records = logSegmentStore.records(LogFilter.builder().build(), false)) {
+          records.forEach(record -> {
+            pendingChanges.read(record.id, null);
+            Integer userId = record.userId == LogSegment.NO_USER ? null : record.userId;
+            add(new RollupKey(SeverityConverter.toSeverity(record.severity), userId),
+                LogSegmentStore.toTimestamp(record.timestamp), 1, now);
+          });
+        }
+      } else {
+        jdbcTemplate.query("SELECT id, severity, user, timestamp, repeat_count FROM log", rs -> {
+          LocalDateTime timestamp = rs.getTimestamp(4).toLocalDateTime();
+          Integer repeatCount = rs.getObject(5, Integer.class);
+          pendingChanges.read(rs.getLong(1), repeatCount);
+          if (archivedDays.contains(Log.partitionDayOf(timestamp.toLocalDate()))) {
+            return;
+          }
+          String severity = SeverityConverter.toSeverity(rs.getByte(2));
+          int userId = rs.getInt(3);
+          add(new RollupKey(severity, rs.wasNull() ? null : userId), timestamp,
+              repeatCount == null ? 1 : repeatCount, now);
+        });
+      }
+      LOGGER.info("Log rollups built with {} day buckets.", buckets.get(LogStatsResolution.DAY).size());
+    } finally {
+      lock.writeLock().unlock();
+    }
+    pendingChanges.replay(this);
+  }
+
+  /**
+   * Counts of all buckets overlapping the time range, per bucket and severity and in ascending
+   * order. Without userId the counts of all users are summed up.
+   */
+  public List<LogStatsDto> getStats(
+      String severity,
+      Integer userId,
+      LocalDateTime startDate,
+      LocalDateTime endDate,
+      LogStatsResolution resolution) {
+    lock.readLock().lock();
+    try {
+      NavigableMap<LocalDateTime, Map<RollupKey, Long>> range = buckets.get(resolution);
+      if (startDate != null) {
+        range = range.tailMap(bucketOf(startDate, resolution), true);
+      }
+      if (endDate != null) {
+        range = range.headMap(endDate, false);
+      }
+
+      List<LogStatsDto> stats = new ArrayList<>();
+      range.forEach((start, counts) -> {
+        Map<String, Long> countsBySeverity = new TreeMap<>();
+        counts.forEach((key, count) -> {
+          if ((severity == null || severity.equals(key.getSeverity()))
+              && (userId == null || userId.equals(key.getUserId()))) {
+            countsBySeverity.merge(key.getSeverity(), count, Long::sum);
+          }
+        });
+        countsBySeverity.forEach((bucketSeverity, count) -> stats.add(new LogStatsDto(start, bucketSeverity, count)));
+      });
+      return stats;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  // the repetitions of an added log follow with logRepeated
+  @Override
+  public void logsAdded(List<Log> logs) {
+    if (!pendingChanges.hold(store -> store.logsAdded(pendingChanges.unread(logs)))) {
+      update(logs, log -> 1);
+    }
+  }
+
+  @Override
+  public void logRepeated(Log log, int repetitions) {
+    Integer repeatCount = log.getRepeatCount();
+    if (!pendingChanges.hold(
+        store -> store.logRepeated(log, pendingChanges.unreadRepetitions(log, repeatCount, repetitions)))) {
+      update(List.of(log), repeatedLog -> repetitions);
+    }
+  }
+
+  @Override
+  public void logsDeleted(List<Log> logs) {
+    if (!pendingChanges.hold(store -> store.logsDeleted(pendingChanges.counted(logs)))) {
+      update(logs, log -> log.getRepeatCount() == null ? -1 : -log.getRepeatCount());
+    }
+  }
+
+  @Override
+  public void allLogsDeleted() {
+    if (pendingChanges.hold(LogChangeListener::allLogsDeleted)) {
+      return;
+    }
+    lock.writeLock().lock();
+    try {
+      buckets.values().forEach(Map::clear);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void partitionsDropped(LocalDate day) {
+    if (pendingChanges.hold(store -> store.partitionsDropped(day))) {
+      return;
+    }
+    lock.writeLock().lock();
+    try {
+      buckets.values().forEach(level -> level.headMap(day.atStartOfDay(), false).clear());
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void update(List<Log> logs, ToLongFunction<Log> delta) {
+    LocalDateTime now = LocalDateTime.now();
+    lock.writeLock().lock();
+    try {
+      for (Log log : logs) {
+        if (log.getTimestamp() != null) {
+          Integer userId = log.getUser() == null ? null : log.getUser().getId();
+          add(new RollupKey(log.getSeverity(), userId), log.getTimestamp(), delta.applyAsLong(log), now);
+        }
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void add(RollupKey key, LocalDateTime timestamp, long delta, LocalDateTime now) {
+    for (LogStatsResolution resolution : LogStatsResolution.values()) {
+      NavigableMap<LocalDateTime, Map<RollupKey, Long>> level = buckets.get(resolution);
+      LocalDateTime oldestBucket = oldestBucket(resolution, now);
+      if (oldestBucket != null) {
+        // expired buckets are trimmed while the level is updated anyway
+        level.headMap(oldestBucket, false).clear();
+      }
+
+      LocalDateTime start = bucketOf(timestamp, resolution);
+      if (oldestBucket != null && start.isBefore(oldestBucket)) {
+        continue;
+      }
+      Map<RollupKey, Long> counts = delta > 0
+          ? level.computeIfAbsent(start, bucket -> new HashMap<>())
+          : level.get(start);
+      if (counts == null) {
+        continue;
+      }
+      Long count = counts.merge(key, delta, Long::sum);
+      if (count <= 0) {
+        counts.remove(key);
+        if (counts.isEmpty()) {
+          level.remove(start);
+        }
+      }
+    }
+  }
+
+  private LocalDateTime oldestBucket(LogStatsResolution resolution, LocalDateTime now) {
+    switch (resolution) {
+      case MINUTE:
+        return bucketOf(now.minus(properties.getMinuteRetention()), resolution);
+      case HOUR:
+        return bucketOf(now.minus(properties.getHourRetention()), resolution);
+      default:
+        return null;
+    }
+  }
+
+  private static LocalDateTime bucketOf(LocalDateTime timestamp, LogStatsResolution resolution) {
+    switch (resolution) {
+      case MINUTE:
+        return timestamp.truncatedTo(ChronoUnit.MINUTES);
+      case HOUR:
+        return timestamp.truncatedTo(ChronoUnit.HOURS);
+      default:
+        return timestamp.truncatedTo(ChronoUnit.DAYS);
+    }
+  }
+
+  @Value
+  private static class RollupKey {
+    String severity;
+    Integer userId;
+  }
+}
@@ -0,0 +1,236 @@
+package project.userFeaturePortal.service.log;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * One append-only file of the {@link LogSegmentStore}, mapped into memory as a whole.
+ *
+ * <p>Every record has the layout {@code length int | id int | timestamp long | severity byte |
+ * user int | message length short | message UTF-8}, the timestamp in nanoseconds since the epoch.
+ * The file is zero-filled, so a length of 0 marks the end of the written part. Records below
+ * {@link #getEnd()} are never changed again and are read without locking.
+ */
+class LogSegment implements Closeable {
+
+  static final int HEADER_SIZE = 23;
+  static final int NO_USER = -1;
+
+  private final Path file;
+  private final int firstId;
+  private final int indexInterval;
+  private final FileChannel channel;
+  private final MappedByteBuffer buffer;
+
+  // sparse timestamp index: offset of every n-th record and the highest timestamp before it
+  private int[] indexOffsets = new int[16];
+  private long[] indexTimestamps = new long[16];
+  private int indexSize;
+
+  private int end;
+  private int records;
+  private int lastId;
+  private long minTimestamp = Long.MAX_VALUE;
+  private long maxTimestamp = Long.MIN_VALUE;
+  // false as soon as a record is older than one before it
+  private boolean ordered = true;
+
+  private LogSegment(Path file, int firstId, int size, int indexInterval) throws IOException {
+    this.file = file;
+    this.firstId = firstId;
+    this.indexInterval = indexInterval;
+    this.channel = FileChannel.open(
+        file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, channel.size()));
+  }
+
+  /** Maps the file, creating it with the given size if necessary, and reads its records. */
+  static LogSegment open(Path file, int firstId, int size, int indexInterval) throws IOException {
+    LogSegment segment = new LogSegment(file, firstId, size, indexInterval);
+    segment.recover();
+    return segment;
+  }
+
+  private void recover() {
+    int offset = 0;
+    while (offset + HEADER_SIZE <= buffer.capacity()) {
+      int length = buffer.getInt(offset);
+      if (length < HEADER_SIZE || offset + length > buffer.capacity()) {
+        break;
+      }
+      track(offset, buffer.getInt(offset + 4), buffer.getLong(offset + 8));
+      offset += length;
+    }
+    end = offset;
+  }
+
+  /** Appends the record, or returns false if it does not fit into the segment anymore. */
+  synchronized boolean append(int id, long timestamp, byte severity, int userId, byte[] message) {
+    int length = HEADER_SIZE + message.length;
+    if (end + length > buffer.capacity()) {
+      return false;
+    }
+    // the shared buffer keeps its position, readers take their own duplicates of it
+    ByteBuffer writer = buffer.duplicate();
+    writer.position(end);
+    writer.putInt(length)
+        .putInt(id)
+        .putLong(timestamp)
+        .put(severity)
+        .putInt(userId)
+        .putShort((short) message.length)
+        .put(message);
+    track(end, id, timestamp);
+    end += length;
+    return true;
+  }
+
+  private void track(int offset, int id, long timestamp) {
+    if (records % indexInterval == 0) {
+      if (indexSize == indexOffsets.length) {
+        indexOffsets = Arrays.copyOf(indexOffsets, indexSize * 2);
+        indexTimestamps = Arrays.copyOf(indexTimestamps, indexSize * 2);
+      }
+      indexOffsets[indexSize] = offset;
+      indexTimestamps[indexSize] = maxTimestamp;
+      indexSize++;
+    }
+    ordered = ordered && timestamp >= maxTimestamp;
+    minTimestamp = Math.min(minTimestamp, timestamp);
+    maxTimestamp = Math.max(maxTimestamp, timestamp);
+    lastId = id;
+    records++;
+  }
+
+  /**
+   * Offset from which on the records newer than the timestamp are found. All records before it are
+   * at most as new as the timestamp, also if the segment is not ordered.
+   */
+  synchronized int seek(long after) {
+    // the highest timestamps before the index entries never decrease
+    int low = 0;
+    int high = indexSize - 1;
+    int found = 0;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      if (indexTimestamps[middle] <= after) {
+        found = indexOffsets[middle];
+        low = middle + 1;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return found;
+  }
+
+  /** The records from the offset on, as far as they were written when the stream was created. */
+  Stream<Record> records(int from) {
+    ByteBuffer view = buffer.duplicate();
+    int until = getEnd();
+    return Stream.iterate(read(view, from, until), Objects::nonNull, record -> read(view, record.next, until));
+  }
+
+  /** The record with the id, or null if the segment does not contain it. */
+  Record find(int id) {
+    ByteBuffer view = buffer.duplicate();
+    int from = 0;
+    int until;
+    synchronized (this) {
+      until = end;
+      // the ids of a segment ascend, so the index narrows the scan to one interval
+      for (int i = 0; i < indexSize && view.getInt(indexOffsets[i] + 4) <= id; i++) {
+        from = indexOffsets[i];
+      }
+    }
+    for (Record record = read(view, from, until); record != null; record = read(view, record.next, until)) {
+      if (record.id == id) {
+        return record;
+      }
+      if (record.id > id) {
+        return null;
+      }
+    }
+    return null;
+  }
+
+  private static Record read(ByteBuffer view, int offset, int until) {
+    if (offset >= until) {
+      return null;
+    }
+    Record record = new Record();
+    int length = view.getInt(offset);
+    record.id = view.getInt(offset + 4);
+    record.timestamp = view.getLong(offset + 8);
+    record.severity = view.get(offset + 16);
+    record.userId = view.getInt(offset + 17);
+    byte[] message = new byte[view.getShort(offset + 21) & 0xFFFF];
+    for (int i = 0; i < message.length; i++) {
+      message[i] = view.get(offset + HEADER_SIZE + i);
+    }
+    record.message = new String(message, StandardCharsets.UTF_8);
+    record.next = offset + length;
+    return record;
+  }
+
+  /** Writes the changes of the mapped file to the disk. */
+  void force() {
+    buffer.force();
+  }
+
+  @Override
+  public void close() throws IOException {
+    force();
+    channel.close();
+  }
+
+  Path getFile() {
+    return file;
+  }
+
+  int getFirstId() {
+    return firstId;
+  }
+
+  synchronized int getEnd() {
+    return end;
+  }
+
+  synchronized int getRecords() {
+    return records;
+  }
+
+  synchronized int getLastId() {
+    return lastId;
+  }
+
+  synchronized long getMinTimestamp() {
+    return minTimestamp;
+  }
+
+  synchronized long getMaxTimestamp() {
+    return maxTimestamp;
+  }
+
+  synchronized boolean isOrdered() {
+    return ordered;
+  }
+
+  static class Record {
+    int id;
+    long timestamp;
+    byte severity;
+    int userId;
+    String message;
+    // offset of the following record
+    int next;
+  }
+}
@@ -0,0 +1,421 @@
+package project.userFeaturePortal.service.log;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import project.userFeaturePortal.common.dto.log.LogDTO;
+import project.userFeaturePortal.common.enums.LogStoreBackend;
+import project.userFeaturePortal.common.enums.LogTemplate;
+import project.userFeaturePortal.model.converter.SeverityConverter;
+import project.userFeaturePortal.model.entity.Log;
+import project.userFeaturePortal.model.entity.User;
+import project.userFeaturePortal.model.repository.LogFilter;
+import project.userFeaturePortal.model.repository.LogRepositoryCustom;
+import project.userFeaturePortal.model.repository.UserRepository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Log backend writing the logs to append-only, memory-mapped segment files instead of the log
+ * table. Only active if "log.store.backend" is SEGMENTS, otherwise {@link #isEnabled()} is false.
+ *
+ * <p>Each segment keeps a sparse timestamp index, so a time range scan starts close to its first
+ * log. As long as the logs are appended in time order, the segments are scanned one after another
+ * and a page stops reading at its last log. Logs appended out of order are still found, their query
+ * is sorted in memory then. Logs are never updated or deleted in the segments.
+ *
+ * <p>Every appended batch is forced to disk. With "log.store.force-on-append" set to false the
+ * segments are only forced on rollover and close, so a crash of the machine may lose the logs
+ * appended to the current segment since then.
+ *
+ * <p>The segments are the partitions of this backend: a log of a later day than the current
+ * segment starts a new one, so every segment holds the logs of one day. A log appended late, with
+ * the timestamp of an earlier day, stays in the segment of the day it arrived. Queries skip the
+ * segments outside their time range and {@link #dropDaysBefore} deletes whole segment files.
+ */
+@Component
+public class LogSegmentStore implements LogRepositoryCustom {
+
+  private static final Logger LOGGER = LogManager.getLogger(LogSegmentStore.class);
+
+  static final String FILE_PREFIX = "segment-";
+  static final String FILE_SUFFIX = ".log";
+  static final int MAX_MESSAGE_BYTES = 0xFFFF;
+
+  private static final long NANOS_PER_SECOND = 1_000_000_000L;
+  private static final long NANOS_PER_DAY = 86_400 * NANOS_PER_SECOND;
+
+  private final LogStoreProperties properties;
+  private final UserRepository userRepository;
+  private final List<LogSegment> segments = new CopyOnWriteArrayList<>();
+
+  private int nextId = 1;
+
+  public LogSegmentStore(LogStoreProperties properties, UserRepository userRepository) {
+    this.properties = properties;
+    this.userRepository = userRepository;
+  }
+
+  @PostConstruct
+  public void open() {
+    if (!isEnabled()) {
+      return;
+    }
+    Path directory = Paths.get(properties.getDirectory());
+    try {
+      Files.createDirectories(directory);
+      List<Path> files;
+      try (Stream<Path> list = Files.list(directory)) {
+        files = list.filter(LogSegmentStore::isSegmentFile).sorted().collect(Collectors.toList());
+      }
+      for (Path file : files) {
+        segments.add(openSegment(file, firstIdOf(file)));
+      }
+      if (!segments.isEmpty()) {
+        LogSegment last = segments.get(segments.size() - 1);
+        nextId = last.getRecords() == 0 ? last.getFirstId() : last.getLastId() + 1;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    LOGGER.info("Log segment store opened {} segments in {}, next id {}.", segments.size(), directory, nextId);
+  }
+
+  @PreDestroy
+  public synchronized void close() {
+    for (LogSegment segment : segments) {
+      try {
+        segment.close();
+      } catch (IOException e) {
+        LOGGER.error("Could not close log segment {}: {}", segment.getFile(), e.getMessage());
+      }
+    }
+    segments.clear();
+  }
+
+  public boolean isEnabled() {
+    return properties.getBackend() == LogStoreBackend.SEGMENTS;
+  }
+
+  /**
+   * Appends the logs to the current segment, starting a new one when it is full or the log is of a
+   * later day. Sets their ids and forces them to disk unless "log.store.force-on-append" is false.
+   */
+  public synchronized void append(List<Log> logs) {
+    for (Log log : logs) {
+      byte[] message = log.getMessage().getBytes(StandardCharsets.UTF_8);
+      if (message.length > MAX_MESSAGE_BYTES) {
+        throw new IllegalArgumentException("Log message exceeds " + MAX_MESSAGE_BYTES + " bytes.");
+      }
+      // the ids of the segments are integers, the store does not wrap around
+      if (nextId == Integer.MAX_VALUE) {
+        throw new IllegalStateException("The log segment store has run out of ids.");
+      }
+      int id = nextId;
+      long timestamp = toKey(log.getTimestamp());
+      byte severity = SeverityConverter.toCode(log.getSeverity());
+      int userId = log.getUser() == null ? LogSegment.NO_USER : log.getUser().getId();
+
+      if (segments.isEmpty()
+          || isLaterDay(timestamp, current())
+          || !current().append(id, timestamp, severity, userId, message)) {
+        rollOver(id);
+        if (!current().append(id, timestamp, severity, userId, message)) {
+          throw new IllegalArgumentException("Log does not fit into an empty segment, increase log.store.segment-size.");
+        }
+      }
+      nextId++;
+      log.setId((long) id);
+      log.setPartitionDay(Log.partitionDayOf(log.getTimestamp().toLocalDate()));
+    }
+    if (properties.isForceOnAppend() && !logs.isEmpty()) {
+      current().force();
+    }
+  }
+
+  /**
+   * Deletes the segments of the days before the day and returns the number of their logs. A segment
+   * holding a late log of such a day is kept with the day it belongs to, and so is the current
+   * segment, which the ids continue behind after a restart.
+   */
+  public synchronized int dropDaysBefore(LocalDate day) {
+    long before = toKey(day.atStartOfDay());
+    int dropped = 0;
+    for (LogSegment segment : segments) {
+      if (segment == current() || segment.getRecords() == 0 || segment.getMaxTimestamp() >= before) {
+        continue;
+      }
+      segments.remove(segment);
+      try {
+        segment.close();
+        Files.delete(segment.getFile());
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      dropped += segment.getRecords();
+      LOGGER.info("Log segment {} dropped.", segment.getFile().getFileName());
+    }
+    return dropped;
+  }
+
+  /** Number of logs per day, a segment counts for the day of its newest log. */
+  public Map<LocalDate, Long> countLogsByDay() {
+    Map<LocalDate, Long> days = new TreeMap<>();
+    for (LogSegment segment : segments) {
+      if (segment.getRecords() > 0) {
+        days.merge(toTimestamp(segment.getMaxTimestamp()).toLocalDate(), (long) segment.getRecords(), Long::sum);
+      }
+    }
+    return days;
+  }
+
+  public Log findById(long id) {
+    // the segments number their logs on their own, the ids of the log table are beyond
+    if (id > Integer.MAX_VALUE) {
+      return null;
+    }
+    for (int i = segments.size() - 1; i >= 0; i--) {
+      LogSegment segment = segments.get(i);
+      if (segment.getFirstId() <= id) {
+        LogSegment.Record record = segment.find((int) id);
+        return record == null ? null : toLog(record, new HashMap<>());
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public List<Log> findLogs(LogFilter filter, Pageable pageable) {
+    try (Stream<Log> logs = streamLogs(filter)) {
+      return page(logs, pageable);
+    }
+  }
+
+  @Override
+  public Stream<Log> streamLogs(LogFilter filter) {
+    Map<Integer, User> users = new HashMap<>();
+    return records(filter, true).map(record -> toLog(record, users));
+  }
+
+  @Override
+  public List<LogDTO> findLogDTOs(LogFilter filter, Pageable pageable) {
+    try (Stream<LogDTO> logs = streamLogDTOs(filter)) {
+      return page(logs, pageable);
+    }
+  }
+
+  @Override
+  public Stream<LogDTO> streamLogDTOs(LogFilter filter) {
+    Map<Integer, String> userNames = new HashMap<>();
+    return records(filter, true).map(record -> toLogDTO(record, userNames));
+  }
+
+  // counted records are not turned into logs, so no user is looked up for them
+  @Override
+  public long countLogs(LogFilter filter) {
+    return records(filter, false).count();
+  }
+
+  @Override
+  public boolean existsLogs(LogFilter filter) {
+    return records(filter, false).findAny().isPresent();
+  }
+
+  /** The records matching the filter, sorted by timestamp and id only if requested. */
+  Stream<LogSegment.Record> records(LogFilter filter, boolean sorted) {
+    // ids of the logs behind a cursor with the same timestamp must still be read
+    long after = Long.MIN_VALUE;
+    if (filter.getStartDate() != null) {
+      after = toKey(filter.getStartDate());
+    }
+    if (filter.getCursorTimestamp() != null) {
+      after = Math.max(after, toKey(filter.getCursorTimestamp()) - 1);
+    }
+    long before = filter.getEndDate() == null ? Long.MAX_VALUE : toKey(filter.getEndDate());
+    long from = after;
+
+    List<LogSegment> candidates = new ArrayList<>();
+    for (LogSegment segment : segments) {
+      if (segment.getRecords() > 0 && segment.getMaxTimestamp() > from && segment.getMinTimestamp() < before) {
+        candidates.add(segment);
+      }
+    }
+    Predicate<LogSegment.Record> matches = matching(filter);
+
+    if (!inTimeOrder(candidates)) {
+      Stream<LogSegment.Record> records = candidates.stream()
+          .flatMap(segment -> segment.records(segment.seek(from)))
+          .filter(record -> record.timestamp > from && record.timestamp < before && matches.test(record));
+      return sorted
+          ? records.sorted(Comparator.<LogSegment.Record>comparingLong(record -> record.timestamp)
+              .thenComparingInt(record -> record.id))
+          : records;
+    }
+    // in time order every segment is read only up to the end of the time range
+    return candidates.stream()
+        .flatMap(segment -> segment.records(segment.seek(from)).takeWhile(record -> record.timestamp < before))
+        .filter(record -> record.timestamp > from && matches.test(record));
+  }
+
+  private static Predicate<LogSegment.Record> matching(LogFilter filter) {
+    List<Predicate<LogSegment.Record>> predicates = new ArrayList<>();
+    if (filter.getSeverity() != null) {
+      byte severity = SeverityConverter.toCode(filter.getSeverity());
+      predicates.add(record -> record.severity == severity);
+    }
+    if (filter.getMinSeverity() != null) {
+      byte minSeverity = (byte) filter.getMinSeverity().ordinal();
+      predicates.add(record -> record.severity >= minSeverity);
+    }
+    if (filter.getMessage() != null) {
+      String message = filter.getMessage();
+      predicates.add(record -> record.message.contains(message));
+    }
+    if (filter.getTemplate() != null) {
+      // the segments keep the full messages
+      LogTemplate template = filter.getTemplate();
+      predicates.add(record -> template.match(record.message) != null);
+    }
+    if (filter.getFirstPartition() != null || filter.getLastPartition() != null) {
+      int firstPartition = filter.getFirstPartition() == null ? Integer.MIN_VALUE : filter.getFirstPartition();
+      int lastPartition = filter.getLastPartition() == null ? Integer.MAX_VALUE : filter.getLastPartition();
+      predicates.add(record -> {
+        int partitionDay = Log.partitionDayOf(toTimestamp(record.timestamp).toLocalDate());
+        return partitionDay >= firstPartition && partitionDay <= lastPartition;
+      });
+    }
+    if (filter.getUser() != null) {
+      int userId = filter.getUser().getId();
+      predicates.add(record -> record.userId == userId);
+    }
+    if (filter.getCursorTimestamp() != null) {
+      long cursorTimestamp = toKey(filter.getCursorTimestamp());
+      long cursorId = filter.getCursorId();
+      predicates.add(record -> record.timestamp > cursorTimestamp
+          || (record.timestamp == cursorTimestamp && record.id > cursorId));
+    }
+    if (filter.getIds() != null) {
+      Set<Long> ids = new HashSet<>(filter.getIds());
+      predicates.add(record -> ids.contains((long) record.id));
+    }
+    return predicates.stream().reduce(record -> true, Predicate::and);
+  }
+
+  private static boolean inTimeOrder(List<LogSegment> segments) {
+    long previousMax = Long.MIN_VALUE;
+    for (LogSegment segment : segments) {
+      if (!segment.isOrdered() || segment.getMinTimestamp() < previousMax) {
+        return false;
+      }
+      previousMax = segment.getMaxTimestamp();
+    }
+    return true;
+  }
+
+  private Log toLog(LogSegment.Record record, Map<Integer, User> users) {
+    User user = null;
+    if (record.userId != LogSegment.NO_USER) {
+      // the users of one query are looked up once
+      user = users.computeIfAbsent(record.userId, id -> userRepository.findById(id).orElse(null));
+    }
+    LocalDateTime timestamp = toTimestamp(record.timestamp);
+    return Log.builder()
+        .id((long) record.id)
+        .severity(SeverityConverter.toSeverity(record.severity))
+        .message(record.message)
+        .timestamp(timestamp)
+        .partitionDay(Log.partitionDayOf(timestamp.toLocalDate()))
+        .user(user)
+        .build();
+  }
+
+  private LogDTO toLogDTO(LogSegment.Record record, Map<Integer, String> userNames) {
+    String userName = null;
+    if (record.userId != LogSegment.NO_USER) {
+      userName = userNames.computeIfAbsent(
+          record.userId, id -> userRepository.findById(id).map(User::getName).orElse(null));
+    }
+    return new LogDTO(
+        (long) record.id,
+        SeverityConverter.toSeverity(record.severity),
+        record.message,
+        toTimestamp(record.timestamp),
+        userName);
+  }
+
+  private static <T> List<T> page(Stream<T> logs, Pageable pageable) {
+    Stream<T> page = pageable.isPaged()
+        ? logs.skip(pageable.getOffset()).limit(pageable.getPageSize())
+        : logs;
+    return page.collect(Collectors.toList());
+  }
+
+  private LogSegment current() {
+    return segments.get(segments.size() - 1);
+  }
+
+  private static boolean isLaterDay(long timestamp, LogSegment segment) {
+    return segment.getRecords() > 0
+        && Math.floorDiv(timestamp, NANOS_PER_DAY) > Math.floorDiv(segment.getMaxTimestamp(), NANOS_PER_DAY);
+  }
+
+  private void rollOver(int firstId) {
+    if (!segments.isEmpty()) {
+      current().force();
+    }
+    Path file = Paths.get(properties.getDirectory(), String.format("%s%010d%s", FILE_PREFIX, firstId, FILE_SUFFIX));
+    try {
+      segments.add(openSegment(file, firstId));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    LOGGER.info("Log segment {} started.", file.getFileName());
+  }
+
+  private LogSegment openSegment(Path file, int firstId) throws IOException {
+    return LogSegment.open(
+        file, firstId, Math.toIntExact(properties.getSegmentSize().toBytes()), properties.getIndexInterval());
+  }
+
+  private static boolean isSegmentFile(Path file) {
+    String name = file.getFileName().toString();
+    return name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX);
+  }
+
+  private static int firstIdOf(Path file) {
+    String name = file.getFileName().toString();
+    return Integer.parseInt(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()));
+  }
+
+  static long toKey(LocalDateTime timestamp) {
+    return timestamp.toEpochSecond(ZoneOffset.UTC) * NANOS_PER_SECOND + timestamp.getNano();
+  }
+
+  static LocalDateTime toTimestamp(long key) {
+    return LocalDateTime.ofEpochSecond(
+        Math.floorDiv(key, NANOS_PER_SECOND), (int) Math.floorMod(key, NANOS_PER_SECOND), ZoneOffset.UTC);
+  }
+}
@@ -0,0 +1,435 @@
+package project.userFeaturePortal.service.log;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import project.userFeaturePortal.common.enums.LogStoreBackend;
+import project.userFeaturePortal.common.enums.SeverityEnum;
+import project.userFeaturePortal.model.converter.SeverityConverter;
+import project.userFeaturePortal.model.entity.Log;
+import project.userFeaturePortal.model.generator.TimeOrderedIdGenerator;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * One {@link IdBitmap} per severity over the shared {@link IdOrdinals} of the log ids. Like the
+ * {@link LogMessageIndex} it is kept up to date by the {@link LogChangeNotifier}, tails the log
+ * table by id at most once per "log.severity-index.catch-up-interval" and unindexes the logs of
+ * dropped or archived days by their ids. With the SEGMENTS backend it is not used either.
+ *
+ * <p>Ids mostly arrive ascending and get the next ordinal. An id arriving below the last one, e.g.
+ * from a transaction committed after a later one, is kept in a small sorted set of its severity.
+ * Once more than {@link #MAX_UNORDERED_IDS} of them are collected, the ordinals are rebuilt in O(n)
+ * by a task running every "log.severity-index.rebuild-interval", never by the thread announcing a
+ * change after its commit. Deleted ids keep their ordinal until then as well.
+ */
+@Component
+public class LogSeverityIndex implements LogChangeListener {
+
+  private static final Logger LOGGER = LogManager.getLogger(LogSeverityIndex.class);
+
+  static final int MAX_UNORDERED_IDS = 4096;
+  // rows read from the table per statement while catching up
+  static final int CATCH_UP_CHUNK_SIZE = 10_000;
+  private static final byte DELETED = -1;
+
+  private final LogSeverityIndexProperties properties;
+  private final LogStoreProperties storeProperties;
+  private final JdbcTemplate jdbcTemplate;
+  private final IdOrdinals ordinals = new IdOrdinals();
+  // severity code of every ordinal, DELETED for a deleted log
+  private byte[] severities = new byte[1024];
+  private int deletedOrdinals;
+  private final IdBitmap[] bitmaps = new IdBitmap[SeverityEnum.values().length];
+  // ids without an ordinal yet, per severity
+  private final SortedLongSet[] unorderedIds = new SortedLongSet[SeverityEnum.values().length];
+  private int unorderedIdCount;
+  private final LateLogIds lateIds = new LateLogIds();
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  // highest log id indexed so far, read from the table or added by the services
+  private volatile long watermark;
+  private volatile long lastCatchUpMillis;
+
+  public LogSeverityIndex(LogSeverityIndexProperties properties, LogStoreProperties storeProperties, DataSource dataSource) {
+    this.properties = properties;
+    this.storeProperties = storeProperties;
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    for (int i = 0; i < bitmaps.length; i++) {
+      bitmaps[i] = new IdBitmap();
+      unorderedIds[i] = new SortedLongSet();
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void build() {
+    if (isActive()) {
+      catchUp();
+      LOGGER.info("Log severity index built up to id {}.", watermark);
+    }
+  }
+
+  /**
+   * Ids of all logs of the severity and of at least the minimum severity, or null if there is no
+   * severity filter or it matches more than maxIds logs and is therefore better answered by the
+   * database. A minimum severity is the union of the bitmaps from its ordinal on.
+   */
+  public SortedLongSet findIds(String severity, SeverityEnum minSeverity, int maxIds) {
+    if (!isActive() || (severity == null && minSeverity == null)) {
+      return null;
+    }
+    int[] codes = codesOf(severity, minSeverity);
+    catchUpIfDue();
+    lock.readLock().lock();
+    try {
+      if (countOf(codes) > maxIds) {
+        return null;
+      }
+      SortedLongSet ids = new SortedLongSet();
+      for (int code : codes) {
+        SortedLongSet codeIds = new SortedLongSet(bitmaps[code].cardinality());
+        // ascending ordinals are ascending ids
+        bitmaps[code].forEach(ordinal -> codeIds.add(ordinals.idOf(ordinal)));
+        ids = ids.union(codeIds).union(unorderedIds[code]);
+      }
+      return ids;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** The candidates which are logs of the severities, all candidates if there is no severity filter. */
+  public SortedLongSet filter(SortedLongSet candidates, String severity, SeverityEnum minSeverity) {
+    if (!isActive() || (severity == null && minSeverity == null)) {
+      return candidates;
+    }
+    int[] codes = codesOf(severity, minSeverity);
+    catchUpIfDue();
+    lock.readLock().lock();
+    try {
+      boolean[] matches = new boolean[bitmaps.length];
+      for (int code : codes) {
+        matches[code] = true;
+      }
+      SortedLongSet ids = new SortedLongSet(candidates.size());
+      for (int i = 0; i < candidates.size(); i++) {
+        int code = severityOf(candidates.get(i));
+        if (code != DELETED && matches[code]) {
+          ids.add(candidates.get(i));
+        }
+      }
+      return ids;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Number of logs of the severities, or null if the index is disabled or not used. */
+  public Long count(String severity, SeverityEnum minSeverity) {
+    if (!isActive()) {
+      return null;
+    }
+    int[] codes = codesOf(severity, minSeverity);
+    catchUpIfDue();
+    lock.readLock().lock();
+    try {
+      return countOf(codes);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public void logsAdded(List<Log> logs) {
+    if (!isActive()) {
+      return;
+    }
+    lock.writeLock().lock();
+    try {
+      for (Log log : logs) {
+        add(log.getId(), log.getTimestamp(), SeverityConverter.toCode(log.getSeverity()));
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void logsDeleted(List<Log> logs) {
+    if (!isActive()) {
+      return;
+    }
+    lock.writeLock().lock();
+    try {
+      for (Log log : logs) {
+        if (log.getId() != null) {
+          // the severity of a deleted log may be unknown to the caller
+          unindex(log.getId());
+          lateIds.remove(log.getId());
+        }
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void allLogsDeleted() {
+    lock.writeLock().lock();
+    try {
+      clear();
+      lateIds.clear();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void partitionsDropped(LocalDate day) {
+    long firstId = TimeOrderedIdGenerator.firstIdAt(day.atStartOfDay());
+    lock.writeLock().lock();
+    try {
+      // the ids below the first id of the day have the lowest ordinals
+      int firstOrdinal = ordinals.ceilingOrdinal(firstId);
+      for (int ordinal = 0; ordinal < firstOrdinal; ordinal++) {
+        if (severities[ordinal] != DELETED) {
+          bitmaps[severities[ordinal]].remove(ordinal);
+          severities[ordinal] = DELETED;
+          deletedOrdinals++;
+        }
+      }
+      for (SortedLongSet ids : unorderedIds) {
+        unorderedIdCount -= ids.removeBelow(firstId);
+      }
+      SortedLongSet late = lateIds.removeBefore(day);
+      for (int i = 0; i < late.size(); i++) {
+        unindex(late.get(i));
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Rebuilds the ordinals once too many ids are unordered or deleted. */
+  @Scheduled(fixedDelayString = "#{@logSeverityIndexProperties.rebuildInterval.toMillis()}")
+  public void rebuildIfDue() {
+    lock.writeLock().lock();
+    try {
+      if (unorderedIdCount > MAX_UNORDERED_IDS || deletedOrdinals > Math.max(MAX_UNORDERED_IDS, ordinals.size() / 2)) {
+        rebuildOrdinals();
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  // archived logs are no longer in the table just like dropped ones
+  @Override
+  public void partitionsArchived(LocalDate day) {
+    partitionsDropped(day);
+  }
+
+  // the logs of the SEGMENTS backend are not in the log table, their queries scan the segments
+  private boolean isActive() {
+    return properties.isEnabled() && storeProperties.getBackend() == LogStoreBackend.TABLE;
+  }
+
+  private void catchUpIfDue() {
+    if (System.currentTimeMillis() - lastCatchUpMillis >= properties.getCatchUpInterval().toMillis()) {
+      catchUp();
+    }
+  }
+
+  /**
+   * Reads the logs added to the table behind the highest indexed id, in chunks. The rows are read
+   * without the lock, which is only taken to index them.
+   */
+  synchronized void catchUp() {
+    lastCatchUpMillis = System.currentTimeMillis();
+    List<Row> rows;
+    do {
+      rows = jdbcTemplate.query(
+          "SELECT id, timestamp, severity FROM log WHERE id > ? ORDER BY id LIMIT ?",
+          (rs, rowNum) -> new Row(rs.getLong(1), rs.getObject(2, LocalDateTime.class), rs.getByte(3)),
+          watermark,
+          CATCH_UP_CHUNK_SIZE);
+      if (rows.isEmpty()) {
+        return;
+      }
+      lock.writeLock().lock();
+      try {
+        for (Row row : rows) {
+          add(row.id, row.timestamp, row.severity);
+        }
+      } finally {
+        lock.writeLock().unlock();
+      }
+    } while (rows.size() == CATCH_UP_CHUNK_SIZE);
+  }
+
+  // codes of the severities matching both filters, none for an unknown severity
+  private static int[] codesOf(String severity, SeverityEnum minSeverity) {
+    int minCode = minSeverity == null ? 0 : minSeverity.ordinal();
+    if (severity == null) {
+      return IntStream.range(minCode, SeverityEnum.values().length).toArray();
+    }
+    SeverityEnum severityEnum = SeverityEnum.fromName(severity);
+    return severityEnum == null || severityEnum.ordinal() < minCode ? new int[0] : new int[] {severityEnum.ordinal()};
+  }
+
+  private long countOf(int[] codes) {
+    long count = 0;
+    for (int code : codes) {
+      count += bitmaps[code].cardinality() + unorderedIds[code].size();
+    }
+    return count;
+  }
+
+  // the severity code of the id, DELETED if it is not indexed
+  private int severityOf(long id) {
+    int ordinal = ordinals.ordinalOf(id);
+    if (ordinal >= 0) {
+      return severities[ordinal];
+    }
+    for (int code = 0; code < unorderedIds.length; code++) {
+      if (unorderedIds[code].contains(id)) {
+        return code;
+      }
+    }
+    return DELETED;
+  }
+
+  // advances the watermark, so a log added by the services is not read from the table again
+  private void add(Long id, LocalDateTime timestamp, byte severity) {
+    if (id == null) {
+      return;
+    }
+    watermark = Math.max(watermark, id);
+    lateIds.add(id, timestamp);
+    index(id, severity);
+  }
+
+  private void index(Long id, byte severity) {
+    if (id == null || severity < 0 || severity >= bitmaps.length) {
+      return;
+    }
+    if (ordinals.canAppend(id)) {
+      int ordinal = ordinals.append(id);
+      if (ordinal == severities.length) {
+        severities = Arrays.copyOf(severities, severities.length * 2);
+      }
+      severities[ordinal] = severity;
+      bitmaps[severity].add(ordinal);
+      return;
+    }
+    if (severityOf(id) == severity) {
+      return;
+    }
+    unindex(id);
+    int ordinal = ordinals.ordinalOf(id);
+    if (ordinal >= 0) {
+      // an id deleted and indexed again keeps its ordinal
+      severities[ordinal] = severity;
+      bitmaps[severity].add(ordinal);
+      deletedOrdinals--;
+      return;
+    }
+    unorderedIds[severity].add(id);
+    unorderedIdCount++;
+  }
+
+  private void unindex(long id) {
+    int ordinal = ordinals.ordinalOf(id);
+    if (ordinal >= 0) {
+      if (severities[ordinal] != DELETED) {
+        bitmaps[severities[ordinal]].remove(ordinal);
+        severities[ordinal] = DELETED;
+        deletedOrdinals++;
+      }
+      return;
+    }
+    for (SortedLongSet ids : unorderedIds) {
+      if (ids.remove(id)) {
+        unorderedIdCount--;
+        return;
+      }
+    }
+  }
+
+  // new ordinals for the indexed ids including the unordered ones, without the deleted ones
+  private void rebuildOrdinals() {
+    int count = 0;
+    for (IdBitmap bitmap : bitmaps) {
+      count += bitmap.cardinality();
+    }
+    // ascending ordinals are ascending ids, so no sort is needed
+    long[] ids = new long[count];
+    byte[] codes = new byte[count];
+    int size = 0;
+    for (int ordinal = 0; ordinal < ordinals.size(); ordinal++) {
+      if (severities[ordinal] != DELETED) {
+        ids[size] = ordinals.idOf(ordinal);
+        codes[size++] = severities[ordinal];
+      }
+    }
+    SortedLongSet[] unordered = unorderedIds.clone();
+    int[] next = new int[unordered.length];
+
+    // merges the ascending ids with the sorted unordered ids of every severity in O(n)
+    clear();
+    int i = 0;
+    while (true) {
+      int code = -1;
+      long id = i < size ? ids[i] : Long.MAX_VALUE;
+      for (int c = 0; c < unordered.length; c++) {
+        if (next[c] < unordered[c].size() && unordered[c].get(next[c]) < id) {
+          code = c;
+          id = unordered[c].get(next[c]);
+        }
+      }
+      if (code >= 0) {
+        next[code]++;
+        index(id, (byte) code);
+      } else if (i < size) {
+        index(id, codes[i++]);
+      } else {
+        return;
+      }
+    }
+  }
+
+  private void clear() {
+    ordinals.clear();
+    severities = new byte[1024];
+    deletedOrdinals = 0;
+    for (int code = 0; code < bitmaps.length; code++) {
+      bitmaps[code].clear();
+      unorderedIds[code] = new SortedLongSet();
+    }
+    unorderedIdCount = 0;
+  }
+
+  private static final class Row {
+
+    private final long id;
+    private final LocalDateTime timestamp;
+    private final byte severity;
+
+    private Row(long id, LocalDateTime timestamp, byte severity) {
+      this.id = id;
+      this.timestamp = timestamp;
+      this.severity = severity;
+    }
+  }
+}
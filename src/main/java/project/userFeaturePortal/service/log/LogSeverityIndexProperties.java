@@ -0,0 +1,25 @@
+package project.userFeaturePortal.service.log;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Settings of the bitmap index from severity to log ids (prefix "log.severity-index").
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "log.severity-index")
+public class LogSeverityIndexProperties {
+
+  // if false severity filters and counts are always answered by the database
+  private boolean enabled = true;
+
+  // lookups read the logs inserted past the services at most this often
+  private Duration catchUpInterval = Duration.ofSeconds(1);
+
+  // ordinals with too many unordered or deleted ids are rebuilt at most this often
+  private Duration rebuildInterval = Duration.ofSeconds(10);
+}
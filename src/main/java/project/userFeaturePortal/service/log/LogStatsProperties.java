@@ -0,0 +1,23 @@
+package project.userFeaturePortal.service.log;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Settings of the log rollups behind /logs/stats (prefix "log.stats"). Day buckets are kept as long
+ * as their logs.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "log.stats")
+public class LogStatsProperties {
+
+  // how long counts per minute are kept
+  private Duration minuteRetention = Duration.ofDays(2);
+
+  // how long counts per hour are kept
+  private Duration hourRetention = Duration.ofDays(90);
+}
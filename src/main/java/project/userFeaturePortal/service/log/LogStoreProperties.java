@@ -0,0 +1,30 @@
+package project.userFeaturePortal.service.log;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import project.userFeaturePortal.common.enums.LogStoreBackend;
+
+/**
+ * Settings of the storage the logs are appended to and queried from (prefix "log.store").
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "log.store")
+public class LogStoreProperties {
+
+  private LogStoreBackend backend = LogStoreBackend.TABLE;
+
+  // directory of the segment files of the SEGMENTS backend
+  private String directory = "data/log-segments";
+
+  // size of one segment file, a new segment is started when the current one is full
+  private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+  // every n-th record of a segment gets an entry in its sparse timestamp index
+  private int indexInterval = 128;
+
+  // forces every appended batch to disk, if false the logs since the last rollover may be lost on a crash
+  private boolean forceOnAppend = true;
+}
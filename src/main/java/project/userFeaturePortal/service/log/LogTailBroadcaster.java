@@ -0,0 +1,262 @@
+package project.userFeaturePortal.service.log;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import project.userFeaturePortal.common.dto.log.GetLogsRequestDto;
+import project.userFeaturePortal.common.enums.SeverityEnum;
+import project.userFeaturePortal.exception.TooManySubscribersException;
+import project.userFeaturePortal.model.entity.Log;
+import project.userFeaturePortal.model.mapper.LogDTOMapper;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Pushes every added log to the subscribers of the live tail whose filter it matches. When the
+ * burst of a coalesced log is over, the log is pushed again as "repeated" event with its repeat
+ * count.
+ *
+ * <p>Logs are only put into the bounded buffer of each subscriber by the thread adding them. A few
+ * sender threads write the buffers to the connections, so a slow subscriber loses its oldest logs
+ * instead of slowing down the ingestion. Before the next logs it receives a "dropped" event with
+ * the number of lost logs.
+ *
+ * <p>Heartbeats take the same way: the heartbeat thread only marks them due and schedules the
+ * sender of each subscription, which is not scheduled again while it is still writing. A
+ * subscriber whose connection blocks its sender for longer than "log.tail.send-timeout" is removed
+ * and the sender interrupted, so blocked connections do not pin the sender threads. The sender
+ * completes the emitter of a removed subscriber when its write returns.
+ */
+@Component
+public class LogTailBroadcaster implements LogChangeListener {
+
+  private static final Logger LOGGER = LogManager.getLogger(LogTailBroadcaster.class);
+
+  static final String LOG_EVENT = "log";
+  static final String REPEATED_EVENT = "repeated";
+  static final String DROPPED_EVENT = "dropped";
+
+  private final LogTailProperties properties;
+  private final LogDTOMapper logDTOMapper;
+  private final Set<LogTailSubscription> subscriptions = ConcurrentHashMap.newKeySet();
+  // reserved before a subscription is added, so concurrent subscribers cannot pass the limit
+  private final AtomicInteger reservedSubscribers = new AtomicInteger();
+  private final ExecutorService senders;
+  private final ScheduledExecutorService heartbeats;
+  private final Counter droppedLogs;
+  private final Counter blockedSubscribers;
+
+  public LogTailBroadcaster(
+      LogTailProperties properties,
+      LogDTOMapper logDTOMapper,
+      ObjectProvider<MeterRegistry> meterRegistryProvider) {
+    MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable(SimpleMeterRegistry::new);
+    this.properties = properties;
+    this.logDTOMapper = logDTOMapper;
+    this.senders = Executors.newFixedThreadPool(properties.getSenderThreads(), daemonThreads("log-tail-sender"));
+    this.heartbeats = Executors.newSingleThreadScheduledExecutor(daemonThreads("log-tail-heartbeat"));
+    long interval = properties.getHeartbeatInterval().toMillis();
+    heartbeats.scheduleAtFixedRate(this::sendHeartbeats, interval, interval, TimeUnit.MILLISECONDS);
+    meterRegistry.gauge("log.tail.subscribers", subscriptions, Set::size);
+    this.droppedLogs = meterRegistry.counter("log.tail.dropped");
+    this.blockedSubscribers = meterRegistry.counter("log.tail.blocked");
+  }
+
+  @PreDestroy
+  void stop() {
+    heartbeats.shutdownNow();
+    senders.shutdownNow();
+    subscriptions.forEach(subscription -> subscription.getEmitter().complete());
+    subscriptions.clear();
+    reservedSubscribers.set(0);
+  }
+
+  public SseEmitter subscribe(GetLogsRequestDto filter) {
+    return subscribe(filter, new SseEmitter(properties.getTimeout().toMillis()));
+  }
+
+  SseEmitter subscribe(GetLogsRequestDto filter, SseEmitter emitter) {
+    if (reservedSubscribers.incrementAndGet() > properties.getMaxSubscribers()) {
+      reservedSubscribers.decrementAndGet();
+      throw new TooManySubscribersException(properties.getMaxSubscribers());
+    }
+    LogTailSubscription subscription =
+        new LogTailSubscription(emitter, matching(filter), properties.getBufferSize());
+    emitter.onCompletion(() -> remove(subscription));
+    emitter.onTimeout(() -> remove(subscription));
+    emitter.onError(error -> remove(subscription));
+    subscriptions.add(subscription);
+    return emitter;
+  }
+
+  // frees the reservation of the subscription once, whichever way it ends
+  private void remove(LogTailSubscription subscription) {
+    if (subscriptions.remove(subscription)) {
+      reservedSubscribers.decrementAndGet();
+    }
+  }
+
+  public int getSubscribers() {
+    return subscriptions.size();
+  }
+
+  @Override
+  public void logsAdded(List<Log> logs) {
+    offer(LOG_EVENT, logs);
+  }
+
+  @Override
+  public void logRepeated(Log log, int repetitions) {
+    offer(REPEATED_EVENT, List.of(log));
+  }
+
+  private void offer(String event, List<Log> logs) {
+    for (LogTailSubscription subscription : subscriptions) {
+      boolean added = false;
+      for (Log log : logs) {
+        if (subscription.matches(log)) {
+          droppedLogs.increment(subscription.offer(event, log));
+          added = true;
+        }
+      }
+      if (added) {
+        schedule(subscription);
+      }
+    }
+  }
+
+  private void schedule(LogTailSubscription subscription) {
+    if (subscription.schedule()) {
+      senders.execute(() -> send(subscription));
+    }
+  }
+
+  private void send(LogTailSubscription subscription) {
+    try {
+      boolean sent = false;
+      List<LogTailSubscription.Event> events = subscription.drain();
+      // a subscriber removed as blocked gets nothing more
+      while (!events.isEmpty() && subscriptions.contains(subscription)) {
+        long dropped = subscription.takeDropped();
+        if (dropped > 0) {
+          send(subscription, SseEmitter.event().name(DROPPED_EVENT).data(dropped));
+        }
+        for (LogTailSubscription.Event event : events) {
+          send(subscription, SseEmitter.event()
+              .id(String.valueOf(event.getLog().getId()))
+              .name(event.getName())
+              .data(logDTOMapper.logToLogDTO(event.getLog()), MediaType.APPLICATION_JSON));
+        }
+        sent = true;
+        events = subscription.drain();
+      }
+      // a subscriber which just got events is not idle
+      if (subscription.takeHeartbeat() && !sent && subscriptions.contains(subscription)) {
+        send(subscription, SseEmitter.event().comment("heartbeat"));
+      }
+    } catch (IOException | IllegalStateException e) {
+      // the connection is gone, the emitter callbacks are not called for it in every case
+      LOGGER.debug("Log tail subscriber disconnected: {}", e.getMessage());
+      remove(subscription);
+    } finally {
+      subscription.unschedule();
+    }
+    if (!subscriptions.contains(subscription)) {
+      // removed as disconnected or blocked, its emitter only gets completed once the write returned
+      complete(subscription);
+      return;
+    }
+    // logs added between the last drain and unschedule must not wait for the next log
+    if (!subscription.isEmpty()) {
+      schedule(subscription);
+    }
+  }
+
+  private static void complete(LogTailSubscription subscription) {
+    try {
+      subscription.getEmitter().complete();
+    } catch (IllegalStateException e) {
+      LOGGER.debug("Log tail subscriber already completed: {}", e.getMessage());
+    }
+  }
+
+  private static void send(LogTailSubscription subscription, SseEmitter.SseEventBuilder event) throws IOException {
+    subscription.sending();
+    try {
+      subscription.getEmitter().send(event);
+    } finally {
+      subscription.sent();
+    }
+  }
+
+  // never writes to a connection itself, so a blocked subscriber cannot stop the heartbeats
+  void sendHeartbeats() {
+    long blockedSince = System.currentTimeMillis() - properties.getSendTimeout().toMillis();
+    for (LogTailSubscription subscription : subscriptions) {
+      // the emitter waits for the blocked write, so the interrupted sender completes it
+      if (subscription.interruptIfSendingSince(blockedSince)) {
+        LOGGER.debug("Log tail subscriber blocked for more than {}, removed.", properties.getSendTimeout());
+        remove(subscription);
+        blockedSubscribers.increment();
+        continue;
+      }
+      subscription.requestHeartbeat();
+      schedule(subscription);
+    }
+  }
+
+  private static Predicate<Log> matching(GetLogsRequestDto filter) {
+    Predicate<Log> predicate = log -> true;
+    if (filter.getSeverity() != null) {
+      predicate = predicate.and(log -> filter.getSeverity().equalsIgnoreCase(log.getSeverity()));
+    }
+    if (filter.getMinSeverity() != null) {
+      predicate = predicate.and(log -> {
+        SeverityEnum severity = log.getSeverity() == null
+            ? null
+            : SeverityEnum.fromName(log.getSeverity().toUpperCase(Locale.ROOT));
+        return severity != null && severity.compareTo(filter.getMinSeverity()) >= 0;
+      });
+    }
+    if (filter.getMessage() != null) {
+      predicate = predicate.and(log -> log.getMessage() != null && log.getMessage().contains(filter.getMessage()));
+    }
+    if (filter.getUser() != null) {
+      predicate = predicate.and(log -> log.getUser() != null && filter.getUser().equals(log.getUser().getName()));
+    }
+    if (filter.getStartDateTime() != null) {
+      predicate = predicate.and(log -> log.getTimestamp().isAfter(filter.getStartDateTime()));
+    }
+    if (filter.getEndDateTime() != null) {
+      predicate = predicate.and(log -> log.getTimestamp().isBefore(filter.getEndDateTime()));
+    }
+    return predicate;
+  }
+
+  private static ThreadFactory daemonThreads(String name) {
+    AtomicInteger count = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+}
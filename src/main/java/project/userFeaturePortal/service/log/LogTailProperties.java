@@ -0,0 +1,34 @@
+package project.userFeaturePortal.service.log;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Settings of the live log tail at /logs/stream (prefix "log.tail").
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "log.tail")
+public class LogTailProperties {
+
+  // further subscribers are rejected
+  private int maxSubscribers = 10_000;
+
+  // logs waiting for one subscriber, if it is full the oldest log is dropped
+  private int bufferSize = 1000;
+
+  // threads sending the buffered logs to all subscribers
+  private int senderThreads = 4;
+
+  // comment sent to idle subscribers, so closed connections are noticed
+  private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+  // a subscriber whose connection blocks a sender longer is dropped, checked with every heartbeat
+  private Duration sendTimeout = Duration.ofSeconds(30);
+
+  // a subscription ends after this time, the browser reconnects by itself
+  private Duration timeout = Duration.ofMinutes(30);
+}
@@ -0,0 +1,132 @@
+package project.userFeaturePortal.service.log;
+
+import lombok.Value;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import project.userFeaturePortal.model.entity.Log;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * One subscriber of the {@link LogTailBroadcaster} with its filter and a bounded buffer of the
+ * events not sent yet. If the buffer is full the oldest event is dropped, so adding a log never
+ * waits for the subscriber. A due heartbeat is kept with the events, so it is sent by the sender of
+ * the subscription as well.
+ */
+class LogTailSubscription {
+
+  private final SseEmitter emitter;
+  private final Predicate<Log> filter;
+  private final int capacity;
+  private final Deque<Event> buffer = new ArrayDeque<>();
+
+  // true while a sender is scheduled for or working on this subscription
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+
+  // logs dropped since the last drain
+  private long dropped;
+  private boolean heartbeatDue;
+
+  // the sender writing to the connection and since when, null while none is
+  private Thread sendingThread;
+  private long sendingSince;
+
+  LogTailSubscription(SseEmitter emitter, Predicate<Log> filter, int capacity) {
+    this.emitter = emitter;
+    this.filter = filter;
+    this.capacity = capacity;
+  }
+
+  SseEmitter getEmitter() {
+    return emitter;
+  }
+
+  boolean matches(Log log) {
+    return filter.test(log);
+  }
+
+  /** Buffers the event of the log and returns the number of events dropped for it (0 or 1). */
+  synchronized int offer(String name, Log log) {
+    int droppedNow = 0;
+    if (buffer.size() == capacity) {
+      buffer.pollFirst();
+      dropped++;
+      droppedNow = 1;
+    }
+    buffer.addLast(new Event(name, log));
+    return droppedNow;
+  }
+
+  /** Takes all buffered events. */
+  synchronized List<Event> drain() {
+    List<Event> events = new ArrayList<>(buffer);
+    buffer.clear();
+    return events;
+  }
+
+  /** Takes the number of logs dropped since the last call. */
+  synchronized long takeDropped() {
+    long result = dropped;
+    dropped = 0;
+    return result;
+  }
+
+  synchronized void requestHeartbeat() {
+    heartbeatDue = true;
+  }
+
+  /** Takes the due heartbeat, returns false if there is none. */
+  synchronized boolean takeHeartbeat() {
+    boolean result = heartbeatDue;
+    heartbeatDue = false;
+    return result;
+  }
+
+  /** True if neither events nor a heartbeat wait. */
+  synchronized boolean isEmpty() {
+    return buffer.isEmpty() && !heartbeatDue;
+  }
+
+  /** Called by the sender before it writes to the connection. */
+  synchronized void sending() {
+    sendingThread = Thread.currentThread();
+    sendingSince = System.currentTimeMillis();
+  }
+
+  /** Called by the sender after writing, also clears an interrupt arriving after the write. */
+  synchronized void sent() {
+    sendingThread = null;
+    Thread.interrupted();
+  }
+
+  /**
+   * Interrupts the sender if it has been writing to the connection since before the time in
+   * milliseconds, returns true if it was.
+   */
+  synchronized boolean interruptIfSendingSince(long time) {
+    if (sendingThread == null || sendingSince > time) {
+      return false;
+    }
+    sendingThread.interrupt();
+    return true;
+  }
+
+  /** Returns true if the caller has to schedule a sender, false if one is already on it. */
+  boolean schedule() {
+    return scheduled.compareAndSet(false, true);
+  }
+
+  void unschedule() {
+    scheduled.set(false);
+  }
+
+  @Value
+  static class Event {
+    String name;
+    Log log;
+  }
+}
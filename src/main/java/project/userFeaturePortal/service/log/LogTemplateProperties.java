@@ -0,0 +1,17 @@
+package project.userFeaturePortal.service.log;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings of the interning of log messages as template and arguments (prefix "log.templates").
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "log.templates")
+public class LogTemplateProperties {
+
+  // needs the columns added by migrateLogTemplates.sql on an existing log table
+  private boolean enabled = false;
+}
@@ -0,0 +1,137 @@
+package project.userFeaturePortal.service.log;
+
+import java.util.Arrays;
+
+/**
+ * Compact set of longs kept in a sorted array. Appending ascending values is amortized O(1), which
+ * is the usual case for log ids. Not thread safe.
+ */
+public class SortedLongSet {
+
+  private long[] values;
+  private int size;
+
+  public SortedLongSet() {
+    this(4);
+  }
+
+  public SortedLongSet(int capacity) {
+    values = new long[Math.max(capacity, 1)];
+  }
+
+  public static SortedLongSet of(long... values) {
+    SortedLongSet set = new SortedLongSet(values.length);
+    for (long value : values) {
+      set.add(value);
+    }
+    return set;
+  }
+
+  public boolean add(long value) {
+    if (size == 0 || value > values[size - 1]) {
+      grow();
+      values[size++] = value;
+      return true;
+    }
+    int index = Arrays.binarySearch(values, 0, size, value);
+    if (index >= 0) {
+      return false;
+    }
+    int insertAt = -index - 1;
+    grow();
+    System.arraycopy(values, insertAt, values, insertAt + 1, size - insertAt);
+    values[insertAt] = value;
+    size++;
+    return true;
+  }
+
+  public boolean remove(long value) {
+    int index = Arrays.binarySearch(values, 0, size, value);
+    if (index < 0) {
+      return false;
+    }
+    System.arraycopy(values, index + 1, values, index, size - index - 1);
+    size--;
+    return true;
+  }
+
+  /** Removes all values below the bound and returns their number. */
+  public int removeBelow(long bound) {
+    int index = Arrays.binarySearch(values, 0, size, bound);
+    int count = index < 0 ? -index - 1 : index;
+    System.arraycopy(values, count, values, 0, size - count);
+    size -= count;
+    return count;
+  }
+
+  public boolean contains(long value) {
+    return Arrays.binarySearch(values, 0, size, value) >= 0;
+  }
+
+  public long get(int index) {
+    return values[index];
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /** Merges both sorted arrays in O(n + m). */
+  public SortedLongSet intersect(SortedLongSet other) {
+    SortedLongSet result = new SortedLongSet(Math.min(size, other.size));
+    int i = 0;
+    int j = 0;
+    while (i < size && j < other.size) {
+      if (values[i] < other.values[j]) {
+        i++;
+      } else if (values[i] > other.values[j]) {
+        j++;
+      } else {
+        result.values[result.size++] = values[i];
+        i++;
+        j++;
+      }
+    }
+    return result;
+  }
+
+  /** Merges both sorted arrays in O(n + m). */
+  public SortedLongSet union(SortedLongSet other) {
+    SortedLongSet result = new SortedLongSet(size + other.size);
+    int i = 0;
+    int j = 0;
+    while (i < size || j < other.size) {
+      if (j == other.size || (i < size && values[i] < other.values[j])) {
+        result.values[result.size++] = values[i++];
+      } else if (i == size || values[i] > other.values[j]) {
+        result.values[result.size++] = other.values[j++];
+      } else {
+        result.values[result.size++] = values[i];
+        i++;
+        j++;
+      }
+    }
+    return result;
+  }
+
+  public long[] toArray() {
+    return Arrays.copyOf(values, size);
+  }
+
+  public SortedLongSet copy() {
+    SortedLongSet copy = new SortedLongSet(size);
+    System.arraycopy(values, 0, copy.values, 0, size);
+    copy.size = size;
+    return copy;
+  }
+
+  private void grow() {
+    if (size == values.length) {
+      values = Arrays.copyOf(values, values.length * 2);
+    }
+  }
+}
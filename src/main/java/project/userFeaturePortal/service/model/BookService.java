@@ -31,7 +31,7 @@ public class BookService {
   private final BookDtoMapper bookDtoMapper;
 
   public List<Book> addBook(int erscheinungsjahr, String titel, String actor) {
-    userValidationService.checkIfNameExists(actor, true, ErrorMessages.USER_NOT_ALLOWED);
+    userValidationService.checkIfActorExists(actor, ErrorMessages.USER_NOT_ALLOWED);
     bookValidationService.validateParameters(erscheinungsjahr, titel, true);
 
     bookRepository.save(buildBook(titel, erscheinungsjahr, new Book()));
@@ -55,7 +55,7 @@ public class BookService {
 
   public String updateBook(String titel, int erscheinungsjahr, String actor) {
     bookValidationService.validateParameters(erscheinungsjahr, titel, false);
-    userValidationService.checkIfNameExists(actor, true, ErrorMessages.USER_NOT_ALLOWED);
+    userValidationService.checkIfActorExists(actor, ErrorMessages.USER_NOT_ALLOWED);
     Book book = bookValidationService.checkIfBookExists(titel);
 
     bookRepository.save(buildBook(titel,erscheinungsjahr,book));
@@ -83,7 +83,7 @@ public class BookService {
   }
 
   public String deleteById(int id, String actor) {
-    userValidationService.checkIfNameExists(actor, true, ErrorMessages.USER_NOT_ALLOWED);
+    userValidationService.checkIfActorExists(actor, ErrorMessages.USER_NOT_ALLOWED);
     bookValidationService.checkIfBookIsReferenced(id);
 
     bookRepository.deleteById(id);
@@ -99,7 +99,7 @@ public class BookService {
   }
 
   public String  deleteByTitel(String titel, String actor) {
-    userValidationService.checkIfNameExists(actor, true, ErrorMessages.USER_NOT_ALLOWED);
+    userValidationService.checkIfActorExists(actor, ErrorMessages.USER_NOT_ALLOWED);
     List<Book> booksToDelete = bookRepository.findByTitel(titel);
 
     if (booksToDelete.isEmpty()) {
@@ -122,7 +122,7 @@ public class BookService {
   }
 
   public String deleteBooks(String actor) {
-    userValidationService.checkIfNameExists(actor, true, ErrorMessages.USER_NOT_ALLOWED);
+    userValidationService.checkIfActorExists(actor, ErrorMessages.USER_NOT_ALLOWED);
     for (Book book: bookRepository.findAll()) {
       bookValidationService.checkIfBookIsReferenced(book.getId());
     }
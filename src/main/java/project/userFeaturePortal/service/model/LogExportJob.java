@@ -0,0 +1,91 @@
+package project.userFeaturePortal.service.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import project.userFeaturePortal.common.dto.log.GetLogsRequestDto;
+import project.userFeaturePortal.common.dto.log.LogExportDto;
+import project.userFeaturePortal.common.enums.LogExportFormat;
+import project.userFeaturePortal.common.enums.LogExportStatus;
+import project.userFeaturePortal.common.enums.LogTemplate;
+import project.userFeaturePortal.common.enums.SeverityEnum;
+
+import java.time.LocalDateTime;
+
+/**
+ * State of an export as checkpointed to its JSON file: the filter, the cursor of the last
+ * exported log and the size of the file up to that log. Changed by the exporting thread only,
+ * status requests read it while it runs.
+ */
+@Data
+@NoArgsConstructor
+public class LogExportJob {
+
+  private String id;
+  private LogExportFormat format;
+  private LogExportStatus status;
+  private String severity;
+  private SeverityEnum minSeverity;
+  private String message;
+  private LocalDateTime startDateTime;
+  private LocalDateTime endDateTime;
+  private String user;
+  private LogTemplate template;
+  private LocalDateTime createdAt;
+  private LocalDateTime finishedAt;
+  private long exportedLogs;
+  private long fileSize;
+  // null until the first chunk is exported
+  private String cursor;
+  private String error;
+
+  static LogExportJob of(String id, GetLogsRequestDto filter, LogExportFormat format, LocalDateTime createdAt) {
+    LogExportJob job = new LogExportJob();
+    job.id = id;
+    job.format = format;
+    job.status = LogExportStatus.QUEUED;
+    job.severity = filter.getSeverity();
+    job.minSeverity = filter.getMinSeverity();
+    job.message = filter.getMessage();
+    job.startDateTime = filter.getStartDateTime();
+    job.endDateTime = filter.getEndDateTime();
+    job.user = filter.getUser();
+    job.template = filter.getTemplate();
+    job.createdAt = createdAt;
+    return job;
+  }
+
+  /** The next chunk of logs behind the cursor. */
+  GetLogsRequestDto nextChunk(int chunkSize) {
+    return GetLogsRequestDto.builder()
+        .severity(severity)
+        .minSeverity(minSeverity)
+        .message(message)
+        .startDateTime(startDateTime)
+        .endDateTime(endDateTime)
+        .user(user)
+        .template(template)
+        .cursor(cursor)
+        .limit(chunkSize)
+        .build();
+  }
+
+  synchronized void start() {
+    status = LogExportStatus.RUNNING;
+  }
+
+  synchronized void advance(int logs, String lastCursor, long newFileSize) {
+    exportedLogs += logs;
+    cursor = lastCursor;
+    fileSize = newFileSize;
+  }
+
+  synchronized void finish(LogExportStatus finalStatus, String finalError, LocalDateTime now) {
+    status = finalStatus;
+    error = finalError;
+    finishedAt = now;
+  }
+
+  synchronized LogExportDto toDto() {
+    return new LogExportDto(id, status, format, exportedLogs, fileSize, createdAt, finishedAt, error);
+  }
+}
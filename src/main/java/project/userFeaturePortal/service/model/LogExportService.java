@@ -0,0 +1,282 @@
+package project.userFeaturePortal.service.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import project.userFeaturePortal.common.dto.log.GetLogsRequestDto;
+import project.userFeaturePortal.common.dto.log.LogDTO;
+import project.userFeaturePortal.common.dto.log.LogExportDto;
+import project.userFeaturePortal.common.dto.log.LogResponseDto;
+import project.userFeaturePortal.common.enums.LogExportFormat;
+import project.userFeaturePortal.common.enums.LogExportStatus;
+import project.userFeaturePortal.exception.LogExportNotFoundException;
+import project.userFeaturePortal.exception.LogExportNotReadyException;
+import project.userFeaturePortal.service.log.LogCursor;
+import project.userFeaturePortal.service.log.LogExportProperties;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports the logs matching a filter into a gzip compressed NDJSON or CSV file in the background.
+ * The logs are read in chunks of "log.export.chunk-size" behind the cursor of the last exported
+ * log, so an export holds one chunk in memory however many logs it has.
+ *
+ * <p>Every chunk is appended to the file as a gzip member of its own and forced to disk, then the
+ * job with its cursor and the file size is checkpointed into a JSON file next to it. Concatenated
+ * gzip members are one valid gzip file. An export interrupted by a shutdown or a crash is cut back
+ * to its last checkpoint and continues behind its cursor with the next start.
+ */
+@Service
+public class LogExportService {
+
+  private static final Logger LOGGER = LogManager.getLogger(LogExportService.class);
+
+  static final String JOB_SUFFIX = ".json";
+  static final String CSV_HEADER = "id,severity,message,timestamp,user,repeatCount,lastTimestamp\n";
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final LogExportProperties properties;
+  private final LogService logService;
+  private final ObjectMapper objectMapper;
+  private final Map<String, LogExportJob> jobs = new ConcurrentHashMap<>();
+  private final ExecutorService exporters;
+  private final Counter exportedLogs;
+
+  // exports interrupted by the shutdown stay RUNNING and are resumed with the next start
+  private volatile boolean closing;
+
+  public LogExportService(
+      LogExportProperties properties,
+      LogService logService,
+      ObjectMapper objectMapper,
+      ObjectProvider<MeterRegistry> meterRegistryProvider) {
+    this.properties = properties;
+    this.logService = logService;
+    this.objectMapper = objectMapper;
+    this.exporters = Executors.newFixedThreadPool(properties.getThreads(), exporterThreads());
+    this.exportedLogs = meterRegistryProvider.getIfAvailable(SimpleMeterRegistry::new).counter("log.export.logs");
+  }
+
+  /** Reads the checkpoints of the export directory and continues the unfinished exports. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void resume() {
+    Path directory = directory();
+    if (!Files.isDirectory(directory)) {
+      return;
+    }
+    List<Path> jobFiles;
+    try (Stream<Path> list = Files.list(directory)) {
+      jobFiles = list.filter(file -> file.getFileName().toString().endsWith(JOB_SUFFIX)).collect(Collectors.toList());
+    } catch (IOException e) {
+      throw new UncheckedIOException("Log exports of " + directory + " could not be read.", e);
+    }
+    int resumed = 0;
+    for (Path jobFile : jobFiles) {
+      LogExportJob job;
+      try {
+        job = objectMapper.readValue(jobFile.toFile(), LogExportJob.class);
+      } catch (IOException e) {
+        LOGGER.warn("Log export checkpoint {} could not be read and is ignored.", jobFile, e);
+        continue;
+      }
+      if (jobs.putIfAbsent(job.getId(), job) == null
+          && (job.getStatus() == LogExportStatus.QUEUED || job.getStatus() == LogExportStatus.RUNNING)) {
+        exporters.execute(() -> export(job));
+        resumed++;
+      }
+    }
+    LOGGER.info("Found {} log exports, {} of them resumed.", jobFiles.size(), resumed);
+  }
+
+  public LogExportDto submit(GetLogsRequestDto filter, LogExportFormat format) {
+    LogExportJob job = LogExportJob.of(
+        UUID.randomUUID().toString(), filter, format == null ? LogExportFormat.NDJSON : format, LocalDateTime.now());
+    try {
+      Files.createDirectories(directory());
+      checkpoint(job);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Log export " + job.getId() + " could not be created.", e);
+    }
+    jobs.put(job.getId(), job);
+    // taken before the export starts, which may change the job right away
+    LogExportDto queued = job.toDto();
+    exporters.execute(() -> export(job));
+    return queued;
+  }
+
+  public LogExportDto getExport(String id) {
+    return find(id).toDto();
+  }
+
+  /** The file of a finished export. */
+  public Path getExportFile(String id) {
+    LogExportJob job = find(id);
+    LogExportStatus status = job.toDto().getStatus();
+    if (status != LogExportStatus.DONE) {
+      throw new LogExportNotReadyException(id, status);
+    }
+    return dataFile(job);
+  }
+
+  @PreDestroy
+  void close() {
+    closing = true;
+    exporters.shutdownNow();
+  }
+
+  void export(LogExportJob job) {
+    Path file = dataFile(job);
+    try {
+      job.start();
+      truncate(file, job.getFileSize());
+      checkpoint(job);
+      while (!Thread.currentThread().isInterrupted()) {
+        LogResponseDto chunk = logService.getLogs(job.nextChunk(properties.getChunkSize()));
+        List<LogDTO> logs = chunk.getResult();
+        // an export without logs is still a valid file
+        if (!logs.isEmpty() || job.getFileSize() == 0) {
+          long fileSize = append(file, job, logs);
+          job.advance(logs.size(), logs.isEmpty() ? null : LogCursor.of(logs.get(logs.size() - 1)).encode(), fileSize);
+          exportedLogs.increment(logs.size());
+        }
+        if (chunk.getNextCursor() == null) {
+          job.finish(LogExportStatus.DONE, null, LocalDateTime.now());
+          checkpoint(job);
+          LOGGER.info("Exported {} logs to {}.", job.getExportedLogs(), file);
+          return;
+        }
+        checkpoint(job);
+      }
+    } catch (IOException | RuntimeException e) {
+      if (closing) {
+        return;
+      }
+      LOGGER.error("Log export {} failed.", job.getId(), e);
+      job.finish(LogExportStatus.FAILED, e.getMessage(), LocalDateTime.now());
+      try {
+        checkpoint(job);
+      } catch (IOException checkpointException) {
+        LOGGER.error("Log export {} could not be checkpointed.", job.getId(), checkpointException);
+      }
+    }
+  }
+
+  // a chunk written after the last checkpoint is cut off and exported again
+  private static void truncate(Path file, long fileSize) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+      if (channel.size() < fileSize) {
+        throw new IOException("Log export file " + file + " is shorter than its checkpoint.");
+      }
+      channel.truncate(fileSize);
+    }
+  }
+
+  // appends the logs as one gzip member and returns the new size of the file
+  private long append(Path file, LogExportJob job, List<LogDTO> logs) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        GZIPOutputStream gzip = new GZIPOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE)) {
+      if (job.getFormat() == LogExportFormat.CSV && job.getFileSize() == 0) {
+        gzip.write(CSV_HEADER.getBytes(StandardCharsets.UTF_8));
+      }
+      for (LogDTO log : logs) {
+        if (job.getFormat() == LogExportFormat.CSV) {
+          gzip.write(toCsvLine(log).getBytes(StandardCharsets.UTF_8));
+        } else {
+          gzip.write(objectMapper.writeValueAsBytes(log));
+          gzip.write('\n');
+        }
+      }
+      gzip.finish();
+      channel.force(false);
+      return channel.size();
+    }
+  }
+
+  private void checkpoint(LogExportJob job) throws IOException {
+    byte[] json;
+    synchronized (job) {
+      json = objectMapper.writeValueAsBytes(job);
+    }
+    Path jobFile = directory().resolve(job.getId() + JOB_SUFFIX);
+    Path tempFile = directory().resolve(job.getId() + JOB_SUFFIX + ".tmp");
+    Files.write(tempFile, json);
+    Files.move(tempFile, jobFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private LogExportJob find(String id) {
+    LogExportJob job = jobs.get(id);
+    if (job == null) {
+      throw new LogExportNotFoundException(id);
+    }
+    return job;
+  }
+
+  private Path directory() {
+    return Paths.get(properties.getDirectory());
+  }
+
+  private Path dataFile(LogExportJob job) {
+    return directory().resolve(job.getId() + "." + job.getFormat().getExtension() + ".gz");
+  }
+
+  static String toCsvLine(LogDTO log) {
+    return String.join(",",
+        csvField(log.getId()),
+        csvField(log.getSeverity()),
+        csvField(log.getMessage()),
+        csvField(log.getTimestamp()),
+        csvField(log.getUser()),
+        csvField(log.getRepeatCount()),
+        csvField(log.getLastTimestamp())) + "\n";
+  }
+
+  // quoted if it contains a separator, a quote or a line break, quotes are doubled
+  private static String csvField(Object value) {
+    if (value == null) {
+      return "";
+    }
+    String text = value.toString();
+    if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+      return text;
+    }
+    return '"' + text.replace("\"", "\"\"") + '"';
+  }
+
+  private static ThreadFactory exporterThreads() {
+    AtomicInteger count = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, "log-exporter-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+}
@@ -1,25 +1,78 @@
 package project.userFeaturePortal.service.model;
 
+import lombok.AllArgsConstructor;
+import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import project.userFeaturePortal.common.dto.log.AddLogRequestDto;
+import project.userFeaturePortal.common.dto.log.GetLogsRequestDto;
+import project.userFeaturePortal.common.dto.log.LogBatchItemDto;
+import project.userFeaturePortal.common.dto.log.LogBatchResponseDto;
 import project.userFeaturePortal.common.dto.log.LogDTO;
+import project.userFeaturePortal.common.dto.log.LogInsightsDto;
 import project.userFeaturePortal.common.dto.log.LogMessageDto;
+import project.userFeaturePortal.common.dto.log.LogPartitionDto;
 import project.userFeaturePortal.common.dto.log.LogRequestDto;
+import project.userFeaturePortal.common.dto.log.LogResponseDto;
+import project.userFeaturePortal.common.dto.log.LogStatsDto;
+import project.userFeaturePortal.common.enums.LogIngestDecision;
+import project.userFeaturePortal.common.enums.LogSearchMode;
+import project.userFeaturePortal.common.enums.LogStoreBackend;
+import project.userFeaturePortal.common.enums.LogStatsResolution;
 import project.userFeaturePortal.common.message.ErrorMessages;
 import project.userFeaturePortal.common.message.InfoMessages;
+import project.userFeaturePortal.exception.LogsNotDeletableException;
+import project.userFeaturePortal.exception.ParameterNotPresentException;
+import project.userFeaturePortal.exception.SeverityNotFoundException;
+import project.userFeaturePortal.exception.UserNotAllowedException;
 import project.userFeaturePortal.model.entity.Log;
 import project.userFeaturePortal.model.entity.User;
-import project.userFeaturePortal.model.mapper.LogDTOMapper;
+import project.userFeaturePortal.model.repository.LogFilter;
 import project.userFeaturePortal.model.repository.LogRepository;
+import project.userFeaturePortal.model.repository.LogRepositoryCustom;
 import project.userFeaturePortal.model.repository.UserRepository;
+import project.userFeaturePortal.service.log.AsyncLogWriter;
+import project.userFeaturePortal.service.log.LogArchiveStore;
+import project.userFeaturePortal.service.log.LogBatchInserter;
+import project.userFeaturePortal.service.log.LogChangeNotifier;
+import project.userFeaturePortal.service.log.LogIngestFilter;
+import project.userFeaturePortal.service.log.LogInsightsStore;
+import project.userFeaturePortal.service.log.LogCursor;
+import project.userFeaturePortal.service.log.LogMessageIndex;
+import project.userFeaturePortal.service.log.LogPartitionRouter;
+import project.userFeaturePortal.service.log.LogRollupStore;
+import project.userFeaturePortal.service.log.LogSegmentStore;
+import project.userFeaturePortal.service.log.LogSeverityIndex;
+import project.userFeaturePortal.service.log.LogTailBroadcaster;
+import project.userFeaturePortal.service.log.LogTemplateProperties;
+import project.userFeaturePortal.service.log.SortedLongSet;
 import project.userFeaturePortal.service.validation.LogValidationService;
 import project.userFeaturePortal.service.validation.UserValidationService;
 
 import javax.transaction.Transactional;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.StringJoiner;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 /**
  * @author - EugenFriesen 12.02.2021
@@ -31,16 +84,268 @@ public class LogService {
 
   private static final Logger LOGGER = LogManager.getLogger(LogService.class);
 
+  static final int DEFAULT_PAGE_SIZE = 1000;
+  static final int MAX_PAGE_SIZE = 10000;
+  static final int CANDIDATE_CHUNK_SIZE = 1000;
+  static final int DELETE_CHUNK_SIZE = 1000;
+  static final int DELETED_ID_SAMPLE_SIZE = 100;
+
   private final LogRepository logRepository;
   private final LogValidationService logValidationService;
-  private final LogDTOMapper logDTOMapper;
   private final UserRepository userRepository;
   private final UserValidationService userValidationService;
+  private final AsyncLogWriter asyncLogWriter;
+  private final LogChangeNotifier logChangeNotifier;
+  private final LogMessageIndex logMessageIndex;
+  private final LogSeverityIndex logSeverityIndex;
+  private final LogPartitionRouter logPartitionRouter;
+  private final LogRollupStore logRollupStore;
+  private final LogBatchInserter logBatchInserter;
+  private final LogSegmentStore logSegmentStore;
+  private final LogTailBroadcaster logTailBroadcaster;
+  private final LogTemplateProperties logTemplateProperties;
+  private final LogArchiveStore logArchiveStore;
+  private final LogInsightsStore logInsightsStore;
+  private final LogIngestFilter logIngestFilter;
+
+  public LogResponseDto getLogs(GetLogsRequestDto filter) {
+    User user = userRepository.findUserByName(filter.getUser());
+    LogCursor cursor = LogCursor.decode(filter.getCursor());
+    int pageSize = getPageSize(filter.getLimit());
+
+    if (filter.getSearchMode() == LogSearchMode.ALL_TERMS && filter.getMessage() != null) {
+      return new LogResponseDto(searchAllTerms(filter, user, pageSize), null);
+    }
+
+    // seek behind the cursor and fetch one log more to find out if there is a next page
+    List<LogDTO> logs = findLogs(filter, user, cursor, PageRequest.of(0, pageSize + 1));
+
+    String nextCursor = null;
+    if (logs.size() > pageSize) {
+      logs = logs.subList(0, pageSize);
+      nextCursor = LogCursor.of(logs.get(pageSize - 1)).encode();
+    }
+    return new LogResponseDto(logs, null, nextCursor);
+  }
+
+  private List<LogDTO> findLogs(GetLogsRequestDto filter, User user, LogCursor cursor, Pageable pageable) {
+    List<LogDTO> logs = findHotLogs(filter, user, cursor, pageable);
+    if (!logArchiveStore.isEnabled()) {
+      return logs;
+    }
+    // the indexes do not cover the archive, it is scanned with the plain filter
+    List<LogDTO> archivedLogs = logArchiveStore.findLogDTOs(toLogFilter(filter, user, cursor).build(), pageable);
+    return merge(logs, archivedLogs, pageable.getPageSize());
+  }
+
+  private List<LogDTO> findHotLogs(GetLogsRequestDto filter, User user, LogCursor cursor, Pageable pageable) {
+    LogFilter.LogFilterBuilder logFilter = toLogFilter(filter, user, cursor);
+    SortedLongSet candidates = findCandidates(filter);
+    if (candidates != null && candidates.size() <= logMessageIndex.getMaxCandidates()) {
+      if (candidates.isEmpty()) {
+        return new ArrayList<>();
+      }
+      logFilter.ids(toIdList(candidates.toArray()));
+    }
+    return logSource().findLogDTOs(logFilter.build(), pageable);
+  }
+
+  private static List<LogDTO> merge(List<LogDTO> logs, List<LogDTO> otherLogs, int limit) {
+    List<LogDTO> merged = new ArrayList<>(Math.min(limit, logs.size() + otherLogs.size()));
+    merge(logs.iterator(), otherLogs.iterator(), limit, merged::add);
+    return merged;
+  }
+
+  /**
+   * Hands the first logs of two sequences sorted by timestamp and id to the consumer, in that
+   * order. A log which is in both, because it was read while being moved to the archive, is taken
+   * once.
+   */
+  private static void merge(Iterator<LogDTO> logs, Iterator<LogDTO> otherLogs, long limit, Consumer<LogDTO> consumer) {
+    Comparator<LogDTO> order = Comparator.comparing(LogDTO::getTimestamp).thenComparing(LogDTO::getId);
+    LogDTO log = logs.hasNext() ? logs.next() : null;
+    LogDTO otherLog = otherLogs.hasNext() ? otherLogs.next() : null;
+    for (long count = 0; count < limit && (log != null || otherLog != null); count++) {
+      int comparison = log == null ? 1 : otherLog == null ? -1 : order.compare(log, otherLog);
+      if (comparison == 0) {
+        otherLog = otherLogs.hasNext() ? otherLogs.next() : null;
+      }
+      if (comparison <= 0) {
+        consumer.accept(log);
+        log = logs.hasNext() ? logs.next() : null;
+      } else {
+        consumer.accept(otherLog);
+        otherLog = otherLogs.hasNext() ? otherLogs.next() : null;
+      }
+    }
+  }
+
+  // the logs are queried from the backend they are appended to
+  private LogRepositoryCustom logSource() {
+    return logSegmentStore.isEnabled() ? logSegmentStore : logRepository;
+  }
+
+  private static LogFilter.LogFilterBuilder toLogFilter(GetLogsRequestDto filter, User user, LogCursor cursor) {
+    return LogFilter.builder()
+        .severity(filter.getSeverity())
+        .minSeverity(filter.getMinSeverity())
+        .message(filter.getMessage())
+        .template(filter.getTemplate())
+        .startDate(filter.getStartDateTime())
+        .endDate(filter.getEndDateTime())
+        .user(user)
+        .cursorTimestamp(cursor == null ? null : cursor.getTimestamp())
+        .cursorId(cursor == null ? null : cursor.getId());
+  }
+
+  /**
+   * Narrows message and severity filter by the in-memory indexes, so the database only has to
+   * verify the candidates instead of scanning with a leading wildcard. Null if neither filter can
+   * be narrowed.
+   */
+  private SortedLongSet findCandidates(GetLogsRequestDto filter) {
+    SortedLongSet candidates = logMessageIndex.findCandidates(filter.getMessage());
+    if (candidates == null) {
+      return logSeverityIndex.findIds(filter.getSeverity(), filter.getMinSeverity(), logMessageIndex.getMaxCandidates());
+    }
+    return logSeverityIndex.filter(candidates, filter.getSeverity(), filter.getMinSeverity());
+  }
+
+  /**
+   * Logs containing every term of the message filter in any order and case, best matches first.
+   * A log matches better the more of its message is covered by the terms.
+   */
+  private List<LogDTO> searchAllTerms(GetLogsRequestDto filter, User user, int pageSize) {
+    List<String> terms = Arrays.stream(filter.getMessage().toLowerCase(Locale.ROOT).split("\\s+"))
+        .filter(term -> !term.isEmpty())
+        .distinct()
+        .collect(Collectors.toList());
+
+    // keep only the best pageSize logs, the worst of them on top
+    Comparator<RankedLog> ranking = Comparator.comparingDouble(RankedLog::getScore)
+        .thenComparing(rankedLog -> rankedLog.getLog().getTimestamp());
+    PriorityQueue<RankedLog> bestLogs = new PriorityQueue<>(ranking);
+    Consumer<LogDTO> rankLog = log -> {
+      double score = score(log.getMessage(), terms);
+      if (score > 0) {
+        bestLogs.add(new RankedLog(log, score));
+        if (bestLogs.size() > pageSize) {
+          bestLogs.poll();
+        }
+      }
+    };
+
+    SortedLongSet candidates = logMessageIndex.findCandidatesForAllTerms(terms);
+    if (candidates != null) {
+      candidates = logSeverityIndex.filter(candidates, filter.getSeverity(), filter.getMinSeverity());
+    }
+    if (logArchiveStore.isEnabled()) {
+      try (Stream<LogDTO> logs = logArchiveStore.streamLogDTOs(toLogFilter(filter, user, null).message(null).build())) {
+        logs.forEach(rankLog);
+      }
+    }
+    if (candidates == null) {
+      try (Stream<LogDTO> logs = logSource().streamLogDTOs(toLogFilter(filter, user, null).message(null).build())) {
+        logs.forEach(rankLog);
+      }
+    } else {
+      long[] ids = candidates.toArray();
+      for (int from = 0; from < ids.length; from += CANDIDATE_CHUNK_SIZE) {
+        List<Long> chunk = toIdList(Arrays.copyOfRange(ids, from, Math.min(from + CANDIDATE_CHUNK_SIZE, ids.length)));
+        logSource().findLogDTOs(toLogFilter(filter, user, null).message(null).ids(chunk).build(), Pageable.unpaged())
+            .forEach(rankLog);
+      }
+    }
+
+    List<LogDTO> rankedLogs = new ArrayList<>();
+    while (!bestLogs.isEmpty()) {
+      rankedLogs.add(0, bestLogs.poll().getLog());
+    }
+    return rankedLogs;
+  }
+
+  private static double score(String message, List<String> terms) {
+    String normalized = message.toLowerCase(Locale.ROOT);
+    int coveredLength = 0;
+    for (String term : terms) {
+      if (!normalized.contains(term)) {
+        return 0;
+      }
+      coveredLength += term.length();
+    }
+    return (double) coveredLength / normalized.length();
+  }
+
+  private static List<Long> toIdList(long[] ids) {
+    return LongStream.of(ids).boxed().collect(Collectors.toList());
+  }
+
+  /**
+   * Hands every log matching the filter to the consumer while reading it from the database cursor,
+   * merged with the archived logs like {@link #getLogs}. Only the columns of the DTO are read and no
+   * entity is kept, so memory use does not depend on the number of hits.
+   */
+  public void streamLogs(GetLogsRequestDto filter, Consumer<LogDTO> consumer) {
+    User user = userRepository.findUserByName(filter.getUser());
+    LogCursor cursor = LogCursor.decode(filter.getCursor());
+    LogFilter logFilter = toLogFilter(filter, user, cursor).build();
+
+    try (Stream<LogDTO> logs = logSource().streamLogDTOs(logFilter);
+        Stream<LogDTO> archivedLogs =
+            logArchiveStore.isEnabled() ? logArchiveStore.streamLogDTOs(logFilter) : Stream.empty()) {
+      merge(logs.iterator(), archivedLogs.iterator(),
+          filter.getLimit() == null ? Long.MAX_VALUE : filter.getLimit(), consumer);
+    }
+  }
+
+  /**
+   * Number of logs matching the filter including the archived ones, counted without loading any of
+   * them. The logs of the table filtered by severity or minimum severity only are counted by the
+   * severity index. A log being moved to the archive right now may be counted twice.
+   */
+  public long countLogs(GetLogsRequestDto filter) {
+    User user = null;
+    if (filter.getUser() != null) {
+      user = userRepository.findUserByName(filter.getUser());
+      if (user == null) {
+        return 0;
+      }
+    }
+    long archivedLogs = logArchiveStore.isEnabled() ? logArchiveStore.countLogs(toLogFilter(filter, user, null).build()) : 0;
+    return countHotLogs(filter, user) + archivedLogs;
+  }
+
+  private long countHotLogs(GetLogsRequestDto filter, User user) {
+    if ((filter.getSeverity() != null || filter.getMinSeverity() != null) && filter.getMessage() == null
+        && filter.getTemplate() == null && user == null
+        && filter.getStartDateTime() == null && filter.getEndDateTime() == null) {
+      Long count = logSeverityIndex.count(filter.getSeverity(), filter.getMinSeverity());
+      if (count != null) {
+        return count;
+      }
+    }
+
+    LogFilter.LogFilterBuilder logFilter = toLogFilter(filter, user, null);
+    SortedLongSet candidates = findCandidates(filter);
+    if (candidates != null && candidates.size() <= logMessageIndex.getMaxCandidates()) {
+      if (candidates.isEmpty()) {
+        return 0;
+      }
+      logFilter.ids(toIdList(candidates.toArray()));
+    }
+    return logSource().countLogs(logFilter.build());
+  }
 
-  public List<LogDTO> getLogs(String severity, String message, LocalDateTime startDate, LocalDateTime endDate, String userName) {
-    User user = userRepository.findUserByName(userName);
-    return logDTOMapper.logsToLogDTOs(
-        logRepository.findLogs(severity, message, startDate, endDate, user));
+  private int getPageSize(Integer limit) {
+    if (limit == null) {
+      return DEFAULT_PAGE_SIZE;
+    }
+    return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+  }
+
+  /** Subscribes to the logs added from now on which match the filter. */
+  public SseEmitter tailLogs(GetLogsRequestDto filter) {
+    return logTailBroadcaster.subscribe(filter);
   }
 
   public String addLog(LogRequestDto logRequestDto) {
@@ -48,14 +353,32 @@ public class LogService {
     logValidationService.checkIfAnyEntriesAreNull(logRequestDto);
     logValidationService.validateSeverity(logRequestDto.addLogRequest.getSeverity());
     LogMessageDto logMessage = logValidationService.validateMessage(logRequestDto.addLogRequest.message);
-    User user = userValidationService.checkIfNameExists(logRequestDto.user, true, ErrorMessages.USER_NOT_ALLOWED);
+    User user = userValidationService.checkIfActorExists(logRequestDto.user, ErrorMessages.USER_NOT_ALLOWED);
 
     // build Log
     LocalDateTime timeStamp = LocalDateTime.now();
-    Log log = Log.builder().message(logRequestDto.addLogRequest.message).severity(logRequestDto.addLogRequest.severity).user(user).timestamp(timeStamp).build();
+    Log log = Log.builder().message(logMessage.getMessage()).severity(logRequestDto.addLogRequest.severity).user(user).timestamp(timeStamp).build();
+
+    // a repetition of a burst or a sampled out log is not saved on its own
+    LogIngestDecision decision = logIngestFilter.accept(log);
+    if (decision != LogIngestDecision.STORE) {
+      String message = ingestMessage(decision, logMessage.getMessage(), logRequestDto.addLogRequest.getSeverity());
+      LOGGER.debug(message);
+      return logMessage.getReturnMessage() + message;
+    }
 
-    // save Log
-    logRepository.save(log);
+    // save Log, either to the segment store, directly or through the async writer
+    if (logSegmentStore.isEnabled()) {
+      logSegmentStore.append(List.of(log));
+      logChangeNotifier.logsWritten(List.of(log));
+    } else if (asyncLogWriter.isEnabled()) {
+      intern(List.of(log));
+      asyncLogWriter.submit(log);
+    } else {
+      intern(List.of(log));
+      logRepository.save(log);
+      logChangeNotifier.logsAdded(List.of(log));
+    }
 
     // return message to User-Interface
     logMessage.setReturnMessage(
@@ -69,40 +392,220 @@ public class LogService {
     return logMessage.getReturnMessage();
   }
 
-  public Log searchLogsByID(Integer id) {
+  // empty for an unknown actor, so the batch goes on with the next log
+  private Optional<User> findActor(String name) {
+    try {
+      return Optional.of(userValidationService.checkIfActorExists(name, ErrorMessages.USER_NOT_ALLOWED));
+    } catch (UserNotAllowedException e) {
+      return Optional.empty();
+    }
+  }
+
+  private static String ingestMessage(LogIngestDecision decision, String message, String severity) {
+    return String.format(
+        decision == LogIngestDecision.COALESCED ? InfoMessages.MESSAGE_COALESCED : InfoMessages.MESSAGE_SAMPLED_OUT,
+        message,
+        severity);
+  }
+
+  // the segment store keeps the full messages, only the log table stores them as templates
+  private void intern(List<Log> logs) {
+    if (logTemplateProperties.isEnabled()) {
+      logs.forEach(Log::intern);
+    }
+  }
+
+  /**
+   * Validates each log of the batch on its own and inserts all valid ones with JDBC batches. Every
+   * actor is looked up once per batch. The result only reports the status of each log.
+   */
+  public LogBatchResponseDto addLogs(List<AddLogRequestDto> logRequests) {
+    LocalDateTime timeStamp = LocalDateTime.now();
+    // unknown actors are cached as well, so every actor is looked up once per batch
+    Map<String, Optional<User>> actors = new HashMap<>();
+    List<LogBatchItemDto> items = new ArrayList<>(logRequests.size());
+    List<LogBatchItemDto> createdItems = new ArrayList<>();
+    List<Log> logs = new ArrayList<>();
+    int accepted = 0;
+
+    for (int i = 0; i < logRequests.size(); i++) {
+      AddLogRequestDto logRequest = logRequests.get(i);
+      LogMessageDto logMessage;
+      try {
+        logValidationService.checkIfAnyEntriesAreNull(logRequest);
+        logValidationService.validateSeverity(logRequest.getSeverity());
+        logMessage = logValidationService.validateMessage(logRequest.message);
+      } catch (ParameterNotPresentException | SeverityNotFoundException e) {
+        items.add(new LogBatchItemDto(i, null, HttpStatus.BAD_REQUEST.value(), e.getMessage()));
+        continue;
+      }
+
+      User user = actors.computeIfAbsent(logRequest.user, this::findActor).orElse(null);
+      if (user == null) {
+        items.add(new LogBatchItemDto(i, null, HttpStatus.FORBIDDEN.value(), ErrorMessages.USER_NOT_ALLOWED));
+        continue;
+      }
+
+      Log log = Log.builder()
+          .message(logMessage.getMessage())
+          .severity(logRequest.getSeverity())
+          .user(user)
+          .timestamp(timeStamp)
+          .build();
+      LogIngestDecision decision = logIngestFilter.accept(log);
+      if (decision != LogIngestDecision.STORE) {
+        // accepted, but without a log of its own
+        items.add(new LogBatchItemDto(i, null, HttpStatus.ACCEPTED.value(),
+            logMessage.getReturnMessage() + ingestMessage(decision, logMessage.getMessage(), logRequest.getSeverity())));
+        accepted++;
+        continue;
+      }
+      logs.add(log);
+      LogBatchItemDto item = new LogBatchItemDto(i, null, HttpStatus.CREATED.value(),
+          logMessage.getReturnMessage()
+              + String.format(InfoMessages.MESSAGE_SAVED, logMessage.getMessage(), logRequest.getSeverity()));
+      items.add(item);
+      createdItems.add(item);
+    }
+
+    if (!logs.isEmpty()) {
+      if (logSegmentStore.isEnabled()) {
+        logSegmentStore.append(logs);
+        logChangeNotifier.logsWritten(logs);
+      } else {
+        intern(logs);
+        logBatchInserter.insert(logs);
+        logChangeNotifier.logsAdded(logs);
+      }
+    }
+    for (int i = 0; i < logs.size(); i++) {
+      createdItems.get(i).setId(logs.get(i).getId());
+    }
+
+    LOGGER.info(String.format(InfoMessages.BATCH_SAVED, logs.size(), logRequests.size()));
+    return new LogBatchResponseDto(logs.size(), logRequests.size() - logs.size() - accepted, items);
+  }
+
+  public Log searchLogsByID(Long id) {
+    if (logSegmentStore.isEnabled()) {
+      return logSegmentStore.findById(id);
+    }
     return logRepository.findById(id).isPresent() ? logRepository.findById(id).get() : null;
   }
 
-  public String deleteById(Integer id) {
+  public String deleteById(Long id) {
+    checkLogsAreDeletable();
+    // the log is kept in the persistence context, so deleteById does not read it a second time
+    Optional<Log> log = logRepository.findById(id);
     logRepository.deleteById(id);
+    log.ifPresent(deletedLog -> logChangeNotifier.logsDeleted(List.of(deletedLog)));
     LOGGER.info(String.format(InfoMessages.ENTRY_DELETED_ID, id));
     return String.format(InfoMessages.ENTRY_DELETED_ID, id);
   }
 
+  /**
+   * Deletes the logs of the severity with one bulk delete per chunk of ids, without loading them as
+   * entities. The response lists at most DELETED_ID_SAMPLE_SIZE of the deleted ids.
+   */
   public String deleteBySeverity(String severity) {
-    List<Log> deletedLogs = logRepository.deleteBySeverity(severity);
-    if (deletedLogs.isEmpty()) {
-      return ErrorMessages.NO_ENTRIES_FOUND;
-    }
+    checkLogsAreDeletable();
+    long deletedLogs = 0;
+    StringJoiner idSample = new StringJoiner(", ");
+    int sampledIds = 0;
 
-    StringBuilder sb = new StringBuilder();
-    StringBuilder iDs = new StringBuilder();
+    List<LogRepository.LogSummary> chunk;
+    long afterId = 0;
+    do {
+      chunk = logRepository.findSummariesBySeverity(severity, afterId, PageRequest.of(0, DELETE_CHUNK_SIZE));
+      if (chunk.isEmpty()) {
+        break;
+      }
+      long toId = chunk.get(chunk.size() - 1).getId();
+      deletedLogs += logRepository.deleteBySeverityInIdRange(severity, chunk.get(0).getId(), toId);
 
-    for (Log log : deletedLogs) {
-      iDs.append(log.getId());
-      if (deletedLogs.lastIndexOf(log) < deletedLogs.size() - 1) {
-        iDs.append(", ");
+      List<Log> deletedChunk = new ArrayList<>(chunk.size());
+      for (LogRepository.LogSummary log : chunk) {
+        deletedChunk.add(Log.builder()
+            .id(log.getId())
+            .severity(severity)
+            .message(log.getMessage())
+            .template(log.getTemplate())
+            .messageArg1(log.getMessageArg1())
+            .messageArg2(log.getMessageArg2())
+            .timestamp(log.getTimestamp())
+            .user(log.getUserId() == null ? null : User.builder().id(log.getUserId()).build())
+            .repeatCount(log.getRepeatCount())
+            .build());
+        if (sampledIds++ < DELETED_ID_SAMPLE_SIZE) {
+          idSample.add(String.valueOf(log.getId()));
+        }
       }
-    }
+      logChangeNotifier.logsDeleted(deletedChunk);
+      afterId = toId;
+    } while (chunk.size() == DELETE_CHUNK_SIZE);
 
-    sb.append("Entries with the ID(s) ").append(iDs).append(" were deleted from database.");
-    LOGGER.info(sb.toString());
-    return sb.toString();
+    if (deletedLogs == 0) {
+      return ErrorMessages.NO_ENTRIES_FOUND;
+    }
+    String returnMessage = deletedLogs <= DELETED_ID_SAMPLE_SIZE
+        ? String.format(InfoMessages.ENTRIES_DELETED_IDS, idSample)
+        : String.format(InfoMessages.ENTRIES_DELETED_COUNT, deletedLogs, idSample);
+    LOGGER.info(returnMessage);
+    return returnMessage;
   }
 
   public String deleteAll() {
+    checkLogsAreDeletable();
     logRepository.deleteAll();
+    logChangeNotifier.allLogsDeleted();
     LOGGER.info(InfoMessages.ALL_LOGS_DELETED);
     return InfoMessages.ALL_LOGS_DELETED;
   }
+
+  // the segments are append-only, a delete on the log table would silently leave their logs behind
+  private void checkLogsAreDeletable() {
+    if (logSegmentStore.isEnabled()) {
+      throw new LogsNotDeletableException(LogStoreBackend.SEGMENTS);
+    }
+  }
+
+  public List<LogStatsDto> getStats(
+      String severity,
+      String user,
+      LocalDateTime startDateTime,
+      LocalDateTime endDateTime,
+      LogStatsResolution resolution) {
+    Integer userId = null;
+    if (user != null) {
+      User foundUser = userRepository.findUserByName(user);
+      if (foundUser == null) {
+        return new ArrayList<>();
+      }
+      userId = foundUser.getId();
+    }
+    return logRollupStore.getStats(
+        severity, userId, startDateTime, endDateTime, resolution == null ? LogStatsResolution.HOUR : resolution);
+  }
+
+  public LogInsightsDto getInsights(LocalDateTime startDateTime, LocalDateTime endDateTime, Integer limit) {
+    return logInsightsStore.getInsights(startDateTime, endDateTime, limit);
+  }
+
+  public List<LogPartitionDto> getPartitions() {
+    return logPartitionRouter.getPartitions();
+  }
+
+  // the segments of whole days can be dropped like the partitions of the table
+  public String dropPartitionsBefore(LocalDate day) {
+    int deletedLogs = logPartitionRouter.dropPartitionsBefore(day);
+    LOGGER.info(String.format(InfoMessages.PARTITIONS_DROPPED, deletedLogs, day));
+    return String.format(InfoMessages.PARTITIONS_DROPPED, deletedLogs, day);
+  }
+
+  @Data
+  @AllArgsConstructor
+  private static class RankedLog {
+    private final LogDTO log;
+    private final double score;
+  }
 }
@@ -15,7 +15,9 @@ import project.userFeaturePortal.model.entity.User;
 import project.userFeaturePortal.model.mapper.UserDtoMapper;
 import project.userFeaturePortal.model.repository.BookRepository;
 import project.userFeaturePortal.model.repository.UserRepository;
+import project.userFeaturePortal.service.validation.ActorCache;
 import project.userFeaturePortal.service.validation.BookValidationService;
+import project.userFeaturePortal.service.validation.UserBootstrapState;
 import project.userFeaturePortal.service.validation.UserValidationService;
 
 import javax.transaction.Transactional;
@@ -35,6 +37,8 @@ public class UserService {
   private final BookRepository bookRepository;
   private final UserDtoMapper userDtoMapper;
   private final BookValidationService bookValidationService;
+  private final ActorCache actorCache;
+  private final UserBootstrapState userBootstrapState;
 
   public String addUser(UserRequestDto userRequestDto) {
     userValidationService.checkIfAnyEntriesAreNull(userRequestDto);
@@ -42,6 +46,8 @@ public class UserService {
     userValidationService.validateActor(userRequestDto.name, userRequestDto.actor);
 
     userRepository.save(buildUser(userRequestDto, new User()));
+    actorCache.invalidate(userRequestDto.name);
+    userBootstrapState.userAdded();
 
     logService.addLog(LogRequestDto.builder()
             .addLogRequest(AddLogRequestDto.builder()
@@ -76,6 +82,7 @@ public class UserService {
     userValidationService.validateActor(userRequestDto.name, userRequestDto.actor);
 
     buildUser(userRequestDto, user);
+    actorCache.invalidate(userRequestDto.name);
     logService.addLog(LogRequestDto
             .builder()
             .addLogRequest(AddLogRequestDto
@@ -143,8 +150,7 @@ public class UserService {
     User user = userRepository.findUserByName(name);
 
     if (user == null) {
-      List<UserDto> users = findUserList();
-      return users.isEmpty();
+      return !userBootstrapState.hasUsers();
     }
 
     return true;
@@ -152,7 +158,7 @@ public class UserService {
 
   public void deleteById(int id, String actorName) {
     // validate actor
-    userValidationService.checkIfNameExists(actorName, true, ErrorMessages.USER_NOT_ALLOWED_DELETE_USER);
+    userValidationService.checkIfActorExists(actorName, ErrorMessages.USER_NOT_ALLOWED_DELETE_USER);
 
     // proof that the ID you want to delete exists
     User userToDelete = userValidationService.checkIfIdExists(id);
@@ -161,6 +167,8 @@ public class UserService {
     userValidationService.validateUserToDelete(userToDelete.getName(), actorName);
 
     userRepository.deleteById(userToDelete.getId());
+    actorCache.invalidate(userToDelete.getName());
+    userBootstrapState.userDeleted();
 
     logService.addLog(LogRequestDto.builder()
             .addLogRequest(AddLogRequestDto.builder()
@@ -174,12 +182,14 @@ public class UserService {
 
   public String deleteByName(String name, String actorName) {
     // validate actor
-    userValidationService.checkIfNameExists(actorName, true, String.format(ErrorMessages.USER_NOT_ALLOWED_DELETE_USER, actorName));
+    userValidationService.checkIfActorExists(actorName, String.format(ErrorMessages.USER_NOT_ALLOWED_DELETE_USER, actorName));
 
     // validate user you want to delete
     User userToDelete = userValidationService.validateUserToDelete(name, actorName);
 
     userRepository.deleteById(userToDelete.getId());
+    actorCache.invalidate(name);
+    userBootstrapState.userDeleted();
 
     logService.addLog(LogRequestDto.builder()
             .addLogRequest(AddLogRequestDto.builder()
@@ -196,6 +206,8 @@ public class UserService {
     userValidationService.checkIfUsersAreReferenced();
 
     userRepository.deleteAll();
+    actorCache.invalidateAll();
+    userBootstrapState.allUsersDeleted();
 
     LOGGER.info(InfoMessages.ALL_USERS_DELETED);
     return InfoMessages.ALL_USERS_DELETED;
@@ -0,0 +1,158 @@
+package project.userFeaturePortal.service.rewrite;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aho-Corasick automaton finding all occurrences of many literal patterns in one pass over a text,
+ * in time linear to the text plus the number of occurrences. The trie is frozen into sorted arrays
+ * per node, so it is compact and can be shared by all threads once built.
+ */
+public final class AhoCorasick {
+
+  /** Receives every occurrence of a pattern, the end is exclusive. */
+  public interface MatchConsumer {
+    void accept(int pattern, int start, int end);
+  }
+
+  private static final int ROOT = 0;
+  private static final int[] NO_PATTERNS = new int[0];
+
+  private final char[][] keys;
+  private final int[][] children;
+  private final int[] fail;
+  // next node on the fail chain ending a pattern, -1 if there is none
+  private final int[] outputLink;
+  private final int[][] outputs;
+  private final int[] lengths;
+  private final boolean lowerCase;
+
+  private AhoCorasick(
+      char[][] keys, int[][] children, int[] fail, int[] outputLink, int[][] outputs, int[] lengths, boolean lowerCase) {
+    this.keys = keys;
+    this.children = children;
+    this.fail = fail;
+    this.outputLink = outputLink;
+    this.outputs = outputs;
+    this.lengths = lengths;
+    this.lowerCase = lowerCase;
+  }
+
+  /**
+   * Builds the automaton of the patterns, a pattern is identified by its index. If lowerCase is
+   * true, patterns and text are compared in lower case.
+   */
+  public static AhoCorasick of(List<String> patterns, boolean lowerCase) {
+    List<Map<Character, Integer>> trie = new ArrayList<>();
+    List<List<Integer>> patternsOfNode = new ArrayList<>();
+    trie.add(new HashMap<>());
+    patternsOfNode.add(new ArrayList<>());
+    int[] lengths = new int[patterns.size()];
+
+    for (int pattern = 0; pattern < patterns.size(); pattern++) {
+      String text = patterns.get(pattern);
+      if (text.isEmpty()) {
+        throw new IllegalArgumentException("Patterns must not be empty.");
+      }
+      lengths[pattern] = text.length();
+      int node = ROOT;
+      for (int i = 0; i < text.length(); i++) {
+        char key = lowerCase ? Character.toLowerCase(text.charAt(i)) : text.charAt(i);
+        Integer child = trie.get(node).get(key);
+        if (child == null) {
+          child = trie.size();
+          trie.get(node).put(key, child);
+          trie.add(new HashMap<>());
+          patternsOfNode.add(new ArrayList<>());
+        }
+        node = child;
+      }
+      patternsOfNode.get(node).add(pattern);
+    }
+
+    int nodes = trie.size();
+    char[][] keys = new char[nodes][];
+    int[][] children = new int[nodes][];
+    int[][] outputs = new int[nodes][];
+    for (int node = 0; node < nodes; node++) {
+      Map<Character, Integer> edges = trie.get(node);
+      keys[node] = new char[edges.size()];
+      int i = 0;
+      for (char key : edges.keySet()) {
+        keys[node][i++] = key;
+      }
+      Arrays.sort(keys[node]);
+      children[node] = new int[keys[node].length];
+      for (i = 0; i < keys[node].length; i++) {
+        children[node][i] = edges.get(keys[node][i]);
+      }
+      List<Integer> nodePatterns = patternsOfNode.get(node);
+      outputs[node] = nodePatterns.isEmpty()
+          ? NO_PATTERNS
+          : nodePatterns.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    // fail links in breadth first order, so the links of all shorter prefixes are known
+    int[] fail = new int[nodes];
+    int[] outputLink = new int[nodes];
+    outputLink[ROOT] = -1;
+    Deque<Integer> queue = new ArrayDeque<>();
+    for (int child : children[ROOT]) {
+      fail[child] = ROOT;
+      outputLink[child] = -1;
+      queue.add(child);
+    }
+    while (!queue.isEmpty()) {
+      int node = queue.poll();
+      for (int i = 0; i < keys[node].length; i++) {
+        char key = keys[node][i];
+        int child = children[node][i];
+        int state = fail[node];
+        while (state != ROOT && childOf(keys, children, state, key) < 0) {
+          state = fail[state];
+        }
+        int next = childOf(keys, children, state, key);
+        fail[child] = next >= 0 ? next : ROOT;
+        outputLink[child] = outputs[fail[child]].length > 0 ? fail[child] : outputLink[fail[child]];
+        queue.add(child);
+      }
+    }
+    return new AhoCorasick(keys, children, fail, outputLink, outputs, lengths, lowerCase);
+  }
+
+  public int getPatterns() {
+    return lengths.length;
+  }
+
+  public int getNodes() {
+    return keys.length;
+  }
+
+  public void scan(CharSequence text, MatchConsumer consumer) {
+    int state = ROOT;
+    for (int i = 0; i < text.length(); i++) {
+      char key = lowerCase ? Character.toLowerCase(text.charAt(i)) : text.charAt(i);
+      int next = childOf(keys, children, state, key);
+      while (next < 0 && state != ROOT) {
+        state = fail[state];
+        next = childOf(keys, children, state, key);
+      }
+      state = next < 0 ? ROOT : next;
+      for (int node = state; node >= 0; node = outputLink[node]) {
+        for (int pattern : outputs[node]) {
+          consumer.accept(pattern, i + 1 - lengths[pattern], i + 1);
+        }
+      }
+    }
+  }
+
+  private static int childOf(char[][] keys, int[][] children, int node, char key) {
+    int index = Arrays.binarySearch(keys[node], key);
+    return index < 0 ? -1 : children[node][index];
+  }
+}
@@ -0,0 +1,40 @@
+package project.userFeaturePortal.service.rewrite;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import project.userFeaturePortal.common.enums.MessageRewriteMatch;
+import project.userFeaturePortal.common.message.InfoMessages;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings of the rewrite rules applied to every incoming log message (prefix "log.rewrite"). The
+ * rules of the file are applied after the configured ones and reloaded when the file changes.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "log.rewrite")
+public class MessageRewriteProperties {
+
+  private List<MessageRewriteRule> rules = defaultRules();
+
+  // JSON array of rules, no file if empty
+  private String rulesFile = "";
+
+  // how often the rules file is checked for changes
+  private Duration reloadInterval = Duration.ofSeconds(10);
+
+  private static List<MessageRewriteRule> defaultRules() {
+    List<MessageRewriteRule> rules = new ArrayList<>();
+    rules.add(MessageRewriteRule.builder()
+        .pattern("Katze")
+        .match(MessageRewriteMatch.MESSAGE)
+        .replacement("Hund")
+        .notice(InfoMessages.KATZE_TO_HUND)
+        .build());
+    return rules;
+  }
+}
@@ -0,0 +1,35 @@
+package project.userFeaturePortal.service.rewrite;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import project.userFeaturePortal.common.enums.MessageRewriteMatch;
+
+/**
+ * One rewrite or redaction of incoming log messages, configured by "log.rewrite.rules" or read from
+ * "log.rewrite.rules-file".
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageRewriteRule {
+
+  // literal text or, for REGEX rules, the regular expression
+  private String pattern;
+
+  @Builder.Default
+  private MessageRewriteMatch match = MessageRewriteMatch.ANYWHERE;
+
+  private boolean ignoreCase;
+
+  // text replacing the match, if null every char of the match is masked by '*'
+  private String replacement;
+
+  // only for REGEX rules: literal the message has to contain before the expression is evaluated
+  private String prefilter;
+
+  // added to the return message of the log if the rule changed its message
+  private String notice;
+}
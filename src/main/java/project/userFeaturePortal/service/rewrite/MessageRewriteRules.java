@@ -0,0 +1,98 @@
+package project.userFeaturePortal.service.rewrite;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The rewrite rules currently in use, compiled once into a {@link MessageRewriter}. The rules file
+ * is polled for changes; a changed file is compiled in the background and swapped in as a whole, so
+ * a message is always rewritten by one consistent set of rules. If the changed file cannot be read
+ * or compiled, the previous rules stay in use.
+ */
+@Component
+public class MessageRewriteRules {
+
+  private static final Logger LOGGER = LogManager.getLogger(MessageRewriteRules.class);
+  private static final TypeReference<List<MessageRewriteRule>> RULE_LIST = new TypeReference<>() {};
+
+  private final MessageRewriteProperties properties;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private volatile MessageRewriter rewriter;
+  // modification time of the rules file the current rules were read from, 0 without file
+  private long rulesFileModified;
+
+  public MessageRewriteRules(MessageRewriteProperties properties) {
+    this.properties = properties;
+    Path rulesFile = rulesFile();
+    this.rulesFileModified = rulesFile == null ? 0 : lastModified(rulesFile);
+    // a broken rules file at startup fails the start instead of silently missing redactions
+    this.rewriter = compile(rulesFile);
+    LOGGER.info("Compiled {} message rewrite rules.", rewriter.getRules());
+  }
+
+  public MessageRewriter.Result rewrite(String message) {
+    return rewriter.rewrite(message);
+  }
+
+  public int getRules() {
+    return rewriter.getRules();
+  }
+
+  @Scheduled(fixedDelayString = "#{@messageRewriteProperties.reloadInterval.toMillis()}")
+  public synchronized void reloadIfChanged() {
+    Path rulesFile = rulesFile();
+    if (rulesFile == null) {
+      return;
+    }
+    long modified = lastModified(rulesFile);
+    if (modified == rulesFileModified) {
+      return;
+    }
+    try {
+      rewriter = compile(rulesFile);
+      rulesFileModified = modified;
+      LOGGER.info("Reloaded {} message rewrite rules from {}.", rewriter.getRules(), rulesFile);
+    } catch (RuntimeException e) {
+      // retried once the file changes again
+      rulesFileModified = modified;
+      LOGGER.error("Message rewrite rules of {} not reloaded, keeping the previous rules.", rulesFile, e);
+    }
+  }
+
+  private MessageRewriter compile(Path rulesFile) {
+    List<MessageRewriteRule> rules = new ArrayList<>(properties.getRules());
+    if (rulesFile != null && Files.exists(rulesFile)) {
+      try {
+        rules.addAll(objectMapper.readValue(rulesFile.toFile(), RULE_LIST));
+      } catch (IOException e) {
+        throw new UncheckedIOException("Message rewrite rules of " + rulesFile + " could not be read.", e);
+      }
+    }
+    return MessageRewriter.compile(rules);
+  }
+
+  private Path rulesFile() {
+    String rulesFile = properties.getRulesFile();
+    return rulesFile == null || rulesFile.isBlank() ? null : Paths.get(rulesFile);
+  }
+
+  private static long lastModified(Path file) {
+    try {
+      return Files.exists(file) ? Files.getLastModifiedTime(file).toMillis() : 0;
+    } catch (IOException e) {
+      return 0;
+    }
+  }
+}
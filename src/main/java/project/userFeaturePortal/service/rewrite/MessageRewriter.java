@@ -0,0 +1,179 @@
+package project.userFeaturePortal.service.rewrite;
+
+import lombok.Value;
+import project.userFeaturePortal.common.enums.MessageRewriteMatch;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Compiled set of rewrite rules. The literal patterns and the prefilters of all regular expressions
+ * are found by one pass of an {@link AhoCorasick} automaton over the message. Of overlapping literal
+ * matches the leftmost wins, and of those starting at the same char the longest. Regular
+ * expressions run afterwards on the rewritten message, each only if its prefilter was found.
+ * Immutable, so it is shared by all threads.
+ */
+public final class MessageRewriter {
+
+  private static final char MASK = '*';
+  private static final Comparator<int[]> LEFTMOST_LONGEST = Comparator.<int[]>comparingInt(match -> match[0])
+      .thenComparingInt(match -> match[0] - match[1])
+      .thenComparingInt(match -> match[2]);
+
+  private final List<MessageRewriteRule> rules;
+  // text and rule of every pattern of the automaton, a pattern is a literal or a prefilter
+  private final String[] patternTexts;
+  private final int[] ruleOfPattern;
+  private final boolean[] prefilterPatterns;
+  private final AhoCorasick automaton;
+  // compiled expression of every REGEX rule, null for the literal rules
+  private final Pattern[] expressions;
+  private final boolean hasExpressions;
+
+  private MessageRewriter(List<MessageRewriteRule> rules) {
+    this.rules = List.copyOf(rules);
+    List<String> texts = new ArrayList<>();
+    List<Integer> ruleIndexes = new ArrayList<>();
+    List<Boolean> prefilters = new ArrayList<>();
+    this.expressions = new Pattern[rules.size()];
+
+    for (int i = 0; i < rules.size(); i++) {
+      MessageRewriteRule rule = rules.get(i);
+      if (rule.getPattern() == null || rule.getPattern().isEmpty()) {
+        throw new IllegalArgumentException("Rewrite rule " + i + " has no pattern.");
+      }
+      if (rule.getMatch() == MessageRewriteMatch.REGEX) {
+        expressions[i] = compile(rule, i);
+        if (rule.getPrefilter() == null || rule.getPrefilter().isEmpty()) {
+          continue;
+        }
+        texts.add(rule.getPrefilter());
+        prefilters.add(true);
+      } else {
+        texts.add(rule.getPattern());
+        prefilters.add(false);
+      }
+      ruleIndexes.add(i);
+    }
+
+    this.patternTexts = texts.toArray(new String[0]);
+    this.ruleOfPattern = ruleIndexes.stream().mapToInt(Integer::intValue).toArray();
+    this.prefilterPatterns = new boolean[prefilters.size()];
+    for (int i = 0; i < prefilterPatterns.length; i++) {
+      prefilterPatterns[i] = prefilters.get(i);
+    }
+    // case is compared in lower case by the automaton and checked for the case sensitive rules
+    this.automaton = texts.isEmpty() ? null : AhoCorasick.of(texts, true);
+    this.hasExpressions = rules.stream().anyMatch(rule -> rule.getMatch() == MessageRewriteMatch.REGEX);
+  }
+
+  public static MessageRewriter compile(List<MessageRewriteRule> rules) {
+    return new MessageRewriter(rules);
+  }
+
+  public int getRules() {
+    return rules.size();
+  }
+
+  public Result rewrite(String message) {
+    List<int[]> matches = new ArrayList<>();
+    boolean[] triggered = new boolean[rules.size()];
+    if (automaton != null) {
+      automaton.scan(message, (pattern, start, end) -> {
+        int ruleIndex = ruleOfPattern[pattern];
+        MessageRewriteRule rule = rules.get(ruleIndex);
+        if (!rule.isIgnoreCase() && !message.regionMatches(start, patternTexts[pattern], 0, end - start)) {
+          return;
+        }
+        if (prefilterPatterns[pattern]) {
+          triggered[ruleIndex] = true;
+        } else if (matchesAt(rule.getMatch(), message, start, end)) {
+          matches.add(new int[] {start, end, ruleIndex});
+        }
+      });
+    }
+    if (matches.isEmpty() && !hasExpressions) {
+      return new Result(message, List.of());
+    }
+
+    boolean[] applied = new boolean[rules.size()];
+    String rewritten = replaceLiterals(message, matches, applied);
+    for (int i = 0; i < rules.size(); i++) {
+      MessageRewriteRule rule = rules.get(i);
+      if (expressions[i] == null || (rule.getPrefilter() != null && !rule.getPrefilter().isEmpty() && !triggered[i])) {
+        continue;
+      }
+      Matcher matcher = expressions[i].matcher(rewritten);
+      if (matcher.find()) {
+        rewritten = rule.getReplacement() == null
+            ? matcher.replaceAll(match -> String.valueOf(MASK).repeat(match.end() - match.start()))
+            : matcher.replaceAll(rule.getReplacement());
+        applied[i] = true;
+      }
+    }
+
+    List<MessageRewriteRule> appliedRules = new ArrayList<>();
+    for (int i = 0; i < rules.size(); i++) {
+      if (applied[i]) {
+        appliedRules.add(rules.get(i));
+      }
+    }
+    return new Result(rewritten, appliedRules);
+  }
+
+  private String replaceLiterals(String message, List<int[]> matches, boolean[] applied) {
+    if (matches.isEmpty()) {
+      return message;
+    }
+    matches.sort(LEFTMOST_LONGEST);
+    StringBuilder rewritten = new StringBuilder(message.length());
+    int position = 0;
+    for (int[] match : matches) {
+      if (match[0] < position) {
+        continue;
+      }
+      String replacement = rules.get(match[2]).getReplacement();
+      rewritten.append(message, position, match[0]);
+      if (replacement == null) {
+        rewritten.append(String.valueOf(MASK).repeat(match[1] - match[0]));
+      } else {
+        rewritten.append(replacement);
+      }
+      position = match[1];
+      applied[match[2]] = true;
+    }
+    return rewritten.append(message, position, message.length()).toString();
+  }
+
+  private static boolean matchesAt(MessageRewriteMatch match, String message, int start, int end) {
+    switch (match) {
+      case WORD:
+        return (start == 0 || !Character.isLetterOrDigit(message.charAt(start - 1)))
+            && (end == message.length() || !Character.isLetterOrDigit(message.charAt(end)));
+      case MESSAGE:
+        return start == 0 && end == message.length();
+      default:
+        return true;
+    }
+  }
+
+  private static Pattern compile(MessageRewriteRule rule, int index) {
+    try {
+      return Pattern.compile(
+          rule.getPattern(), rule.isIgnoreCase() ? Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE : 0);
+    } catch (PatternSyntaxException e) {
+      throw new IllegalArgumentException("Rewrite rule " + index + " is no valid expression: " + e.getMessage(), e);
+    }
+  }
+
+  /** The rewritten message and the rules which changed it, in the order of the rules. */
+  @Value
+  public static class Result {
+    String message;
+    List<MessageRewriteRule> appliedRules;
+  }
+}
@@ -0,0 +1,137 @@
+package project.userFeaturePortal.service.validation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Ids of the users acting in the requests by their names, so an actor which is checked on every
+ * request is looked up in the user table once per "user.actor-cache.ttl" only. Unknown names are
+ * not cached. Hits and misses are counted by "user.actor-cache.hits" and "user.actor-cache.misses".
+ *
+ * <p>Looked up actors are cached after the commit of the lookup. The entries of changed users are
+ * removed right away and once more after the commit of the change, as a concurrent request could
+ * cache the old state again until the commit.
+ */
+@Component
+public class ActorCache {
+
+  private final ActorCacheProperties properties;
+  private final LongSupplier clock;
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  private final Counter hits;
+  private final Counter misses;
+
+  @Autowired
+  public ActorCache(ActorCacheProperties properties, ObjectProvider<MeterRegistry> meterRegistryProvider) {
+    this(properties, meterRegistryProvider.getIfAvailable(SimpleMeterRegistry::new), System::nanoTime);
+  }
+
+  ActorCache(ActorCacheProperties properties, MeterRegistry meterRegistry, LongSupplier clock) {
+    this.properties = properties;
+    this.clock = clock;
+    this.hits = meterRegistry.counter("user.actor-cache.hits");
+    this.misses = meterRegistry.counter("user.actor-cache.misses");
+    meterRegistry.gauge("user.actor-cache.size", entries, Map::size);
+  }
+
+  /** The id of the actor, empty if it is not cached or its entry expired. */
+  public OptionalInt get(String name) {
+    if (!properties.isEnabled() || name == null) {
+      return OptionalInt.empty();
+    }
+    Entry entry = entries.get(name);
+    if (entry == null || entry.isExpired(clock.getAsLong())) {
+      misses.increment();
+      return OptionalInt.empty();
+    }
+    hits.increment();
+    return OptionalInt.of(entry.id);
+  }
+
+  /**
+   * Caches the actor after the commit of the current transaction, a user only seen by a
+   * transaction which is rolled back is never cached.
+   */
+  public void put(String name, Integer id) {
+    if (!properties.isEnabled() || name == null || id == null) {
+      return;
+    }
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      putNow(name, id);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            putNow(name, id);
+          }
+        });
+  }
+
+  private void putNow(String name, int id) {
+    long now = clock.getAsLong();
+    if (entries.size() >= properties.getMaxSize() && !entries.containsKey(name)) {
+      entries.values().removeIf(entry -> entry.isExpired(now));
+      if (entries.size() >= properties.getMaxSize()) {
+        return;
+      }
+    }
+    entries.put(name, new Entry(id, now + properties.getTtl().toNanos()));
+  }
+
+  /** Removes the actor now and after the commit of the current transaction. */
+  public void invalidate(String name) {
+    if (name != null) {
+      removeNowAndAfterCommit(() -> entries.remove(name));
+    }
+  }
+
+  /** Removes all actors now and after the commit of the current transaction. */
+  public void invalidateAll() {
+    removeNowAndAfterCommit(entries::clear);
+  }
+
+  int size() {
+    return entries.size();
+  }
+
+  private static void removeNowAndAfterCommit(Runnable removal) {
+    removal.run();
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            removal.run();
+          }
+        });
+  }
+
+  private static final class Entry {
+    private final int id;
+    private final long expiresAt;
+
+    private Entry(int id, long expiresAt) {
+      this.id = id;
+      this.expiresAt = expiresAt;
+    }
+
+    private boolean isExpired(long now) {
+      return now - expiresAt >= 0;
+    }
+  }
+}
@@ -0,0 +1,25 @@
+package project.userFeaturePortal.service.validation;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Settings of the cache of the acting users (prefix "user.actor-cache").
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "user.actor-cache")
+public class ActorCacheProperties {
+
+  // if false every actor is looked up in the user table
+  private boolean enabled = true;
+
+  // further actors are looked up without being cached
+  private int maxSize = 1000;
+
+  // an actor is looked up again after this time, also bounds the effect of changes of other instances
+  private Duration ttl = Duration.ofMinutes(5);
+}
@@ -4,6 +4,7 @@ import lombok.Data;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.stereotype.Service;
+import project.userFeaturePortal.common.dto.log.AddLogRequestDto;
 import project.userFeaturePortal.common.dto.log.LogMessageDto;
 import project.userFeaturePortal.common.dto.log.LogRequestDto;
 import project.userFeaturePortal.common.enums.SeverityEnum;
@@ -12,6 +13,9 @@ import project.userFeaturePortal.common.message.InfoMessages;
 import project.userFeaturePortal.exception.ParameterNotPresentException;
 import project.userFeaturePortal.exception.SeverityNotFoundException;
 import project.userFeaturePortal.model.repository.UserRepository;
+import project.userFeaturePortal.service.rewrite.MessageRewriteRule;
+import project.userFeaturePortal.service.rewrite.MessageRewriteRules;
+import project.userFeaturePortal.service.rewrite.MessageRewriter;
 
 /**
  * @author - EugenFriesen 13.02.2021
@@ -23,6 +27,7 @@ public class LogValidationService {
   private static final Logger LOGGER = LogManager.getLogger(LogValidationService.class);
 
   private final UserRepository userRepository;
+  private final MessageRewriteRules messageRewriteRules;
 
   public void checkIfAnyEntriesAreNull(LogRequestDto allParameters) {
     if (allParameters.addLogRequest.severity == null
@@ -36,25 +41,38 @@ public class LogValidationService {
     }
   }
 
+  public void checkIfAnyEntriesAreNull(AddLogRequestDto logRequest) {
+    if (logRequest == null
+        || logRequest.severity == null
+        || logRequest.severity.equals("")
+        || logRequest.message == null
+        || logRequest.message.equals("")
+        || logRequest.user == null
+        || logRequest.user.equals("")) {
+      LOGGER.warn(ErrorMessages.PARAMETER_IS_MISSING);
+      throw new ParameterNotPresentException();
+    }
+  }
+
   public void validateSeverity(String severity) {
-    for (SeverityEnum severityEnum : SeverityEnum.values()) {
-      if (severity.equals(severityEnum.name())) {
-        LOGGER.debug(InfoMessages.SEVERITY_VALID);
-        return;
-      }
+    if (SeverityEnum.fromName(severity) != null) {
+      LOGGER.debug(InfoMessages.SEVERITY_VALID);
+      return;
     }
     LOGGER.warn(ErrorMessages.SEVERITY_NOT_REGISTERED, severity);
     throw new SeverityNotFoundException(severity);
   }
 
+  /** Applies the rewrite rules to the message, the notices of the applied rules are returned. */
   public LogMessageDto validateMessage(String message) {
-    if (message.equals("Katze")) {
-      LOGGER.info(InfoMessages.KATZE_TO_HUND);
-      return LogMessageDto.builder()
-          .message("Hund")
-          .returnMessage(InfoMessages.KATZE_TO_HUND + "\n")
-          .build();
+    MessageRewriter.Result result = messageRewriteRules.rewrite(message);
+    StringBuilder returnMessage = new StringBuilder();
+    for (MessageRewriteRule rule : result.getAppliedRules()) {
+      if (rule.getNotice() != null) {
+        LOGGER.info(rule.getNotice());
+        returnMessage.append(rule.getNotice()).append('\n');
+      }
     }
-    return LogMessageDto.builder().message(message).returnMessage("").build();
+    return LogMessageDto.builder().message(result.getMessage()).returnMessage(returnMessage.toString()).build();
   }
 }
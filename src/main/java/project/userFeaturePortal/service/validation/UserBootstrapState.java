@@ -0,0 +1,146 @@
+package project.userFeaturePortal.service.validation;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import project.userFeaturePortal.model.repository.UserRepository;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Whether there are users yet, so creating a user does not load the user table to find out if it
+ * is the first one, and the number of users (gauge "user.count"). Once users are known to exist
+ * that is trusted without a query until a delete through the {@code UserService} removes the last
+ * one, after which the next check asks the database for any single user.
+ *
+ * <p>Concurrent creates of the first user are serialized by a claim: the create holding the claim
+ * is the first user, every other create meanwhile needs an existing actor. The claim ends with the
+ * transaction of its create. The changes of a transaction are only taken over after its commit.
+ */
+@Component
+public class UserBootstrapState {
+
+  private static final long UNKNOWN = -1;
+
+  private final UserRepository userRepository;
+  private final AtomicBoolean hasUsers = new AtomicBoolean();
+  private final AtomicBoolean firstUserClaimed = new AtomicBoolean();
+  private final AtomicLong userCount = new AtomicLong(UNKNOWN);
+
+  public UserBootstrapState(UserRepository userRepository, ObjectProvider<MeterRegistry> meterRegistryProvider) {
+    this.userRepository = userRepository;
+    meterRegistryProvider.getIfAvailable(SimpleMeterRegistry::new)
+        .gauge("user.count", this, UserBootstrapState::getUserCount);
+  }
+
+  /** Counts the users once, so deletes know whether they removed the last one. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void init() {
+    getUserCount();
+  }
+
+  public boolean hasUsers() {
+    if (hasUsers.get()) {
+      return true;
+    }
+    boolean exists = userRepository.existsByIdNotNull();
+    if (exists) {
+      hasUsers.set(true);
+    }
+    return exists;
+  }
+
+  /**
+   * Claims the creation of the first user for the current transaction, false if there are users
+   * or another create holds the claim.
+   */
+  public boolean claimFirstUser() {
+    return !hasUsers.get() && claimIfEmpty();
+  }
+
+  /**
+   * Like {@link #claimFirstUser}, but without trusting that there are users. Meanwhile the other
+   * checks still trust them, only an empty table clears the flag.
+   */
+  public boolean recheckAndClaimFirstUser() {
+    return claimIfEmpty();
+  }
+
+  public void userAdded() {
+    afterCommit(() -> {
+      hasUsers.set(true);
+      userCount.updateAndGet(count -> count == UNKNOWN ? UNKNOWN : count + 1);
+    });
+  }
+
+  public void userDeleted() {
+    afterCommit(() -> {
+      long remaining = userCount.updateAndGet(count -> count == UNKNOWN ? UNKNOWN : Math.max(0, count - 1));
+      // without a count the next check asks the database
+      if (remaining == UNKNOWN || remaining == 0) {
+        hasUsers.set(false);
+      }
+    });
+  }
+
+  public void allUsersDeleted() {
+    afterCommit(() -> {
+      hasUsers.set(false);
+      userCount.set(0);
+    });
+  }
+
+  public long getUserCount() {
+    long count = userCount.get();
+    if (count == UNKNOWN) {
+      count = userRepository.count();
+      userCount.compareAndSet(UNKNOWN, count);
+    }
+    return count;
+  }
+
+  private boolean claimIfEmpty() {
+    if (!firstUserClaimed.compareAndSet(false, true)) {
+      return false;
+    }
+    if (userRepository.existsByIdNotNull()) {
+      hasUsers.set(true);
+      firstUserClaimed.set(false);
+      return false;
+    }
+    hasUsers.set(false);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+              firstUserClaimed.set(false);
+            }
+          });
+    } else {
+      // without a transaction the user is saved right away, there is nothing to wait for
+      firstUserClaimed.set(false);
+    }
+    return true;
+  }
+
+  private static void afterCommit(Runnable change) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      change.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            change.run();
+          }
+        });
+  }
+}
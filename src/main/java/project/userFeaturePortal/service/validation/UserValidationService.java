@@ -11,14 +11,17 @@ import project.userFeaturePortal.exception.FirstUserUnequalActorException;
 import project.userFeaturePortal.exception.ParameterNotPresentException;
 import project.userFeaturePortal.exception.UserNotAllowedException;
 import project.userFeaturePortal.exception.UserNotFoundException;
-import project.userFeaturePortal.model.entity.Log;
 import project.userFeaturePortal.model.entity.User;
+import project.userFeaturePortal.model.repository.LogFilter;
 import project.userFeaturePortal.model.repository.LogRepository;
+import project.userFeaturePortal.model.repository.LogRepositoryCustom;
 import project.userFeaturePortal.model.repository.UserRepository;
+import project.userFeaturePortal.service.log.LogArchiveStore;
+import project.userFeaturePortal.service.log.LogSegmentStore;
 import project.userFeaturePortal.service.model.UserService;
 
-import java.util.List;
 import java.util.Optional;
+import java.util.OptionalInt;
 
 @Component
 @RequiredArgsConstructor
@@ -27,6 +30,10 @@ public class UserValidationService {
   private static final Logger LOGGER = LogManager.getLogger(UserService.class);
   private final UserRepository userRepository;
   private final LogRepository logRepository;
+  private final LogSegmentStore logSegmentStore;
+  private final LogArchiveStore logArchiveStore;
+  private final ActorCache actorCache;
+  private final UserBootstrapState userBootstrapState;
 
   public void checkIfAnyEntriesAreNull(UserRequestDto allParameters) {
     if (allParameters.actor == null
@@ -44,30 +51,36 @@ public class UserValidationService {
   }
 
   public void checkIfUsersAreReferenced() {
-    if (!logRepository.findAll().isEmpty()) {
+    if (existsLogs(LogFilter.builder().build())) {
       LOGGER.warn(ErrorMessages.USERS_REFERENCED);
       throw new RuntimeException(ErrorMessages.USERS_REFERENCED);
     }
   }
 
   public void validateActor(String name, String actor) {
-    List<User> usersList = userRepository.findAll();
-
-    // proof that the usersList in the db is empty
+    // proof that there are no users yet
     // --> if so, first user has to be equal to the acting user (actor)
-    boolean userListEmpty = false;
-    if (usersList.isEmpty()) {
-      userListEmpty = true;
-      if (!name.equals(actor)) {
-        LOGGER.warn(ErrorMessages.NO_USERS_YET + name + " unequal " + actor);
-        throw new FirstUserUnequalActorException(actor, name);
+    if (userBootstrapState.claimFirstUser()) {
+      validateFirstUser(name, actor);
+      return;
+    }
+
+    // if there are users, check if actor is allowed to create user
+    try {
+      checkIfActorExists(actor, String.format(ErrorMessages.USER_NOT_ALLOWED_CREATE_USER, actor));
+    } catch (UserNotAllowedException e) {
+      // users deleted past the UserService are not noticed, so check the table before rejecting
+      if (!userBootstrapState.recheckAndClaimFirstUser()) {
+        throw e;
       }
+      validateFirstUser(name, actor);
     }
+  }
 
-    // if userList is not empty, check if actor is allowed to create user
-    if (!userListEmpty) {
-      checkIfNameExists(actor, true,
-              String.format(ErrorMessages.USER_NOT_ALLOWED_CREATE_USER, actor));
+  private void validateFirstUser(String name, String actor) {
+    if (!name.equals(actor)) {
+      LOGGER.warn(ErrorMessages.NO_USERS_YET + name + " unequal " + actor);
+      throw new FirstUserUnequalActorException(actor, name);
     }
   }
 
@@ -83,8 +96,7 @@ public class UserValidationService {
     User userToDelete = checkIfNameExists(name, false, ErrorMessages.CANNOT_DELETE_USER);
 
     // proof that there are no logs created by the user you want to delete
-    List<Log> logs = logRepository.findByUser(userToDelete);
-    if (!logs.isEmpty()) {
+    if (existsLogs(LogFilter.builder().user(userToDelete).build())) {
       LOGGER.error(String.format(ErrorMessages.USER_REFERENCED, userToDelete.getName()));
       throw new RuntimeException(
               String.format(ErrorMessages.USER_REFERENCED, userToDelete.getName()));
@@ -99,6 +111,12 @@ public class UserValidationService {
     return userToDelete;
   }
 
+  // the logs are looked up in the backend they are appended to and in the archive
+  private boolean existsLogs(LogFilter filter) {
+    LogRepositoryCustom logSource = logSegmentStore.isEnabled() ? logSegmentStore : logRepository;
+    return logSource.existsLogs(filter) || (logArchiveStore.isEnabled() && logArchiveStore.existsLogs(filter));
+  }
+
   public User checkIfIdExists(int id) {
     Optional<User> user = userRepository.findById(id);
 
@@ -128,4 +146,20 @@ public class UserValidationService {
 
     return user;
   }
+
+  /**
+   * Like {@link #checkIfNameExists} for an acting user, but the id of the actor is cached. On a hit
+   * the returned user only holds the id and the name, enough to reference the actor but not to
+   * change it.
+   */
+  public User checkIfActorExists(String actor, String action) {
+    OptionalInt id = actorCache.get(actor);
+    if (id.isPresent()) {
+      return User.builder().id(id.getAsInt()).name(actor).build();
+    }
+
+    User user = checkIfNameExists(actor, true, action);
+    actorCache.put(actor, user.getId());
+    return user;
+  }
 }
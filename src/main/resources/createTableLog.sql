@@ -1,7 +1,20 @@
 CREATE TABLE log
 (
-    id        INT AUTO_INCREMENT PRIMARY KEY,
-    severity  VARCHAR(250) NOT NULL,
-    message   VARCHAR(250) NOT NULL,
-    timestamp TIMESTAMP    NOT NULL
-);
\ No newline at end of file
+    id        BIGINT       PRIMARY KEY,
+    severity  TINYINT      NOT NULL,
+    message   VARCHAR(250),
+    template  INT,
+    message_arg1 VARCHAR(250),
+    message_arg2 VARCHAR(250),
+    timestamp TIMESTAMP    NOT NULL,
+    user      INT,
+    partition_day INT,
+    repeat_count INT,
+    last_timestamp TIMESTAMP
+);
+
+CREATE INDEX idx_log_timestamp_id ON log (timestamp, id);
+CREATE INDEX idx_log_user_timestamp ON log (user, timestamp);
+CREATE INDEX idx_log_severity_timestamp ON log (severity, timestamp);
+CREATE INDEX idx_log_partition_day ON log (partition_day, timestamp);
+CREATE INDEX idx_log_template_timestamp ON log (template, timestamp);
\ No newline at end of file
@@ -0,0 +1,17 @@
+-- converts the severity of an existing log table from its name to the ordinal of SeverityEnum
+ALTER TABLE log ADD COLUMN severity_code TINYINT;
+
+UPDATE log
+SET severity_code = CASE severity
+                        WHEN 'TRACE' THEN 0
+                        WHEN 'DEBUG' THEN 1
+                        WHEN 'INFO' THEN 2
+                        WHEN 'WARNING' THEN 3
+                        WHEN 'ERROR' THEN 4
+                        WHEN 'FATAL' THEN 5
+                        ELSE -1
+    END;
+
+ALTER TABLE log DROP COLUMN severity;
+ALTER TABLE log ALTER COLUMN severity_code RENAME TO severity;
+ALTER TABLE log ALTER COLUMN severity SET NOT NULL;
@@ -0,0 +1,162 @@
+-- interns the messages of an existing log table as template and arguments, see LogTemplate
+-- the ordinals below have to match the order of LogTemplate
+ALTER TABLE log ALTER COLUMN message SET NULL;
+ALTER TABLE log ADD COLUMN IF NOT EXISTS template INT;
+ALTER TABLE log ADD COLUMN IF NOT EXISTS message_arg1 VARCHAR(250);
+ALTER TABLE log ADD COLUMN IF NOT EXISTS message_arg2 VARCHAR(250);
+CREATE INDEX IF NOT EXISTS idx_log_template_timestamp ON log (template, timestamp);
+
+-- USER_DELETED_ID
+UPDATE log
+SET template = 0,
+    message_arg1 = REGEXP_REPLACE(message, '^\QUser with the ID \E(.*)\Q was deleted.\E$', '$1'),
+    message = NULL
+WHERE template IS NULL AND REGEXP_LIKE(message, '^\QUser with the ID \E(.*)\Q was deleted.\E$');
+
+-- USER_DELETED_NAME
+UPDATE log
+SET template = 1,
+    message_arg1 = REGEXP_REPLACE(message, '^\QUser named \E(.*)\Q was deleted.\E$', '$1'),
+    message = NULL
+WHERE template IS NULL AND REGEXP_LIKE(message, '^\QUser named \E(.*)\Q was deleted.\E$');
+
+-- ALL_USERS_DELETED
+UPDATE log
+SET template = 2,
+    message = NULL
+WHERE template IS NULL AND REGEXP_LIKE(message, '^\QAll users were deleted from database!\E$');
+
+-- USER_CREATED
+UPDATE log
+SET template = 3,
+    message_arg1 = REGEXP_REPLACE(message, '^\QUser \E(.*)\Q was created.\E$', '$1'),
+    message = NULL
+WHERE template IS NULL AND REGEXP_LIKE(message, '^\QUser \E(.*)\Q was created.\E$');
+
+-- USER_UPDATED
+UPDATE log
+SET template = 4,
+    message_arg1 = REGEXP_REPLACE(message, '^\QUser \E(.*)\Q was updated.\E$', '$1'),
+    message = NULL
+WHERE template IS NULL AND REGEXP_LIKE(message, '^\QUser \E(.*)\Q was updated.\E$');
+
+-- MESSAGE_SAVED
+UPDATE log
+SET template = 5,
+    message_arg1 = REGEXP_REPLACE(message, '^\QMessage "\E(.*)\Q" saved as \E(.*)\Q!\E$', '$1'),
+    message_arg2 = REGEXP_REPLACE(message, '^\QMessage "\E(.*)\Q" saved as \E(.*)\Q!\E$', '$2'),
+    message = NULL
+WHERE template IS NULL AND REGEXP_LIKE(message, '^\QMessage "\E(.*)\Q" saved as \E(.*)\Q!\E$');
+
+-- BATCH_SAVED
+UPDATE log
+SET template = 6,
+    message_arg1 = REGEXP_REPLACE(message, '^\Q\E(.*)\Q of \E(.*)\Q logs of the batch were saved.\E$', '$1'),
+    message_arg2 = REGEXP_REPLACE(message, '^\Q\E(.*)\Q of \E(.*)\Q logs of the batch were saved.\E$', '$2'),
+    message = NULL
+WHERE template IS NULL AND REGEXP_LIKE(message, '^\Q\E(.*)\Q of \E(.*)\Q logs of the batch were saved.\E$');
+
+-- ENTRY_DELETED_ID
+UPDATE log
+SET template = 7,
+    message_arg1 = REGEXP_REPLACE(message, '^\QEntry with the ID \E(.*)\Q was deleted from database.\E$', '$1'),
+    message = NULL
+WHERE template IS NULL AND REGEXP_LIKE(message, '^\QEntry with the ID \E(.*)\Q was deleted from database.\E$');
+
+-- ENTRIES_DELETED_IDS
+UPDATE log
+SET template = 8,
+    message_arg1 = REGEXP_REPLACE(message, '^\QEntries with the ID(s) \E(.*)\Q were deleted from database.\E$', '$1'),
+    message = NULL
+WHERE template IS NULL AND REGEXP_LIKE(message, '^\QEntries with the ID(s) \E(.*)\Q were deleted from database.\E$');
+
+-- ENTRIES_DELETED_COUNT
+UPDATE log
+SET template = 9,
+    message_arg1 = REGEXP_REPLACE(message, '^\Q\E(.*)\Q entries were deleted from database, among them the ID(s) \E(.*)\Q.\E$', '$1'),
+    message_arg2 = REGEXP_REPLACE(message, '^\Q\E(.*)\Q entries were deleted from database, among them the ID(s) \E(.*)\Q.\E$', '$2'),
+    message = NULL
+WHERE template IS NULL AND REGEXP_LIKE(message, '^\Q\E(.*)\Q entries were deleted from database, among them the ID(s) \E(.*)\Q.\E$');
+
+-- ALL_LOGS_DELETED
+UPDATE log
+SET template = 10,
+    message = NULL
+WHERE template IS NULL AND REGEXP_LIKE(message, '^\QAll logs were deleted from database!\E$');
+
+-- PARTITIONS_DROPPED
+UPDATE log
+SET template = 11,
+    message_arg1 = REGEXP_REPLACE(message, '^\Q\E(.*)\Q logs of the partitions before \E(.*)\Q were deleted from database.\E$', '$1'),
+    message_arg2 = REGEXP_REPLACE(message, '^\Q\E(.*)\Q logs of the partitions before \E(.*)\Q were deleted from database.\E$', '$2'),
+    message = NULL
+WHERE template IS NULL AND REGEXP_LIKE(message, '^\Q\E(.*)\Q logs of the partitions before \E(.*)\Q were deleted from database.\E$');
+
+-- KATZE_TO_HUND
+UPDATE log
+SET template = 12,
+    message = NULL
+WHERE template IS NULL AND REGEXP_LIKE(message, '^\QKatze was translated to Hund!\E$');
+
+-- BOOK_CREATED
+UPDATE log
+SET template = 13,
+    message_arg1 = REGEXP_REPLACE(message, '^\QBook \E(.*)\Q was created.\E$', '$1'),
+    message = NULL
+WHERE template IS NULL AND REGEXP_LIKE(message, '^\QBook \E(.*)\Q was created.\E$');
+
+-- BOOK_UPDATED
+UPDATE log
+SET template = 14,
+    message_arg1 = REGEXP_REPLACE(message, '^\QBook \E(.*)\Q was updated.\E$', '$1'),
+    message = NULL
+WHERE template IS NULL AND REGEXP_LIKE(message, '^\QBook \E(.*)\Q was updated.\E$');
+
+-- BOOK_DELETED_ID
+UPDATE log
+SET template = 15,
+    message_arg1 = REGEXP_REPLACE(message, '^\QBook with the ID \E(.*)\Q was deleted.\E$', '$1'),
+    message = NULL
+WHERE template IS NULL AND REGEXP_LIKE(message, '^\QBook with the ID \E(.*)\Q was deleted.\E$');
+
+-- BOOK_DELETED_TITLE
+UPDATE log
+SET template = 16,
+    message_arg1 = REGEXP_REPLACE(message, '^\QBook with the title \E(.*)\Q was deleted.\E$', '$1'),
+    message = NULL
+WHERE template IS NULL AND REGEXP_LIKE(message, '^\QBook with the title \E(.*)\Q was deleted.\E$');
+
+-- NO_BOOKS_FOUND
+UPDATE log
+SET template = 17,
+    message_arg1 = REGEXP_REPLACE(message, '^\QNo books with the title \E(.*)\Q found.\E$', '$1'),
+    message = NULL
+WHERE template IS NULL AND REGEXP_LIKE(message, '^\QNo books with the title \E(.*)\Q found.\E$');
+
+-- ALL_BOOKS_DELETED
+UPDATE log
+SET template = 18,
+    message = NULL
+WHERE template IS NULL AND REGEXP_LIKE(message, '^\QAll BOOKS were deleted from database!\E$');
+
+-- USER_WITH_BOOK
+UPDATE log
+SET template = 19,
+    message_arg1 = REGEXP_REPLACE(message, '^\QBook with ID \E(.*)\Q is assigned to at least one user.\E$', '$1'),
+    message = NULL
+WHERE template IS NULL AND REGEXP_LIKE(message, '^\QBook with ID \E(.*)\Q is assigned to at least one user.\E$');
+
+-- BOOK_BY_USER
+UPDATE log
+SET template = 20,
+    message_arg1 = REGEXP_REPLACE(message, '^\QBook \E(.*)\Q added to user \E(.*)\Q.\E$', '$1'),
+    message_arg2 = REGEXP_REPLACE(message, '^\QBook \E(.*)\Q added to user \E(.*)\Q.\E$', '$2'),
+    message = NULL
+WHERE template IS NULL AND REGEXP_LIKE(message, '^\QBook \E(.*)\Q added to user \E(.*)\Q.\E$');
+
+-- FAV_BOOK_DELETED
+UPDATE log
+SET template = 21,
+    message_arg1 = REGEXP_REPLACE(message, '^\QUser \E(.*)\Q does not have a favourite book anymore.\E$', '$1'),
+    message = NULL
+WHERE template IS NULL AND REGEXP_LIKE(message, '^\QUser \E(.*)\Q does not have a favourite book anymore.\E$');
@@ -0,0 +1,125 @@
+package project.userFeaturePortal.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import project.userFeaturePortal.common.message.InfoMessages;
+import project.userFeaturePortal.service.log.LogMessageIndex;
+import project.userFeaturePortal.service.log.LogMessageIndexProperties;
+import project.userFeaturePortal.service.log.LogStoreProperties;
+import project.userFeaturePortal.service.log.SortedLongSet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Compares a message search through the {@link LogMessageIndex} with the LIKE scan of the log
+ * table. Not part of the test run, start it with the main method, e.g. from the IDE after
+ * "mvn test-compile". The 10M rows setup needs about 8 GB heap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx8g")
+public class LogMessageSearchBenchmark {
+
+  private static final String[] TEMPLATES = {
+      InfoMessages.USER_CREATED,
+      InfoMessages.USER_UPDATED,
+      InfoMessages.BOOK_CREATED,
+      InfoMessages.BOOK_UPDATED,
+      InfoMessages.BOOK_DELETED_TITLE,
+      InfoMessages.USER_DELETED_NAME
+  };
+
+  // appears in about one of 10000 messages
+  private static final String RARE_TEXT = "Katze";
+
+  @Param({"1000000", "10000000"})
+  int rows;
+
+  SingleConnectionDataSource dataSource;
+  JdbcTemplate jdbcTemplate;
+  LogMessageIndex logMessageIndex;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    dataSource = new SingleConnectionDataSource("jdbc:h2:mem:logSearchBenchmark", true);
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.execute(
+        "CREATE TABLE log (id INT AUTO_INCREMENT PRIMARY KEY, message VARCHAR(250) NOT NULL,"
+            + " template INT, message_arg1 VARCHAR(250), message_arg2 VARCHAR(250))");
+
+    Random random = new Random(42);
+    List<Object[]> batch = new ArrayList<>();
+    for (int i = 0; i < rows; i++) {
+      String name = random.nextInt(10_000) == 0 ? RARE_TEXT : "name" + random.nextInt(100_000);
+      batch.add(new Object[] {String.format(TEMPLATES[i % TEMPLATES.length], name)});
+      if (batch.size() == 10_000) {
+        jdbcTemplate.batchUpdate("INSERT INTO log (message) VALUES (?)", batch);
+        batch.clear();
+      }
+    }
+    jdbcTemplate.batchUpdate("INSERT INTO log (message) VALUES (?)", batch);
+
+    logMessageIndex = new LogMessageIndex(new LogMessageIndexProperties(), new LogStoreProperties(), dataSource);
+    logMessageIndex.build();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    jdbcTemplate.execute("DROP TABLE log");
+    dataSource.destroy();
+  }
+
+  @Benchmark
+  public List<Integer> likeScan() {
+    return jdbcTemplate.queryForList(
+        "SELECT id FROM log WHERE message LIKE CONCAT('%', ?, '%')", Integer.class, RARE_TEXT);
+  }
+
+  @Benchmark
+  public List<Integer> indexLookup() {
+    SortedLongSet candidates = logMessageIndex.findCandidates(RARE_TEXT);
+    if (candidates.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    // the candidates are verified by the database like LogRepository.findLogs with ids does
+    String ids = LongStream.of(candidates.toArray())
+        .mapToObj(String::valueOf)
+        .collect(Collectors.joining(","));
+    return jdbcTemplate.queryForList(
+        "SELECT id FROM log WHERE id IN (" + ids + ") AND message LIKE CONCAT('%', ?, '%')",
+        Integer.class,
+        RARE_TEXT);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(LogMessageSearchBenchmark.class.getSimpleName())
+        .build())
+        .run();
+  }
+}
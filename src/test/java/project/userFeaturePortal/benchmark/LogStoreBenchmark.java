@@ -0,0 +1,175 @@
+package project.userFeaturePortal.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.util.FileSystemUtils;
+import project.userFeaturePortal.common.enums.LogStoreBackend;
+import project.userFeaturePortal.model.converter.SeverityConverter;
+import project.userFeaturePortal.model.entity.Log;
+import project.userFeaturePortal.model.repository.LogFilter;
+import project.userFeaturePortal.service.log.LogBatchInserter;
+import project.userFeaturePortal.service.log.LogSegmentStore;
+import project.userFeaturePortal.service.log.LogStoreProperties;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link LogSegmentStore} with the H2 log table: appending batches of logs and reading
+ * the first page of a one hour range. Not part of the test run, start it with the main method, e.g.
+ * from the IDE after "mvn test-compile".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class LogStoreBenchmark {
+
+  private static final LocalDateTime START = LocalDateTime.of(2021, 1, 1, 0, 0);
+  private static final int BATCH_SIZE = 1000;
+  private static final int PAGE_SIZE = 1000;
+
+  @Param({"1000000"})
+  int rows;
+
+  SingleConnectionDataSource dataSource;
+  JdbcTemplate jdbcTemplate;
+  LogBatchInserter logBatchInserter;
+  Path directory;
+  LogSegmentStore logSegmentStore;
+  LocalDateTime rangeStart;
+  LocalDateTime rangeEnd;
+
+  // appended logs are newer than the prefilled ones and do not change the scanned range
+  LocalDateTime appendTimestamp;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    dataSource = new SingleConnectionDataSource("jdbc:h2:mem:logStoreBenchmark", true);
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.execute(
+        "CREATE TABLE log (id INT AUTO_INCREMENT PRIMARY KEY, severity TINYINT NOT NULL,"
+            + " message VARCHAR(250), template INT, message_arg1 VARCHAR(250), message_arg2 VARCHAR(250),"
+            + " timestamp TIMESTAMP NOT NULL, user INT, partition_day INT,"
+            + " repeat_count INT, last_timestamp TIMESTAMP)");
+    jdbcTemplate.execute("CREATE INDEX idx_log_timestamp_id ON log (timestamp, id)");
+    logBatchInserter = new LogBatchInserter(dataSource);
+
+    directory = Files.createTempDirectory("logStoreBenchmark");
+    LogStoreProperties properties = new LogStoreProperties();
+    properties.setBackend(LogStoreBackend.SEGMENTS);
+    properties.setDirectory(directory.toString());
+    // logs without user never look one up
+    logSegmentStore = new LogSegmentStore(properties, null);
+    logSegmentStore.open();
+
+    // one log per second
+    for (int i = 0; i < rows; i += BATCH_SIZE) {
+      logBatchInserter.insert(batch(START.plusSeconds(i)));
+      logSegmentStore.append(batch(START.plusSeconds(i)));
+    }
+    rangeStart = START.plusSeconds(rows / 2);
+    rangeEnd = rangeStart.plusHours(1);
+    appendTimestamp = START.plusSeconds(rows);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    jdbcTemplate.execute("DROP TABLE log");
+    dataSource.destroy();
+    logSegmentStore.close();
+    FileSystemUtils.deleteRecursively(directory);
+  }
+
+  @Benchmark
+  public List<Log> appendTable() {
+    List<Log> logs = batch(appendTimestamp);
+    logBatchInserter.insert(logs);
+    return logs;
+  }
+
+  @Benchmark
+  public List<Log> appendSegments() {
+    List<Log> logs = batch(appendTimestamp);
+    logSegmentStore.append(logs);
+    return logs;
+  }
+
+  @Benchmark
+  public List<Integer> rangeScanTable() {
+    return jdbcTemplate.queryForList(
+        "SELECT id FROM log WHERE timestamp > ? AND timestamp < ? ORDER BY timestamp, id LIMIT ?",
+        Integer.class,
+        Timestamp.valueOf(rangeStart),
+        Timestamp.valueOf(rangeEnd),
+        PAGE_SIZE);
+  }
+
+  @Benchmark
+  public List<Log> rangeScanSegments() {
+    return logSegmentStore.findLogs(
+        LogFilter.builder().startDate(rangeStart).endDate(rangeEnd).build(), PageRequest.of(0, PAGE_SIZE));
+  }
+
+  @Benchmark
+  public List<Integer> severityRangeScanTable() {
+    return jdbcTemplate.queryForList(
+        "SELECT id FROM log WHERE timestamp > ? AND timestamp < ? AND severity = ? ORDER BY timestamp, id LIMIT ?",
+        Integer.class,
+        Timestamp.valueOf(rangeStart),
+        Timestamp.valueOf(rangeEnd),
+        SeverityConverter.toCode("ERROR"),
+        PAGE_SIZE);
+  }
+
+  @Benchmark
+  public List<Log> severityRangeScanSegments() {
+    return logSegmentStore.findLogs(
+        LogFilter.builder().severity("ERROR").startDate(rangeStart).endDate(rangeEnd).build(),
+        PageRequest.of(0, PAGE_SIZE));
+  }
+
+  private static List<Log> batch(LocalDateTime first) {
+    List<Log> logs = new ArrayList<>(BATCH_SIZE);
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      logs.add(Log.builder()
+          .severity(i % 10 == 0 ? "ERROR" : "INFO")
+          .message("User name" + i + " was created.")
+          .timestamp(first.plusSeconds(i))
+          .build());
+    }
+    return logs;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(LogStoreBenchmark.class.getSimpleName())
+        .build())
+        .run();
+  }
+}
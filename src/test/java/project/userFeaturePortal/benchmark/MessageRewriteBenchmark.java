@@ -0,0 +1,103 @@
+package project.userFeaturePortal.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import project.userFeaturePortal.common.enums.MessageRewriteMatch;
+import project.userFeaturePortal.common.message.InfoMessages;
+import project.userFeaturePortal.service.rewrite.MessageRewriteRule;
+import project.userFeaturePortal.service.rewrite.MessageRewriter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the rewrite of one message by the {@link MessageRewriter} with applying one precompiled
+ * expression per rule. Not part of the test run, start it with the main method, e.g. from the IDE
+ * after "mvn test-compile".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MessageRewriteBenchmark {
+
+  private static final int MESSAGES = 1024;
+
+  @Param({"100", "10000"})
+  int rules;
+
+  MessageRewriter rewriter;
+  Pattern[] expressions;
+  String[] replacements;
+  String[] messages;
+  int next;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    List<MessageRewriteRule> rewriteRules = new ArrayList<>();
+    expressions = new Pattern[rules];
+    replacements = new String[rules];
+    for (int i = 0; i < rules; i++) {
+      rewriteRules.add(MessageRewriteRule.builder()
+          .pattern("kunde" + i)
+          .match(MessageRewriteMatch.WORD)
+          .ignoreCase(true)
+          .replacement("kunde")
+          .build());
+      expressions[i] = Pattern.compile("\\bkunde" + i + "\\b", Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+      replacements[i] = "kunde";
+    }
+    rewriter = MessageRewriter.compile(rewriteRules);
+
+    // about every tenth message contains a name of a rule
+    Random random = new Random(42);
+    messages = new String[MESSAGES];
+    for (int i = 0; i < MESSAGES; i++) {
+      String name = random.nextInt(10) == 0 ? "Kunde" + random.nextInt(rules) : "name" + random.nextInt(100_000);
+      messages[i] = String.format(InfoMessages.BOOK_CREATED, name);
+    }
+  }
+
+  @Benchmark
+  public String rewriter() {
+    return rewriter.rewrite(nextMessage()).getMessage();
+  }
+
+  @Benchmark
+  public String expressionPerRule() {
+    String message = nextMessage();
+    for (int i = 0; i < expressions.length; i++) {
+      message = expressions[i].matcher(message).replaceAll(replacements[i]);
+    }
+    return message;
+  }
+
+  private String nextMessage() {
+    return messages[next++ & (MESSAGES - 1)];
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(MessageRewriteBenchmark.class.getSimpleName())
+        .build())
+        .run();
+  }
+}
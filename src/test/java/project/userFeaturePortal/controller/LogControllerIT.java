@@ -1,5 +1,6 @@
 package project.userFeaturePortal.controller;
 
+import com.jayway.jsonpath.JsonPath;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -20,17 +21,23 @@ import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultMatcher;
 import project.userFeaturePortal.TestMessages;
 import project.userFeaturePortal.common.message.ErrorMessages;
+import project.userFeaturePortal.common.message.InfoMessages;
 import project.userFeaturePortal.model.entity.Log;
 import project.userFeaturePortal.model.entity.User;
 import project.userFeaturePortal.model.repository.LogRepository;
 import project.userFeaturePortal.model.repository.UserRepository;
+import project.userFeaturePortal.service.log.LogInsightsStore;
+import project.userFeaturePortal.service.log.LogRollupStore;
 
 import javax.transaction.Transactional;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.stream.Stream;
 
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -55,6 +62,15 @@ class LogControllerIT {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private LogRollupStore logRollupStore;
+
+    @Autowired
+    private LogInsightsStore logInsightsStore;
+
+    // generated id of the n-th log of createLogs
+    private final long[] logIds = new long[11];
+
     @BeforeAll
     void setup() {
         createLogs();
@@ -171,6 +187,168 @@ class LogControllerIT {
                 .andReturn();
     }
 
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("getLogsArgument")
+    void testCountLogs(
+            String testName,
+            String severity,
+            String message,
+            String startDateTime,
+            String endDateTime,
+            ResultMatcher status,
+            Integer logNumber)
+            throws Exception {
+        mockMvc
+                .perform(
+                        get("/logs/count")
+                                .param("severity", severity)
+                                .param("message", message)
+                                .param("startDateTime", startDateTime)
+                                .param("endDateTime", endDateTime))
+                .andDo(print())
+                .andExpect(status)
+                .andExpect(content().string(String.valueOf(logNumber)));
+    }
+
+    @Test
+    void testGetLogsOfMinSeverity() throws Exception {
+        mockMvc
+                .perform(get("/logs").param("minSeverity", "WARNING"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result[*].id", contains(logIds[3], logIds[4], logIds[7], logIds[8])));
+
+        mockMvc
+                .perform(get("/logs").param("minSeverity", "WARNING").param("message", "Test"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result[*].id", contains(logIds[4], logIds[8])));
+
+        mockMvc
+                .perform(get("/logs/count").param("minSeverity", "ERROR"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().string("2"));
+
+        mockMvc
+                .perform(get("/logs").param("minSeverity", "hi"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetLogsPageByPage() throws Exception {
+        MvcResult firstPage = mockMvc
+                .perform(get("/logs").param("limit", "4"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result", hasSize(4)))
+                .andExpect(jsonPath("$.result[3].id").value(logIds[4]))
+                .andReturn();
+        String cursor = JsonPath.read(firstPage.getResponse().getContentAsString(), "$.nextCursor");
+
+        MvcResult secondPage = mockMvc
+                .perform(get("/logs").param("limit", "4").param("cursor", cursor))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result", hasSize(4)))
+                .andExpect(jsonPath("$.result[0].id").value(logIds[5]))
+                .andReturn();
+        cursor = JsonPath.read(secondPage.getResponse().getContentAsString(), "$.nextCursor");
+
+        mockMvc
+                .perform(get("/logs").param("limit", "4").param("cursor", cursor))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result", hasSize(2)))
+                .andExpect(jsonPath("$.result[1].id").value(logIds[10]))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void testGetLogsRankedByAllTerms() throws Exception {
+        mockMvc
+                .perform(get("/logs").param("message", "test").param("searchMode", "ALL_TERMS").param("limit", "3"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result", hasSize(3)))
+                .andExpect(jsonPath("$.result[0].id").value(logIds[10]))
+                .andExpect(jsonPath("$.result[2].id").value(logIds[6]))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void testStreamLogs() throws Exception {
+        MvcResult result = mockMvc
+                .perform(get("/logs").param("severity", "WARNING").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(
+                        "{\"id\":" + logIds[3] + ",\"severity\":\"WARNING\",\"message\":\"Warning\",\"timestamp\":\"2002-12-12T12:12:12\",\"user\":null}\n"
+                                + "{\"id\":" + logIds[4] + ",\"severity\":\"WARNING\",\"message\":\"Test\",\"timestamp\":\"2003-12-12T12:12:12\",\"user\":null}\n"));
+    }
+
+    @Test
+    void testTailLogs() throws Exception {
+        mockMvc.perform(get("/logs/stream").param("severity", "ERROR")
+                .accept(MediaType.TEXT_EVENT_STREAM_VALUE))
+                .andExpect(request().asyncStarted())
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testGetLogStats() throws Exception {
+        logRollupStore.build();
+        mockMvc
+                .perform(get("/logs/stats").param("severity", "WARNING").param("resolution", "DAY"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].start").value("2002-12-12T00:00:00"))
+                .andExpect(jsonPath("$[0].severity").value("WARNING"))
+                .andExpect(jsonPath("$[0].count").value(1));
+    }
+
+    @Test
+    void testGetLogInsights() throws Exception {
+        createUser();
+        mockMvc.perform(post("/logs/batch")
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .content("[{\"message\":\"Fehler\",\"severity\":\"ERROR\",\"user\":\"Petra\"},"
+                        + "{\"message\":\"Fehler\",\"severity\":\"ERROR\",\"user\":\"Petra\"},"
+                        + "{\"message\":\"Test\",\"severity\":\"INFO\",\"user\":\"Petra\"}]")
+                .accept(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isCreated());
+        // the logs of the test are not committed, so the store reads them from the table
+        logInsightsStore.build();
+
+        mockMvc.perform(get("/logs/insights").param("limit", "1"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.logs").value(3))
+                .andExpect(jsonPath("$.topMessages", hasSize(1)))
+                .andExpect(jsonPath("$.topMessages[0].message").value("Fehler"))
+                .andExpect(jsonPath("$.topMessages[0].count").value(2))
+                .andExpect(jsonPath("$.distinctUsers.ERROR").value(1))
+                .andExpect(jsonPath("$.distinctUsers.INFO").value(1));
+    }
+
+    @Test
+    void testGetLogPartitions() throws Exception {
+        mockMvc
+                .perform(get("/logs/partitions"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(10)))
+                .andExpect(jsonPath("$[0].day").value("2000-12-12"))
+                .andExpect(jsonPath("$[0].logs").value(1));
+    }
+
     @ParameterizedTest(name = "{0}")
     @MethodSource("addLogArguments")
     void testAddLog(String testName, String testData, ResultMatcher status, String returnMessage)
@@ -201,6 +379,29 @@ class LogControllerIT {
                 .andReturn();
     }
 
+    @Test
+    void testAddLogsInBatch() throws Exception {
+        createUser();
+        MvcResult result = mockMvc.perform(post("/logs/batch")
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .content("[{\"message\":\"Batch\",\"severity\":\"info\",\"user\":\"Petra\"},"
+                        + "{\"message\":\"Batch\",\"severity\":\"Hallo\",\"user\":\"Petra\"},"
+                        + "{\"message\":\"Batch\",\"severity\":\"INFO\",\"user\":\"Unbekannt\"}]")
+                .accept(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isMultiStatus())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.items[0].status").value(201))
+                .andExpect(jsonPath("$.items[1].status").value(400))
+                .andExpect(jsonPath("$.items[2].status").value(403))
+                .andReturn();
+
+        Long id = JsonPath.read(result.getResponse().getContentAsString(), "$.items[0].id");
+        Log log = logRepository.findById(id).orElseThrow();
+        assertEquals("INFO", log.getSeverity());
+        assertEquals("Petra", log.getUser().getName());
+    }
+
     @Test
     void testKatzeToHund() throws Exception {
         createUser();
@@ -213,9 +414,9 @@ class LogControllerIT {
                 .andReturn();
     }
 
-    private void createLog(Integer id, String severity, String message, LocalDateTime timestamp) {
-        logRepository.save(
-                Log.builder().id(id).severity(severity).message(message).timestamp(timestamp).build());
+    private void createLog(int number, String severity, String message, LocalDateTime timestamp) {
+        logIds[number] = logRepository.save(
+                Log.builder().severity(severity).message(message).timestamp(timestamp).build()).getId();
     }
 
   private void createUser() {
@@ -259,6 +460,15 @@ class LogControllerIT {
                     "{\"result\":[],\"returnMessage\":null}", result.getResponse().getContentAsString());
         }
 
+        @Test
+        void testCursorIsInvalid() throws Exception {
+            mockMvc
+                    .perform(get("/logs").param("cursor", "hallo"))
+                    .andDo(print())
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string(String.format(ErrorMessages.INVALID_CURSOR, "hallo")));
+        }
+
         @Test
         void testStartDateTimeHasWrongFormat() throws Exception {
             MvcResult result = mockMvc
@@ -303,9 +513,9 @@ class LogControllerIT {
 
         @Test
         void testGetLogsById() throws Exception {
-            MvcResult result = mockMvc.perform(get("/logs/1")).andDo(print()).andExpect(status().isOk()).andReturn();
+            MvcResult result = mockMvc.perform(get("/logs/" + logIds[1])).andDo(print()).andExpect(status().isOk()).andReturn();
 
-            assertEquals(TestMessages.LOG_EXAMPLE, result.getResponse().getContentAsString());
+            assertEquals(String.format(TestMessages.LOG_EXAMPLE, logIds[1]), result.getResponse().getContentAsString());
         }
 
         @Test
@@ -334,22 +544,22 @@ class LogControllerIT {
         @Test
         void testDeleteLogsById() throws Exception {
             MvcResult result = mockMvc
-                    .perform(delete("/log/id/2"))
+                    .perform(delete("/log/id/" + logIds[2]))
                     .andDo(print())
                     .andExpect(status().isOk())
                     .andReturn();
 
             assertEquals(
-                    "{\"result\":[{\"id\":1,\"severity\":\"INFO\",\"message\":\"Test\",\"timestamp\":\"2000-12-12T12:12:12\",\"user\":null},"
-                            + "{\"id\":3,\"severity\":\"WARNING\",\"message\":\"Warning\",\"timestamp\":\"2002-12-12T12:12:12\",\"user\":null},"
-                            + "{\"id\":4,\"severity\":\"WARNING\",\"message\":\"Test\",\"timestamp\":\"2003-12-12T12:12:12\",\"user\":null},"
-                            + "{\"id\":5,\"severity\":\"DEBUG\",\"message\":\"Debug\",\"timestamp\":\"2004-12-12T12:12:12\",\"user\":null},"
-                            + "{\"id\":6,\"severity\":\"DEBUG\",\"message\":\"Test\",\"timestamp\":\"2005-12-12T12:12:12\",\"user\":null},"
-                            + "{\"id\":7,\"severity\":\"ERROR\",\"message\":\"Error\",\"timestamp\":\"2006-12-12T12:12:12\",\"user\":null},"
-                            + "{\"id\":8,\"severity\":\"ERROR\",\"message\":\"Test\",\"timestamp\":\"2007-12-12T12:12:12\",\"user\":null},"
-                            + "{\"id\":9,\"severity\":\"TRACE\",\"message\":\"Trace\",\"timestamp\":\"2008-12-12T12:12:12\",\"user\":null},"
-                            + "{\"id\":10,\"severity\":\"TRACE\",\"message\":\"Test\",\"timestamp\":\"2009-12-12T12:12:12\",\"user\":null}],"
-                            + "\"returnMessage\":\"Entry with the ID 2 was deleted from database.\"}",
+                    "{\"result\":[{\"id\":" + logIds[1] + ",\"severity\":\"INFO\",\"message\":\"Test\",\"timestamp\":\"2000-12-12T12:12:12\",\"user\":null},"
+                            + "{\"id\":" + logIds[3] + ",\"severity\":\"WARNING\",\"message\":\"Warning\",\"timestamp\":\"2002-12-12T12:12:12\",\"user\":null},"
+                            + "{\"id\":" + logIds[4] + ",\"severity\":\"WARNING\",\"message\":\"Test\",\"timestamp\":\"2003-12-12T12:12:12\",\"user\":null},"
+                            + "{\"id\":" + logIds[5] + ",\"severity\":\"DEBUG\",\"message\":\"Debug\",\"timestamp\":\"2004-12-12T12:12:12\",\"user\":null},"
+                            + "{\"id\":" + logIds[6] + ",\"severity\":\"DEBUG\",\"message\":\"Test\",\"timestamp\":\"2005-12-12T12:12:12\",\"user\":null},"
+                            + "{\"id\":" + logIds[7] + ",\"severity\":\"ERROR\",\"message\":\"Error\",\"timestamp\":\"2006-12-12T12:12:12\",\"user\":null},"
+                            + "{\"id\":" + logIds[8] + ",\"severity\":\"ERROR\",\"message\":\"Test\",\"timestamp\":\"2007-12-12T12:12:12\",\"user\":null},"
+                            + "{\"id\":" + logIds[9] + ",\"severity\":\"TRACE\",\"message\":\"Trace\",\"timestamp\":\"2008-12-12T12:12:12\",\"user\":null},"
+                            + "{\"id\":" + logIds[10] + ",\"severity\":\"TRACE\",\"message\":\"Test\",\"timestamp\":\"2009-12-12T12:12:12\",\"user\":null}],"
+                            + "\"returnMessage\":\"Entry with the ID " + logIds[2] + " was deleted from database.\"}",
                     result.getResponse().getContentAsString());
         }
 
@@ -384,7 +594,9 @@ class LogControllerIT {
                     .andExpect(status().isOk())
                     .andReturn();
 
-            assertEquals(TestMessages.ENTRIES_DELETED, result.getResponse().getContentAsString());
+            assertEquals(
+                    String.format(InfoMessages.ENTRIES_DELETED_IDS, logIds[1] + ", " + logIds[2]),
+                    result.getResponse().getContentAsString());
         }
 
         @Test
@@ -398,6 +610,23 @@ class LogControllerIT {
             assertEquals(ErrorMessages.NO_ENTRIES_FOUND, result.getResponse().getContentAsString());
         }
 
+        @Test
+        void testDropLogPartitions() throws Exception {
+            MvcResult result = mockMvc
+                    .perform(delete("/logs/partitions").param("before", "2005-01-01"))
+                    .andDo(print())
+                    .andExpect(status().isOk())
+                    .andReturn();
+
+            assertEquals(
+                    String.format(InfoMessages.PARTITIONS_DROPPED, 5, "2005-01-01"),
+                    result.getResponse().getContentAsString());
+            mockMvc
+                    .perform(get("/logs"))
+                    .andExpect(jsonPath("$.result", hasSize(5)))
+                    .andExpect(jsonPath("$.result[0].id").value(logIds[6]));
+        }
+
         @Test
         void testDeleteAll() throws Exception {
             MvcResult result = mockMvc
@@ -1,21 +1,34 @@
 package project.userFeaturePortal.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import project.userFeaturePortal.common.dto.log.AddLogRequestDto;
 import project.userFeaturePortal.common.dto.log.GetLogsRequestDto;
+import project.userFeaturePortal.common.dto.log.LogBatchResponseDto;
 import project.userFeaturePortal.common.dto.log.LogRequestDto;
+import project.userFeaturePortal.common.dto.log.LogResponseDto;
+import project.userFeaturePortal.common.enums.LogStatsResolution;
+import project.userFeaturePortal.common.enums.LogTemplate;
 import project.userFeaturePortal.model.mapper.LogDTOMapper;
 import project.userFeaturePortal.service.model.LogService;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 /**
  * @author - EugenFriesen 14.02.2021
@@ -32,12 +45,42 @@ class LogControllerTest {
   @Mock
   LogDTOMapper logDTOMapper;
 
+  @Mock
+  ObjectMapper objectMapper;
+
   @Test
   void testGetLogs() {
     LocalDateTime startDate = LocalDateTime.of(2020, Month.JANUARY, 25, 15, 0, 0);
     LocalDateTime endDate = LocalDateTime.of(2020, Month.JANUARY, 25, 18, 0, 0);
-    systemUnderTest.getLogs("INFO", "Test", startDate, endDate, null);
-    verify(logService).getLogs(any(), any(), any(), any(), any());
+    systemUnderTest.getLogs("INFO", null, "Test", startDate, endDate, null, 10, null, null, null);
+    verify(logService).getLogs(GetLogsRequestDto.builder()
+            .severity("INFO")
+            .message("Test")
+            .startDateTime(startDate)
+            .endDateTime(endDate)
+            .limit(10)
+            .build());
+  }
+
+  @Test
+  void testStreamLogs() throws IOException {
+    StreamingResponseBody body = systemUnderTest.streamLogs("INFO", null, null, null, null, null, null, null).getBody();
+    body.writeTo(new ByteArrayOutputStream());
+    verify(logService).streamLogs(any(), any());
+  }
+
+  @Test
+  void testTailLogs() {
+    systemUnderTest.tailLogs("ERROR", null, null, null, null, "Hans");
+    verify(logService).tailLogs(GetLogsRequestDto.builder().severity("ERROR").user("Hans").build());
+  }
+
+  @Test
+  void testCountLogs() {
+    GetLogsRequestDto filter =
+        GetLogsRequestDto.builder().severity("ERROR").template(LogTemplate.USER_DELETED_ID).build();
+    when(logService.countLogs(filter)).thenReturn(3L);
+    assertEquals(3, systemUnderTest.countLogs("ERROR", null, null, null, null, null, LogTemplate.USER_DELETED_ID));
   }
 
   @Test
@@ -51,10 +94,22 @@ class LogControllerTest {
                 .getLogsRequest(GetLogsRequestDto.builder().build())
                 .user("Peter")
                 .build();
+    when(logService.getLogs(any())).thenReturn(new LogResponseDto(new ArrayList<>(), null));
     systemUnderTest.addLog(testDto);
     verify(logService).addLog(any());
   }
 
+  @Test
+  void testAddLogs() {
+    List<AddLogRequestDto> logs =
+        List.of(AddLogRequestDto.builder().message("Test").severity("INFO").user("Peter").build());
+    when(logService.addLogs(logs)).thenReturn(new LogBatchResponseDto(0, 1, new ArrayList<>()));
+    assertEquals(HttpStatus.MULTI_STATUS, systemUnderTest.addLogs(logs).getStatusCode());
+
+    when(logService.addLogs(logs)).thenReturn(new LogBatchResponseDto(1, 0, new ArrayList<>()));
+    assertEquals(HttpStatus.CREATED, systemUnderTest.addLogs(logs).getStatusCode());
+  }
+
   @Test
   void testGetLogsById() {
     systemUnderTest.getLogsByID(any());
@@ -65,8 +120,9 @@ class LogControllerTest {
   void testDeleteById() {
     LocalDateTime startDate = LocalDateTime.of(2020, Month.JANUARY, 25, 15, 0, 0);
     LocalDateTime endDate = LocalDateTime.of(2020, Month.JANUARY, 25, 18, 0, 0);
-    systemUnderTest.deleteLogsByID(1, "INFO", "Test", startDate, endDate, "Hans");
-    verify(logService).deleteById(1);
+    when(logService.getLogs(any())).thenReturn(new LogResponseDto(new ArrayList<>(), null));
+    systemUnderTest.deleteLogsByID(1L, "INFO", null, "Test", startDate, endDate, "Hans", null, null);
+    verify(logService).deleteById(1L);
   }
 
   @Test
@@ -75,8 +131,21 @@ class LogControllerTest {
     verify(logService).deleteBySeverity("INFO");
   }
 
+  @Test
+  void testGetLogInsights() {
+    systemUnderTest.getLogInsights(null, null, 5);
+    verify(logService).getInsights(null, null, 5);
+  }
+
+  @Test
+  void testGetLogStats() {
+    systemUnderTest.getLogStats("ERROR", "Hans", null, null, LogStatsResolution.DAY);
+    verify(logService).getStats("ERROR", "Hans", null, null, LogStatsResolution.DAY);
+  }
+
   @Test
   void testDeleteAll() {
+    when(logService.getLogs(any())).thenReturn(new LogResponseDto(new ArrayList<>(), null));
     systemUnderTest.deleteAll();
     verify(logService).deleteAll();
   }
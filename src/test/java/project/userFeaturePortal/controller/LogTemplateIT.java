@@ -0,0 +1,95 @@
+package project.userFeaturePortal.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.AutoConfigureDataJpa;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import project.userFeaturePortal.common.enums.LogTemplate;
+import project.userFeaturePortal.model.entity.Log;
+import project.userFeaturePortal.model.entity.User;
+import project.userFeaturePortal.model.repository.LogRepository;
+import project.userFeaturePortal.model.repository.UserRepository;
+
+import javax.transaction.Transactional;
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// the interned logs live in a database of their own, the other tests store full messages
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(LogController.class)
+@AutoConfigureDataJpa
+@ComponentScan(basePackages = { "project.userFeaturePortal" })
+@Transactional
+@TestPropertySource(locations = "/application-test.properties", properties = {
+        "log.templates.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:logTemplateIT;DB_CLOSE_DELAY=-1"})
+class LogTemplateIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LogRepository logRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void testInternedMessages() throws Exception {
+        createUser();
+        MvcResult result = mockMvc.perform(post("/logs/batch")
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .content("[{\"message\":\"User Hans was created.\",\"severity\":\"INFO\",\"user\":\"Petra\"},"
+                        + "{\"message\":\"User Hans was updated.\",\"severity\":\"INFO\",\"user\":\"Petra\"}]")
+                .accept(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        Long id = JsonPath.read(result.getResponse().getContentAsString(), "$.items[0].id");
+        Log log = logRepository.findById(id).orElseThrow();
+        assertEquals(LogTemplate.USER_CREATED, log.getTemplate());
+        assertEquals("Hans", log.getMessageArg1());
+        assertEquals("User Hans was created.", log.getMessage());
+
+        mockMvc.perform(get("/logs").param("template", "USER_CREATED"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result", hasSize(1)))
+                .andExpect(jsonPath("$.result[0].message").value("User Hans was created."));
+        // the filter spans the text of the template and its argument
+        mockMvc.perform(get("/logs/count").param("message", "User Hans was"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("2"));
+        // the text lies within the argument
+        mockMvc.perform(get("/logs/count").param("message", "ans"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("2"));
+    }
+
+    private void createUser() {
+        User petra =
+                User.builder()
+                        .id(1)
+                        .name("Petra")
+                        .birthdate(LocalDate.of(1999, 12, 13))
+                        .bmi(25.39)
+                        .weight(65)
+                        .height(1.60)
+                        .build();
+        userRepository.save(petra);
+    }
+}
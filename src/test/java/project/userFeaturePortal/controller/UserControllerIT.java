@@ -305,7 +305,7 @@ class UserControllerIT {
             if (userIsReferenced) {
                     logRepository.save(
                                     Log.builder()
-                                                    .id(1)
+                                                    .id(1L)
                                                     .user(userList.get(0))
                                                     .message("Test")
                                                     .severity("INFO")
@@ -381,7 +381,7 @@ class UserControllerIT {
             if (createLog) {
                     logRepository.save(
                                     Log.builder()
-                                                    .id(1)
+                                                    .id(1L)
                                                     .user(userList.get(0))
                                                     .message("Test")
                                                     .severity("INFO")
@@ -502,7 +502,7 @@ class UserControllerIT {
             void whenUserIsUsedSomewhereThenReturnCouldNotDelete() throws Exception {
                     logRepository.save(
                                     Log.builder()
-                                                    .id(1)
+                                                    .id(1L)
                                                     .user(userList.get(0))
                                                     .message("Test")
                                                     .severity("INFO")
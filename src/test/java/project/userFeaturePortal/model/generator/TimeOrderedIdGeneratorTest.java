@@ -0,0 +1,79 @@
+package project.userFeaturePortal.model.generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimeOrderedIdGeneratorTest {
+
+  static final LocalDateTime START = LocalDateTime.of(2021, 5, 21, 12, 0);
+
+  @Test
+  void testIdsAreOrderedByTimestamp() {
+    TimeOrderedIdGenerator systemUnderTest = new TimeOrderedIdGenerator(3);
+
+    long first = systemUnderTest.next(START);
+    long second = systemUnderTest.next(START);
+    long later = systemUnderTest.next(START.plusSeconds(1));
+
+    assertEquals(first + 1, second);
+    assertTrue(later > second);
+    assertTrue(first >= TimeOrderedIdGenerator.firstIdAt(START));
+    assertTrue(later >= TimeOrderedIdGenerator.firstIdAt(START.plusSeconds(1)));
+    assertEquals(START, TimeOrderedIdGenerator.timestampOf(first));
+    assertEquals(3, (first >>> TimeOrderedIdGenerator.SEQUENCE_BITS) & TimeOrderedIdGenerator.MAX_NODE);
+  }
+
+  @Test
+  void testIdsAscendWhenTheTimestampGoesBack() {
+    TimeOrderedIdGenerator systemUnderTest = new TimeOrderedIdGenerator(0);
+
+    long id = systemUnderTest.next(START);
+
+    assertTrue(systemUnderTest.next(START.minusHours(1)) > id);
+  }
+
+  @Test
+  void testFullSequenceContinuesInNextMillisecond() {
+    TimeOrderedIdGenerator systemUnderTest = new TimeOrderedIdGenerator(0);
+    long id = 0;
+    for (int i = 0; i < 1 << TimeOrderedIdGenerator.SEQUENCE_BITS; i++) {
+      id = systemUnderTest.next(START);
+    }
+    assertEquals(START, TimeOrderedIdGenerator.timestampOf(id));
+
+    long next = systemUnderTest.next(START);
+
+    assertTrue(next > id);
+    assertEquals(START.plusNanos(1_000_000), TimeOrderedIdGenerator.timestampOf(next));
+  }
+
+  @Test
+  void testAdvanceToSkipsTheMillisecondOfTheId() {
+    TimeOrderedIdGenerator systemUnderTest = new TimeOrderedIdGenerator(0);
+    long savedId = new TimeOrderedIdGenerator(7).next(START);
+
+    systemUnderTest.advanceTo(savedId);
+
+    assertTrue(systemUnderTest.next(START.minusDays(1)) > savedId);
+  }
+
+  @Test
+  void testIdsAreAboveIntegerIds() {
+    TimeOrderedIdGenerator systemUnderTest = new TimeOrderedIdGenerator(0);
+
+    assertTrue(systemUnderTest.next(LocalDateTime.of(1999, 1, 1, 0, 0)) > Integer.MAX_VALUE);
+    assertTrue(TimeOrderedIdGenerator.firstIdAt(TimeOrderedIdGenerator.EPOCH) > Integer.MAX_VALUE);
+  }
+
+  @Test
+  void testInvalidNode() {
+    assertThrows(IllegalArgumentException.class, () -> new TimeOrderedIdGenerator(-1));
+    assertThrows(IllegalArgumentException.class,
+        () -> new TimeOrderedIdGenerator(TimeOrderedIdGenerator.MAX_NODE + 1));
+  }
+}
@@ -0,0 +1,150 @@
+package project.userFeaturePortal.model.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import project.userFeaturePortal.common.dto.log.LogDTO;
+import project.userFeaturePortal.model.entity.Log;
+import project.userFeaturePortal.model.entity.User;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Asks the database for the plan of the statement generated for each filter combination and checks
+ * that the log table is not read by a full scan. Also checks the statements of the LogDTO queries.
+ */
+@DataJpaTest(properties =
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "project.userFeaturePortal.model.repository.LogRepositoryPlanTest$RecordingInspector")
+class LogRepositoryPlanTest {
+
+  private static final LocalDateTime START = LocalDateTime.of(2020, Month.JANUARY, 25, 15, 0, 0);
+  private static final LocalDateTime END = LocalDateTime.of(2020, Month.JANUARY, 26, 15, 0, 0);
+  // H2 may pick the index of the foreign key instead, which serves the user filter as well
+  private static final String USER_INDEX = "IDX_LOG_USER_TIMESTAMP|FK\\w+_INDEX";
+
+  @Autowired
+  LogRepository logRepository;
+
+  @Autowired
+  UserRepository userRepository;
+
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  TestEntityManager entityManager;
+
+  @BeforeEach
+  void init() {
+    RecordingInspector.STATEMENTS.clear();
+  }
+
+  private static Stream<Arguments> filters() {
+    return Stream.of(
+        Arguments.of("NoFilter", LogFilter.builder(), "IDX_LOG_TIMESTAMP_ID"),
+        // the start date bounds the time-ordered primary key as well
+        Arguments.of("TimeRange", LogFilter.builder().startDate(START).endDate(END), "PRIMARY_KEY"),
+        Arguments.of("Partitions", LogFilter.builder().firstPartition(20200125).lastPartition(20200126),
+            "IDX_LOG_PARTITION_DAY"),
+        Arguments.of("Severity", LogFilter.builder().severity("INFO"), "IDX_LOG_SEVERITY_TIMESTAMP"),
+        Arguments.of("SeverityAndTimeRange", LogFilter.builder().severity("INFO").startDate(START).endDate(END),
+            "IDX_LOG_SEVERITY_TIMESTAMP"),
+        Arguments.of("User", LogFilter.builder().user(new User()), USER_INDEX),
+        Arguments.of("UserAndTimeRange", LogFilter.builder().user(new User()).startDate(START).endDate(END),
+            USER_INDEX),
+        Arguments.of("Cursor", LogFilter.builder().cursorTimestamp(START).cursorId(7L), "IDX_LOG_TIMESTAMP_ID"),
+        Arguments.of("Ids", LogFilter.builder().ids(List.of(1L, 2L, 3L)), "PRIMARY_KEY"));
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("filters")
+  void testFilterUsesIndex(String name, LogFilter.LogFilterBuilder filter, String index) {
+    LogFilter logFilter = filter.build();
+    if (logFilter.getUser() != null) {
+      logFilter.setUser(savePetra());
+    }
+
+    try (Stream<?> logs = logRepository.streamLogs(logFilter)) {
+      logs.count();
+    }
+
+    assertUsesIndex(index);
+  }
+
+  @Test
+  void testCountUsesIndex() {
+    logRepository.countLogs(LogFilter.builder().user(savePetra()).build());
+    assertUsesIndex(USER_INDEX);
+  }
+
+  @Test
+  void testExistsUsesIndex() {
+    logRepository.existsLogs(LogFilter.builder().user(savePetra()).build());
+    assertUsesIndex(USER_INDEX);
+  }
+
+  @Test
+  void testDTOQueryLoadsNoEntity() {
+    User petra = savePetra();
+    logRepository.save(Log.builder().severity("ERROR").message("Test").timestamp(START).user(petra).build());
+    entityManager.flush();
+    entityManager.clear();
+    RecordingInspector.STATEMENTS.clear();
+
+    List<LogDTO> logs = logRepository.findLogDTOs(LogFilter.builder().build(), Pageable.unpaged());
+
+    assertEquals(1, logs.size());
+    assertEquals("ERROR", logs.get(0).getSeverity());
+    assertEquals("Petra", logs.get(0).getUser());
+    // neither the user nor its book is selected on its own
+    assertEquals(1, RecordingInspector.STATEMENTS.size(), RecordingInspector.STATEMENTS.toString());
+    assertFalse(entityManager.getEntityManager().contains(petra));
+  }
+
+  private User savePetra() {
+    return userRepository.save(
+        User.builder().name("Petra").birthdate(LocalDate.of(1999, 12, 13)).weight(65).height(1.60).build());
+  }
+
+  private void assertUsesIndex(String index) {
+    String sql = RecordingInspector.STATEMENTS.stream()
+        .filter(statement -> statement.contains(" from log "))
+        .findFirst()
+        .orElseThrow();
+    // the values do not change the plan, so all parameters are bound to null
+    Object[] parameters = new Object[(int) sql.chars().filter(c -> c == '?').count()];
+    String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, parameters));
+    assertTrue(Pattern.compile(index).matcher(plan.toUpperCase()).find(), plan);
+    assertFalse(plan.toUpperCase().contains("TABLESCAN"), plan);
+  }
+
+  public static class RecordingInspector implements StatementInspector {
+
+    static final List<String> STATEMENTS = new ArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+      STATEMENTS.add(sql);
+      return sql;
+    }
+  }
+}
@@ -0,0 +1,124 @@
+package project.userFeaturePortal.model.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import project.userFeaturePortal.common.dto.log.LogDTO;
+import project.userFeaturePortal.common.enums.LogTemplate;
+import project.userFeaturePortal.model.entity.Log;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+class LogTemplateStorageTest {
+
+  private static final LocalDateTime START = LocalDateTime.of(2021, 1, 1, 12, 0);
+
+  @Autowired
+  LogRepository logRepository;
+
+  @Autowired
+  TestEntityManager entityManager;
+
+  @Autowired
+  DataSource dataSource;
+
+  @Test
+  void testInternedLogIsStoredAsTemplate() {
+    Log log = Log.builder().severity("INFO").message("Hans logged in.").timestamp(START).build();
+    log.intern();
+    assertNull(log.getTemplate());
+
+    Log created = Log.builder().severity("INFO").message("User Hans was created.").timestamp(START).build();
+    created.intern();
+    logRepository.save(log);
+    logRepository.save(created);
+    entityManager.flush();
+    entityManager.clear();
+
+    Map<String, Object> row = new JdbcTemplate(dataSource)
+        .queryForMap("SELECT message, template, message_arg1 FROM log WHERE id = ?", created.getId());
+    assertNull(row.get("MESSAGE"));
+    assertEquals(LogTemplate.USER_CREATED.ordinal(), row.get("TEMPLATE"));
+    assertEquals("Hans", row.get("MESSAGE_ARG1"));
+
+    assertEquals(List.of("User Hans was created."),
+        messages(LogFilter.builder().template(LogTemplate.USER_CREATED).build()));
+    assertEquals(List.of("Hans logged in.", "User Hans was created."),
+        messages(LogFilter.builder().message("Hans").build()));
+    assertEquals(List.of("User Hans was created."), messages(LogFilter.builder().message("User Hans w").build()));
+    assertEquals(List.of("User Hans was created."), messages(LogFilter.builder().message("was created").build()));
+    assertEquals("User Hans was created.", logRepository.findById(created.getId()).orElseThrow().getMessage());
+  }
+
+  @Test
+  void testOnlyTemplatesOverlappingTheTextAreExpanded() {
+    // "User %s was created."
+    assertTrue(LogSpecifications.spansArgument(LogTemplate.USER_CREATED, "User Hans w"));
+    assertTrue(LogSpecifications.spansArgument(LogTemplate.USER_CREATED, "s was"));
+    assertFalse(LogSpecifications.spansArgument(LogTemplate.USER_CREATED, "Hans"));
+    assertFalse(LogSpecifications.spansArgument(LogTemplate.ALL_USERS_DELETED, "created"));
+
+    Log created = Log.builder().severity("INFO").message("User Hans was created.").timestamp(START).build();
+    created.intern();
+    logRepository.save(created);
+    entityManager.flush();
+    assertEquals(List.of("User Hans was created."), messages(LogFilter.builder().message("ans").build()));
+  }
+
+  // the script alters the table, which commits, so the test cleans up itself
+  @Test
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  void testMigrationInternsEveryTemplate() {
+    JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    try {
+      migrateEveryTemplate(jdbcTemplate);
+    } finally {
+      jdbcTemplate.update("DELETE FROM log");
+    }
+  }
+
+  private void migrateEveryTemplate(JdbcTemplate jdbcTemplate) {
+    long id = 1;
+    for (LogTemplate template : LogTemplate.values()) {
+      jdbcTemplate.update("INSERT INTO log (id, severity, message, timestamp) VALUES (?, 2, ?, ?)",
+          id++, template.expand("7", "Hans"), START);
+    }
+    jdbcTemplate.update("INSERT INTO log (id, severity, message, timestamp) VALUES (?, 2, 'Test', ?)", id, START);
+
+    new ResourceDatabasePopulator(new ClassPathResource("migrateLogTemplates.sql")).execute(dataSource);
+
+    List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+        "SELECT message, template, message_arg1, message_arg2 FROM log ORDER BY id");
+    for (LogTemplate template : LogTemplate.values()) {
+      Map<String, Object> row = rows.get(template.ordinal());
+      assertEquals(template.ordinal(), row.get("TEMPLATE"), template.name());
+      assertEquals(template.expand("7", "Hans"), LogTemplate.messageOf((String) row.get("MESSAGE"),
+          (Integer) row.get("TEMPLATE"), (String) row.get("MESSAGE_ARG1"), (String) row.get("MESSAGE_ARG2")));
+    }
+    assertEquals("Test", rows.get(rows.size() - 1).get("MESSAGE"));
+    assertNull(rows.get(rows.size() - 1).get("TEMPLATE"));
+  }
+
+  private List<String> messages(LogFilter filter) {
+    return logRepository.findLogDTOs(filter, Pageable.unpaged()).stream()
+        .map(LogDTO::getMessage)
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,140 @@
+package project.userFeaturePortal.service.log;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.userFeaturePortal.model.entity.Log;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class AsyncLogWriterTest {
+
+  DriverManagerDataSource dataSource;
+  DataSourceTransactionManager transactionManager;
+  JdbcTemplate jdbcTemplate;
+  SimpleMeterRegistry meterRegistry;
+  AsyncLogProperties properties;
+  LogChangeNotifier logChangeNotifier;
+
+  @BeforeEach
+  void init() {
+    dataSource = new DriverManagerDataSource("jdbc:h2:mem:asyncLogWriterTest;DB_CLOSE_DELAY=-1");
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    transactionManager = new DataSourceTransactionManager(dataSource);
+    jdbcTemplate.execute(
+        "CREATE TABLE log (id BIGINT PRIMARY KEY, severity TINYINT,"
+            + " message VARCHAR(250), template INT, message_arg1 VARCHAR(250), message_arg2 VARCHAR(250),"
+            + " timestamp TIMESTAMP, user INT, partition_day INT,"
+            + " repeat_count INT, last_timestamp TIMESTAMP)");
+    meterRegistry = new SimpleMeterRegistry();
+    logChangeNotifier = mock(LogChangeNotifier.class);
+    properties = new AsyncLogProperties();
+    properties.setEnabled(true);
+    properties.setFlushSize(10);
+    properties.setFlushInterval(Duration.ofMillis(20));
+  }
+
+  @AfterEach
+  void cleanUp() {
+    jdbcTemplate.execute("DROP TABLE log");
+  }
+
+  @Test
+  void testLogsAreWrittenInBatches() throws InterruptedException {
+    AsyncLogWriter systemUnderTest = createWriter();
+    systemUnderTest.start();
+    for (int i = 0; i < 25; i++) {
+      systemUnderTest.submit(createLog("Test " + i));
+    }
+    systemUnderTest.stop();
+
+    assertEquals(25, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM log", Integer.class));
+    assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM log WHERE partition_day IS NULL", Integer.class));
+    assertEquals(25, meterRegistry.counter("log.async.written").count());
+    assertEquals(0, systemUnderTest.getQueueDepth());
+    verify(logChangeNotifier, atLeastOnce()).logsWritten(argThat(logs -> logs.get(0).getId() != null));
+  }
+
+  @Test
+  void testFullBufferWritesSynchronously() {
+    properties.setCapacity(1);
+    properties.setOfferTimeout(Duration.ofMillis(1));
+    AsyncLogWriter systemUnderTest = createWriter();
+
+    // writer thread is not started, so the second log does not fit into the buffer anymore
+    systemUnderTest.submit(createLog("Queued"));
+    systemUnderTest.submit(createLog("Overflow"));
+
+    assertEquals(1, systemUnderTest.getQueueDepth());
+    assertEquals(1, meterRegistry.counter("log.async.overflow").count());
+    assertEquals(
+        "Overflow", jdbcTemplate.queryForObject("SELECT message FROM log", String.class));
+    verify(logChangeNotifier).logsWritten(argThat(logs -> logs.size() == 1 && logs.get(0).getId() != null));
+  }
+
+  @Test
+  void testOverflowAfterCommitIsPersisted() {
+    properties.setCapacity(1);
+    properties.setOfferTimeout(Duration.ofMillis(1));
+    AsyncLogWriter systemUnderTest = createWriter();
+    systemUnderTest.submit(createLog("Queued"));
+
+    // the overflow is written after the commit, while the connection of the caller is still bound
+    List<String> committed = new ArrayList<>();
+    new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+      jdbcTemplate.update("INSERT INTO log (id, severity, message) VALUES (1, 1, 'Caller')");
+      systemUnderTest.submit(createLog("Overflow"));
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          // another data source is not bound to the transaction, so it only sees committed rows
+          committed.addAll(new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:asyncLogWriterTest"))
+              .queryForList("SELECT message FROM log ORDER BY id", String.class));
+        }
+      });
+    });
+
+    assertEquals(1, meterRegistry.counter("log.async.overflow").count());
+    assertEquals(List.of("Caller", "Overflow"), committed);
+  }
+
+  @Test
+  void testDisabledWriter() {
+    properties.setEnabled(false);
+    AsyncLogWriter systemUnderTest = createWriter();
+    assertFalse(systemUnderTest.isEnabled());
+  }
+
+  private AsyncLogWriter createWriter() {
+    return new AsyncLogWriter(properties, new LogBatchInserter(dataSource), transactionManager, logChangeNotifier, new StaticListableBeanFactory(
+        Map.of("meterRegistry", meterRegistry)).getBeanProvider(MeterRegistry.class));
+  }
+
+  private Log createLog(String message) {
+    return Log.builder()
+        .severity("INFO")
+        .message(message)
+        .timestamp(LocalDateTime.of(2021, 1, 1, 12, 0))
+        .build();
+  }
+}
@@ -0,0 +1,115 @@
+package project.userFeaturePortal.service.log;
+
+import org.junit.jupiter.api.Test;
+import project.userFeaturePortal.model.generator.TimeOrderedIdGenerator;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdBitmapTest {
+
+  @Test
+  void testSparseValues() {
+    IdBitmap systemUnderTest = new IdBitmap();
+    systemUnderTest.add(70_000);
+    systemUnderTest.add(3);
+    systemUnderTest.add(65_535);
+    systemUnderTest.add(3);
+
+    assertEquals(3, systemUnderTest.cardinality());
+    assertTrue(systemUnderTest.contains(65_535));
+    assertFalse(systemUnderTest.contains(65_536));
+    assertArrayEquals(new int[] {3, 65_535, 70_000}, valuesOf(systemUnderTest));
+  }
+
+  @Test
+  void testDenseChunkSwitchesBetweenArrayAndBitmap() {
+    IdBitmap systemUnderTest = new IdBitmap();
+    for (int value = IdBitmap.ARRAY_LIMIT * 2; value >= 0; value -= 2) {
+      systemUnderTest.add(value);
+    }
+    assertEquals(IdBitmap.ARRAY_LIMIT + 1, systemUnderTest.cardinality());
+    assertTrue(systemUnderTest.contains(IdBitmap.ARRAY_LIMIT));
+    assertFalse(systemUnderTest.contains(IdBitmap.ARRAY_LIMIT + 1));
+
+    systemUnderTest.remove(0);
+    systemUnderTest.remove(2);
+    systemUnderTest.remove(1);
+    assertEquals(IdBitmap.ARRAY_LIMIT - 1, systemUnderTest.cardinality());
+    int[] values = valuesOf(systemUnderTest);
+    assertEquals(IdBitmap.ARRAY_LIMIT - 1, values.length);
+    assertEquals(4, values[0]);
+    assertEquals(IdBitmap.ARRAY_LIMIT * 2, values[values.length - 1]);
+  }
+
+  @Test
+  void testRemovingLastValueEmptiesChunk() {
+    IdBitmap systemUnderTest = new IdBitmap();
+    systemUnderTest.add(2);
+    systemUnderTest.add(100_000);
+    assertEquals(2, systemUnderTest.chunkCount());
+
+    systemUnderTest.remove(100_000);
+    systemUnderTest.remove(2);
+    assertEquals(0, systemUnderTest.cardinality());
+    assertEquals(0, systemUnderTest.chunkCount());
+  }
+
+  @Test
+  void testSnowflakeIdsOneMillisecondApart() {
+    // one log per millisecond, the lowest 22 bits of the ids are the same for all of them
+    TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(1);
+    LocalDateTime timestamp = LocalDateTime.of(2026, 3, 1, 12, 0);
+    IdOrdinals ordinals = new IdOrdinals();
+    IdBitmap systemUnderTest = new IdBitmap();
+    List<Long> ids = new ArrayList<>();
+    for (int i = 0; i < 10_000; i++) {
+      long id = generator.next(timestamp.plusNanos(i * 1_000_000L));
+      ids.add(id);
+      if (i % 3 == 0) {
+        systemUnderTest.add(ordinals.append(id));
+      } else {
+        ordinals.append(id);
+      }
+    }
+
+    assertEquals(3334, systemUnderTest.cardinality());
+    assertEquals(1, systemUnderTest.chunkCount());
+    assertTrue(systemUnderTest.contains(ordinals.ordinalOf(ids.get(9_999))));
+    assertFalse(systemUnderTest.contains(ordinals.ordinalOf(ids.get(9_998))));
+    int[] values = valuesOf(systemUnderTest);
+    assertEquals(ids.get(3), ordinals.idOf(values[1]));
+  }
+
+  @Test
+  void testSnowflakeIdsOfSeveralNodesInOneMillisecond() {
+    LocalDateTime timestamp = LocalDateTime.of(2026, 3, 1, 12, 0);
+    IdOrdinals ordinals = new IdOrdinals();
+    IdBitmap systemUnderTest = new IdBitmap();
+    for (int ms = 0; ms < 100; ms++) {
+      for (int node = 0; node < 100; node++) {
+        long id = TimeOrderedIdGenerator.firstIdAt(timestamp.plusNanos(ms * 1_000_000L)) | ((long) node << 12);
+        systemUnderTest.add(ordinals.append(id));
+      }
+    }
+
+    assertEquals(10_000, systemUnderTest.cardinality());
+    assertEquals(1, systemUnderTest.chunkCount());
+    assertEquals(-1, ordinals.ordinalOf(TimeOrderedIdGenerator.firstIdAt(timestamp) | 1));
+    assertEquals(100, ordinals.ceilingOrdinal(TimeOrderedIdGenerator.firstIdAt(timestamp.plusNanos(1_000_000))));
+    assertThrows(IllegalArgumentException.class, () -> ordinals.append(TimeOrderedIdGenerator.firstIdAt(timestamp)));
+  }
+
+  private static int[] valuesOf(IdBitmap bitmap) {
+    List<Integer> values = new ArrayList<>();
+    bitmap.forEach(values::add);
+    return values.stream().mapToInt(Integer::intValue).toArray();
+  }
+}
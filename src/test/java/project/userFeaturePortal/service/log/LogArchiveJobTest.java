@@ -0,0 +1,156 @@
+package project.userFeaturePortal.service.log;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import project.userFeaturePortal.common.dto.log.LogDTO;
+import project.userFeaturePortal.common.enums.LogTemplate;
+import project.userFeaturePortal.model.converter.SeverityConverter;
+import project.userFeaturePortal.model.entity.Log;
+import project.userFeaturePortal.model.repository.LogFilter;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class LogArchiveJobTest {
+
+  static final LocalDateTime NOW = LocalDateTime.of(2021, 6, 30, 12, 0);
+
+  @TempDir
+  Path directory;
+
+  DriverManagerDataSource dataSource;
+  JdbcTemplate jdbcTemplate;
+  SimpleMeterRegistry meterRegistry;
+  LogArchiveProperties properties;
+  LogArchiveStore logArchiveStore;
+  LogChangeNotifier logChangeNotifier;
+
+  @BeforeEach
+  void init() {
+    dataSource = new DriverManagerDataSource("jdbc:h2:mem:logArchiveJobTest;DB_CLOSE_DELAY=-1");
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.execute("CREATE TABLE user (id INT PRIMARY KEY, name VARCHAR(250))");
+    jdbcTemplate.execute(
+        "CREATE TABLE log (id INT AUTO_INCREMENT PRIMARY KEY, severity TINYINT,"
+            + " message VARCHAR(250), template INT, message_arg1 VARCHAR(250), message_arg2 VARCHAR(250),"
+            + " timestamp TIMESTAMP, user INT, partition_day INT,"
+            + " repeat_count INT, last_timestamp TIMESTAMP)");
+    jdbcTemplate.update("INSERT INTO user (id, name) VALUES (7, 'Hans')");
+    meterRegistry = new SimpleMeterRegistry();
+    properties = new LogArchiveProperties();
+    properties.setEnabled(true);
+    properties.setDirectory(directory.toString());
+    properties.setOlderThan(Duration.ofDays(30));
+    logArchiveStore = new LogArchiveStore(properties, meterRegistryProvider());
+    logChangeNotifier = mock(LogChangeNotifier.class);
+  }
+
+  @AfterEach
+  void cleanUp() {
+    logArchiveStore.close();
+    jdbcTemplate.execute("DROP TABLE log");
+    jdbcTemplate.execute("DROP TABLE user");
+  }
+
+  @Test
+  void testOldPartitionsAreMoved() {
+    insert("INFO", "Test", null, NOW.minusDays(40));
+    insert("ERROR", "Fehler", 7, NOW.minusDays(40).plusHours(1));
+    insert("INFO", "Test", 7, NOW.minusDays(31));
+    insert("INFO", "Test", null, NOW.minusDays(29));
+    jdbcTemplate.update(
+        "INSERT INTO log (severity, template, message_arg1, timestamp, partition_day) VALUES (?, ?, 'Hans', ?, ?)",
+        SeverityConverter.toCode("INFO"), LogTemplate.USER_CREATED.ordinal(), NOW.minusDays(35),
+        Log.partitionDayOf(NOW.minusDays(35).toLocalDate()));
+    jdbcTemplate.update("UPDATE log SET repeat_count = 3, last_timestamp = ? WHERE id = 1",
+        NOW.minusDays(40).plusSeconds(20));
+
+    long archived = createJob().archive(NOW);
+
+    assertEquals(4, archived);
+    assertEquals(List.of(4), jdbcTemplate.queryForList("SELECT id FROM log", Integer.class));
+    assertEquals(Set.of(20210521, 20210526, 20210530), logArchiveStore.getPartitions());
+    List<LogDTO> logs = logArchiveStore.findLogDTOs(LogFilter.builder().build(), Pageable.unpaged());
+    assertEquals(List.of(1L, 2L, 5L, 3L), logs.stream().map(LogDTO::getId).collect(Collectors.toList()));
+    assertEquals("Hans", logs.get(1).getUser());
+    assertEquals("ERROR", logs.get(1).getSeverity());
+    assertEquals("User Hans was created.", logs.get(2).getMessage());
+    assertEquals(3, logs.get(0).getRepeatCount());
+    assertEquals(NOW.minusDays(40).plusSeconds(20), logs.get(0).getLastTimestamp());
+    assertNull(logs.get(1).getRepeatCount());
+    assertEquals(4, meterRegistry.counter("log.archive.archived").count());
+    verify(logChangeNotifier).partitionsArchived(LocalDate.of(2021, 5, 31));
+  }
+
+  @Test
+  void testPartitionIsWrittenInBlocks() {
+    properties.setBlockSize(2);
+    for (int i = 0; i < 5; i++) {
+      insert("INFO", "Test", i % 2 == 0 ? 7 : null, NOW.minusDays(40).plusMinutes(5 - i));
+    }
+
+    assertEquals(5, createJob().archive(NOW));
+    assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM log", Integer.class));
+    List<LogDTO> logs = logArchiveStore.findLogDTOs(LogFilter.builder().build(), Pageable.unpaged());
+    assertEquals(List.of(5L, 4L, 3L, 2L, 1L), logs.stream().map(LogDTO::getId).collect(Collectors.toList()));
+    assertEquals(3, meterRegistry.counter("log.archive.blocks.read").count());
+    assertEquals("Hans", logs.get(0).getUser());
+  }
+
+  @Test
+  void testOnlyArchivedLogsAreDeleted() {
+    properties.setBlockSize(2);
+    for (int i = 0; i < 5; i++) {
+      insert("INFO", "Test", null, NOW.minusDays(40));
+    }
+
+    // log 2 was committed after the partition was read
+    assertEquals(4, createJob().deleteArchived(SortedLongSet.of(1, 3, 4, 5)));
+    assertEquals(List.of(2), jdbcTemplate.queryForList("SELECT id FROM log", Integer.class));
+  }
+
+  @Test
+  void testNothingToMove() {
+    insert("INFO", "Test", null, NOW.minusDays(1));
+
+    assertEquals(0, createJob().archive(NOW));
+    assertEquals(Set.of(), logArchiveStore.getPartitions());
+    verify(logChangeNotifier, never()).partitionsArchived(any());
+  }
+
+  private LogArchiveJob createJob() {
+    return new LogArchiveJob(properties, logArchiveStore, dataSource, logChangeNotifier, meterRegistryProvider());
+  }
+
+  private ObjectProvider<MeterRegistry> meterRegistryProvider() {
+    return new StaticListableBeanFactory(Map.of("meterRegistry", meterRegistry)).getBeanProvider(MeterRegistry.class);
+  }
+
+  private void insert(String severity, String message, Integer user, LocalDateTime timestamp) {
+    jdbcTemplate.update(
+        "INSERT INTO log (severity, message, timestamp, user, partition_day) VALUES (?, ?, ?, ?, ?)",
+        SeverityConverter.toCode(severity), message, timestamp, user, Log.partitionDayOf(timestamp.toLocalDate()));
+  }
+}
@@ -0,0 +1,201 @@
+package project.userFeaturePortal.service.log;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import project.userFeaturePortal.common.dto.log.LogDTO;
+import project.userFeaturePortal.common.enums.LogTemplate;
+import project.userFeaturePortal.common.enums.SeverityEnum;
+import project.userFeaturePortal.model.converter.SeverityConverter;
+import project.userFeaturePortal.model.entity.User;
+import project.userFeaturePortal.model.repository.LogFilter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogArchiveStoreTest {
+
+  private static final LocalDateTime START = LocalDateTime.of(2021, 1, 1, 0, 0);
+
+  @TempDir
+  Path directory;
+
+  LogArchiveProperties properties;
+  SimpleMeterRegistry meterRegistry;
+  User hans;
+  LogArchiveStore systemUnderTest;
+
+  @BeforeEach
+  void init() {
+    properties = new LogArchiveProperties();
+    properties.setEnabled(true);
+    properties.setDirectory(directory.toString());
+    properties.setBlockSize(10);
+    meterRegistry = new SimpleMeterRegistry();
+    hans = User.builder().id(7).name("Hans").build();
+    systemUnderTest = createStore();
+    // ids 1 - 48 on the first of January, 49 - 96 on the second, one log per half hour
+    systemUnderTest.archive(20210101, rows(1, 48));
+    systemUnderTest.archive(20210102, rows(49, 48));
+  }
+
+  @AfterEach
+  void cleanUp() {
+    systemUnderTest.close();
+  }
+
+  @Test
+  void testLogsAreReadInOrder() {
+    List<LogDTO> logs = systemUnderTest.findLogDTOs(LogFilter.builder().build(), Pageable.unpaged());
+
+    assertEquals(96, logs.size());
+    assertEquals(ids(1, 96), logs.stream().map(log -> log.getId().intValue()).collect(Collectors.toList()));
+    LogDTO log = logs.get(6);
+    assertEquals("ERROR", log.getSeverity());
+    assertEquals("User Hans7 was created.", log.getMessage());
+    assertEquals(START.plusHours(3), log.getTimestamp());
+    assertEquals("Hans", log.getUser());
+    assertEquals(Set.of(20210101, 20210102), systemUnderTest.getPartitions());
+  }
+
+  @Test
+  void testFilters() {
+    assertEquals(List.of(7, 14, 21), ids(LogFilter.builder().severity("ERROR").user(hans)
+        .startDate(START).endDate(START.plusHours(12)).build()));
+    assertEquals(List.of(1, 10, 11, 12, 13, 15), ids(LogFilter.builder().message("Test 1").build()).subList(0, 6));
+    assertEquals(96 / 7, ids(LogFilter.builder().template(LogTemplate.USER_CREATED).build()).size());
+    assertEquals(List.of(46, 47, 48, 49), ids(LogFilter.builder()
+        .startDate(START.plusHours(22)).endDate(START.plusHours(24).plusMinutes(1)).build()));
+    assertEquals(ids(49, 48), ids(LogFilter.builder().firstPartition(20210102).lastPartition(20210102).build()));
+    assertEquals(List.of(), ids(LogFilter.builder().user(User.builder().id(8).build()).build()));
+  }
+
+  @Test
+  void testCountLogs() {
+    assertEquals(3, systemUnderTest.countLogs(LogFilter.builder().severity("ERROR").user(hans)
+        .startDate(START).endDate(START.plusHours(12)).build()));
+    assertEquals(0, systemUnderTest.countLogs(LogFilter.builder().user(User.builder().id(8).build()).build()));
+  }
+
+  @Test
+  void testExistsLogs() {
+    assertTrue(systemUnderTest.existsLogs(LogFilter.builder().user(hans).build()));
+    assertFalse(systemUnderTest.existsLogs(LogFilter.builder().user(User.builder().id(8).build()).build()));
+  }
+
+  @Test
+  void testBlocksAreSkippedByStatistics() {
+    // the logs of the second hour are all in the first block of 10
+    List<Integer> ids = ids(LogFilter.builder().startDate(START.plusMinutes(59)).endDate(START.plusMinutes(121)).build());
+
+    assertEquals(List.of(3, 4, 5), ids);
+    // the file of the second day is not read at all
+    assertEquals(1, meterRegistry.counter("log.archive.blocks.read").count());
+    assertEquals(4, meterRegistry.counter("log.archive.blocks.skipped").count());
+
+    // no block has a FATAL log
+    assertEquals(List.of(), ids(LogFilter.builder().severity("FATAL").build()));
+    assertEquals(14, meterRegistry.counter("log.archive.blocks.skipped").count());
+    assertEquals(List.of(), ids(LogFilter.builder().minSeverity(SeverityEnum.FATAL).build()));
+    assertEquals(24, meterRegistry.counter("log.archive.blocks.skipped").count());
+    assertEquals(List.of(7, 14, 21), ids(LogFilter.builder().minSeverity(SeverityEnum.WARNING)
+        .endDate(START.plusHours(12)).build()));
+  }
+
+  @Test
+  void testCursorSeeksBehindLog() {
+    LogFilter filter = LogFilter.builder().cursorTimestamp(START.plusHours(23).plusMinutes(30)).cursorId(48L).build();
+
+    assertEquals(List.of(49L, 50L), systemUnderTest.findLogDTOs(filter, PageRequest.of(0, 2)).stream()
+        .map(LogDTO::getId)
+        .collect(Collectors.toList()));
+  }
+
+  @Test
+  void testArchivingAgainKeepsEveryLogOnce() {
+    List<LogArchiveFile.Row> lateRows = new ArrayList<>(rows(40, 9));
+    lateRows.add(new LogArchiveFile.Row(
+        100, LogSegmentStore.toKey(START.plusMinutes(45)), SeverityConverter.toCode("INFO"), "Late", null, null));
+
+    systemUnderTest.archive(20210101, lateRows);
+
+    List<Integer> ids = ids(LogFilter.builder().lastPartition(20210101).build());
+    assertEquals(49, ids.size());
+    assertEquals(List.of(1, 2, 100, 3), ids.subList(0, 4));
+  }
+
+  @Test
+  void testUncommittedPartitionIsDiscarded() throws IOException {
+    try (LogArchiveStore.PartitionWriter writer = systemUnderTest.openPartition(20210101)) {
+      writer.add(new LogArchiveFile.Row(
+          100, LogSegmentStore.toKey(START.plusMinutes(45)), SeverityConverter.toCode("INFO"), "Late", null, null));
+    }
+
+    assertEquals(ids(1, 96), ids(LogFilter.builder().build()));
+    try (Stream<Path> files = Files.list(directory)) {
+      assertEquals(0, files.filter(file -> file.toString().endsWith(".tmp")).count());
+    }
+  }
+
+  @Test
+  void testArchiveIsReopened() {
+    systemUnderTest.close();
+    systemUnderTest = createStore();
+    systemUnderTest.open();
+
+    assertEquals(ids(1, 96), ids(LogFilter.builder().build()));
+    assertEquals(List.of(7), ids(LogFilter.builder().user(hans).endDate(START.plusHours(4)).build()));
+  }
+
+  private LogArchiveStore createStore() {
+    return new LogArchiveStore(properties, new StaticListableBeanFactory(
+        Map.of("meterRegistry", meterRegistry)).getBeanProvider(MeterRegistry.class));
+  }
+
+  private List<Integer> ids(LogFilter filter) {
+    return systemUnderTest.findLogDTOs(filter, Pageable.unpaged()).stream()
+        .map(log -> log.getId().intValue())
+        .collect(Collectors.toList());
+  }
+
+  private static List<Integer> ids(int first, int count) {
+    List<Integer> ids = new ArrayList<>();
+    for (int id = first; id < first + count; id++) {
+      ids.add(id);
+    }
+    return ids;
+  }
+
+  private static List<LogArchiveFile.Row> rows(int firstId, int count) {
+    List<LogArchiveFile.Row> rows = new ArrayList<>();
+    for (int id = firstId; id < firstId + count; id++) {
+      boolean ofHans = id % 7 == 0;
+      rows.add(new LogArchiveFile.Row(
+          id,
+          LogSegmentStore.toKey(START.plusMinutes(30L * (id - 1))),
+          SeverityConverter.toCode(ofHans ? "ERROR" : "INFO"),
+          ofHans ? "User Hans" + id + " was created." : "Test " + id,
+          ofHans ? 7 : null,
+          ofHans ? "Hans" : null));
+    }
+    return rows;
+  }
+}
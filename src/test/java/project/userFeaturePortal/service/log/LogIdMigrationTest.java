@@ -0,0 +1,104 @@
+package project.userFeaturePortal.service.log;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import project.userFeaturePortal.model.generator.LogIdGenerator;
+import project.userFeaturePortal.model.generator.TimeOrderedIdGenerator;
+import project.userFeaturePortal.model.repository.LogRepository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LogIdMigrationTest {
+
+  static final LocalDateTime START = LocalDateTime.of(2021, 5, 21, 12, 0);
+
+  DriverManagerDataSource dataSource;
+  JdbcTemplate jdbcTemplate;
+  LogRepository logRepository;
+  LogIdProperties properties;
+
+  @BeforeEach
+  void init() {
+    dataSource = new DriverManagerDataSource("jdbc:h2:mem:logIdMigrationTest;DB_CLOSE_DELAY=-1");
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.execute(
+        "CREATE TABLE log (id INT AUTO_INCREMENT PRIMARY KEY, message VARCHAR(250), timestamp TIMESTAMP)");
+    logRepository = mock(LogRepository.class);
+    when(logRepository.findMaxId())
+        .thenAnswer(invocation -> jdbcTemplate.queryForObject("SELECT MAX(id) FROM log", Long.class));
+    properties = new LogIdProperties();
+    properties.setNode(5);
+    properties.setMigrationChunkSize(2);
+  }
+
+  @AfterEach
+  void cleanUp() {
+    jdbcTemplate.execute("DROP TABLE log");
+    LogIdGenerator.use(new TimeOrderedIdGenerator(0));
+  }
+
+  @Test
+  void testIntegerIdsAreRenumberedByTimestamp() {
+    insert("Third", START.plusHours(2));
+    insert("First", START);
+    insert("Second", START.plusHours(1));
+
+    createMigration().migrate();
+
+    assertEquals("BIGINT", jdbcTemplate.queryForObject(
+        "SELECT TYPE_NAME FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_NAME = 'LOG' AND COLUMN_NAME = 'ID'",
+        String.class));
+    assertEquals(List.of("First", "Second", "Third"),
+        jdbcTemplate.queryForList("SELECT message FROM log ORDER BY id", String.class));
+    List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM log ORDER BY id", Long.class);
+    assertEquals(START, TimeOrderedIdGenerator.timestampOf(ids.get(0)));
+    assertTrue(ids.get(0) >= TimeOrderedIdGenerator.firstIdAt(START));
+  }
+
+  @Test
+  void testGeneratorContinuesBehindHighestId() {
+    insert("Test", START);
+
+    createMigration().migrate();
+    createMigration().migrate();
+
+    long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM log", Long.class);
+    assertEquals(START, TimeOrderedIdGenerator.timestampOf(maxId));
+    assertTrue(LogIdGenerator.next(START.minusDays(1)) > maxId);
+  }
+
+  @Test
+  void testInterruptedMigrationContinuesBehindMigratedIds() {
+    insert("Second", START);
+    // the first log of the millisecond was renumbered before the interruption
+    jdbcTemplate.execute("ALTER TABLE log ALTER COLUMN id BIGINT");
+    long migratedId = new TimeOrderedIdGenerator(properties.getNode()).next(START);
+    jdbcTemplate.update("INSERT INTO log (id, message, timestamp) VALUES (?, 'First', ?)",
+        migratedId, Timestamp.valueOf(START));
+
+    createMigration().migrate();
+
+    assertEquals(List.of("First", "Second"),
+        jdbcTemplate.queryForList("SELECT message FROM log ORDER BY id", String.class));
+    assertEquals(migratedId, jdbcTemplate.queryForObject("SELECT MIN(id) FROM log", Long.class));
+  }
+
+  private LogIdMigration createMigration() {
+    return new LogIdMigration(properties, logRepository, dataSource, new DataSourceTransactionManager(dataSource));
+  }
+
+  private void insert(String message, LocalDateTime timestamp) {
+    jdbcTemplate.update("INSERT INTO log (message, timestamp) VALUES (?, ?)", message, Timestamp.valueOf(timestamp));
+  }
+}
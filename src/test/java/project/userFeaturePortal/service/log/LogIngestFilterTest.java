@@ -0,0 +1,194 @@
+package project.userFeaturePortal.service.log;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import project.userFeaturePortal.common.enums.LogIngestDecision;
+import project.userFeaturePortal.common.enums.LogStoreBackend;
+import project.userFeaturePortal.model.entity.Log;
+import project.userFeaturePortal.model.entity.User;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+class LogIngestFilterTest {
+
+  private static final LocalDateTime START = LocalDateTime.of(2021, 1, 1, 12, 0);
+
+  DriverManagerDataSource dataSource;
+  JdbcTemplate jdbcTemplate;
+  LogIngestProperties properties;
+  LogStoreProperties storeProperties;
+  SimpleMeterRegistry meterRegistry;
+  LogChangeNotifier logChangeNotifier;
+  LogIngestFilter systemUnderTest;
+  User hans;
+
+  @BeforeEach
+  void init() {
+    dataSource = new DriverManagerDataSource("jdbc:h2:mem:logIngestFilterTest;DB_CLOSE_DELAY=-1");
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.execute("CREATE TABLE log (id INT PRIMARY KEY, repeat_count INT, last_timestamp TIMESTAMP)");
+
+    properties = new LogIngestProperties();
+    properties.setCoalesceEnabled(true);
+    properties.setCoalesceWindow(Duration.ofSeconds(1));
+    storeProperties = new LogStoreProperties();
+    meterRegistry = new SimpleMeterRegistry();
+    logChangeNotifier = mock(LogChangeNotifier.class);
+    systemUnderTest = new LogIngestFilter(properties, storeProperties, dataSource, logChangeNotifier,
+        new StaticListableBeanFactory(Map.of("meterRegistry", meterRegistry)).getBeanProvider(MeterRegistry.class));
+    hans = User.builder().id(7).name("Hans").build();
+  }
+
+  @AfterEach
+  void cleanUp() {
+    jdbcTemplate.execute("DROP TABLE log");
+  }
+
+  @Test
+  void testBurstIsCoalescedIntoFirstLog() {
+    Log first = save(log(1L, "DEBUG", "Test", 0));
+    assertEquals(LogIngestDecision.COALESCED, systemUnderTest.accept(log(null, "DEBUG", "Test", 300)));
+    assertEquals(LogIngestDecision.COALESCED, systemUnderTest.accept(log(null, "DEBUG", "Test", 1000)));
+    // other message, severity or user
+    save(log(2L, "DEBUG", "Fehler", 500));
+    save(log(3L, "TRACE", "Test", 500));
+    Log withoutUser = log(null, "DEBUG", "Test", 500);
+    withoutUser.setUser(null);
+    assertEquals(LogIngestDecision.STORE, systemUnderTest.accept(withoutUser));
+    // not low severity
+    assertEquals(LogIngestDecision.STORE, systemUnderTest.accept(log(null, "INFO", "Test", 500)));
+
+    systemUnderTest.flush(START.plusNanos(900_000_000));
+    assertNull(jdbcTemplate.queryForObject("SELECT repeat_count FROM log WHERE id = 1", Integer.class));
+
+    systemUnderTest.flush(START.plusNanos(1_100_000_000));
+    assertEquals(3, jdbcTemplate.queryForObject("SELECT repeat_count FROM log WHERE id = 1", Integer.class));
+    assertEquals(START.plusSeconds(1), jdbcTemplate.queryForObject(
+        "SELECT last_timestamp FROM log WHERE id = 1", LocalDateTime.class));
+    assertEquals(3, first.getRepeatCount());
+    // single logs keep no count
+    assertNull(jdbcTemplate.queryForObject("SELECT repeat_count FROM log WHERE id = 2", Integer.class));
+    assertEquals(2, meterRegistry.counter("log.ingest.coalesced").count());
+    verify(logChangeNotifier).logRepeated(first, 2);
+    verifyNoMoreInteractions(logChangeNotifier);
+  }
+
+  @Test
+  void testLogAfterWindowStartsNewBurst() {
+    save(log(1L, "DEBUG", "Test", 0));
+    assertEquals(LogIngestDecision.COALESCED, systemUnderTest.accept(log(null, "DEBUG", "Test", 500)));
+    // the finished burst is written when the next one starts
+    save(log(2L, "DEBUG", "Test", 1500));
+    assertEquals(2, jdbcTemplate.queryForObject("SELECT repeat_count FROM log WHERE id = 1", Integer.class));
+    assertEquals(LogIngestDecision.COALESCED, systemUnderTest.accept(log(null, "DEBUG", "Test", 2000)));
+  }
+
+  @Test
+  void testUnsavedFirstLogIsWrittenLater() {
+    Log first = log(null, "DEBUG", "Test", 0);
+    assertEquals(LogIngestDecision.STORE, systemUnderTest.accept(first));
+    assertEquals(LogIngestDecision.COALESCED, systemUnderTest.accept(log(null, "DEBUG", "Test", 100)));
+    systemUnderTest.flush(START.plusSeconds(2));
+    // the listeners learn about the repetition once the first log is saved
+    verifyNoInteractions(logChangeNotifier);
+
+    // saved by the async writer in the meantime
+    first.setId(1L);
+    jdbcTemplate.update("INSERT INTO log (id) VALUES (1)");
+    systemUnderTest.flush(START.plusSeconds(3));
+    assertEquals(2, jdbcTemplate.queryForObject("SELECT repeat_count FROM log WHERE id = 1", Integer.class));
+    verify(logChangeNotifier).logRepeated(first, 1);
+  }
+
+  @Test
+  void testBurstStartsWhenFirstLogIsCommitted() {
+    TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    transactionTemplate.executeWithoutResult(status -> {
+      save(log(1L, "DEBUG", "Test", 0));
+      status.setRollbackOnly();
+    });
+    // nothing to coalesce into after the rollback
+    assertEquals(LogIngestDecision.STORE, systemUnderTest.accept(log(null, "DEBUG", "Test", 100)));
+
+    transactionTemplate.executeWithoutResult(status -> {
+      save(log(2L, "DEBUG", "Fehler", 0));
+      assertEquals(LogIngestDecision.STORE, systemUnderTest.accept(log(null, "DEBUG", "Fehler", 100)));
+    });
+    assertEquals(LogIngestDecision.COALESCED, systemUnderTest.accept(log(null, "DEBUG", "Fehler", 200)));
+  }
+
+  @Test
+  void testDeletedFirstLogIsNotRepeated() {
+    save(log(1L, "DEBUG", "Test", 0));
+    assertEquals(LogIngestDecision.COALESCED, systemUnderTest.accept(log(null, "DEBUG", "Test", 100)));
+    jdbcTemplate.update("DELETE FROM log");
+
+    systemUnderTest.flush(START.plusSeconds(2));
+    verifyNoInteractions(logChangeNotifier);
+  }
+
+  @Test
+  void testNoCoalescingWithSegments() {
+    storeProperties.setBackend(LogStoreBackend.SEGMENTS);
+    assertEquals(LogIngestDecision.STORE, systemUnderTest.accept(log(1L, "DEBUG", "Test", 0)));
+    assertEquals(LogIngestDecision.STORE, systemUnderTest.accept(log(2L, "DEBUG", "Test", 100)));
+  }
+
+  @Test
+  void testLowSeveritiesAreSampledAboveThreshold() {
+    properties.setCoalesceEnabled(false);
+    properties.setSamplingEnabled(true);
+    properties.setSamplingThreshold(10);
+    properties.setSamplingRate(0.0);
+
+    int stored = 0;
+    for (int i = 0; i < 30; i++) {
+      if (systemUnderTest.accept(log(null, "TRACE", "Test " + i, i)) == LogIngestDecision.STORE) {
+        stored++;
+      }
+    }
+    // warnings are never sampled
+    assertEquals(LogIngestDecision.STORE, systemUnderTest.accept(log(null, "WARNING", "Test", 30)));
+
+    assertEquals(10, stored);
+    assertEquals(20, meterRegistry.counter("log.ingest.sampled", "severity", "TRACE", "decision", "dropped").count());
+    assertEquals(0, meterRegistry.counter("log.ingest.sampled", "severity", "TRACE", "decision", "kept").count());
+
+    // the rate of the previous second still counts in the next one, after that it is below the threshold again
+    assertEquals(LogIngestDecision.SAMPLED_OUT, systemUnderTest.accept(log(null, "TRACE", "Test", 1500)));
+    assertEquals(LogIngestDecision.STORE, systemUnderTest.accept(log(null, "TRACE", "Test", 3000)));
+  }
+
+  private Log save(Log log) {
+    assertEquals(LogIngestDecision.STORE, systemUnderTest.accept(log));
+    jdbcTemplate.update("INSERT INTO log (id) VALUES (?)", log.getId());
+    return log;
+  }
+
+  private Log log(Long id, String severity, String message, long millis) {
+    return Log.builder()
+        .id(id)
+        .severity(severity)
+        .message(message)
+        .user(hans)
+        .timestamp(START.plusNanos(millis * 1_000_000))
+        .build();
+  }
+}
@@ -0,0 +1,181 @@
+package project.userFeaturePortal.service.log;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import project.userFeaturePortal.common.dto.log.LogInsightsDto;
+import project.userFeaturePortal.common.dto.log.LogMessageCountDto;
+import project.userFeaturePortal.common.enums.LogStoreBackend;
+import project.userFeaturePortal.common.enums.LogTemplate;
+import project.userFeaturePortal.model.converter.SeverityConverter;
+import project.userFeaturePortal.model.entity.Log;
+import project.userFeaturePortal.model.entity.User;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LogInsightsStoreTest {
+
+  static final LocalDateTime HOUR = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusHours(2);
+
+  @TempDir
+  Path directory;
+
+  DriverManagerDataSource dataSource;
+  JdbcTemplate jdbcTemplate;
+  LogInsightsProperties properties;
+  LogStoreProperties storeProperties;
+  LogSegmentStore logSegmentStore;
+  LogInsightsStore systemUnderTest;
+
+  @BeforeEach
+  void init() {
+    dataSource = new DriverManagerDataSource("jdbc:h2:mem:logInsightsStoreTest;DB_CLOSE_DELAY=-1");
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.execute(
+        "CREATE TABLE log (id INT AUTO_INCREMENT PRIMARY KEY, severity TINYINT, message VARCHAR(250),"
+            + " template INT, message_arg1 VARCHAR(250), message_arg2 VARCHAR(250), user INT, timestamp TIMESTAMP,"
+            + " repeat_count INT)");
+    insert("ERROR", "Fehler", 1, HOUR.plusMinutes(5));
+    insert("ERROR", "Fehler", 2, HOUR.plusMinutes(20));
+    insert("INFO", "Test", 1, HOUR.plusMinutes(20));
+    insert("INFO", "Test", null, HOUR.minusDays(3));
+    jdbcTemplate.update("INSERT INTO log (severity, template, message_arg1, user, timestamp) VALUES (?, ?, 'Hans', 1, ?)",
+        SeverityConverter.toCode("INFO"), LogTemplate.USER_CREATED.ordinal(), HOUR.plusMinutes(50));
+
+    properties = new LogInsightsProperties();
+    properties.setTopMessages(2);
+    storeProperties = new LogStoreProperties();
+    storeProperties.setDirectory(directory.toString());
+    logSegmentStore = new LogSegmentStore(storeProperties, null);
+    systemUnderTest = new LogInsightsStore(properties, logSegmentStore, dataSource);
+    systemUnderTest.build();
+  }
+
+  @AfterEach
+  void cleanUp() {
+    logSegmentStore.close();
+    jdbcTemplate.execute("DROP TABLE log");
+  }
+
+  @Test
+  void testInsightsOfTheTable() {
+    LogInsightsDto insights = systemUnderTest.getInsights(HOUR, HOUR.plusHours(1), null);
+
+    assertEquals(HOUR, insights.getStart());
+    assertEquals(HOUR.plusHours(1), insights.getEnd());
+    assertEquals(4, insights.getLogs());
+    assertEquals(List.of(new LogMessageCountDto("Fehler", 2), new LogMessageCountDto("Test", 1)),
+        insights.getTopMessages());
+    assertEquals(Map.of("ERROR", 2L, "INFO", 1L), insights.getDistinctUsers());
+    assertEquals(1, insights.getMessageCountError());
+    assertEquals(1 - Math.exp(-4), insights.getMessageCountConfidence());
+  }
+
+  @Test
+  void testOnlyBucketsOfTheRangeAreMerged() {
+    LogInsightsDto insights = systemUnderTest.getInsights(HOUR.plusMinutes(16), HOUR.plusMinutes(29), 1);
+
+    assertEquals(HOUR.plusMinutes(15), insights.getStart());
+    assertEquals(HOUR.plusMinutes(30), insights.getEnd());
+    assertEquals(2, insights.getLogs());
+    assertEquals(List.of(new LogMessageCountDto("Fehler", 1)), insights.getTopMessages());
+  }
+
+  @Test
+  void testAddedLogsReplaceLessFrequentTopMessages() {
+    List<Log> logs = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      logs.add(log("INFO", "User Hans was created.", 3, HOUR.plusMinutes(50)));
+    }
+    logs.add(log("INFO", "Test", 4, HOUR.plusMinutes(51)));
+    systemUnderTest.logsAdded(logs);
+
+    LogInsightsDto insights = systemUnderTest.getInsights(HOUR.plusMinutes(45), HOUR.plusMinutes(59), null);
+
+    // the bucket tracks only two messages, "Test" came in last with the lowest count
+    assertEquals(List.of(new LogMessageCountDto("User Hans was created.", 4), new LogMessageCountDto("Test", 1)),
+        insights.getTopMessages());
+    assertEquals(Map.of("INFO", 3L), insights.getDistinctUsers());
+  }
+
+  @Test
+  void testRepeatedLogsAreCounted() {
+    jdbcTemplate.update("INSERT INTO log (severity, message, user, timestamp, repeat_count) VALUES (?, ?, ?, ?, ?)",
+        SeverityConverter.toCode("DEBUG"), "Burst", 1, HOUR.plusMinutes(35), 5);
+    systemUnderTest.build();
+    Log log = log("DEBUG", "Burst", 1, HOUR.plusMinutes(40));
+    systemUnderTest.logsAdded(List.of(log));
+    systemUnderTest.logRepeated(log, 3);
+
+    LogInsightsDto insights = systemUnderTest.getInsights(HOUR.plusMinutes(30), HOUR.plusMinutes(44), null);
+
+    assertEquals(9, insights.getLogs());
+    assertEquals(List.of(new LogMessageCountDto("Burst", 9)), insights.getTopMessages());
+    assertEquals(Map.of("DEBUG", 1L), insights.getDistinctUsers());
+  }
+
+  @Test
+  void testOldLogsAreNotKept() {
+    systemUnderTest.logsAdded(List.of(log("INFO", "Test", null, HOUR.minusDays(2))));
+
+    assertEquals(0, systemUnderTest.getInsights(HOUR.minusDays(4), HOUR.minusDays(1), null).getLogs());
+  }
+
+  @Test
+  void testChangesBeforeTheBuildAreReplayed() {
+    LogInsightsStore store = new LogInsightsStore(properties, logSegmentStore, dataSource);
+    // log 1 is in the table already, log 100 was committed after the table was read
+    Log read = log("ERROR", "Fehler", 1, HOUR.plusMinutes(5));
+    read.setId(1L);
+    Log added = log("ERROR", "Neu", 3, HOUR.plusMinutes(6));
+    added.setId(100L);
+    store.logsAdded(List.of(read, added));
+    added.setRepeatCount(3);
+    store.logRepeated(added, 2);
+    store.build();
+
+    LogInsightsDto insights = store.getInsights(HOUR, HOUR.plusMinutes(14), null);
+
+    assertEquals(4, insights.getLogs());
+    assertEquals(List.of(new LogMessageCountDto("Neu", 3), new LogMessageCountDto("Fehler", 1)),
+        insights.getTopMessages());
+  }
+
+  @Test
+  void testLogsAreReadFromTheSegments() {
+    storeProperties.setBackend(LogStoreBackend.SEGMENTS);
+    logSegmentStore.open();
+    logSegmentStore.append(List.of(log("WARNING", "Segment", 5, HOUR.plusMinutes(10))));
+    systemUnderTest.build();
+
+    LogInsightsDto insights = systemUnderTest.getInsights(HOUR, HOUR.plusHours(1), null);
+
+    assertEquals(1, insights.getLogs());
+    assertEquals(List.of(new LogMessageCountDto("Segment", 1)), insights.getTopMessages());
+    assertEquals(Map.of("WARNING", 1L), insights.getDistinctUsers());
+  }
+
+  private void insert(String severity, String message, Integer user, LocalDateTime timestamp) {
+    jdbcTemplate.update("INSERT INTO log (severity, message, user, timestamp) VALUES (?, ?, ?, ?)",
+        SeverityConverter.toCode(severity), message, user, timestamp);
+  }
+
+  private static Log log(String severity, String message, Integer user, LocalDateTime timestamp) {
+    return Log.builder()
+        .severity(severity)
+        .message(message)
+        .user(user == null ? null : User.builder().id(user).build())
+        .timestamp(timestamp)
+        .build();
+  }
+}
@@ -0,0 +1,142 @@
+package project.userFeaturePortal.service.log;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import project.userFeaturePortal.common.enums.LogStoreBackend;
+import project.userFeaturePortal.model.entity.Log;
+import project.userFeaturePortal.model.generator.TimeOrderedIdGenerator;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LogMessageIndexTest {
+
+  JdbcTemplate jdbcTemplate;
+  LogMessageIndexProperties properties;
+  LogStoreProperties storeProperties;
+  LogMessageIndex systemUnderTest;
+
+  @BeforeEach
+  void init() {
+    DriverManagerDataSource dataSource =
+        new DriverManagerDataSource("jdbc:h2:mem:logMessageIndexTest;DB_CLOSE_DELAY=-1");
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.execute(
+        "CREATE TABLE log (id BIGINT AUTO_INCREMENT PRIMARY KEY, timestamp TIMESTAMP, message VARCHAR(250),"
+            + " template INT, message_arg1 VARCHAR(250), message_arg2 VARCHAR(250))");
+    insert("Book Harry Potter was added.");
+    insert("User Hans was created.");
+    insert("Book Harry Potter was deleted.");
+
+    properties = new LogMessageIndexProperties();
+    properties.setCatchUpInterval(Duration.ZERO);
+    storeProperties = new LogStoreProperties();
+    systemUnderTest = new LogMessageIndex(properties, storeProperties, dataSource);
+    systemUnderTest.build();
+  }
+
+  @AfterEach
+  void cleanUp() {
+    jdbcTemplate.execute("DROP TABLE log");
+  }
+
+  @Test
+  void testFindCandidates() {
+    assertArrayEquals(new long[] {1, 3}, systemUnderTest.findCandidates("harry").toArray());
+    assertArrayEquals(new long[] {2}, systemUnderTest.findCandidates("was cre").toArray());
+    assertArrayEquals(new long[] {}, systemUnderTest.findCandidates("Katze").toArray());
+  }
+
+  @Test
+  void testTooShortTextCannotBeLookedUp() {
+    assertNull(systemUnderTest.findCandidates("Ha"));
+    assertNull(systemUnderTest.findCandidatesForAllTerms(List.of("a", "be")));
+  }
+
+  @Test
+  void testFindCandidatesForAllTerms() {
+    assertArrayEquals(
+        new long[] {3}, systemUnderTest.findCandidatesForAllTerms(List.of("deleted", "potter", "a")).toArray());
+  }
+
+  @Test
+  void testLogsInsertedPastTheServicesAreFound() {
+    insert("Book Katze was added.");
+    assertArrayEquals(new long[] {4}, systemUnderTest.findCandidates("Katze").toArray());
+  }
+
+  @Test
+  void testCatchUpIsThrottled() {
+    properties.setCatchUpInterval(Duration.ofHours(1));
+    systemUnderTest.catchUp();
+    insert("Book Katze was added.");
+    assertArrayEquals(new long[] {}, systemUnderTest.findCandidates("Katze").toArray());
+
+    systemUnderTest.catchUp();
+    assertArrayEquals(new long[] {4}, systemUnderTest.findCandidates("Katze").toArray());
+  }
+
+  @Test
+  void testAddedLogsAreNotReadAgain() {
+    long id = TimeOrderedIdGenerator.firstIdAt(LocalDateTime.of(2026, 3, 1, 12, 0));
+    systemUnderTest.logsAdded(List.of(Log.builder().id(id).message("Book Katze was added.").build()));
+    // inserted past the services below the highest indexed id
+    insert(id - 1, LocalDateTime.of(2026, 3, 1, 11, 0), "Book Katze was deleted.");
+    assertArrayEquals(new long[] {id}, systemUnderTest.findCandidates("Katze").toArray());
+  }
+
+  @Test
+  void testDroppedDaysAreUnindexed() {
+    TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(1);
+    LocalDateTime firstDay = LocalDateTime.of(2026, 3, 1, 12, 0);
+    Log old = Log.builder().id(generator.next(firstDay)).timestamp(firstDay).message("Harry").build();
+    Log kept = Log.builder().id(generator.next(firstDay.plusDays(1))).timestamp(firstDay.plusDays(1)).message("Harry").build();
+    // sent late, its id is of the second day
+    Log late = Log.builder().id(generator.next(firstDay)).timestamp(firstDay).message("Harry").build();
+    systemUnderTest.logsAdded(List.of(old, kept, late));
+
+    systemUnderTest.partitionsDropped(LocalDate.of(2026, 3, 2));
+    assertArrayEquals(new long[] {kept.getId()}, systemUnderTest.findCandidates("Harry").toArray());
+    assertArrayEquals(new long[] {}, systemUnderTest.findCandidates("Book").toArray());
+  }
+
+  @Test
+  void testIncrementalUpdates() {
+    systemUnderTest.logsAdded(List.of(Log.builder().id(10L).message("Harry").build()));
+    systemUnderTest.logsDeleted(List.of(Log.builder().id(1L).message("Book Harry Potter was added.").build()));
+    assertArrayEquals(new long[] {3, 10}, systemUnderTest.findCandidates("Harry").toArray());
+
+    systemUnderTest.allLogsDeleted();
+    assertArrayEquals(new long[] {}, systemUnderTest.findCandidates("Harry").toArray());
+  }
+
+  @Test
+  void testDisabledIndex() {
+    properties.setEnabled(false);
+    assertNull(systemUnderTest.findCandidates("Harry"));
+  }
+
+  @Test
+  void testSegmentsBackend() {
+    // the segment logs are not in the table, so the index must not claim there are none
+    storeProperties.setBackend(LogStoreBackend.SEGMENTS);
+    assertNull(systemUnderTest.findCandidates("Harry"));
+    assertNull(systemUnderTest.findCandidatesForAllTerms(List.of("harry", "potter")));
+  }
+
+  private void insert(String message) {
+    jdbcTemplate.update("INSERT INTO log (message) VALUES (?)", message);
+  }
+
+  private void insert(long id, LocalDateTime timestamp, String message) {
+    jdbcTemplate.update("INSERT INTO log (id, timestamp, message) VALUES (?, ?, ?)", id, timestamp, message);
+  }
+}
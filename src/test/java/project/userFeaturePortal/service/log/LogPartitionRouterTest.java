@@ -0,0 +1,93 @@
+package project.userFeaturePortal.service.log;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import project.userFeaturePortal.common.dto.log.LogPartitionDto;
+import project.userFeaturePortal.model.repository.LogRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LogPartitionRouterTest {
+
+  @InjectMocks
+  LogPartitionRouter systemUnderTest;
+
+  @Mock
+  LogRepository logRepository;
+
+  @Mock
+  LogSegmentStore logSegmentStore;
+
+  @Mock
+  LogChangeNotifier logChangeNotifier;
+
+  @Test
+  void testPartitionsOfTimeRange() {
+    assertEquals(20210228, LogPartitionRouter.firstPartition(LocalDateTime.of(2021, Month.FEBRUARY, 28, 23, 59)));
+    assertEquals(20211201, LogPartitionRouter.lastPartition(LocalDateTime.of(2021, Month.DECEMBER, 1, 0, 0)));
+    assertNull(LogPartitionRouter.firstPartition(null));
+    assertNull(LogPartitionRouter.lastPartition(null));
+  }
+
+  @Test
+  void testGetPartitions() {
+    when(logRepository.countLogsByPartition()).thenReturn(Arrays.asList(partition(null, 1), partition(20211231, 3)));
+    assertEquals(
+        List.of(new LogPartitionDto(LocalDate.of(2021, Month.DECEMBER, 31), 3)),
+        systemUnderTest.getPartitions());
+  }
+
+  @Test
+  void testDropPartitionsBefore() {
+    LocalDate day = LocalDate.of(2021, Month.MARCH, 1);
+    when(logRepository.deleteLogsOfDaysBefore(20210301)).thenReturn(5);
+    assertEquals(5, systemUnderTest.dropPartitionsBefore(day));
+    verify(logChangeNotifier).partitionsDropped(day);
+  }
+
+  @Test
+  void testPartitionsOfSegments() {
+    LocalDate day = LocalDate.of(2021, Month.MARCH, 1);
+    when(logSegmentStore.isEnabled()).thenReturn(true);
+    when(logSegmentStore.countLogsByDay()).thenReturn(Map.of(day, 4L));
+    when(logSegmentStore.dropDaysBefore(day)).thenReturn(3);
+
+    assertEquals(List.of(new LogPartitionDto(day, 4)), systemUnderTest.getPartitions());
+    assertEquals(3, systemUnderTest.dropPartitionsBefore(day));
+    verify(logChangeNotifier).partitionsDropped(day);
+    verifyNoInteractions(logRepository);
+  }
+
+  @Test
+  void testDropNoPartitions() {
+    assertEquals(0, systemUnderTest.dropPartitionsBefore(LocalDate.of(2021, Month.MARCH, 1)));
+    verifyNoInteractions(logChangeNotifier);
+  }
+
+  private static LogRepository.LogPartition partition(Integer day, long logs) {
+    return new LogRepository.LogPartition() {
+      @Override
+      public Integer getDay() {
+        return day;
+      }
+
+      @Override
+      public Long getLogs() {
+        return logs;
+      }
+    };
+  }
+}
@@ -0,0 +1,166 @@
+package project.userFeaturePortal.service.log;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import project.userFeaturePortal.common.enums.SeverityEnum;
+import project.userFeaturePortal.model.converter.SeverityConverter;
+import project.userFeaturePortal.model.generator.TimeOrderedIdGenerator;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LogRetentionJobTest {
+
+  static final LocalDateTime NOW = LocalDateTime.of(2021, 6, 30, 12, 0);
+
+  DriverManagerDataSource dataSource;
+  JdbcTemplate jdbcTemplate;
+  SimpleMeterRegistry meterRegistry;
+  LogRetentionProperties properties;
+  LogPartitionRouter logPartitionRouter;
+  LogChangeNotifier logChangeNotifier;
+
+  @BeforeEach
+  void init() {
+    dataSource = new DriverManagerDataSource("jdbc:h2:mem:logRetentionJobTest;DB_CLOSE_DELAY=-1");
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.execute(
+        "CREATE TABLE log (id BIGINT AUTO_INCREMENT PRIMARY KEY, severity TINYINT,"
+            + " message VARCHAR(250), timestamp TIMESTAMP, user INT, partition_day INT,"
+            + " template INT, message_arg1 VARCHAR(250), message_arg2 VARCHAR(250),"
+            + " repeat_count INT, last_timestamp TIMESTAMP)");
+    meterRegistry = new SimpleMeterRegistry();
+    logPartitionRouter = mock(LogPartitionRouter.class);
+    logChangeNotifier = mock(LogChangeNotifier.class);
+    properties = new LogRetentionProperties();
+    properties.setChunkSize(2);
+  }
+
+  @AfterEach
+  void cleanUp() {
+    jdbcTemplate.execute("DROP TABLE log");
+  }
+
+  @Test
+  void testExpiredLogsArePurgedInChunks() {
+    insert("TRACE", NOW.minusDays(2));
+    insert("TRACE", NOW.minusHours(1));
+    insert("INFO", NOW.minusDays(31));
+    insert("INFO", NOW.minusDays(29));
+    insert("ERROR", NOW.minusDays(31));
+
+    LogPurgeReport report = createJob().purge(NOW);
+
+    assertEquals(2, report.getPurgedLogs());
+    assertEquals(
+        List.of(2, 4, 5), jdbcTemplate.queryForList("SELECT id FROM log ORDER BY id", Integer.class));
+    assertEquals(2, meterRegistry.counter("log.retention.purged").count());
+    assertEquals(1, meterRegistry.timer("log.retention.duration").count());
+    // one transaction per chunk containing expired logs
+    verify(logChangeNotifier, times(2)).logsDeleted(argThat(logs -> logs.size() == 1));
+  }
+
+  @Test
+  void testPurgedLogsKeepTheirRepeatCount() {
+    insert("TRACE", NOW.minusDays(2));
+    jdbcTemplate.update(
+        "UPDATE log SET repeat_count = 3, last_timestamp = ?", Timestamp.valueOf(NOW.minusDays(2).plusSeconds(5)));
+
+    assertEquals(1, createJob().purge(NOW).getPurgedLogs());
+    verify(logChangeNotifier).logsDeleted(argThat(logs -> logs.get(0).getRepeatCount() == 3
+        && logs.get(0).getLastTimestamp().equals(NOW.minusDays(2).plusSeconds(5))));
+  }
+
+  @Test
+  void testLateLogsBehindTheCutoffArePurged() {
+    long lateId = TimeOrderedIdGenerator.firstIdAt(NOW);
+    insert(lateId, "TRACE", NOW.minusDays(2), null);
+    insert(lateId + 1, "TRACE", NOW.minusHours(1), null);
+
+    assertEquals(1, createJob().purge(NOW).getPurgedLogs());
+    assertEquals(List.of(lateId + 1), jdbcTemplate.queryForList("SELECT id FROM log", Long.class));
+    verify(logChangeNotifier).logsDeleted(argThat(logs -> logs.get(0).getId() == lateId));
+  }
+
+  @Test
+  void testDaysPastEveryTtlAreDroppedAsPartitions() {
+    when(logPartitionRouter.isSegmentBacked()).thenReturn(true);
+    when(logPartitionRouter.dropPartitionsBefore(any())).thenReturn(7);
+    assertEquals(7, createJob().purge(NOW).getPurgedLogs());
+    verify(logPartitionRouter).dropPartitionsBefore(LocalDate.of(2020, 6, 30));
+  }
+
+  @Test
+  void testDaysPastEveryTtlAreDroppedFromTheTableInChunks() {
+    LocalDate firstKeptDay = LocalDate.of(2020, 6, 30);
+    for (int i = 0; i < 3; i++) {
+      insert(null, "FATAL", firstKeptDay.minusDays(1).atStartOfDay(), 20200629);
+    }
+    insert(null, "FATAL", firstKeptDay.atTime(18, 0), 20200630);
+    // sent late with the timestamp of a dropped day
+    insert(TimeOrderedIdGenerator.firstIdAt(NOW), "FATAL", firstKeptDay.minusDays(2).atStartOfDay(), 20200628);
+
+    assertEquals(4, createJob().purge(NOW).getPurgedLogs());
+    assertEquals(List.of(4L), jdbcTemplate.queryForList("SELECT id FROM log", Long.class));
+    verify(logChangeNotifier).partitionsDropped(firstKeptDay);
+    verify(logPartitionRouter, never()).dropPartitionsBefore(any());
+  }
+
+  @Test
+  void testSeverityWithoutTtlIsKept() {
+    properties.getTtl().put(SeverityEnum.TRACE, Duration.ZERO);
+    insert("TRACE", NOW.minusYears(10));
+
+    assertEquals(0, createJob().purge(NOW).getPurgedLogs());
+    verify(logPartitionRouter, never()).dropPartitionsBefore(any());
+  }
+
+  @Test
+  void testDisabledJob() {
+    insert("TRACE", NOW.minusYears(10));
+    createJob().run();
+    assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM log", Integer.class));
+  }
+
+  private LogRetentionJob createJob() {
+    return new LogRetentionJob(
+        properties,
+        dataSource,
+        new DataSourceTransactionManager(dataSource),
+        logPartitionRouter,
+        logChangeNotifier,
+        new StaticListableBeanFactory(Map.of("meterRegistry", meterRegistry)).getBeanProvider(MeterRegistry.class));
+  }
+
+  private void insert(Long id, String severity, LocalDateTime timestamp, Integer partitionDay) {
+    jdbcTemplate.update(
+        "INSERT INTO log (id, severity, message, timestamp, partition_day) VALUES (?, ?, ?, ?, ?)",
+        id, SeverityConverter.toCode(severity), "Test", Timestamp.valueOf(timestamp), partitionDay);
+  }
+
+  private void insert(String severity, LocalDateTime timestamp) {
+    jdbcTemplate.update(
+        "INSERT INTO log (severity, message, timestamp) VALUES (?, ?, ?)",
+        SeverityConverter.toCode(severity), "Test", Timestamp.valueOf(timestamp));
+  }
+}
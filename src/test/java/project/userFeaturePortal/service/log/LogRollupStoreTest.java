@@ -0,0 +1,227 @@
+package project.userFeaturePortal.service.log;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import project.userFeaturePortal.common.dto.log.LogStatsDto;
+import project.userFeaturePortal.common.enums.LogStatsResolution;
+import project.userFeaturePortal.common.enums.LogStoreBackend;
+import project.userFeaturePortal.model.converter.SeverityConverter;
+import project.userFeaturePortal.model.entity.Log;
+import project.userFeaturePortal.model.entity.User;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LogRollupStoreTest {
+
+  static final LocalDateTime HOUR = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusHours(1);
+
+  @TempDir
+  Path directory;
+
+  DriverManagerDataSource dataSource;
+  JdbcTemplate jdbcTemplate;
+  LogStoreProperties storeProperties;
+  LogSegmentStore logSegmentStore;
+  LogArchiveProperties archiveProperties;
+  LogArchiveStore logArchiveStore;
+  LogRollupStore systemUnderTest;
+
+  @BeforeEach
+  void init() {
+    dataSource = new DriverManagerDataSource("jdbc:h2:mem:logRollupStoreTest;DB_CLOSE_DELAY=-1");
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.execute(
+        "CREATE TABLE log (id INT AUTO_INCREMENT PRIMARY KEY, severity TINYINT, user INT, timestamp TIMESTAMP,"
+            + " repeat_count INT)");
+    insert("ERROR", 1, HOUR.plusMinutes(5));
+    insert("ERROR", 2, HOUR.plusMinutes(5));
+    insert("ERROR", 1, HOUR.plusMinutes(59));
+    insert("INFO", null, HOUR.plusMinutes(30));
+    insert("INFO", null, HOUR.minusDays(200));
+
+    storeProperties = new LogStoreProperties();
+    storeProperties.setDirectory(directory.resolve("segments").toString());
+    logSegmentStore = new LogSegmentStore(storeProperties, null);
+    archiveProperties = new LogArchiveProperties();
+    archiveProperties.setDirectory(directory.resolve("archive").toString());
+    logArchiveStore = new LogArchiveStore(archiveProperties,
+        new StaticListableBeanFactory(Map.of()).getBeanProvider(MeterRegistry.class));
+    systemUnderTest = createStore();
+    systemUnderTest.build();
+  }
+
+  @AfterEach
+  void cleanUp() {
+    logSegmentStore.close();
+    logArchiveStore.close();
+    jdbcTemplate.execute("DROP TABLE log");
+  }
+
+  @Test
+  void testStatsPerMinute() {
+    assertEquals(
+        List.of(
+            new LogStatsDto(HOUR.plusMinutes(5), "ERROR", 2),
+            new LogStatsDto(HOUR.plusMinutes(59), "ERROR", 1)),
+        systemUnderTest.getStats("ERROR", null, HOUR, null, LogStatsResolution.MINUTE));
+  }
+
+  @Test
+  void testStatsPerHourOfOneUser() {
+    assertEquals(
+        List.of(new LogStatsDto(HOUR, "ERROR", 2)),
+        systemUnderTest.getStats(null, 1, null, null, LogStatsResolution.HOUR));
+  }
+
+  @Test
+  void testOldLogsAreOnlyKeptPerDay() {
+    assertEquals(
+        List.of(new LogStatsDto(HOUR.minusDays(200).truncatedTo(ChronoUnit.DAYS), "INFO", 1)),
+        systemUnderTest.getStats("INFO", null, null, HOUR.minusDays(100), LogStatsResolution.DAY));
+    assertEquals(
+        List.of(new LogStatsDto(HOUR, "INFO", 1)),
+        systemUnderTest.getStats("INFO", null, null, null, LogStatsResolution.HOUR));
+  }
+
+  @Test
+  void testIncrementalUpdates() {
+    User user = User.builder().id(2).build();
+    systemUnderTest.logsAdded(List.of(Log.builder().severity("ERROR").user(user).timestamp(HOUR).build()));
+    systemUnderTest.logsDeleted(List.of(
+        Log.builder().severity("ERROR").user(user).timestamp(HOUR.plusMinutes(5)).build()));
+    assertEquals(
+        List.of(new LogStatsDto(HOUR, "ERROR", 1)),
+        systemUnderTest.getStats("ERROR", 2, null, null, LogStatsResolution.MINUTE));
+    assertEquals(
+        List.of(new LogStatsDto(HOUR, "ERROR", 3)),
+        systemUnderTest.getStats("ERROR", null, null, null, LogStatsResolution.HOUR));
+
+    systemUnderTest.partitionsDropped(HOUR.toLocalDate().plusDays(1));
+    assertEquals(List.of(), systemUnderTest.getStats(null, null, null, null, LogStatsResolution.DAY));
+  }
+
+  @Test
+  void testRepeatedLogsAreCounted() {
+    jdbcTemplate.update(
+        "INSERT INTO log (severity, user, timestamp, repeat_count) VALUES (?, ?, ?, ?)",
+        SeverityConverter.toCode("DEBUG"), 3, Timestamp.valueOf(HOUR.plusMinutes(10)), 4);
+    systemUnderTest.build();
+    Log log = Log.builder().severity("DEBUG").user(User.builder().id(3).build()).timestamp(HOUR.plusMinutes(20)).build();
+    systemUnderTest.logsAdded(List.of(log));
+    systemUnderTest.logRepeated(log, 2);
+    assertEquals(
+        List.of(new LogStatsDto(HOUR, "DEBUG", 7)),
+        systemUnderTest.getStats("DEBUG", 3, null, null, LogStatsResolution.HOUR));
+
+    log.setRepeatCount(3);
+    systemUnderTest.logsDeleted(List.of(log));
+    assertEquals(
+        List.of(new LogStatsDto(HOUR, "DEBUG", 4)),
+        systemUnderTest.getStats("DEBUG", 3, null, null, LogStatsResolution.HOUR));
+  }
+
+  @Test
+  void testChangesBeforeTheBuildAreReplayed() {
+    LogRollupStore store = createStore();
+    User hans = User.builder().id(1).build();
+    // log 1 is in the table already, log 100 was committed after the table was read
+    Log added = Log.builder().id(100L).severity("ERROR").user(hans).timestamp(HOUR.plusMinutes(5)).build();
+    store.logsAdded(List.of(
+        Log.builder().id(1L).severity("ERROR").user(hans).timestamp(HOUR.plusMinutes(5)).build(), added));
+    added.setRepeatCount(3);
+    store.logRepeated(added, 2);
+    // log 2 was read, log 200 was deleted before
+    store.logsDeleted(List.of(
+        Log.builder().id(2L).severity("ERROR").user(User.builder().id(2).build()).timestamp(HOUR.plusMinutes(5)).build(),
+        Log.builder().id(200L).severity("ERROR").user(hans).timestamp(HOUR.plusMinutes(5)).build()));
+    store.build();
+
+    assertEquals(
+        List.of(new LogStatsDto(HOUR.plusMinutes(5), "ERROR", 4)),
+        store.getStats("ERROR", null, HOUR, HOUR.plusMinutes(10), LogStatsResolution.MINUTE));
+
+    // after the build changes are applied at once
+    store.logsAdded(List.of(Log.builder().id(101L).severity("ERROR").user(hans).timestamp(HOUR.plusMinutes(5)).build()));
+    assertEquals(
+        List.of(new LogStatsDto(HOUR.plusMinutes(5), "ERROR", 5)),
+        store.getStats("ERROR", null, HOUR, HOUR.plusMinutes(10), LogStatsResolution.MINUTE));
+  }
+
+  @Test
+  void testRepetitionsReadByTheBuildAreNotAddedAgain() {
+    jdbcTemplate.update(
+        "INSERT INTO log (severity, user, timestamp, repeat_count) VALUES (?, ?, ?, ?)",
+        SeverityConverter.toCode("DEBUG"), 3, Timestamp.valueOf(HOUR.plusMinutes(10)), 4);
+    LogRollupStore store = createStore();
+    // the repeat count was raised from 2 to 4 and then to 6, the table was read in between
+    Log log = Log.builder().id(6L).severity("DEBUG").user(User.builder().id(3).build())
+        .timestamp(HOUR.plusMinutes(10)).repeatCount(4).build();
+    store.logRepeated(log, 2);
+    log.setRepeatCount(6);
+    store.logRepeated(log, 2);
+    store.build();
+
+    assertEquals(
+        List.of(new LogStatsDto(HOUR, "DEBUG", 6)),
+        store.getStats("DEBUG", 3, null, null, LogStatsResolution.HOUR));
+  }
+
+  @Test
+  void testArchivedLogsAreCounted() {
+    archiveProperties.setEnabled(true);
+    LocalDateTime archived = HOUR.minusDays(40);
+    int partitionDay = Log.partitionDayOf(archived.toLocalDate());
+    logArchiveStore.archive(partitionDay, List.of(
+        new LogArchiveFile.Row(50, LogSegmentStore.toKey(archived), SeverityConverter.toCode("WARNING"),
+            "Archived", 1, "Hans", 2, LogSegmentStore.toKey(archived.plusMinutes(1))),
+        new LogArchiveFile.Row(51, LogSegmentStore.toKey(archived), SeverityConverter.toCode("WARNING"),
+            "Archived", null, null)));
+    // the day is still in the table while it is archived
+    insert("WARNING", 1, archived);
+    systemUnderTest.build();
+
+    assertEquals(
+        List.of(new LogStatsDto(archived.truncatedTo(ChronoUnit.DAYS), "WARNING", 3)),
+        systemUnderTest.getStats("WARNING", null, null, null, LogStatsResolution.DAY));
+  }
+
+  @Test
+  void testLogsAreReadFromTheSegments() {
+    storeProperties.setBackend(LogStoreBackend.SEGMENTS);
+    logSegmentStore.open();
+    logSegmentStore.append(List.of(
+        Log.builder().severity("FATAL").message("Segment").timestamp(HOUR.plusMinutes(1)).build(),
+        Log.builder().severity("FATAL").message("Segment").user(User.builder().id(4).build())
+            .timestamp(HOUR.plusMinutes(2)).build()));
+    systemUnderTest.build();
+
+    assertEquals(
+        List.of(new LogStatsDto(HOUR, "FATAL", 1)),
+        systemUnderTest.getStats("FATAL", 4, null, null, LogStatsResolution.HOUR));
+    // the table is not read with the segment backend
+    assertEquals(List.of(), systemUnderTest.getStats("ERROR", null, null, null, LogStatsResolution.HOUR));
+  }
+
+  private LogRollupStore createStore() {
+    return new LogRollupStore(new LogStatsProperties(), logSegmentStore, logArchiveStore, dataSource);
+  }
+
+  private void insert(String severity, Integer user, LocalDateTime timestamp) {
+    jdbcTemplate.update(
+        "INSERT INTO log (severity, user, timestamp) VALUES (?, ?, ?)",
+        SeverityConverter.toCode(severity), user, Timestamp.valueOf(timestamp));
+  }
+}
@@ -0,0 +1,219 @@
+package project.userFeaturePortal.service.log;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.util.unit.DataSize;
+import project.userFeaturePortal.common.dto.log.LogDTO;
+import project.userFeaturePortal.common.enums.LogStoreBackend;
+import project.userFeaturePortal.common.enums.LogTemplate;
+import project.userFeaturePortal.model.entity.Log;
+import project.userFeaturePortal.model.entity.User;
+import project.userFeaturePortal.model.repository.LogFilter;
+import project.userFeaturePortal.model.repository.UserRepository;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LogSegmentStoreTest {
+
+  private static final LocalDateTime START = LocalDateTime.of(2021, 1, 1, 12, 0);
+
+  @TempDir
+  Path directory;
+
+  LogStoreProperties properties;
+  UserRepository userRepository;
+  User hans;
+  LogSegmentStore systemUnderTest;
+
+  @BeforeEach
+  void init() {
+    properties = new LogStoreProperties();
+    properties.setBackend(LogStoreBackend.SEGMENTS);
+    properties.setDirectory(directory.toString());
+    properties.setSegmentSize(DataSize.ofKilobytes(4));
+    properties.setIndexInterval(4);
+    hans = User.builder().id(7).name("Hans").build();
+    userRepository = mock(UserRepository.class);
+    when(userRepository.findById(7)).thenReturn(Optional.of(hans));
+    systemUnderTest = new LogSegmentStore(properties, userRepository);
+    systemUnderTest.open();
+  }
+
+  @AfterEach
+  void cleanUp() {
+    systemUnderTest.close();
+  }
+
+  @Test
+  void testAppendAssignsIdsAndRollsOver() throws Exception {
+    // about 50 bytes per log, so 200 logs need several 4 KB segments
+    systemUnderTest.append(logs(200));
+
+    assertEquals(200, systemUnderTest.findLogs(LogFilter.builder().build(), Pageable.unpaged()).size());
+    assertEquals(Long.valueOf(200), systemUnderTest.findById(200).getId());
+    assertEquals("Test 57", systemUnderTest.findById(58).getMessage());
+    assertNull(systemUnderTest.findById(201));
+    try (Stream<Path> files = Files.list(directory)) {
+      assertTrue(files.count() > 1);
+    }
+  }
+
+  @Test
+  void testFilters() {
+    List<Log> logs = logs(100);
+    logs.get(10).setSeverity("ERROR");
+    logs.get(20).setSeverity("ERROR");
+    logs.get(20).setUser(hans);
+    logs.get(30).setMessage("User Hans was created.");
+    systemUnderTest.append(logs);
+
+    assertEquals(List.of(11, 21), ids(LogFilter.builder().severity("ERROR").build()));
+    assertEquals(List.of(21), ids(LogFilter.builder().user(hans).build()));
+    assertEquals("Hans", systemUnderTest.findLogs(LogFilter.builder().user(hans).build(), Pageable.unpaged())
+        .get(0).getUser().getName());
+    assertEquals(List.of(7, 61, 62, 63, 64, 65, 66, 67, 68, 69, 70),
+        ids(LogFilter.builder().message("Test 6").build()));
+    assertEquals(List.of(3, 40), ids(LogFilter.builder().ids(List.of(40L, 3L, 500L)).build()));
+    assertEquals(List.of(31), ids(LogFilter.builder().template(LogTemplate.USER_CREATED).build()));
+    assertEquals(List.of(), ids(LogFilter.builder().severity("HALLO").build()));
+
+    List<LogDTO> errors = systemUnderTest.findLogDTOs(LogFilter.builder().severity("ERROR").build(), Pageable.unpaged());
+    assertEquals(List.of(
+        new LogDTO(11L, "ERROR", "Test 10", START.plusMinutes(10), null),
+        new LogDTO(21L, "ERROR", "Test 20", START.plusMinutes(20), "Hans")), errors);
+  }
+
+  @Test
+  void testCountAndExists() {
+    List<Log> logs = logs(100);
+    logs.get(20).setUser(hans);
+    logs.get(90).setTimestamp(START.minusMinutes(1));
+    systemUnderTest.append(logs);
+
+    assertEquals(100, systemUnderTest.countLogs(LogFilter.builder().build()));
+    assertEquals(11, systemUnderTest.countLogs(LogFilter.builder().message("Test 6").build()));
+    assertEquals(2, systemUnderTest.countLogs(LogFilter.builder().endDate(START.plusSeconds(1)).build()));
+    assertTrue(systemUnderTest.existsLogs(LogFilter.builder().user(hans).build()));
+    assertFalse(systemUnderTest.existsLogs(LogFilter.builder().severity("ERROR").build()));
+  }
+
+  @Test
+  void testTimeRangeAndCursor() {
+    systemUnderTest.append(logs(100));
+
+    // one log per minute, start and end are exclusive
+    assertEquals(List.of(32, 33, 34),
+        ids(LogFilter.builder().startDate(START.plusMinutes(30)).endDate(START.plusMinutes(34)).build()));
+    assertEquals(List.of(51, 52),
+        ids(LogFilter.builder().cursorTimestamp(START.plusMinutes(49)).cursorId(50L).build(), PageRequest.of(0, 2)));
+    assertEquals(List.of(), ids(LogFilter.builder().startDate(START.plusDays(1)).build()));
+  }
+
+  @Test
+  void testLogsAppendedOutOfOrderAreSorted() {
+    List<Log> logs = logs(20);
+    logs.get(15).setTimestamp(START.minusMinutes(1));
+    systemUnderTest.append(logs);
+
+    List<Integer> ids = ids(LogFilter.builder().build());
+    assertEquals(Integer.valueOf(16), ids.get(0));
+    assertEquals(List.of(1, 2, 3), ids.subList(1, 4));
+    assertEquals(List.of(16, 1),
+        ids(LogFilter.builder().endDate(START.plusSeconds(1)).build()));
+  }
+
+  @Test
+  void testReopenRecoversSegments() {
+    systemUnderTest.append(logs(150));
+    systemUnderTest.close();
+
+    systemUnderTest = new LogSegmentStore(properties, userRepository);
+    systemUnderTest.open();
+    assertEquals(150, systemUnderTest.findLogs(LogFilter.builder().build(), Pageable.unpaged()).size());
+    assertEquals(List.of(100),
+        ids(LogFilter.builder().startDate(START.plusMinutes(98)).endDate(START.plusMinutes(100)).build()));
+
+    List<Log> more = logs(1);
+    systemUnderTest.append(more);
+    assertEquals(Long.valueOf(151), more.get(0).getId());
+  }
+
+  @Test
+  void testDaysAreDroppedAsSegments() throws Exception {
+    properties.setSegmentSize(DataSize.ofKilobytes(64));
+    List<Log> logs = logs(5);
+    logs.get(2).setTimestamp(START.plusDays(1));
+    // appended late to the segment of the second day
+    logs.get(3).setTimestamp(START.minusHours(1));
+    logs.get(4).setTimestamp(START.plusDays(2));
+    systemUnderTest.append(logs);
+
+    assertEquals(Map.of(LocalDate.of(2021, 1, 1), 2L, LocalDate.of(2021, 1, 2), 2L, LocalDate.of(2021, 1, 3), 1L),
+        systemUnderTest.countLogsByDay());
+    assertEquals(2, systemUnderTest.dropDaysBefore(LocalDate.of(2021, 1, 2)));
+    assertEquals(List.of(4, 3, 5), ids(LogFilter.builder().build()));
+    // the current segment is kept
+    assertEquals(2, systemUnderTest.dropDaysBefore(LocalDate.of(2021, 1, 10)));
+    assertEquals(List.of(5), ids(LogFilter.builder().build()));
+    try (Stream<Path> files = Files.list(directory)) {
+      assertEquals(1, files.count());
+    }
+  }
+
+  @Test
+  void testStoreOutOfIds() throws Exception {
+    systemUnderTest.close();
+    Files.createFile(directory.resolve(String.format("segment-%010d.log", Integer.MAX_VALUE)));
+    systemUnderTest = new LogSegmentStore(properties, userRepository);
+    systemUnderTest.open();
+
+    assertThrows(IllegalStateException.class, () -> systemUnderTest.append(logs(1)));
+  }
+
+  @Test
+  void testDisabledStore() {
+    properties.setBackend(LogStoreBackend.TABLE);
+    assertFalse(systemUnderTest.isEnabled());
+  }
+
+  private List<Integer> ids(LogFilter filter) {
+    return ids(filter, Pageable.unpaged());
+  }
+
+  private List<Integer> ids(LogFilter filter, Pageable pageable) {
+    return systemUnderTest.findLogs(filter, pageable).stream().map(log -> log.getId().intValue()).collect(Collectors.toList());
+  }
+
+  private List<Log> logs(int count) {
+    List<Log> logs = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      logs.add(Log.builder()
+          .severity("INFO")
+          .message("Test " + i)
+          .timestamp(START.plusMinutes(i))
+          .build());
+    }
+    return logs;
+  }
+}
@@ -0,0 +1,159 @@
+package project.userFeaturePortal.service.log;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import project.userFeaturePortal.common.enums.LogStoreBackend;
+import project.userFeaturePortal.common.enums.SeverityEnum;
+import project.userFeaturePortal.model.converter.SeverityConverter;
+import project.userFeaturePortal.model.entity.Log;
+import project.userFeaturePortal.model.generator.TimeOrderedIdGenerator;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LogSeverityIndexTest {
+
+  JdbcTemplate jdbcTemplate;
+  LogSeverityIndexProperties properties;
+  LogStoreProperties storeProperties;
+  LogSeverityIndex systemUnderTest;
+
+  @BeforeEach
+  void init() {
+    DriverManagerDataSource dataSource =
+        new DriverManagerDataSource("jdbc:h2:mem:logSeverityIndexTest;DB_CLOSE_DELAY=-1");
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.execute("CREATE TABLE log (id BIGINT AUTO_INCREMENT PRIMARY KEY, timestamp TIMESTAMP, severity TINYINT)");
+    insert("INFO");
+    insert("ERROR");
+    insert("INFO");
+
+    properties = new LogSeverityIndexProperties();
+    properties.setCatchUpInterval(Duration.ZERO);
+    storeProperties = new LogStoreProperties();
+    systemUnderTest = new LogSeverityIndex(properties, storeProperties, dataSource);
+    systemUnderTest.build();
+  }
+
+  @AfterEach
+  void cleanUp() {
+    jdbcTemplate.execute("DROP TABLE log");
+  }
+
+  @Test
+  void testFindIds() {
+    assertArrayEquals(new long[] {1, 3}, systemUnderTest.findIds("INFO", null, 10).toArray());
+    assertArrayEquals(new long[] {}, systemUnderTest.findIds("Hallo", null, 10).toArray());
+    assertNull(systemUnderTest.findIds("INFO", null, 1));
+    assertNull(systemUnderTest.findIds(null, null, 10));
+  }
+
+  @Test
+  void testFilterAndCount() {
+    insert("ERROR");
+    assertArrayEquals(new long[] {2, 4}, systemUnderTest.filter(SortedLongSet.of(1, 2, 4), "ERROR", null).toArray());
+    assertEquals(2, systemUnderTest.count("ERROR", null));
+    assertEquals(0, systemUnderTest.count("FATAL", null));
+  }
+
+  @Test
+  void testMinSeverity() {
+    insert("FATAL");
+    insert("DEBUG");
+    assertArrayEquals(new long[] {2, 4}, systemUnderTest.findIds(null, SeverityEnum.WARNING, 10).toArray());
+    assertArrayEquals(new long[] {1, 2, 3, 4}, systemUnderTest.findIds(null, SeverityEnum.INFO, 10).toArray());
+    assertNull(systemUnderTest.findIds(null, SeverityEnum.INFO, 3));
+    assertArrayEquals(new long[] {}, systemUnderTest.findIds("INFO", SeverityEnum.ERROR, 10).toArray());
+    assertArrayEquals(new long[] {4}, systemUnderTest.filter(SortedLongSet.of(1, 4, 5), null, SeverityEnum.ERROR).toArray());
+    assertEquals(2, systemUnderTest.count(null, SeverityEnum.ERROR));
+    assertEquals(5, systemUnderTest.count(null, SeverityEnum.TRACE));
+  }
+
+  @Test
+  void testIncrementalUpdates() {
+    systemUnderTest.logsAdded(List.of(Log.builder().id(10L).severity("ERROR").build()));
+    systemUnderTest.logsDeleted(List.of(Log.builder().id(2L).severity("ERROR").build()));
+    assertArrayEquals(new long[] {10}, systemUnderTest.findIds("ERROR", null, 10).toArray());
+
+    systemUnderTest.allLogsDeleted();
+    assertEquals(0, systemUnderTest.count("INFO", null));
+  }
+
+  @Test
+  void testUnorderedSnowflakeIds() {
+    long first = TimeOrderedIdGenerator.firstIdAt(LocalDateTime.of(2026, 3, 1, 12, 0));
+    long later = first + (1000L << 22);
+    systemUnderTest.logsAdded(List.of(Log.builder().id(later).severity("ERROR").build()));
+    // committed after the later id
+    systemUnderTest.logsAdded(List.of(Log.builder().id(first).severity("ERROR").build()));
+    assertArrayEquals(new long[] {2, first, later}, systemUnderTest.findIds("ERROR", null, 10).toArray());
+    assertArrayEquals(new long[] {first}, systemUnderTest.filter(SortedLongSet.of(1, first), "ERROR", null).toArray());
+
+    systemUnderTest.logsDeleted(List.of(Log.builder().id(first).build()));
+    systemUnderTest.logsDeleted(List.of(Log.builder().id(2L).build()));
+    assertArrayEquals(new long[] {later}, systemUnderTest.findIds("ERROR", null, 10).toArray());
+    assertEquals(1, systemUnderTest.count("ERROR", null));
+    assertEquals(2, systemUnderTest.count("INFO", null));
+  }
+
+  @Test
+  void testManyUnorderedIdsRebuildOrdinals() {
+    long base = TimeOrderedIdGenerator.firstIdAt(LocalDateTime.of(2026, 3, 1, 12, 0));
+    systemUnderTest.logsAdded(List.of(Log.builder().id(base + (1L << 40)).severity("INFO").build()));
+    for (int i = 0; i <= LogSeverityIndex.MAX_UNORDERED_IDS; i++) {
+      systemUnderTest.logsAdded(List.of(Log.builder().id(base + ((long) i << 22)).severity("WARNING").build()));
+    }
+    systemUnderTest.rebuildIfDue();
+    assertEquals(LogSeverityIndex.MAX_UNORDERED_IDS + 1, systemUnderTest.count("WARNING", null));
+    assertEquals(3, systemUnderTest.count("INFO", null));
+    assertArrayEquals(new long[] {base, base + (1L << 22)},
+        systemUnderTest.filter(SortedLongSet.of(2, base, base + (1L << 22)), "WARNING", null).toArray());
+  }
+
+  @Test
+  void testDroppedDaysAreUnindexed() {
+    TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(1);
+    LocalDateTime firstDay = LocalDateTime.of(2026, 3, 1, 12, 0);
+    Log old = Log.builder().id(generator.next(firstDay)).timestamp(firstDay).severity("ERROR").build();
+    Log kept = Log.builder().id(generator.next(firstDay.plusDays(1))).timestamp(firstDay.plusDays(1)).severity("ERROR").build();
+    // sent late, its id is of the second day
+    Log late = Log.builder().id(generator.next(firstDay)).timestamp(firstDay).severity("FATAL").build();
+    systemUnderTest.logsAdded(List.of(old, kept, late));
+
+    systemUnderTest.partitionsDropped(LocalDate.of(2026, 3, 2));
+    assertArrayEquals(new long[] {kept.getId()}, systemUnderTest.findIds("ERROR", null, 10).toArray());
+    assertEquals(0, systemUnderTest.count("FATAL", null));
+    // the logs with the integer ids of the table are older than the day of any time-ordered id
+    assertEquals(0, systemUnderTest.count("INFO", null));
+  }
+
+  @Test
+  void testDisabledIndex() {
+    properties.setEnabled(false);
+    SortedLongSet candidates = SortedLongSet.of(1, 2);
+    assertEquals(candidates, systemUnderTest.filter(candidates, "INFO", null));
+    assertNull(systemUnderTest.count("INFO", null));
+  }
+
+  @Test
+  void testSegmentsBackend() {
+    storeProperties.setBackend(LogStoreBackend.SEGMENTS);
+    SortedLongSet candidates = SortedLongSet.of(1, 2);
+    assertNull(systemUnderTest.findIds("INFO", null, 10));
+    assertEquals(candidates, systemUnderTest.filter(candidates, "INFO", null));
+    assertNull(systemUnderTest.count("INFO", null));
+  }
+
+  private void insert(String severity) {
+    jdbcTemplate.update("INSERT INTO log (severity) VALUES (?)", SeverityConverter.toCode(severity));
+  }
+}
@@ -0,0 +1,76 @@
+package project.userFeaturePortal.service.log;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogSketchTest {
+
+  @Test
+  void testCountMinSketchNeverUnderestimates() {
+    CountMinSketch systemUnderTest = new CountMinSketch(256, 4);
+    for (int i = 0; i < 10_000; i++) {
+      systemUnderTest.add("Test " + i % 1000);
+    }
+    for (int i = 0; i < 500; i++) {
+      systemUnderTest.add("User Hans was created.");
+    }
+
+    assertEquals(10_500, systemUnderTest.getTotal());
+    long estimate = systemUnderTest.estimate("User Hans was created.");
+    assertTrue(estimate >= 500);
+    assertTrue(estimate <= 500 + CountMinSketch.relativeError(256) * 10_500, "estimate " + estimate);
+    for (int i = 0; i < 1000; i++) {
+      assertTrue(systemUnderTest.estimate("Test " + i) >= 10);
+    }
+  }
+
+  @Test
+  void testCountMinSketchesAreMerged() {
+    CountMinSketch first = new CountMinSketch(1024, 4);
+    CountMinSketch second = new CountMinSketch(1024, 4);
+    first.add("Test");
+    second.add("Test");
+    second.add("Fehler");
+
+    first.merge(second);
+
+    assertEquals(2, first.estimate("Test"));
+    assertEquals(1, first.estimate("Fehler"));
+    assertEquals(3, first.getTotal());
+    assertThrows(IllegalArgumentException.class, () -> first.merge(new CountMinSketch(512, 4)));
+  }
+
+  @Test
+  void testHyperLogLogKeepsToItsError() {
+    HyperLogLog systemUnderTest = new HyperLogLog(11);
+    for (int i = 0; i < 3; i++) {
+      for (long user = 1; user <= 100_000; user++) {
+        systemUnderTest.add(user);
+      }
+    }
+
+    // three standard errors
+    double error = 3 * HyperLogLog.standardError(11);
+    assertEquals(100_000, systemUnderTest.estimate(), 100_000 * error);
+  }
+
+  @Test
+  void testHyperLogLogCountsFewValuesExactly() {
+    HyperLogLog systemUnderTest = new HyperLogLog(11);
+    for (long user = 1; user <= 20; user++) {
+      systemUnderTest.add(user);
+      systemUnderTest.add(user);
+    }
+    assertEquals(20, systemUnderTest.estimate());
+
+    HyperLogLog other = new HyperLogLog(11);
+    for (long user = 11; user <= 30; user++) {
+      other.add(user);
+    }
+    systemUnderTest.merge(other);
+    assertEquals(30, systemUnderTest.estimate());
+  }
+}
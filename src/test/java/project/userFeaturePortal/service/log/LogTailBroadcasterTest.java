@@ -0,0 +1,299 @@
+package project.userFeaturePortal.service.log;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import project.userFeaturePortal.common.dto.log.GetLogsRequestDto;
+import project.userFeaturePortal.common.dto.log.LogDTO;
+import project.userFeaturePortal.common.enums.SeverityEnum;
+import project.userFeaturePortal.exception.TooManySubscribersException;
+import project.userFeaturePortal.model.entity.Log;
+import project.userFeaturePortal.model.entity.User;
+import project.userFeaturePortal.model.mapper.LogDTOMapper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LogTailBroadcasterTest {
+
+  LogTailProperties properties;
+  SimpleMeterRegistry meterRegistry;
+  LogDTOMapper logDTOMapper;
+  LogTailBroadcaster systemUnderTest;
+
+  @BeforeEach
+  void init() {
+    properties = new LogTailProperties();
+    properties.setMaxSubscribers(2);
+    properties.setBufferSize(3);
+    meterRegistry = new SimpleMeterRegistry();
+    logDTOMapper = mock(LogDTOMapper.class);
+    when(logDTOMapper.logToLogDTO(any())).thenReturn(new LogDTO());
+    systemUnderTest = new LogTailBroadcaster(properties, logDTOMapper, new StaticListableBeanFactory(
+        Map.of("meterRegistry", meterRegistry)).getBeanProvider(MeterRegistry.class));
+  }
+
+  @AfterEach
+  void cleanUp() {
+    systemUnderTest.stop();
+  }
+
+  @Test
+  void testMatchingLogsArePushed() throws InterruptedException {
+    RecordingEmitter errors = new RecordingEmitter(2);
+    RecordingEmitter hans = new RecordingEmitter(1);
+    systemUnderTest.subscribe(GetLogsRequestDto.builder().severity("ERROR").build(), errors);
+    systemUnderTest.subscribe(GetLogsRequestDto.builder().user("Hans").message("Test").build(), hans);
+
+    systemUnderTest.logsAdded(List.of(
+        log(1, "ERROR", "Test", null),
+        log(2, "INFO", "Test", "Hans"),
+        log(3, "error", "Fehler", "Hans")));
+
+    assertTrue(errors.await());
+    assertTrue(hans.await());
+    assertEquals(List.of("log:1", "log:3"), errors.getEvents());
+    assertEquals(List.of("log:2"), hans.getEvents());
+    assertEquals(2, meterRegistry.get("log.tail.subscribers").gauge().value());
+  }
+
+  @Test
+  void testLogsOfMinSeverityArePushed() throws InterruptedException {
+    RecordingEmitter warnings = new RecordingEmitter(2);
+    systemUnderTest.subscribe(GetLogsRequestDto.builder().minSeverity(SeverityEnum.WARNING).build(), warnings);
+
+    systemUnderTest.logsAdded(List.of(
+        log(1, "INFO", "Test", null),
+        log(2, "WARNING", "Test", null),
+        log(3, "DEBUG", "Test", null),
+        log(4, "FATAL", "Test", null)));
+
+    assertTrue(warnings.await());
+    assertEquals(List.of("log:2", "log:4"), warnings.getEvents());
+  }
+
+  @Test
+  void testRepeatedLogIsPushedAgain() throws InterruptedException {
+    RecordingEmitter all = new RecordingEmitter(2);
+    systemUnderTest.subscribe(GetLogsRequestDto.builder().severity("DEBUG").build(), all);
+
+    Log log = log(1, "DEBUG", "Test", null);
+    systemUnderTest.logsAdded(List.of(log));
+    log.setRepeatCount(3);
+    systemUnderTest.logRepeated(log, 2);
+    systemUnderTest.logRepeated(log(2, "INFO", "Test", null), 2);
+
+    assertTrue(all.await());
+    assertEquals(List.of("log:1", "repeated:1"), all.getEvents());
+  }
+
+  @Test
+  void testSlowSubscriberLosesOldestLogs() {
+    LogTailSubscription subscription = new LogTailSubscription(new SseEmitter(), log -> true, 3);
+    int dropped = 0;
+    for (int id = 1; id <= 5; id++) {
+      dropped += subscription.offer(LogTailBroadcaster.LOG_EVENT, log(id, "INFO", "Test", null));
+    }
+
+    assertEquals(2, dropped);
+    assertEquals(2, subscription.takeDropped());
+    assertEquals(0, subscription.takeDropped());
+    assertEquals(List.of(3L, 4L, 5L),
+        subscription.drain().stream().map(event -> event.getLog().getId()).collect(Collectors.toList()));
+    assertTrue(subscription.isEmpty());
+  }
+
+  @Test
+  void testTooManySubscribers() {
+    systemUnderTest.subscribe(GetLogsRequestDto.builder().build(), new SseEmitter());
+    systemUnderTest.subscribe(GetLogsRequestDto.builder().build(), new SseEmitter());
+    assertThrows(TooManySubscribersException.class,
+        () -> systemUnderTest.subscribe(GetLogsRequestDto.builder().build(), new SseEmitter()));
+  }
+
+  @Test
+  void testConcurrentSubscribersKeepTheLimit() throws InterruptedException {
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    CountDownLatch start = new CountDownLatch(1);
+    AtomicInteger rejected = new AtomicInteger();
+    for (int i = 0; i < 8; i++) {
+      executor.execute(() -> {
+        try {
+          start.await();
+          systemUnderTest.subscribe(GetLogsRequestDto.builder().build(), new SseEmitter());
+        } catch (TooManySubscribersException e) {
+          rejected.incrementAndGet();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      });
+    }
+    start.countDown();
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+    assertEquals(2, systemUnderTest.getSubscribers());
+    assertEquals(6, rejected.get());
+  }
+
+  @Test
+  void testDisconnectedSubscriberIsRemoved() throws InterruptedException {
+    RecordingEmitter closed = new RecordingEmitter(1) {
+      @Override
+      public void send(SseEventBuilder builder) throws IOException {
+        super.send(builder);
+        throw new IOException("Broken pipe");
+      }
+    };
+    systemUnderTest.subscribe(GetLogsRequestDto.builder().build(), closed);
+
+    systemUnderTest.logsAdded(List.of(log(1, "INFO", "Test", null)));
+
+    assertTrue(closed.await());
+    for (int i = 0; i < 100 && systemUnderTest.getSubscribers() > 0; i++) {
+      Thread.sleep(10);
+    }
+    assertEquals(0, systemUnderTest.getSubscribers());
+  }
+
+  @Test
+  void testHeartbeatsAreSentBySendersToIdleSubscribers() throws InterruptedException {
+    RecordingEmitter idle = new RecordingEmitter(1);
+    systemUnderTest.subscribe(GetLogsRequestDto.builder().build(), idle);
+
+    systemUnderTest.sendHeartbeats();
+
+    assertTrue(idle.await());
+    // a comment has neither name nor id
+    assertEquals(List.of("null:null"), idle.getEvents());
+    assertTrue(idle.getSendingThread().getName().startsWith("log-tail-sender"));
+  }
+
+  @Test
+  void testBlockedSubscriberIsRemoved() throws InterruptedException {
+    properties.setSendTimeout(Duration.ofMillis(10));
+    CountDownLatch blocked = new CountDownLatch(1);
+    CountDownLatch interrupted = new CountDownLatch(1);
+    CountDownLatch completed = new CountDownLatch(1);
+    SseEmitter slow = new SseEmitter() {
+      @Override
+      public void complete() {
+        completed.countDown();
+      }
+
+      @Override
+      public void send(SseEventBuilder builder) throws IOException {
+        blocked.countDown();
+        try {
+          new CountDownLatch(1).await();
+        } catch (InterruptedException e) {
+          interrupted.countDown();
+          throw new IOException("Write interrupted");
+        }
+      }
+    };
+    RecordingEmitter other = new RecordingEmitter(1);
+    systemUnderTest.subscribe(GetLogsRequestDto.builder().build(), slow);
+    systemUnderTest.subscribe(GetLogsRequestDto.builder().severity("ERROR").build(), other);
+    systemUnderTest.logsAdded(List.of(log(1, "INFO", "Test", null)));
+    assertTrue(blocked.await(5, TimeUnit.SECONDS));
+    Thread.sleep(20);
+
+    systemUnderTest.sendHeartbeats();
+
+    assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    assertTrue(completed.await(5, TimeUnit.SECONDS));
+    // the heartbeat of the other subscriber is not held up
+    assertTrue(other.await());
+    assertEquals(1, systemUnderTest.getSubscribers());
+    assertEquals(1, meterRegistry.get("log.tail.blocked").counter().count());
+    // the limit counts the removed subscriber no longer
+    systemUnderTest.subscribe(GetLogsRequestDto.builder().build(), new SseEmitter());
+  }
+
+  private static Log log(int id, String severity, String message, String user) {
+    return Log.builder()
+        .id((long) id)
+        .severity(severity)
+        .message(message)
+        .timestamp(LocalDateTime.of(2021, 1, 1, 12, 0))
+        .user(user == null ? null : User.builder().name(user).build())
+        .build();
+  }
+
+  /** Records the name and id of every event instead of writing it to a connection. */
+  static class RecordingEmitter extends SseEmitter {
+
+    private final List<String> events = new ArrayList<>();
+    private final CountDownLatch latch;
+    private volatile Thread sendingThread;
+
+    RecordingEmitter(int expectedEvents) {
+      latch = new CountDownLatch(expectedEvents);
+    }
+
+    @Override
+    public void send(SseEventBuilder builder) throws IOException {
+      String event = builder.build().stream()
+          .map(part -> String.valueOf(part.getData()))
+          .collect(Collectors.joining());
+      synchronized (events) {
+        events.add(name(event) + ":" + id(event));
+      }
+      sendingThread = Thread.currentThread();
+      latch.countDown();
+    }
+
+    boolean await() throws InterruptedException {
+      return latch.await(5, TimeUnit.SECONDS);
+    }
+
+    Thread getSendingThread() {
+      return sendingThread;
+    }
+
+    List<String> getEvents() {
+      synchronized (events) {
+        return new ArrayList<>(events);
+      }
+    }
+
+    private static String name(String event) {
+      return field(event, "event:");
+    }
+
+    private static String id(String event) {
+      return field(event, "id:");
+    }
+
+    private static String field(String event, String prefix) {
+      for (String line : event.split("\n")) {
+        if (line.startsWith(prefix)) {
+          return line.substring(prefix.length());
+        }
+      }
+      return null;
+    }
+  }
+}
@@ -86,7 +86,7 @@ public class BookServiceTest {
             .bmi(26.29)
             .favouriteBook(null)
             .build();
-    when(userValidationService.checkIfNameExists(anyString(), anyBoolean(), anyString())).thenReturn(user);
+    when(userValidationService.checkIfActorExists(anyString(), anyString())).thenReturn(user);
     assertEquals(InfoMessages.ALL_BOOKS_DELETED, bookService.deleteBooks("Peter"));
     verify(bookRepository).deleteAll();
   }
@@ -116,7 +116,7 @@ public class BookServiceTest {
             .bmi(26.29)
             .favouriteBook(null)
             .build();
-    when(userValidationService.checkIfNameExists(anyString(),anyBoolean(),anyString())).thenReturn(user);
+    when(userValidationService.checkIfActorExists(anyString(), anyString())).thenReturn(user);
     List<Book> testBooks = new ArrayList<>();
     testBooks.add(Book.builder().id(1).titel("TestBook").erscheinungsjahr(2002).build());
     when(bookRepository.findByTitel(anyString())).thenReturn(testBooks);
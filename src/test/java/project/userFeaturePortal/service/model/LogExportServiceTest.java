@@ -0,0 +1,169 @@
+package project.userFeaturePortal.service.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import project.userFeaturePortal.common.dto.log.GetLogsRequestDto;
+import project.userFeaturePortal.common.dto.log.LogDTO;
+import project.userFeaturePortal.common.dto.log.LogExportDto;
+import project.userFeaturePortal.common.dto.log.LogResponseDto;
+import project.userFeaturePortal.common.enums.LogExportFormat;
+import project.userFeaturePortal.common.enums.LogExportStatus;
+import project.userFeaturePortal.exception.LogExportNotFoundException;
+import project.userFeaturePortal.exception.LogExportNotReadyException;
+import project.userFeaturePortal.service.log.LogCursor;
+import project.userFeaturePortal.service.log.LogExportProperties;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LogExportServiceTest {
+
+  static final LocalDateTime START = LocalDateTime.of(2021, 5, 21, 12, 0);
+  static final LogDTO FIRST = new LogDTO(1L, "INFO", "Test, with comma", START, "Hans");
+  static final LogDTO SECOND = new LogDTO(2L, "ERROR", "Say \"Hi\"", START.plusSeconds(1), null);
+  static final LogDTO THIRD = new LogDTO(3L, "INFO", "Test", START.plusSeconds(2), "Hans");
+
+  @TempDir
+  Path directory;
+
+  LogService logService;
+  ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+  LogExportProperties properties;
+  LogExportService systemUnderTest;
+
+  @BeforeEach
+  void init() {
+    logService = mock(LogService.class);
+    // two chunks, the second one behind the cursor of the second log
+    when(logService.getLogs(any())).thenAnswer(invocation -> {
+      GetLogsRequestDto filter = invocation.getArgument(0);
+      if (filter.getCursor() == null) {
+        return new LogResponseDto(List.of(FIRST, SECOND), null, LogCursor.of(SECOND).encode());
+      }
+      return new LogResponseDto(List.of(THIRD), null);
+    });
+    properties = new LogExportProperties();
+    properties.setDirectory(directory.toString());
+    properties.setChunkSize(2);
+    systemUnderTest = new LogExportService(properties, logService, objectMapper,
+        new StaticListableBeanFactory(Map.of()).getBeanProvider(MeterRegistry.class));
+  }
+
+  @AfterEach
+  void cleanUp() {
+    systemUnderTest.close();
+  }
+
+  @Test
+  void testLogsAreExportedInChunks() throws Exception {
+    LogExportDto export = systemUnderTest.submit(GetLogsRequestDto.builder().severity("INFO").build(), LogExportFormat.CSV);
+    assertEquals(LogExportStatus.QUEUED, export.getStatus());
+
+    export = awaitFinished(export.getId());
+
+    assertEquals(LogExportStatus.DONE, export.getStatus());
+    assertEquals(3, export.getExportedLogs());
+    assertNotNull(export.getFinishedAt());
+    Path file = systemUnderTest.getExportFile(export.getId());
+    assertEquals(export.getFileSize(), Files.size(file));
+    assertEquals(LogExportService.CSV_HEADER
+            + "1,INFO,\"Test, with comma\",2021-05-21T12:00,Hans,,\n"
+            + "2,ERROR,\"Say \"\"Hi\"\"\",2021-05-21T12:00:01,,,\n"
+            + "3,INFO,Test,2021-05-21T12:00:02,Hans,,\n",
+        gunzip(file));
+    verify(logService).getLogs(argThat(filter -> "INFO".equals(filter.getSeverity())
+        && LogCursor.of(SECOND).encode().equals(filter.getCursor()) && filter.getLimit() == 2));
+  }
+
+  @Test
+  void testInterruptedExportIsResumed() throws Exception {
+    // the first chunk is checkpointed, the second one was cut off while it was written
+    LogExportJob job = LogExportJob.of("resumed", GetLogsRequestDto.builder().build(), LogExportFormat.NDJSON, START);
+    job.start();
+    Path file = directory.resolve("resumed.ndjson.gz");
+    Files.write(file, gzip(ndjson(FIRST) + ndjson(SECOND)));
+    job.advance(2, LogCursor.of(SECOND).encode(), Files.size(file));
+    Files.write(file, new byte[] {31, -117, 8, 0}, StandardOpenOption.APPEND);
+    objectMapper.writeValue(directory.resolve("resumed" + LogExportService.JOB_SUFFIX).toFile(), job);
+
+    systemUnderTest.resume();
+    LogExportDto export = awaitFinished("resumed");
+
+    assertEquals(LogExportStatus.DONE, export.getStatus());
+    assertEquals(3, export.getExportedLogs());
+    assertEquals(ndjson(FIRST) + ndjson(SECOND) + ndjson(THIRD), gunzip(file));
+    verify(logService, never()).getLogs(argThat(filter -> filter.getCursor() == null));
+  }
+
+  @Test
+  void testFailedExport() throws Exception {
+    doThrow(new IllegalStateException("Database is gone.")).when(logService).getLogs(any());
+
+    LogExportDto export = awaitFinished(systemUnderTest.submit(GetLogsRequestDto.builder().build(), null).getId());
+
+    assertEquals(LogExportStatus.FAILED, export.getStatus());
+    assertEquals(LogExportFormat.NDJSON, export.getFormat());
+    assertEquals("Database is gone.", export.getError());
+    assertThrows(LogExportNotReadyException.class, () -> systemUnderTest.getExportFile(export.getId()));
+  }
+
+  @Test
+  void testUnknownExport() {
+    assertThrows(LogExportNotFoundException.class, () -> systemUnderTest.getExport("unknown"));
+  }
+
+  private LogExportDto awaitFinished(String id) throws InterruptedException {
+    for (int i = 0; i < 500; i++) {
+      LogExportDto export = systemUnderTest.getExport(id);
+      if (export.getStatus() == LogExportStatus.DONE || export.getStatus() == LogExportStatus.FAILED) {
+        return export;
+      }
+      Thread.sleep(10);
+    }
+    throw new AssertionError("Log export " + id + " did not finish.");
+  }
+
+  private String ndjson(LogDTO log) throws IOException {
+    return objectMapper.writeValueAsString(log) + "\n";
+  }
+
+  private static byte[] gzip(String text) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+      gzip.write(text.getBytes(StandardCharsets.UTF_8));
+    }
+    return bytes.toByteArray();
+  }
+
+  private static String gunzip(Path file) throws IOException {
+    try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+}
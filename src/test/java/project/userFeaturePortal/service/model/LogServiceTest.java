@@ -5,19 +5,46 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import project.userFeaturePortal.common.dto.log.AddLogRequestDto;
+import project.userFeaturePortal.common.dto.log.GetLogsRequestDto;
+import project.userFeaturePortal.common.dto.log.LogBatchItemDto;
+import project.userFeaturePortal.common.dto.log.LogBatchResponseDto;
 import project.userFeaturePortal.common.dto.log.LogDTO;
 import project.userFeaturePortal.common.dto.log.LogMessageDto;
 import project.userFeaturePortal.common.dto.log.LogRequestDto;
+import project.userFeaturePortal.common.dto.log.LogResponseDto;
 import project.userFeaturePortal.common.message.ErrorMessages;
 import project.userFeaturePortal.common.message.InfoMessages;
+import project.userFeaturePortal.exception.LogsNotDeletableException;
+import project.userFeaturePortal.exception.ParameterNotPresentException;
+import project.userFeaturePortal.exception.SeverityNotFoundException;
+import project.userFeaturePortal.exception.UserNotAllowedException;
 import project.userFeaturePortal.model.entity.Log;
 import project.userFeaturePortal.model.entity.User;
-import project.userFeaturePortal.model.mapper.LogDTOMapper;
+import project.userFeaturePortal.model.repository.LogFilter;
 import project.userFeaturePortal.model.repository.LogRepository;
 import project.userFeaturePortal.model.repository.UserRepository;
+import project.userFeaturePortal.service.log.AsyncLogWriter;
+import project.userFeaturePortal.service.log.LogArchiveStore;
+import project.userFeaturePortal.service.log.LogBatchInserter;
+import project.userFeaturePortal.common.enums.LogIngestDecision;
+import project.userFeaturePortal.common.enums.LogSearchMode;
+import project.userFeaturePortal.common.enums.LogStatsResolution;
+import project.userFeaturePortal.common.enums.LogTemplate;
+import project.userFeaturePortal.service.log.LogChangeNotifier;
+import project.userFeaturePortal.service.log.LogIngestFilter;
+import project.userFeaturePortal.service.log.LogInsightsStore;
+import project.userFeaturePortal.service.log.LogCursor;
+import project.userFeaturePortal.service.log.LogMessageIndex;
+import project.userFeaturePortal.service.log.LogPartitionRouter;
+import project.userFeaturePortal.service.log.LogRollupStore;
+import project.userFeaturePortal.service.log.LogSegmentStore;
+import project.userFeaturePortal.service.log.LogTemplateProperties;
+import project.userFeaturePortal.service.log.LogSeverityIndex;
+import project.userFeaturePortal.service.log.SortedLongSet;
 import project.userFeaturePortal.service.validation.LogValidationService;
 import project.userFeaturePortal.service.validation.UserValidationService;
 
@@ -26,8 +53,13 @@ import java.time.LocalDateTime;
 import java.time.Month;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static project.userFeaturePortal.TestMessages.ENTRIES_DELETED;
@@ -51,10 +83,43 @@ class LogServiceTest {
   UserRepository userRepository;
 
   @Mock
-  LogDTOMapper logDTOMapper;
+  UserValidationService userValidationService;
 
   @Mock
-  UserValidationService userValidationService;
+  AsyncLogWriter asyncLogWriter;
+
+  @Mock
+  LogChangeNotifier logChangeNotifier;
+
+  @Mock
+  LogMessageIndex logMessageIndex;
+
+  @Mock
+  LogSeverityIndex logSeverityIndex;
+
+  @Mock
+  LogPartitionRouter logPartitionRouter;
+
+  @Mock
+  LogRollupStore logRollupStore;
+
+  @Mock
+  LogBatchInserter logBatchInserter;
+
+  @Mock
+  LogSegmentStore logSegmentStore;
+
+  @Mock
+  LogTemplateProperties logTemplateProperties;
+
+  @Mock
+  LogArchiveStore logArchiveStore;
+
+  @Mock
+  LogInsightsStore logInsightsStore;
+
+  @Mock
+  LogIngestFilter logIngestFilter;
 
   List<LogMessageDto> customLogMessageDto;
   List<User> users;
@@ -66,80 +131,500 @@ class LogServiceTest {
     customLogMessageDto = createCustomLogMessageDto();
     users = addTestUser();
     logRequestDtos = testLogRequestDto();
+    lenient().when(logIngestFilter.accept(any())).thenReturn(LogIngestDecision.STORE);
   }
 
   @Test
   void testGetLogs() {
-    when(logDTOMapper.logsToLogDTOs(logRepository.findLogs(any(), any(), any(), any(), any())))
-        .thenReturn(logs);
     LocalDateTime startDate = LocalDateTime.of(2020, Month.JANUARY, 25, 15, 0, 0);
     LocalDateTime endDate = LocalDateTime.of(2020, Month.JANUARY, 25, 18, 0, 0);
-    systemUnderTest.getLogs("WARNING", "Test", startDate, endDate, null);
-    verify(logDTOMapper).logsToLogDTOs(logRepository.findLogs(any(), any(), any(), any(), any()));
+    systemUnderTest.getLogs(GetLogsRequestDto.builder()
+            .severity("WARNING").message("Test").startDateTime(startDate).endDateTime(endDate).build());
+    verify(logRepository).findLogDTOs(LogFilter.builder()
+            .severity("WARNING").message("Test").startDate(startDate).endDate(endDate).build(),
+            PageRequest.of(0, LogService.DEFAULT_PAGE_SIZE + 1));
   }
 
   @Test
   void testSeverityIsFalseAtGetLogs() {
     LocalDateTime startDate = LocalDateTime.of(2020, Month.JANUARY, 25, 15, 0, 0);
     LocalDateTime endDate = LocalDateTime.of(2020, Month.JANUARY, 25, 18, 0, 0);
-    assertEquals(new ArrayList<>(), systemUnderTest.getLogs("Hallo", "Test", startDate, endDate, null));
+    assertEquals(new ArrayList<>(), systemUnderTest.getLogs(GetLogsRequestDto.builder()
+            .severity("Hallo").message("Test").startDateTime(startDate).endDateTime(endDate).build()).getResult());
+  }
+
+  @Test
+  void testGetLogsPage() {
+    List<LogDTO> page = new ArrayList<>();
+    for (int i = 1; i <= 3; i++) {
+      page.add(new LogDTO((long) i, "INFO", "Test", LocalDateTime.of(2020, Month.JANUARY, i, 12, 0, 0), null));
+    }
+    LogCursor cursor = new LogCursor(LocalDateTime.of(2019, Month.DECEMBER, 31, 12, 0, 0), 7L);
+    when(logRepository.findLogDTOs(any(), any())).thenReturn(page);
+
+    LogResponseDto response = systemUnderTest.getLogs(
+            GetLogsRequestDto.builder().limit(2).cursor(cursor.encode()).build());
+
+    verify(logRepository).findLogDTOs(
+            LogFilter.builder().cursorTimestamp(cursor.getTimestamp()).cursorId(7L).build(), PageRequest.of(0, 3));
+    assertEquals(page.subList(0, 2), response.getResult());
+    LogCursor nextCursor = LogCursor.decode(response.getNextCursor());
+    assertEquals(2, nextCursor.getId());
+    assertEquals(LocalDateTime.of(2020, Month.JANUARY, 2, 12, 0, 0), nextCursor.getTimestamp());
+  }
+
+  @Test
+  void testGetLogsByMessageIndex() {
+    when(logSeverityIndex.filter(any(), any(), any())).thenAnswer(invocation -> invocation.getArgument(0));
+    when(logMessageIndex.findCandidates("Test")).thenReturn(SortedLongSet.of(4, 9));
+    when(logMessageIndex.getMaxCandidates()).thenReturn(10);
+    systemUnderTest.getLogs(GetLogsRequestDto.builder().message("Test").build());
+    verify(logRepository).findLogDTOs(LogFilter.builder().message("Test").ids(List.of(4L, 9L)).build(),
+            PageRequest.of(0, LogService.DEFAULT_PAGE_SIZE + 1));
+  }
+
+  @Test
+  void testGetLogsBySeverityIndex() {
+    when(logMessageIndex.getMaxCandidates()).thenReturn(10);
+    when(logSeverityIndex.findIds("FATAL", null, 10)).thenReturn(SortedLongSet.of(3, 5));
+    systemUnderTest.getLogs(GetLogsRequestDto.builder().severity("FATAL").build());
+    verify(logRepository).findLogDTOs(LogFilter.builder().severity("FATAL").ids(List.of(3L, 5L)).build(),
+            PageRequest.of(0, LogService.DEFAULT_PAGE_SIZE + 1));
+  }
+
+  @Test
+  void testGetLogsWithoutIndexCandidates() {
+    when(logSeverityIndex.filter(any(), any(), any())).thenAnswer(invocation -> invocation.getArgument(0));
+    when(logMessageIndex.findCandidates("Test")).thenReturn(new SortedLongSet());
+    when(logMessageIndex.getMaxCandidates()).thenReturn(10);
+    systemUnderTest.getLogs(GetLogsRequestDto.builder().message("Test").build());
+    verifyNoInteractions(logRepository);
+  }
+
+  @Test
+  void testGetLogsWithTooManyIndexCandidates() {
+    when(logSeverityIndex.filter(any(), any(), any())).thenAnswer(invocation -> invocation.getArgument(0));
+    when(logMessageIndex.findCandidates("Test")).thenReturn(SortedLongSet.of(1, 2, 3));
+    when(logMessageIndex.getMaxCandidates()).thenReturn(2);
+    systemUnderTest.getLogs(GetLogsRequestDto.builder().message("Test").build());
+    verify(logRepository).findLogDTOs(LogFilter.builder().message("Test").build(),
+            PageRequest.of(0, LogService.DEFAULT_PAGE_SIZE + 1));
+  }
+
+  @Test
+  void testGetLogsMergesArchive() {
+    LogDTO archived1 = new LogDTO(1L, "INFO", "Test", LocalDateTime.of(2020, Month.JANUARY, 1, 12, 0, 0), null);
+    LogDTO archived2 = new LogDTO(3L, "INFO", "Test", LocalDateTime.of(2020, Month.JANUARY, 3, 12, 0, 0), null);
+    LogDTO hot1 = new LogDTO(2L, "INFO", "Test", LocalDateTime.of(2020, Month.JANUARY, 2, 12, 0, 0), null);
+    LogDTO hot2 = new LogDTO(4L, "INFO", "Test", LocalDateTime.of(2020, Month.JANUARY, 4, 12, 0, 0), null);
+    when(logArchiveStore.isEnabled()).thenReturn(true);
+    when(logArchiveStore.findLogDTOs(any(), any())).thenReturn(List.of(archived1, archived2));
+    // a log read while being moved to the archive is returned once
+    when(logRepository.findLogDTOs(any(), any())).thenReturn(List.of(hot1, archived2, hot2));
+
+    LogResponseDto response = systemUnderTest.getLogs(GetLogsRequestDto.builder().limit(3).build());
+
+    verify(logArchiveStore).findLogDTOs(LogFilter.builder().build(), PageRequest.of(0, 4));
+    assertEquals(List.of(archived1, hot1, archived2), response.getResult());
+    assertEquals(3, LogCursor.decode(response.getNextCursor()).getId());
+  }
+
+  @Test
+  void testGetLogsRankedByAllTerms() {
+    LogDTO exactMatch = new LogDTO(1L, "INFO", "Book Harry was added.",
+            LocalDateTime.of(2020, Month.JANUARY, 1, 12, 0, 0), null);
+    LogDTO longerMatch = new LogDTO(2L, "INFO", "Book Harry Potter and the Goblet of Fire was added.",
+            LocalDateTime.of(2020, Month.JANUARY, 2, 12, 0, 0), null);
+    LogDTO missingTerm = new LogDTO(3L, "INFO", "Book Harry was deleted.",
+            LocalDateTime.of(2020, Month.JANUARY, 3, 12, 0, 0), null);
+    when(logMessageIndex.findCandidatesForAllTerms(List.of("harry", "added")))
+            .thenReturn(SortedLongSet.of(1, 2, 3));
+    when(logSeverityIndex.filter(any(), any(), any())).thenAnswer(invocation -> invocation.getArgument(0));
+    when(logRepository.findLogDTOs(any(), any()))
+            .thenReturn(List.of(longerMatch, missingTerm, exactMatch));
+
+    LogResponseDto response = systemUnderTest.getLogs(GetLogsRequestDto.builder()
+            .message("Harry  ADDED").searchMode(LogSearchMode.ALL_TERMS).build());
+
+    verify(logRepository).findLogDTOs(LogFilter.builder().ids(List.of(1L, 2L, 3L)).build(), Pageable.unpaged());
+    assertEquals(List.of(exactMatch, longerMatch), response.getResult());
+  }
+
+  @Test
+  void testGetLastLogsPage() {
+    when(logRepository.findLogDTOs(any(), any())).thenReturn(new ArrayList<>());
+    assertNull(systemUnderTest.getLogs(GetLogsRequestDto.builder().limit(2).build()).getNextCursor());
+  }
+
+  @Test
+  void testStreamLogs() {
+    LogDTO first = new LogDTO(1L, "INFO", "Test", null, null);
+    LogDTO second = new LogDTO(2L, "INFO", "Test", null, null);
+    when(logRepository.streamLogDTOs(any()))
+        .thenReturn(Stream.of(first, second));
+
+    List<LogDTO> streamedLogs = new ArrayList<>();
+    systemUnderTest.streamLogs(GetLogsRequestDto.builder().severity("INFO").build(), streamedLogs::add);
+
+    assertEquals(List.of(first, second), streamedLogs);
+    verify(logRepository).streamLogDTOs(LogFilter.builder().severity("INFO").build());
+  }
+
+  @Test
+  void testStreamLogsWithLimit() {
+    when(logRepository.streamLogDTOs(any()))
+        .thenReturn(Stream.of(new LogDTO(), new LogDTO()));
+
+    List<LogDTO> streamedLogs = new ArrayList<>();
+    systemUnderTest.streamLogs(GetLogsRequestDto.builder().limit(1).build(), streamedLogs::add);
+
+    assertEquals(1, streamedLogs.size());
+  }
+
+  @Test
+  void testStreamLogsMergesArchive() {
+    LogDTO archived = new LogDTO(1L, "INFO", "Test", LocalDateTime.of(2020, Month.JANUARY, 1, 12, 0, 0), null);
+    LogDTO moved = new LogDTO(3L, "INFO", "Test", LocalDateTime.of(2020, Month.JANUARY, 3, 12, 0, 0), null);
+    LogDTO hot = new LogDTO(2L, "INFO", "Test", LocalDateTime.of(2020, Month.JANUARY, 2, 12, 0, 0), null);
+    when(logArchiveStore.isEnabled()).thenReturn(true);
+    when(logArchiveStore.streamLogDTOs(LogFilter.builder().build())).thenReturn(Stream.of(archived, moved));
+    // a log read while being moved to the archive is streamed once
+    when(logRepository.streamLogDTOs(LogFilter.builder().build())).thenReturn(Stream.of(hot, moved));
+
+    List<LogDTO> streamedLogs = new ArrayList<>();
+    systemUnderTest.streamLogs(GetLogsRequestDto.builder().build(), streamedLogs::add);
+
+    assertEquals(List.of(archived, hot, moved), streamedLogs);
+  }
+
+  @Test
+  void testCountLogsWithArchive() {
+    when(logArchiveStore.isEnabled()).thenReturn(true);
+    when(logArchiveStore.countLogs(LogFilter.builder().severity("ERROR").build())).thenReturn(3L);
+    when(logSeverityIndex.count("ERROR", null)).thenReturn(4L);
+
+    assertEquals(7, systemUnderTest.countLogs(GetLogsRequestDto.builder().severity("ERROR").build()));
+  }
+
+  @Test
+  void testCountLogs() {
+    when(userRepository.findUserByName("Peter")).thenReturn(users.get(0));
+    when(logRepository.countLogs(LogFilter.builder().message("Test").user(users.get(0)).build())).thenReturn(2L);
+
+    assertEquals(2, systemUnderTest.countLogs(GetLogsRequestDto.builder().message("Test").user("Peter").build()));
+  }
+
+  @Test
+  void testCountLogsBySeverityIndex() {
+    when(logSeverityIndex.count("ERROR", null)).thenReturn(4L);
+
+    assertEquals(4, systemUnderTest.countLogs(GetLogsRequestDto.builder().severity("ERROR").build()));
+    verify(logRepository, never()).countLogs(any());
+  }
+
+  @Test
+  void testCountLogsOfUnknownUser() {
+    assertEquals(0, systemUnderTest.countLogs(GetLogsRequestDto.builder().user("Heinrich").build()));
+    verify(logRepository, never()).countLogs(any());
   }
 
   @Test
   void testAddLog() {
     when(logValidationService.validateMessage(anyString())).thenReturn(customLogMessageDto.get(1));
-    when(userValidationService.checkIfNameExists(anyString(),anyBoolean(),anyString())).thenReturn(users.get(0));
+    when(userValidationService.checkIfActorExists(anyString(), anyString())).thenReturn(users.get(0));
     assertEquals("Message \"Banane\" saved as WARNING!",
             systemUnderTest.addLog(logRequestDtos.get(0)));
     verify(logRepository, times(1)).save(any());
+    verify(logChangeNotifier).logsAdded(any());
+  }
+
+  @Test
+  void testAddLogInternsMessage() {
+    when(logTemplateProperties.isEnabled()).thenReturn(true);
+    when(logValidationService.validateMessage(anyString()))
+        .thenAnswer(invocation -> LogMessageDto.builder().message(invocation.getArgument(0)).returnMessage("").build());
+    when(userValidationService.checkIfActorExists(anyString(), anyString())).thenReturn(users.get(0));
+    logRequestDtos.get(0).addLogRequest.setMessage("Book Harry added to user Hans.");
+
+    systemUnderTest.addLog(logRequestDtos.get(0));
+
+    verify(logRepository).save(argThat(log -> log.getTemplate() == LogTemplate.BOOK_BY_USER
+        && "Harry".equals(log.getMessageArg1())
+        && "Hans".equals(log.getMessageArg2())
+        && "Book Harry added to user Hans.".equals(log.getMessage())));
+  }
+
+  @Test
+  void testAddLogSavesRewrittenMessage() {
+    when(logValidationService.validateMessage(anyString())).thenReturn(customLogMessageDto.get(0));
+    when(userValidationService.checkIfActorExists(anyString(), anyString())).thenReturn(users.get(0));
+
+    systemUnderTest.addLog(logRequestDtos.get(0));
+
+    verify(logRepository).save(argThat(log -> "Hund".equals(log.getMessage())));
+  }
+
+  @Test
+  void testAddLogCoalesced() {
+    when(logValidationService.validateMessage(anyString())).thenReturn(customLogMessageDto.get(1));
+    when(userValidationService.checkIfActorExists(anyString(), anyString())).thenReturn(users.get(0));
+    when(logIngestFilter.accept(any())).thenReturn(LogIngestDecision.COALESCED);
+
+    assertEquals("Message \"Banane\" counted as repetition of an identical WARNING log!",
+            systemUnderTest.addLog(logRequestDtos.get(0)));
+    verify(logRepository, never()).save(any());
+    verifyNoInteractions(logChangeNotifier);
+  }
+
+  @Test
+  void testAddLogsSampledOut() {
+    when(logValidationService.validateMessage(anyString()))
+        .thenAnswer(invocation -> LogMessageDto.builder().message(invocation.getArgument(0)).returnMessage("").build());
+    when(userValidationService.checkIfActorExists("Hans", ErrorMessages.USER_NOT_ALLOWED)).thenReturn(users.get(0));
+    when(logIngestFilter.accept(any())).thenReturn(LogIngestDecision.SAMPLED_OUT, LogIngestDecision.STORE);
+
+    LogBatchResponseDto response = systemUnderTest.addLogs(List.of(
+        AddLogRequestDto.builder().severity("TRACE").message("Erster").user("Hans").build(),
+        AddLogRequestDto.builder().severity("TRACE").message("Zweiter").user("Hans").build()));
+
+    assertEquals(1, response.getCreated());
+    assertEquals(0, response.getRejected());
+    assertEquals(new LogBatchItemDto(0, null, 202, "Message \"Erster\" not saved, TRACE logs are sampled at the moment!"),
+        response.getItems().get(0));
+    verify(logBatchInserter).insert(argThat(logs -> logs.size() == 1 && "Zweiter".equals(logs.get(0).getMessage())));
+  }
+
+  @Test
+  void testAddLogAsync() {
+    when(logValidationService.validateMessage(anyString())).thenReturn(customLogMessageDto.get(1));
+    when(userValidationService.checkIfActorExists(anyString(), anyString())).thenReturn(users.get(0));
+    when(asyncLogWriter.isEnabled()).thenReturn(true);
+    assertEquals("Message \"Banane\" saved as WARNING!",
+            systemUnderTest.addLog(logRequestDtos.get(0)));
+    verify(asyncLogWriter).submit(any());
+    verify(logRepository, never()).save(any());
+  }
+
+  @Test
+  void testAddLogs() {
+    User hans = users.get(0);
+    when(logValidationService.validateMessage(anyString()))
+        .thenAnswer(invocation -> LogMessageDto.builder().message(invocation.getArgument(0)).returnMessage("").build());
+    doAnswer(invocation -> {
+      if ("HALLO".equals(invocation.getArgument(0))) {
+        throw new SeverityNotFoundException("HALLO");
+      }
+      return null;
+    }).when(logValidationService).validateSeverity(anyString());
+    when(userValidationService.checkIfActorExists(anyString(), anyString())).thenAnswer(invocation -> {
+      if (!"Hans".equals(invocation.getArgument(0))) {
+        throw new UserNotAllowedException(invocation.getArgument(1));
+      }
+      return hans;
+    });
+    doAnswer(invocation -> {
+      List<Log> logs = invocation.getArgument(0);
+      for (int i = 0; i < logs.size(); i++) {
+        logs.get(i).setId(10L + i);
+      }
+      return null;
+    }).when(logBatchInserter).insert(any());
+
+    LogBatchResponseDto response = systemUnderTest.addLogs(List.of(
+        AddLogRequestDto.builder().severity("info").message("Erster").user("Hans").build(),
+        AddLogRequestDto.builder().severity("hallo").message("Falsch").user("Hans").build(),
+        AddLogRequestDto.builder().severity("WARNING").message("Fremd").user("Petra").build(),
+        AddLogRequestDto.builder().severity("WARNING").message("Zweiter").user("Hans").build(),
+        AddLogRequestDto.builder().severity("WARNING").message("Nochmal fremd").user("Petra").build()));
+
+    assertEquals(2, response.getCreated());
+    assertEquals(3, response.getRejected());
+    assertEquals(List.of(
+        new LogBatchItemDto(0, 10L, 201, "Message \"Erster\" saved as INFO!"),
+        new LogBatchItemDto(1, null, 400, new SeverityNotFoundException("HALLO").getMessage()),
+        new LogBatchItemDto(2, null, 403, ErrorMessages.USER_NOT_ALLOWED),
+        new LogBatchItemDto(3, 11L, 201, "Message \"Zweiter\" saved as WARNING!"),
+        new LogBatchItemDto(4, null, 403, ErrorMessages.USER_NOT_ALLOWED)), response.getItems());
+    // every actor is looked up once per batch through the actor cache, an unknown one as well
+    verify(userValidationService).checkIfActorExists("Hans", ErrorMessages.USER_NOT_ALLOWED);
+    verify(userValidationService).checkIfActorExists("Petra", ErrorMessages.USER_NOT_ALLOWED);
+    verify(userRepository, never()).findUserByName(anyString());
+    verify(logBatchInserter).insert(argThat(logs -> logs.size() == 2 && logs.get(0).getUser() == hans));
+    verify(logChangeNotifier).logsAdded(argThat(logs -> logs.size() == 2));
+    verifyNoInteractions(logRepository);
+  }
+
+  @Test
+  void testAddLogsWithoutValidLogs() {
+    doThrow(new ParameterNotPresentException()).when(logValidationService).checkIfAnyEntriesAreNull(any(AddLogRequestDto.class));
+    LogBatchResponseDto response = systemUnderTest.addLogs(
+        List.of(AddLogRequestDto.builder().severity("INFO").message("Test").build()));
+    assertEquals(0, response.getCreated());
+    assertEquals(400, response.getItems().get(0).getStatus());
+    verifyNoInteractions(logBatchInserter, logChangeNotifier);
+  }
+
+  @Test
+  void testSegmentStoreBackend() {
+    when(logSegmentStore.isEnabled()).thenReturn(true);
+    when(logValidationService.validateMessage(anyString())).thenReturn(customLogMessageDto.get(1));
+    when(userValidationService.checkIfActorExists(anyString(), anyString())).thenReturn(users.get(0));
+
+    systemUnderTest.addLog(logRequestDtos.get(0));
+    systemUnderTest.getLogs(GetLogsRequestDto.builder().severity("WARNING").build());
+    systemUnderTest.searchLogsByID(3L);
+
+    verify(logSegmentStore).append(argThat(logs -> logs.size() == 1));
+    verify(logSegmentStore).findLogDTOs(LogFilter.builder().severity("WARNING").build(),
+            PageRequest.of(0, LogService.DEFAULT_PAGE_SIZE + 1));
+    verify(logSegmentStore).findById(3);
+    verify(logChangeNotifier).logsWritten(any());
+    verifyNoInteractions(logRepository, asyncLogWriter);
   }
 
   @Test
   void testSearchLogsByID() {
-    systemUnderTest.searchLogsByID(1);
-    verify(logRepository).findById(1);
+    systemUnderTest.searchLogsByID(1L);
+    verify(logRepository).findById(1L);
   }
 
   @Test
   void testDeleteById() {
-    assertEquals(String.format(InfoMessages.ENTRY_DELETED_ID, 2), systemUnderTest.deleteById(2));
-    verify(logRepository).deleteById(2);
+    Log log = Log.builder().id(2L).message("Test").build();
+    when(logRepository.findById(2L)).thenReturn(Optional.of(log));
+    assertEquals(String.format(InfoMessages.ENTRY_DELETED_ID, 2), systemUnderTest.deleteById(2L));
+    verify(logRepository).deleteById(2L);
+    verify(logChangeNotifier).logsDeleted(List.of(log));
   }
 
   @Test
   void testDeleteBySeverity() {
-    List<Log> logs = new ArrayList<>();
-    logs.add(
-        Log.builder()
-            .timestamp(LocalDateTime.of(2020, Month.JANUARY, 25, 17, 0, 0))
-            .id(1)
-            .severity("INFO")
-            .message("Pizza")
-            .build());
+    when(logRepository.findSummariesBySeverity(anyString(), anyLong(), any()))
+        .thenReturn(List.of(summary(1L, "Pizza"), summary(2L, "Haus")));
+    when(logRepository.deleteBySeverityInIdRange("INFO", 1L, 2L)).thenReturn(2);
+    assertEquals(ENTRIES_DELETED, systemUnderTest.deleteBySeverity("INFO"));
+    verify(logRepository).findSummariesBySeverity("INFO", 0L, PageRequest.of(0, LogService.DELETE_CHUNK_SIZE));
+    verify(logChangeNotifier).logsDeleted(argThat(logs -> logs.size() == 2 && logs.get(1).getMessage().equals("Haus")));
+  }
 
-    logs.add(
-        Log.builder()
-            .timestamp(LocalDateTime.of(2021, Month.JANUARY, 21, 17, 0, 0))
-            .id(2)
-            .severity("INFO")
-            .message("Haus")
-            .build());
+  @Test
+  void testDeleteBySeverityInChunks() {
+    List<LogRepository.LogSummary> firstChunk = new ArrayList<>();
+    for (long id = 1; id <= LogService.DELETE_CHUNK_SIZE; id++) {
+      firstChunk.add(summary(id, "Test"));
+    }
+    long lastId = LogService.DELETE_CHUNK_SIZE + 1;
+    when(logRepository.findSummariesBySeverity(anyString(), anyLong(), any()))
+        .thenReturn(firstChunk)
+        .thenReturn(List.of(summary(lastId, "Test")));
+    when(logRepository.deleteBySeverityInIdRange("INFO", 1L, (long) LogService.DELETE_CHUNK_SIZE))
+        .thenReturn(LogService.DELETE_CHUNK_SIZE);
+    when(logRepository.deleteBySeverityInIdRange("INFO", lastId, lastId)).thenReturn(1);
 
-    when(logRepository.deleteBySeverity(Mockito.anyString())).thenReturn(logs);
-    assertEquals(ENTRIES_DELETED, systemUnderTest.deleteBySeverity("INFO"));
-    verify(logRepository).deleteBySeverity("INFO");
+    String returnMessage = systemUnderTest.deleteBySeverity("INFO");
+
+    assertTrue(returnMessage.startsWith(lastId + " entries were deleted from database, among them the ID(s) 1, 2,"));
+    assertTrue(returnMessage.endsWith(", " + LogService.DELETED_ID_SAMPLE_SIZE + "."));
+    verify(logRepository).findSummariesBySeverity(
+        "INFO", (long) LogService.DELETE_CHUNK_SIZE, PageRequest.of(0, LogService.DELETE_CHUNK_SIZE));
+    verify(logChangeNotifier, times(2)).logsDeleted(any());
   }
 
   @Test
   void testNoEntriesFound() {
     assertEquals(ErrorMessages.NO_ENTRIES_FOUND, systemUnderTest.deleteBySeverity("INFO"));
-    verify(logRepository).deleteBySeverity("INFO");
+    verify(logRepository, never()).deleteBySeverityInIdRange(any(), any(), any());
+    verifyNoInteractions(logChangeNotifier);
   }
 
   @Test
   void testDeleteAll() {
     systemUnderTest.deleteAll();
     verify(logRepository).deleteAll();
+    verify(logChangeNotifier).allLogsDeleted();
+  }
+
+  @Test
+  void testDeletesWithSegmentStoreBackend() {
+    when(logSegmentStore.isEnabled()).thenReturn(true);
+    assertThrows(LogsNotDeletableException.class, () -> systemUnderTest.deleteById(1L));
+    assertThrows(LogsNotDeletableException.class, () -> systemUnderTest.deleteBySeverity("INFO"));
+    assertThrows(LogsNotDeletableException.class, () -> systemUnderTest.deleteAll());
+    verifyNoInteractions(logRepository, logPartitionRouter, logChangeNotifier);
+
+    systemUnderTest.dropPartitionsBefore(LocalDate.of(2021, 3, 1));
+    verify(logPartitionRouter).dropPartitionsBefore(LocalDate.of(2021, 3, 1));
+  }
+
+  @Test
+  void testGetStats() {
+    when(userRepository.findUserByName("Peter")).thenReturn(users.get(0));
+    systemUnderTest.getStats("ERROR", "Peter", null, null, null);
+    verify(logRollupStore).getStats("ERROR", users.get(0).getId(), null, null, LogStatsResolution.HOUR);
+  }
+
+  @Test
+  void testGetStatsOfUnknownUser() {
+    assertEquals(new ArrayList<>(), systemUnderTest.getStats(null, "Unknown", null, null, LogStatsResolution.DAY));
+    verifyNoInteractions(logRollupStore);
+  }
+
+  @Test
+  void testGetInsights() {
+    LocalDateTime start = LocalDateTime.of(2020, Month.JANUARY, 1, 12, 0, 0);
+    systemUnderTest.getInsights(start, null, 5);
+    verify(logInsightsStore).getInsights(start, null, 5);
+  }
+
+  @Test
+  void testDropPartitionsBefore() {
+    LocalDate day = LocalDate.of(2021, Month.MARCH, 1);
+    when(logPartitionRouter.dropPartitionsBefore(day)).thenReturn(12);
+    assertEquals(String.format(InfoMessages.PARTITIONS_DROPPED, 12, day), systemUnderTest.dropPartitionsBefore(day));
+  }
+
+  private static LogRepository.LogSummary summary(Long id, String message) {
+    return new LogRepository.LogSummary() {
+      @Override
+      public Long getId() {
+        return id;
+      }
+
+      @Override
+      public String getMessage() {
+        return message;
+      }
+
+      @Override
+      public LogTemplate getTemplate() {
+        return null;
+      }
+
+      @Override
+      public String getMessageArg1() {
+        return null;
+      }
+
+      @Override
+      public String getMessageArg2() {
+        return null;
+      }
+
+      @Override
+      public LocalDateTime getTimestamp() {
+        return LocalDateTime.of(2021, Month.JANUARY, 1, 12, 0, 0);
+      }
+
+      @Override
+      public Integer getUserId() {
+        return null;
+      }
+
+      @Override
+      public Integer getRepeatCount() {
+        return null;
+      }
+    };
   }
 
   private List<User> addTestUser() {
@@ -14,7 +14,9 @@ import project.userFeaturePortal.model.entity.User;
 import project.userFeaturePortal.model.mapper.UserDtoMapper;
 import project.userFeaturePortal.model.repository.BookRepository;
 import project.userFeaturePortal.model.repository.UserRepository;
+import project.userFeaturePortal.service.validation.ActorCache;
 import project.userFeaturePortal.service.validation.BookValidationService;
+import project.userFeaturePortal.service.validation.UserBootstrapState;
 import project.userFeaturePortal.service.validation.UserValidationService;
 
 import java.time.LocalDate;
@@ -22,8 +24,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -57,6 +61,12 @@ class UserServiceTest {
   @Mock
   BookValidationService bookValidationService;
 
+  @Mock
+  ActorCache actorCache;
+
+  @Mock
+  UserBootstrapState userBootstrapState;
+
   List<User> users;
 
   @BeforeEach
@@ -164,23 +174,25 @@ class UserServiceTest {
 
   @Test
   void whenUserNotFoundButUserListIsEmpty_ThenReturnTrue() {
-    systemUnderTest.validateUserByName("Peter");
+    assertTrue(systemUnderTest.validateUserByName("Peter"));
     verify(userRepository).findUserByName(anyString());
+    verify(userRepository, never()).findAll();
   }
 
   @Test
   void whenUserNotFoundAndUserListIsNotEmpty_ThenReturnFalse() {
-    List<UserDto> userDtoList = addListOfDtos();
-    when(userDtoMapper.usersToUserDtos(anyList())).thenReturn(userDtoList);
-    systemUnderTest.validateUserByName("Heini");
+    when(userBootstrapState.hasUsers()).thenReturn(true);
+    assertFalse(systemUnderTest.validateUserByName("Heini"));
+    verify(userRepository, never()).findAll();
   }
 
   @Test
   void testDeleteById() {
-    when(userValidationService.checkIfNameExists(anyString(),anyBoolean(), anyString())).thenReturn(users.get(1));
+    when(userValidationService.checkIfActorExists(anyString(), anyString())).thenReturn(users.get(1));
     when(userValidationService.checkIfIdExists(1)).thenReturn(users.get(0));
     systemUnderTest.deleteById(1, "Florian");
     verify(userRepository).deleteById(1);
+    verify(actorCache).invalidate(users.get(0).getName());
     verify(logService).addLog(any());
   }
 
@@ -197,6 +209,8 @@ class UserServiceTest {
   void testDeleteAll() {
     assertEquals(InfoMessages.ALL_USERS_DELETED, systemUnderTest.deleteAll());
     verify(userRepository).deleteAll();
+    verify(actorCache).invalidateAll();
+    verify(userBootstrapState).allUsersDeleted();
   }
 
   private List<User> addTestUser() {
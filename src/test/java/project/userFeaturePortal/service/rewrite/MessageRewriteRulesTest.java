@@ -0,0 +1,83 @@
+package project.userFeaturePortal.service.rewrite;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MessageRewriteRulesTest {
+
+  @TempDir
+  Path directory;
+
+  Path rulesFile;
+  MessageRewriteProperties properties;
+
+  @BeforeEach
+  void init() {
+    rulesFile = directory.resolve("rules.json");
+    properties = new MessageRewriteProperties();
+    properties.setRulesFile(rulesFile.toString());
+  }
+
+  @Test
+  void testRulesOfFileFollowTheConfiguredOnes() throws Exception {
+    write("[{\"pattern\":\"Hans\",\"match\":\"WORD\",\"replacement\":\"X\"}]", 1);
+
+    MessageRewriteRules systemUnderTest = new MessageRewriteRules(properties);
+
+    assertEquals(2, systemUnderTest.getRules());
+    assertEquals("X", systemUnderTest.rewrite("Hans").getMessage());
+    assertEquals("Hund", systemUnderTest.rewrite("Katze").getMessage());
+  }
+
+  @Test
+  void testChangedFileIsReloaded() throws Exception {
+    properties.setRules(List.of());
+    MessageRewriteRules systemUnderTest = new MessageRewriteRules(properties);
+    assertEquals("Hans", systemUnderTest.rewrite("Hans").getMessage());
+
+    write("[{\"pattern\":\"Hans\",\"replacement\":\"X\"}]", 1);
+    systemUnderTest.reloadIfChanged();
+    assertEquals("X", systemUnderTest.rewrite("Hans").getMessage());
+
+    write("[{\"pattern\":\"Hans\",\"replacement\":\"Y\"}]", 2);
+    systemUnderTest.reloadIfChanged();
+    assertEquals("Y", systemUnderTest.rewrite("Hans").getMessage());
+  }
+
+  @Test
+  void testBrokenFileKeepsPreviousRules() throws Exception {
+    write("[{\"pattern\":\"Hans\",\"replacement\":\"X\"}]", 1);
+    MessageRewriteRules systemUnderTest = new MessageRewriteRules(properties);
+
+    write("[{\"pattern\":\"(\",\"match\":\"REGEX\"}]", 2);
+    systemUnderTest.reloadIfChanged();
+    assertEquals("X", systemUnderTest.rewrite("Hans").getMessage());
+
+    write("[{\"pattern\":", 3);
+    systemUnderTest.reloadIfChanged();
+    assertEquals("X", systemUnderTest.rewrite("Hans").getMessage());
+  }
+
+  @Test
+  void testBrokenFileFailsStart() throws Exception {
+    write("[{\"pattern\":\"\"}]", 1);
+
+    assertThrows(IllegalArgumentException.class, () -> new MessageRewriteRules(properties));
+  }
+
+  // the modification time is set explicitly, the file system may only store whole seconds
+  private void write(String rules, int version) throws Exception {
+    Files.writeString(rulesFile, rules);
+    Files.setLastModifiedTime(rulesFile, FileTime.from(Instant.ofEpochSecond(1_600_000_000L + version)));
+  }
+}
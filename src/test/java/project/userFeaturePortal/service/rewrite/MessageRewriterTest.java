@@ -0,0 +1,118 @@
+package project.userFeaturePortal.service.rewrite;
+
+import org.junit.jupiter.api.Test;
+import project.userFeaturePortal.common.enums.MessageRewriteMatch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MessageRewriterTest {
+
+  @Test
+  void testAhoCorasickFindsOverlappingPatterns() {
+    AhoCorasick systemUnderTest = AhoCorasick.of(List.of("he", "she", "his", "hers"), false);
+    List<String> matches = new ArrayList<>();
+
+    systemUnderTest.scan("ushers", (pattern, start, end) -> matches.add(pattern + ":" + start + "-" + end));
+
+    assertEquals(List.of("1:1-4", "0:2-4", "3:2-6"), matches);
+  }
+
+  @Test
+  void testLiteralsAreReplacedAnywhere() {
+    MessageRewriter systemUnderTest = MessageRewriter.compile(List.of(
+        rule("Passwort").replacement("[entfernt]").build(),
+        rule("geheim").build()));
+
+    MessageRewriter.Result result = systemUnderTest.rewrite("Passwort von Hans ist geheim, Passwort123");
+
+    assertEquals("[entfernt] von Hans ist ******, [entfernt]123", result.getMessage());
+    assertEquals(2, result.getAppliedRules().size());
+  }
+
+  @Test
+  void testWordAndMessageMatches() {
+    MessageRewriter systemUnderTest = MessageRewriter.compile(List.of(
+        rule("Hans").match(MessageRewriteMatch.WORD).replacement("X").build(),
+        rule("Katze").match(MessageRewriteMatch.MESSAGE).replacement("Hund").build()));
+
+    assertEquals("X und Hansi", systemUnderTest.rewrite("Hans und Hansi").getMessage());
+    assertEquals("Hund", systemUnderTest.rewrite("Katze").getMessage());
+    assertEquals("Katze schläft", systemUnderTest.rewrite("Katze schläft").getMessage());
+  }
+
+  @Test
+  void testCaseIsOnlyIgnoredIfConfigured() {
+    MessageRewriter systemUnderTest = MessageRewriter.compile(List.of(
+        rule("hans").ignoreCase(true).replacement("X").build(),
+        rule("peter").replacement("Y").build()));
+
+    assertEquals("X, X und Peter", systemUnderTest.rewrite("Hans, HANS und Peter").getMessage());
+  }
+
+  @Test
+  void testLeftmostLongestMatchWins() {
+    MessageRewriter systemUnderTest = MessageRewriter.compile(List.of(
+        rule("Harry").replacement("A").build(),
+        rule("Harry Potter").replacement("B").build(),
+        rule("Potter Band").replacement("C").build()));
+
+    MessageRewriter.Result result = systemUnderTest.rewrite("Harry Potter Band 2");
+
+    assertEquals("B Band 2", result.getMessage());
+    assertEquals(1, result.getAppliedRules().size());
+  }
+
+  @Test
+  void testExpressionsRunOnlyAfterTheirPrefilter() {
+    MessageRewriteRule iban = rule("DE\\d{20}").match(MessageRewriteMatch.REGEX).prefilter("DE").build();
+    MessageRewriteRule mail = rule("[\\w.]+@[\\w.]+").match(MessageRewriteMatch.REGEX).replacement("<mail>").build();
+    MessageRewriter systemUnderTest = MessageRewriter.compile(List.of(iban, mail));
+
+    MessageRewriter.Result result = systemUnderTest.rewrite("IBAN DE12345678901234567890 von hans@test.de");
+
+    assertEquals("IBAN ********************** von <mail>", result.getMessage());
+    assertEquals(List.of(iban, mail), result.getAppliedRules());
+  }
+
+  @Test
+  void testUnchangedMessageIsReturned() {
+    MessageRewriter systemUnderTest = MessageRewriter.compile(List.of(rule("Katze").build()));
+    String message = "Book Harry added to user Hans.";
+
+    MessageRewriter.Result result = systemUnderTest.rewrite(message);
+
+    assertSame(message, result.getMessage());
+    assertTrue(result.getAppliedRules().isEmpty());
+  }
+
+  @Test
+  void testInvalidRulesAreRejected() {
+    assertThrows(IllegalArgumentException.class, () -> MessageRewriter.compile(List.of(rule("").build())));
+    assertThrows(IllegalArgumentException.class, () -> MessageRewriter.compile(List.of(
+        rule("(").match(MessageRewriteMatch.REGEX).build())));
+  }
+
+  @Test
+  void testTenThousandRules() {
+    List<MessageRewriteRule> rules = new ArrayList<>();
+    for (int i = 0; i < 10_000; i++) {
+      rules.add(rule("Kunde" + i).match(MessageRewriteMatch.WORD).replacement("Kunde").build());
+    }
+    MessageRewriter systemUnderTest = MessageRewriter.compile(rules);
+
+    MessageRewriter.Result result = systemUnderTest.rewrite("Kunde42 und Kunde9999 bestellten, Kunde10000 nicht.");
+
+    assertEquals("Kunde und Kunde bestellten, Kunde10000 nicht.", result.getMessage());
+    assertEquals(List.of(rules.get(42), rules.get(9999)), result.getAppliedRules());
+  }
+
+  private static MessageRewriteRule.MessageRewriteRuleBuilder rule(String pattern) {
+    return MessageRewriteRule.builder().pattern(pattern);
+  }
+}
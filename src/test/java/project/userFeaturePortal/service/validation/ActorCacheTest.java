@@ -0,0 +1,102 @@
+package project.userFeaturePortal.service.validation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+import java.util.OptionalInt;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ActorCacheTest {
+
+  AtomicLong now = new AtomicLong();
+  SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  ActorCacheProperties properties;
+  ActorCache systemUnderTest;
+
+  @BeforeEach
+  void init() {
+    properties = new ActorCacheProperties();
+    properties.setMaxSize(2);
+    properties.setTtl(Duration.ofSeconds(10));
+    systemUnderTest = new ActorCache(properties, meterRegistry, now::get);
+  }
+
+  @Test
+  void testHitsAndMissesAreCounted() {
+    assertEquals(OptionalInt.empty(), systemUnderTest.get("Peter"));
+    systemUnderTest.put("Peter", 1);
+
+    assertEquals(OptionalInt.of(1), systemUnderTest.get("Peter"));
+    assertEquals(OptionalInt.of(1), systemUnderTest.get("Peter"));
+    assertEquals(2.0, meterRegistry.counter("user.actor-cache.hits").count());
+    assertEquals(1.0, meterRegistry.counter("user.actor-cache.misses").count());
+  }
+
+  @Test
+  void testEntryExpires() {
+    systemUnderTest.put("Peter", 1);
+    now.addAndGet(Duration.ofSeconds(9).toNanos());
+    assertEquals(OptionalInt.of(1), systemUnderTest.get("Peter"));
+
+    now.addAndGet(Duration.ofSeconds(1).toNanos());
+    assertEquals(OptionalInt.empty(), systemUnderTest.get("Peter"));
+  }
+
+  @Test
+  void testFullCacheOnlyReplacesExpiredEntries() {
+    systemUnderTest.put("Peter", 1);
+    systemUnderTest.put("Hans", 2);
+    systemUnderTest.put("Florian", 3);
+    assertEquals(OptionalInt.empty(), systemUnderTest.get("Florian"));
+
+    now.addAndGet(Duration.ofSeconds(10).toNanos());
+    systemUnderTest.put("Florian", 3);
+    assertEquals(OptionalInt.of(3), systemUnderTest.get("Florian"));
+    assertEquals(1, systemUnderTest.size());
+  }
+
+  @Test
+  void testInvalidate() {
+    systemUnderTest.put("Peter", 1);
+    systemUnderTest.put("Hans", 2);
+
+    systemUnderTest.invalidate("Peter");
+    assertEquals(OptionalInt.empty(), systemUnderTest.get("Peter"));
+    assertEquals(OptionalInt.of(2), systemUnderTest.get("Hans"));
+
+    systemUnderTest.invalidateAll();
+    assertEquals(OptionalInt.empty(), systemUnderTest.get("Hans"));
+  }
+
+  @Test
+  void testActorIsCachedAfterCommitOnly() {
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      systemUnderTest.put("Peter", 1);
+      assertEquals(OptionalInt.empty(), systemUnderTest.get("Peter"));
+      TransactionSynchronizationUtils.invokeAfterCompletion(
+          TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_ROLLED_BACK);
+      assertEquals(0, systemUnderTest.size());
+
+      systemUnderTest.put("Hans", 2);
+      TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+      assertEquals(OptionalInt.of(2), systemUnderTest.get("Hans"));
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void testDisabledCache() {
+    properties.setEnabled(false);
+    systemUnderTest.put("Peter", 1);
+    assertEquals(OptionalInt.empty(), systemUnderTest.get("Peter"));
+  }
+}
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import project.userFeaturePortal.common.dto.log.AddLogRequestDto;
 import project.userFeaturePortal.common.dto.log.LogMessageDto;
@@ -14,6 +15,8 @@ import project.userFeaturePortal.common.message.InfoMessages;
 import project.userFeaturePortal.exception.ParameterNotPresentException;
 import project.userFeaturePortal.exception.SeverityNotFoundException;
 import project.userFeaturePortal.model.repository.UserRepository;
+import project.userFeaturePortal.service.rewrite.MessageRewriteProperties;
+import project.userFeaturePortal.service.rewrite.MessageRewriteRules;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -30,6 +33,9 @@ class LogValidationServiceTest {
   @Mock
   UserRepository userRepository;
 
+  @Spy
+  MessageRewriteRules messageRewriteRules = new MessageRewriteRules(new MessageRewriteProperties());
+
   @Test
   void testEntryIsNull() {
     LogRequestDto testDto =
@@ -95,4 +101,11 @@ class LogValidationServiceTest {
         LogMessageDto.builder().message("Apfel").returnMessage("").build();
     Assertions.assertEquals(customLogMessageDto, systemUnderTest.validateMessage("Apfel"));
   }
+
+  @Test
+  void validateMessageIsKatzeInSentence() {
+    LogMessageDto customLogMessageDto =
+        LogMessageDto.builder().message("Die Katze schläft").returnMessage("").build();
+    Assertions.assertEquals(customLogMessageDto, systemUnderTest.validateMessage("Die Katze schläft"));
+  }
 }
@@ -0,0 +1,165 @@
+package project.userFeaturePortal.service.validation;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import project.userFeaturePortal.model.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserBootstrapStateTest {
+
+  UserRepository userRepository;
+  UserBootstrapState systemUnderTest;
+
+  @BeforeEach
+  void init() {
+    userRepository = mock(UserRepository.class);
+    systemUnderTest = new UserBootstrapState(userRepository,
+        new StaticListableBeanFactory(Map.of()).getBeanProvider(MeterRegistry.class));
+    TransactionSynchronizationManager.initSynchronization();
+  }
+
+  @AfterEach
+  void cleanUp() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void testFirstUserIsClaimedOnce() {
+    assertTrue(systemUnderTest.claimFirstUser());
+    // a concurrent create has to wait for the first user
+    assertFalse(systemUnderTest.claimFirstUser());
+    assertFalse(systemUnderTest.recheckAndClaimFirstUser());
+
+    systemUnderTest.userAdded();
+    complete(TransactionSynchronization.STATUS_COMMITTED);
+
+    assertFalse(systemUnderTest.claimFirstUser());
+    assertTrue(systemUnderTest.hasUsers());
+    verify(userRepository, times(1)).existsByIdNotNull();
+  }
+
+  @Test
+  void testClaimEndsWithRollback() {
+    assertTrue(systemUnderTest.claimFirstUser());
+    systemUnderTest.userAdded();
+    complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+    TransactionSynchronizationManager.initSynchronization();
+    assertTrue(systemUnderTest.claimFirstUser());
+  }
+
+  @Test
+  void testKnownUsersAreNotQueried() {
+    when(userRepository.existsByIdNotNull()).thenReturn(true);
+    assertTrue(systemUnderTest.hasUsers());
+    assertTrue(systemUnderTest.hasUsers());
+    assertFalse(systemUnderTest.claimFirstUser());
+    verify(userRepository, times(1)).existsByIdNotNull();
+  }
+
+  @Test
+  void testRecheckKeepsKnownUsers() {
+    List<Boolean> knownDuringRecheck = new ArrayList<>();
+    when(userRepository.existsByIdNotNull()).thenReturn(true).thenAnswer(invocation -> {
+      // a concurrent check still trusts the users without a query of its own
+      knownDuringRecheck.add(systemUnderTest.hasUsers());
+      return true;
+    });
+    assertTrue(systemUnderTest.hasUsers());
+
+    assertFalse(systemUnderTest.recheckAndClaimFirstUser());
+    assertEquals(List.of(true), knownDuringRecheck);
+    assertFalse(systemUnderTest.claimFirstUser());
+    assertTrue(systemUnderTest.hasUsers());
+    verify(userRepository, times(2)).existsByIdNotNull();
+  }
+
+  @Test
+  void testRecheckOfEmptyTableClaimsFirstUser() {
+    when(userRepository.existsByIdNotNull()).thenReturn(true, false);
+    assertTrue(systemUnderTest.hasUsers());
+
+    // deleted past the state, e.g. directly in the database
+    assertTrue(systemUnderTest.recheckAndClaimFirstUser());
+    complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+    TransactionSynchronizationManager.initSynchronization();
+    assertTrue(systemUnderTest.claimFirstUser());
+  }
+
+  @Test
+  void testDeletedUsersAreQueriedAgain() {
+    when(userRepository.existsByIdNotNull()).thenReturn(true, false);
+    assertTrue(systemUnderTest.hasUsers());
+
+    systemUnderTest.userDeleted();
+    complete(TransactionSynchronization.STATUS_COMMITTED);
+
+    assertFalse(systemUnderTest.hasUsers());
+    verify(userRepository, times(2)).existsByIdNotNull();
+  }
+
+  @Test
+  void testDeletingOneOfSeveralUsersKeepsState() {
+    when(userRepository.count()).thenReturn(2L);
+    when(userRepository.existsByIdNotNull()).thenReturn(true);
+    systemUnderTest.init();
+    assertTrue(systemUnderTest.hasUsers());
+
+    systemUnderTest.userDeleted();
+    complete(TransactionSynchronization.STATUS_COMMITTED);
+    assertTrue(systemUnderTest.hasUsers());
+
+    TransactionSynchronizationManager.initSynchronization();
+    systemUnderTest.userDeleted();
+    complete(TransactionSynchronization.STATUS_COMMITTED);
+    when(userRepository.existsByIdNotNull()).thenReturn(false);
+    assertFalse(systemUnderTest.hasUsers());
+    verify(userRepository, times(2)).existsByIdNotNull();
+  }
+
+  @Test
+  void testUserCountIsMaintained() {
+    when(userRepository.count()).thenReturn(2L);
+    assertEquals(2, systemUnderTest.getUserCount());
+
+    systemUnderTest.userAdded();
+    systemUnderTest.userDeleted();
+    systemUnderTest.userDeleted();
+    complete(TransactionSynchronization.STATUS_COMMITTED);
+    assertEquals(1, systemUnderTest.getUserCount());
+
+    TransactionSynchronizationManager.initSynchronization();
+    systemUnderTest.allUsersDeleted();
+    complete(TransactionSynchronization.STATUS_COMMITTED);
+    assertEquals(0, systemUnderTest.getUserCount());
+    verify(userRepository, times(1)).count();
+  }
+
+  private static void complete(int status) {
+    List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+    TransactionSynchronizationManager.clearSynchronization();
+    if (status == TransactionSynchronization.STATUS_COMMITTED) {
+      TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+    }
+    TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, status);
+  }
+}
@@ -13,21 +13,26 @@ import project.userFeaturePortal.exception.FirstUserUnequalActorException;
 import project.userFeaturePortal.exception.ParameterNotPresentException;
 import project.userFeaturePortal.exception.UserNotAllowedException;
 import project.userFeaturePortal.exception.UserNotFoundException;
-import project.userFeaturePortal.model.entity.Log;
 import project.userFeaturePortal.model.entity.User;
+import project.userFeaturePortal.model.repository.LogFilter;
 import project.userFeaturePortal.model.repository.LogRepository;
 import project.userFeaturePortal.model.repository.UserRepository;
+import project.userFeaturePortal.service.log.LogArchiveStore;
+import project.userFeaturePortal.service.log.LogSegmentStore;
 import project.userFeaturePortal.service.model.LogService;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalInt;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -41,6 +46,14 @@ class UserValidationServiceTest {
 
   @Mock LogRepository logRepository;
 
+  @Mock LogSegmentStore logSegmentStore;
+
+  @Mock LogArchiveStore logArchiveStore;
+
+  @Mock ActorCache actorCache;
+
+  @Mock UserBootstrapState userBootstrapState;
+
   List<User> users;
 
   @BeforeEach
@@ -79,9 +92,23 @@ class UserValidationServiceTest {
 
   @Test
   void whenUsersListIsNotEmptyAndActorIsNotPresent_ThenThrowException() {
-    when(userRepository.findAll()).thenReturn(users);
     assertThrows(
         UserNotAllowedException.class, () -> systemUnderTest.validateActor("Hans", "Hans"));
+    verify(userBootstrapState).recheckAndClaimFirstUser();
+  }
+
+  @Test
+  void whenUsersListIsNotEmptyAndActorIsPresent_ThenUsersAreNotLoaded() {
+    when(userRepository.findUserByName("Peter")).thenReturn(users.get(0));
+    systemUnderTest.validateActor("Hans", "Peter");
+    verify(userRepository, never()).findAll();
+    verify(userBootstrapState, never()).recheckAndClaimFirstUser();
+  }
+
+  @Test
+  void whenUsersWereDeletedUnnoticed_ThenFirstUserIsAccepted() {
+    when(userBootstrapState.recheckAndClaimFirstUser()).thenReturn(true);
+    systemUnderTest.validateActor("Hans", "Hans");
   }
 
   @Test
@@ -92,6 +119,7 @@ class UserValidationServiceTest {
 
   @Test
   void whenUserToCreateNotEqualActor_ThenThrowFirstUserUnequalActorException() {
+    when(userBootstrapState.claimFirstUser()).thenReturn(true);
     assertThrows(
         FirstUserUnequalActorException.class, () -> systemUnderTest.validateActor("Peter", "Hans"));
   }
@@ -104,17 +132,27 @@ class UserValidationServiceTest {
 
   @Test
   void whenUserIsLinkedInALog_ThrowException() {
-    List<Log> testLogs = new ArrayList<>();
-    testLogs.add(
-        Log.builder()
-            .id(1)
-            .user(users.get(0))
-            .severity("INFO")
-            .message("Test")
-            .timestamp(LocalDateTime.now())
-            .build());
     when(userRepository.findUserByName(anyString())).thenReturn(users.get(0));
-    when(logRepository.findByUser(users.get(0))).thenReturn(testLogs);
+    when(logRepository.existsLogs(LogFilter.builder().user(users.get(0)).build())).thenReturn(true);
+    assertThrows(RuntimeException.class, () ->
+            systemUnderTest.validateUserToDelete("Peter","Florian"));
+  }
+
+  @Test
+  void whenUserIsLinkedInASegmentLog_ThrowException() {
+    when(userRepository.findUserByName(anyString())).thenReturn(users.get(0));
+    when(logSegmentStore.isEnabled()).thenReturn(true);
+    when(logSegmentStore.existsLogs(LogFilter.builder().user(users.get(0)).build())).thenReturn(true);
+    assertThrows(RuntimeException.class, () ->
+            systemUnderTest.validateUserToDelete("Peter","Florian"));
+    verify(logRepository, never()).existsLogs(any());
+  }
+
+  @Test
+  void whenUserIsLinkedInAnArchivedLog_ThrowException() {
+    when(userRepository.findUserByName(anyString())).thenReturn(users.get(0));
+    when(logArchiveStore.isEnabled()).thenReturn(true);
+    when(logArchiveStore.existsLogs(LogFilter.builder().user(users.get(0)).build())).thenReturn(true);
     assertThrows(RuntimeException.class, () ->
             systemUnderTest.validateUserToDelete("Peter","Florian"));
   }
@@ -162,17 +200,32 @@ class UserValidationServiceTest {
         String.format(ErrorMessages.USER_NOT_ALLOWED_CREATE_USER, "Heinrich"), ex.getMessage());
   }
 
+  @Test
+  void testCachedActorIsNotLookedUp() {
+    when(actorCache.get("Peter")).thenReturn(OptionalInt.of(1));
+    User actor = systemUnderTest.checkIfActorExists("Peter", ErrorMessages.USER_NOT_ALLOWED);
+    assertEquals(1, actor.getId());
+    assertEquals("Peter", actor.getName());
+    verify(userRepository, never()).findUserByName(anyString());
+  }
+
+  @Test
+  void testActorIsCachedAfterLookup() {
+    when(userRepository.findUserByName("Peter")).thenReturn(users.get(0));
+    assertEquals(users.get(0), systemUnderTest.checkIfActorExists("Peter", ErrorMessages.USER_NOT_ALLOWED));
+    verify(actorCache).put("Peter", users.get(0).getId());
+  }
+
+  @Test
+  void testUnknownActorIsNotCached() {
+    assertThrows(UserNotAllowedException.class,
+        () -> systemUnderTest.checkIfActorExists("Heinrich", ErrorMessages.USER_NOT_ALLOWED));
+    verify(actorCache, never()).put(anyString(), any());
+  }
+
   @Test
   void testUsersAreReferenced() {
-    List<Log> logs = new ArrayList<>();
-    logs.add(
-        Log.builder()
-            .user(users.get(0))
-            .timestamp(LocalDateTime.of(2000, 12, 12, 12, 12, 12))
-            .message("Test")
-            .severity("INFO")
-            .build());
-    when(logRepository.findAll()).thenReturn(logs);
+    when(logRepository.existsLogs(LogFilter.builder().build())).thenReturn(true);
     RuntimeException ex =
         assertThrows(RuntimeException.class, () -> systemUnderTest.checkIfUsersAreReferenced());
     assertEquals(ErrorMessages.USERS_REFERENCED, ex.getMessage());
@@ -180,8 +233,15 @@ class UserValidationServiceTest {
 
   @Test
   void testUsersAreNotReferenced() {
-    when(logRepository.findAll()).thenReturn(new ArrayList<>());
     systemUnderTest.checkIfUsersAreReferenced();
+    verify(logRepository).existsLogs(LogFilter.builder().build());
+  }
+
+  @Test
+  void testUsersAreReferencedByArchivedLogs() {
+    when(logArchiveStore.isEnabled()).thenReturn(true);
+    when(logArchiveStore.existsLogs(LogFilter.builder().build())).thenReturn(true);
+    assertThrows(RuntimeException.class, () -> systemUnderTest.checkIfUsersAreReferenced());
   }
 
   @Test